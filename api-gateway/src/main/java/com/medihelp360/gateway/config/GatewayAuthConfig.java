@@ -0,0 +1,56 @@
+package com.medihelp360.gateway.config;
+
+import com.medihelp360.gateway.security.GatewayTokenVerifier;
+import com.medihelp360.gateway.security.JwtKeySource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactorLoadBalancerExchangeFilterFunction;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Verificación de JWT en el borde: claves (secreto HS256 y JWKS de user-management) y verificador.
+ */
+@Configuration
+public class GatewayAuthConfig {
+
+    @Bean
+    public JwtKeySource jwtKeySource(@Value("${gateway.auth.jwt.secret:}") String secret,
+                                     @Value("${gateway.auth.jwt.algorithm:HS256}") String algorithm,
+                                     @Value("${gateway.auth.jwt.accept-hmac:false}") boolean acceptHmac,
+                                     @Value("${gateway.auth.jwt.jwks-uri:}") String jwksUri,
+                                     @Value("${gateway.auth.jwt.jwks-load-balanced:true}") boolean jwksLoadBalanced,
+                                     @Value("${gateway.auth.jwt.jwks-min-refresh-interval:30s}") Duration minRefreshInterval,
+                                     ObjectProvider<ReactorLoadBalancerExchangeFilterFunction> loadBalancer) {
+        // Como JwtKeyManager en user-management: HS256 si es el algoritmo de firma y, con ES256/EdDSA,
+        // solo durante la migración (accept-hmac)
+        boolean hmac = "HS256".equals(algorithm) || acceptHmac;
+        String hmacSecret = hmac && StringUtils.hasText(secret) ? secret : null;
+        if (!StringUtils.hasText(jwksUri)) {
+            return new JwtKeySource(hmacSecret, null, minRefreshInterval, Clock.systemUTC());
+        }
+
+        // Con balanceo, jwks-uri usa el nombre del servicio en Consul (http://user-management-service/...)
+        WebClient.Builder builder = WebClient.builder();
+        if (jwksLoadBalanced) {
+            loadBalancer.ifAvailable(builder::filter);
+        }
+        WebClient webClient = builder.build();
+        return new JwtKeySource(hmacSecret,
+                () -> webClient.get().uri(jwksUri).retrieve().bodyToMono(String.class).timeout(Duration.ofSeconds(3)),
+                minRefreshInterval, Clock.systemUTC());
+    }
+
+    @Bean
+    public GatewayTokenVerifier gatewayTokenVerifier(JwtKeySource jwtKeySource,
+                                                     @Value("${gateway.auth.jwt.cache.max-size:50000}") long cacheMaxSize,
+                                                     MeterRegistry meterRegistry) {
+        return new GatewayTokenVerifier(jwtKeySource, cacheMaxSize, meterRegistry);
+    }
+}
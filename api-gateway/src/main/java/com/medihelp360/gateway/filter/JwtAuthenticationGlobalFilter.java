@@ -0,0 +1,172 @@
+package com.medihelp360.gateway.filter;
+
+import com.medihelp360.gateway.security.AuthenticatedIdentity;
+import com.medihelp360.gateway.security.GatewayTokenVerifier;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Filtro global que autentica las requests en el borde.
+ * <p>
+ * En las rutas protegidas exige un access token válido (firma y expiración, con cache de claims en
+ * {@link GatewayTokenVerifier}); sin él responde 401 sin contactar al microservicio. Si el token es
+ * válido reenvía la identidad verificada en {@code X-User-Id}, {@code X-User-Email} y
+ * {@code X-User-Roles}. Esas cabeceras se eliminan siempre de la request entrante para que un cliente
+ * no pueda suplantarlas.
+ */
+@Slf4j
+@Component
+public class JwtAuthenticationGlobalFilter implements GlobalFilter, Ordered {
+
+    public static final String USER_ID_HEADER = "X-User-Id";
+    public static final String USER_EMAIL_HEADER = "X-User-Email";
+    public static final String USER_ROLES_HEADER = "X-User-Roles";
+
+    // Antes de GatewayHeaderFilter (1) y del balanceo y enrutado
+    private static final int ORDER = 0;
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final GatewayTokenVerifier tokenVerifier;
+    private final boolean enabled;
+    private final List<PathPattern> protectedPaths;
+    private final List<PathPattern> publicPaths;
+
+    private final Counter missingTokens;
+    private final Counter invalidTokens;
+    private final Counter authenticated;
+
+    public JwtAuthenticationGlobalFilter(GatewayTokenVerifier tokenVerifier,
+                                         MeterRegistry meterRegistry,
+                                         @Value("${gateway.auth.enabled:true}") boolean enabled,
+                                         @Value("${gateway.auth.protected-paths:/auth/**,/users/**,/roles/**}") List<String> protectedPaths,
+                                         @Value("${gateway.auth.public-paths:/auth/login,/auth/register,/auth/refresh,/auth/validate}") List<String> publicPaths) {
+        this.tokenVerifier = tokenVerifier;
+        this.enabled = enabled;
+        this.protectedPaths = parse(protectedPaths);
+        this.publicPaths = parse(publicPaths);
+
+        this.missingTokens = Counter.builder("gateway.auth.requests")
+                .tag("result", "missing_token")
+                .register(meterRegistry);
+        this.invalidTokens = Counter.builder("gateway.auth.requests")
+                .tag("result", "invalid_token")
+                .register(meterRegistry);
+        this.authenticated = Counter.builder("gateway.auth.requests")
+                .tag("result", "authenticated")
+                .register(meterRegistry);
+        log.info("Edge JWT authentication {} (protected: {}, public: {})",
+                enabled ? "enabled" : "disabled", protectedPaths, publicPaths);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+
+        if (!enabled || request.getMethod() == HttpMethod.OPTIONS || !requiresAuthentication(request)) {
+            return chain.filter(withIdentity(exchange, null));
+        }
+
+        String token = bearerToken(request);
+        if (token == null) {
+            missingTokens.increment();
+            return unauthorized(exchange, "Authentication required");
+        }
+
+        return tokenVerifier.verify(token).flatMap(identity -> {
+            if (identity.isEmpty()) {
+                invalidTokens.increment();
+                return unauthorized(exchange, "Invalid or expired token");
+            }
+            authenticated.increment();
+            return chain.filter(withIdentity(exchange, identity.get()));
+        });
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    private boolean requiresAuthentication(ServerHttpRequest request) {
+        PathContainer path = request.getPath().pathWithinApplication();
+        return protectedPaths.stream().anyMatch(pattern -> pattern.matches(path))
+                && publicPaths.stream().noneMatch(pattern -> pattern.matches(path));
+    }
+
+    private static String bearerToken(ServerHttpRequest request) {
+        String header = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.startsWith(BEARER_PREFIX) || header.length() == BEARER_PREFIX.length()) {
+            return null;
+        }
+        return header.substring(BEARER_PREFIX.length());
+    }
+
+    /**
+     * Sustituye las cabeceras de identidad por las verificadas (o las elimina si {@code identity} es null).
+     */
+    private static ServerWebExchange withIdentity(ServerWebExchange exchange, AuthenticatedIdentity identity) {
+        HttpHeaders incoming = exchange.getRequest().getHeaders();
+        if (identity == null && !incoming.containsKey(USER_ID_HEADER)
+                && !incoming.containsKey(USER_EMAIL_HEADER) && !incoming.containsKey(USER_ROLES_HEADER)) {
+            return exchange;
+        }
+
+        ServerHttpRequest request = exchange.getRequest().mutate()
+                .headers(headers -> {
+                    headers.remove(USER_ID_HEADER);
+                    headers.remove(USER_EMAIL_HEADER);
+                    headers.remove(USER_ROLES_HEADER);
+                    if (identity != null) {
+                        headers.set(USER_ID_HEADER, identity.userId());
+                        if (identity.email() != null) {
+                            headers.set(USER_EMAIL_HEADER, identity.email());
+                        }
+                        headers.set(USER_ROLES_HEADER, String.join(",", identity.roles()));
+                    }
+                })
+                .build();
+        return exchange.mutate().request(request).build();
+    }
+
+    private static Mono<Void> unauthorized(ServerWebExchange exchange, String message) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.UNAUTHORIZED);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        response.getHeaders().set(HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+
+        byte[] body = """
+                {"error":"Unauthorized","message":"%s","status":401,"timestamp":"%s","path":"%s"}"""
+                .formatted(message, Instant.now(), exchange.getRequest().getPath().value())
+                .getBytes(StandardCharsets.UTF_8);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+
+    private static List<PathPattern> parse(List<String> patterns) {
+        return patterns.stream()
+                .map(String::trim)
+                .filter(pattern -> !pattern.isEmpty())
+                .map(PathPatternParser.defaultInstance::parse)
+                .toList();
+    }
+}
@@ -0,0 +1,10 @@
+package com.medihelp360.gateway.security;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Identidad verificada de un access token: lo que el gateway reenvía a los servicios.
+ */
+public record AuthenticatedIdentity(String userId, String email, List<String> roles, Instant expiresAt) {
+}
@@ -0,0 +1,151 @@
+package com.medihelp360.gateway.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verifica firma y expiración de los access tokens en el gateway.
+ * <p>
+ * Las identidades ya verificadas se guardan en un cache acotado, indexado por el SHA-256 del token, que
+ * expira con el {@code exp} del token: un cliente que repite su token no vuelve a pagar la verificación
+ * de la firma. Los refresh tokens se rechazan: solo sirven para {@code /auth/refresh}.
+ */
+@Slf4j
+public class GatewayTokenVerifier {
+
+    private static final HexFormat HEX = HexFormat.of();
+    private static final String TOKEN_TYPE_CLAIM = "type";
+    private static final String REFRESH_TOKEN_TYPE = "refresh";
+
+    private final JwtKeySource keySource;
+    private final JwtParser parser;
+    private final Cache<String, AuthenticatedIdentity> verifiedIdentities;
+
+    private final Timer verificationTimer;
+    private final Counter cacheHits;
+    private final Counter cacheMisses;
+    private final Counter rejectedTokens;
+
+    public GatewayTokenVerifier(JwtKeySource keySource, long cacheMaxSize, MeterRegistry meterRegistry) {
+        this.keySource = keySource;
+        this.parser = Jwts.parser()
+                .keyLocator(keySource.keyLocator())
+                .build();
+        this.verifiedIdentities = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new ExpireAtTokenExpiration())
+                .build();
+
+        this.verificationTimer = Timer.builder("gateway.auth.jwt.verification")
+                .description("Time spent verifying JWT signatures at the gateway (cache misses only)")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.cacheHits = Counter.builder("gateway.auth.jwt.cache.requests")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.cacheMisses = Counter.builder("gateway.auth.jwt.cache.requests")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        this.rejectedTokens = Counter.builder("gateway.auth.jwt.rejected")
+                .description("Tokens rejected at the gateway because of an invalid signature, format, type or expiration")
+                .register(meterRegistry);
+        Gauge.builder("gateway.auth.jwt.cache.size", verifiedIdentities, Cache::estimatedSize)
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return la identidad del token, o vacío si el token no es un access token válido
+     */
+    public Mono<Optional<AuthenticatedIdentity>> verify(String token) {
+        String cacheKey = sha256Hex(token);
+        AuthenticatedIdentity cached = verifiedIdentities.getIfPresent(cacheKey);
+        if (cached != null && cached.expiresAt().isAfter(Instant.now())) {
+            cacheHits.increment();
+            return Mono.just(Optional.of(cached));
+        }
+
+        cacheMisses.increment();
+        return Mono.fromCallable(() -> parse(token))
+                // Clave rotada en user-management: se descarga el JWKS y se reintenta una vez
+                .onErrorResume(UnknownSigningKeyException.class, e -> keySource.refresh()
+                        .flatMap(refreshed -> refreshed ? Mono.fromCallable(() -> parse(token)) : Mono.error(e)))
+                .doOnNext(identity -> identity.ifPresent(verified -> verifiedIdentities.put(cacheKey, verified)))
+                .onErrorResume(e -> e instanceof JwtException || e instanceof IllegalArgumentException, e -> {
+                    rejectedTokens.increment();
+                    log.debug("JWT rejected at the gateway: {}", e.getMessage());
+                    return Mono.just(Optional.empty());
+                });
+    }
+
+    private Optional<AuthenticatedIdentity> parse(String token) {
+        long start = System.nanoTime();
+        try {
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            Date expiration = claims.getExpiration();
+            if (expiration == null || REFRESH_TOKEN_TYPE.equals(claims.get(TOKEN_TYPE_CLAIM, String.class))) {
+                rejectedTokens.increment();
+                return Optional.empty();
+            }
+            List<?> roles = claims.get("roles", List.class);
+            return Optional.of(new AuthenticatedIdentity(
+                    claims.getSubject(),
+                    claims.get("email", String.class),
+                    roles == null ? List.of() : roles.stream().map(String::valueOf).toList(),
+                    expiration.toInstant()));
+        } finally {
+            verificationTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static String sha256Hex(String token) {
+        try {
+            return HEX.formatHex(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            // Todas las JVM deben soportar SHA-256
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Cada entrada vive exactamente hasta el {@code exp} de su token.
+     */
+    private static class ExpireAtTokenExpiration implements Expiry<String, AuthenticatedIdentity> {
+
+        @Override
+        public long expireAfterCreate(String key, AuthenticatedIdentity identity, long currentTime) {
+            long remainingMillis = identity.expiresAt().toEpochMilli() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0L, remainingMillis));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, AuthenticatedIdentity identity, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, identity, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, AuthenticatedIdentity identity, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.medihelp360.gateway.security;
+
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.security.Jwk;
+import io.jsonwebtoken.security.JwkSet;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.PublicJwk;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Claves con las que el gateway verifica los JWT de user-management.
+ * <p>
+ * Los tokens HS256 sin {@code kid} se verifican con el secreto compartido; los ES256/EdDSA con la clave
+ * pública de su {@code kid}, tomada del JWKS de user-management. El JWKS se descarga de forma perezosa
+ * cuando llega un {@code kid} desconocido (rotación de claves) y, para que un flood de tokens con
+ * {@code kid} inventados no se convierta en un flood hacia user-management, como mucho una vez por
+ * {@code minRefreshInterval}.
+ */
+@Slf4j
+public class JwtKeySource {
+
+    private static final String HS256 = "HS256";
+
+    private final SecretKey hmacKey;
+    private final Supplier<Mono<String>> jwksFetcher;
+    private final Duration minRefreshInterval;
+    private final Clock clock;
+
+    private volatile Map<String, Key> publicKeys = Map.of();
+    private Instant lastRefreshAttempt = Instant.EPOCH;
+    private Mono<Boolean> refreshInFlight;
+
+    /**
+     * @param hmacSecret         secreto compartido, o {@code null} para no aceptar tokens HS256
+     * @param jwksFetcher        descarga el JWKS como JSON, o {@code null} si no hay JWKS configurado
+     * @param minRefreshInterval tiempo mínimo entre dos descargas del JWKS
+     */
+    public JwtKeySource(String hmacSecret, Supplier<Mono<String>> jwksFetcher,
+                        Duration minRefreshInterval, Clock clock) {
+        this.hmacKey = hmacSecret != null ? Keys.hmacShaKeyFor(hmacSecret.getBytes(StandardCharsets.UTF_8)) : null;
+        this.jwksFetcher = jwksFetcher;
+        this.minRefreshInterval = minRefreshInterval;
+        this.clock = clock;
+    }
+
+    /**
+     * Localiza la clave de verificación según la cabecera del token. Un {@code kid} que no está en el
+     * último JWKS descargado produce {@link UnknownSigningKeyException} para que el llamador pueda
+     * refrescar las claves y reintentar.
+     */
+    public LocatorAdapter<Key> keyLocator() {
+        return new LocatorAdapter<>() {
+            @Override
+            protected Key locate(JwsHeader header) {
+                String keyId = header.getKeyId();
+                if (keyId != null) {
+                    Key key = publicKeys.get(keyId);
+                    if (key == null) {
+                        throw new UnknownSigningKeyException(keyId);
+                    }
+                    return key;
+                }
+                return hmacKey != null && HS256.equals(header.getAlgorithm()) ? hmacKey : null;
+            }
+        };
+    }
+
+    /**
+     * Vuelve a descargar el JWKS si no se ha intentado en los últimos {@code minRefreshInterval}.
+     * Las peticiones concurrentes comparten la misma descarga.
+     *
+     * @return {@code true} si se instaló un JWKS nuevo
+     */
+    public synchronized Mono<Boolean> refresh() {
+        if (jwksFetcher == null) {
+            return Mono.just(false);
+        }
+        if (refreshInFlight != null) {
+            return refreshInFlight;
+        }
+        Instant now = clock.instant();
+        if (now.isBefore(lastRefreshAttempt.plus(minRefreshInterval))) {
+            return Mono.just(false);
+        }
+        lastRefreshAttempt = now;
+        refreshInFlight = Mono.defer(jwksFetcher)
+                .map(this::install)
+                .onErrorResume(e -> {
+                    log.warn("Could not refresh JWKS: {}", e.getMessage());
+                    return Mono.just(false);
+                })
+                .defaultIfEmpty(false)
+                .doFinally(signal -> clearInFlight())
+                .cache();
+        return refreshInFlight;
+    }
+
+    private synchronized void clearInFlight() {
+        refreshInFlight = null;
+    }
+
+    private boolean install(String jwksJson) {
+        JwkSet jwkSet = Jwks.setParser().build().parse(jwksJson);
+        Map<String, Key> keys = new HashMap<>();
+        for (Jwk<?> jwk : jwkSet.getKeys()) {
+            if (jwk instanceof PublicJwk<?> publicJwk && jwk.getId() != null) {
+                keys.put(jwk.getId(), publicJwk.toKey());
+            }
+        }
+        publicKeys = Map.copyOf(keys);
+        log.info("Installed JWKS with {} public keys", keys.size());
+        return true;
+    }
+}
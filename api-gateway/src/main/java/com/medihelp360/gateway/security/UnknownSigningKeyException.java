@@ -0,0 +1,13 @@
+package com.medihelp360.gateway.security;
+
+import io.jsonwebtoken.JwtException;
+
+/**
+ * El token está firmado con un {@code kid} que no aparece en el JWKS conocido por el gateway.
+ */
+public class UnknownSigningKeyException extends JwtException {
+
+    public UnknownSigningKeyException(String keyId) {
+        super("Unknown JWT signing key id: " + keyId);
+    }
+}
@@ -0,0 +1,124 @@
+package com.medihelp360.gateway.filter;
+
+import com.medihelp360.gateway.ApiGatewayApplication;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Throughput del gateway ante un flood de tokens inválidos, con y sin {@link JwtAuthenticationGlobalFilter}.
+ * <p>
+ * Sin el filtro cada request se enruta a un upstream simulado que responde 401 (como haría
+ * user-management); con el filtro el gateway responde 401 sin contactarlo. Los tokens están bien formados
+ * pero firmados con otra clave, así que cada uno paga la verificación completa de la firma.
+ * <p>
+ * Es una prueba de carga: solo se ejecuta con {@code -Dloadtest=true}.
+ */
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class InvalidTokenFloodLoadTest {
+
+    private static final int WARMUP_REQUESTS = 5_000;
+    private static final int MEASURED_REQUESTS = 50_000;
+    private static final int CONCURRENCY = 64;
+
+    @Test
+    void rejectsInvalidTokenFloodAtTheEdge() {
+        AtomicLong upstreamHits = new AtomicLong();
+        DisposableServer upstream = HttpServer.create()
+                .port(0)
+                .handle((request, response) -> {
+                    upstreamHits.incrementAndGet();
+                    return response.status(401)
+                            .header(HttpHeaders.CONTENT_TYPE, "application/json")
+                            .sendString(Mono.just("{\"error\":\"Unauthorized\"}"));
+                })
+                .bindNow();
+
+        List<String> forgedTokens = IntStream.range(0, 100)
+                .mapToObj(i -> Jwts.builder()
+                        .subject("user-" + i)
+                        .claim("roles", List.of("USER"))
+                        .expiration(Date.from(Instant.now().plusSeconds(600)))
+                        .signWith(Keys.hmacShaKeyFor("attacker-controlled-secret-that-is-long-enough-for-hs256"
+                                .getBytes(StandardCharsets.UTF_8)))
+                        .compact())
+                .toList();
+
+        try {
+            long withoutFilterHitsBefore = upstreamHits.get();
+            double withoutFilter = measure(false, upstream.port(), forgedTokens);
+            long withoutFilterHits = upstreamHits.get() - withoutFilterHitsBefore;
+
+            long withFilterHitsBefore = upstreamHits.get();
+            double withFilter = measure(true, upstream.port(), forgedTokens);
+            long withFilterHits = upstreamHits.get() - withFilterHitsBefore;
+
+            System.out.printf("Invalid-token flood (%d requests, concurrency %d)%n", MEASURED_REQUESTS, CONCURRENCY);
+            System.out.printf("  without edge auth: %.0f req/s, %d upstream hits%n", withoutFilter, withoutFilterHits);
+            System.out.printf("  with edge auth:    %.0f req/s, %d upstream hits%n", withFilter, withFilterHits);
+
+            assertThat(withoutFilterHits).isEqualTo(WARMUP_REQUESTS + MEASURED_REQUESTS);
+            assertThat(withFilterHits).isZero();
+        } finally {
+            upstream.disposeNow();
+        }
+    }
+
+    private double measure(boolean edgeAuthEnabled, int upstreamPort, List<String> tokens) {
+        // Como argumentos de línea de comandos para que tengan prioridad sobre application.yml
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(ApiGatewayApplication.class)
+                .run("--server.port=0",
+                        "--spring.cloud.consul.enabled=false",
+                        "--spring.cloud.gateway.discovery.locator.enabled=false",
+                        "--spring.cloud.gateway.routes[0].id=flood-target",
+                        "--spring.cloud.gateway.routes[0].uri=http://localhost:" + upstreamPort,
+                        "--spring.cloud.gateway.routes[0].predicates[0]=Path=/users/**",
+                        "--gateway.auth.enabled=" + edgeAuthEnabled,
+                        "--gateway.auth.jwt.jwks-uri=",
+                        "--logging.level.com.medihelp360.gateway=WARN");
+        try {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            WebClient client = WebClient.create("http://localhost:" + port);
+
+            flood(client, tokens, WARMUP_REQUESTS);
+            long start = System.nanoTime();
+            flood(client, tokens, MEASURED_REQUESTS);
+            double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+            return MEASURED_REQUESTS / seconds;
+        } finally {
+            context.close();
+        }
+    }
+
+    private static void flood(WebClient client, List<String> tokens, int requests) {
+        Long unauthorized = Flux.range(0, requests)
+                .flatMap(i -> client.get()
+                        .uri("/users/{id}", i)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + tokens.get(i % tokens.size()))
+                        .exchangeToMono(response -> response.releaseBody()
+                                .thenReturn(response.statusCode().value())), CONCURRENCY)
+                .filter(status -> status == 401)
+                .count()
+                .block();
+        assertThat(unauthorized).isEqualTo(requests);
+    }
+}
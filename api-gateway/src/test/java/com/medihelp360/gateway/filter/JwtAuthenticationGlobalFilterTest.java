@@ -0,0 +1,181 @@
+package com.medihelp360.gateway.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medihelp360.gateway.security.GatewayTokenVerifier;
+import com.medihelp360.gateway.security.JwtKeySource;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.PublicJwk;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtAuthenticationGlobalFilterTest {
+
+    private static final String SECRET = "test-secret-key-for-the-gateway-filter-at-least-256-bits";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicReference<ServerWebExchange> forwarded = new AtomicReference<>();
+    private final GatewayFilterChain chain = exchange -> {
+        forwarded.set(exchange);
+        return Mono.empty();
+    };
+
+    @Test
+    void rejectsMissingTokenWithoutCallingUpstream() {
+        JwtAuthenticationGlobalFilter filter = filter(new JwtKeySource(SECRET, null, Duration.ofSeconds(30), Clock.systemUTC()));
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/users/123"));
+
+        filter.filter(exchange, chain).block();
+
+        assertThat(forwarded.get()).isNull();
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(exchange.getResponse().getBodyAsString().block()).contains("Authentication required");
+    }
+
+    @Test
+    void batchValidationIsNotPublic() {
+        JwtAuthenticationGlobalFilter filter = filter(new JwtKeySource(SECRET, null, Duration.ofSeconds(30), Clock.systemUTC()));
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/auth/validate/batch"));
+
+        filter.filter(exchange, chain).block();
+
+        assertThat(forwarded.get()).isNull();
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+
+    @Test
+    void forwardsVerifiedIdentityAndReplacesSpoofedHeaders() {
+        JwtAuthenticationGlobalFilter filter = filter(new JwtKeySource(SECRET, null, Duration.ofSeconds(30), Clock.systemUTC()));
+        String token = hmacToken("user-1", Instant.now().plusSeconds(600), null);
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/users/123")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .header(JwtAuthenticationGlobalFilter.USER_ID_HEADER, "admin")
+                .header(JwtAuthenticationGlobalFilter.USER_ROLES_HEADER, "ADMIN"));
+
+        filter.filter(exchange, chain).block();
+
+        HttpHeaders headers = forwarded.get().getRequest().getHeaders();
+        assertThat(headers.get(JwtAuthenticationGlobalFilter.USER_ID_HEADER)).containsExactly("user-1");
+        assertThat(headers.get(JwtAuthenticationGlobalFilter.USER_EMAIL_HEADER)).containsExactly("user-1@medihelp360.com");
+        assertThat(headers.get(JwtAuthenticationGlobalFilter.USER_ROLES_HEADER)).containsExactly("USER,DOCTOR");
+    }
+
+    @Test
+    void publicPathsPassThroughWithoutIdentityHeaders() {
+        JwtAuthenticationGlobalFilter filter = filter(new JwtKeySource(SECRET, null, Duration.ofSeconds(30), Clock.systemUTC()));
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/auth/login")
+                .header(JwtAuthenticationGlobalFilter.USER_ID_HEADER, "admin"));
+
+        filter.filter(exchange, chain).block();
+
+        assertThat(forwarded.get().getRequest().getHeaders().containsKey(JwtAuthenticationGlobalFilter.USER_ID_HEADER)).isFalse();
+    }
+
+    @Test
+    void rejectsExpiredForgedAndRefreshTokens() {
+        JwtAuthenticationGlobalFilter filter = filter(new JwtKeySource(SECRET, null, Duration.ofSeconds(30), Clock.systemUTC()));
+        String expired = hmacToken("user-1", Instant.now().minusSeconds(5), null);
+        String refresh = hmacToken("user-1", Instant.now().plusSeconds(600), "refresh");
+        String forged = Jwts.builder().subject("user-1").expiration(Date.from(Instant.now().plusSeconds(600)))
+                .signWith(Keys.hmacShaKeyFor("another-secret-key-that-is-long-enough-for-hs256".getBytes(StandardCharsets.UTF_8)))
+                .compact();
+
+        for (String token : List.of(expired, refresh, forged, "not-a-jwt")) {
+            MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/roles")
+                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + token));
+            filter.filter(exchange, chain).block();
+            assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+        }
+        assertThat(forwarded.get()).isNull();
+        assertThat(meterRegistry.get("gateway.auth.requests").tag("result", "invalid_token").counter().count()).isEqualTo(4);
+    }
+
+    @Test
+    void reusesCachedIdentityForRepeatedTokens() {
+        JwtAuthenticationGlobalFilter filter = filter(new JwtKeySource(SECRET, null, Duration.ofSeconds(30), Clock.systemUTC()));
+        String token = hmacToken("user-1", Instant.now().plusSeconds(600), null);
+
+        for (int i = 0; i < 3; i++) {
+            filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/users")
+                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)), chain).block();
+        }
+
+        assertThat(meterRegistry.get("gateway.auth.jwt.cache.requests").tag("result", "miss").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("gateway.auth.jwt.cache.requests").tag("result", "hit").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void downloadsJwksOnceForUnknownKeyIds() throws Exception {
+        KeyPair keyPair = Jwts.SIG.ES256.keyPair().build();
+        PublicJwk<?> jwk = Jwks.builder().key(keyPair.getPublic()).idFromThumbprint().build();
+        String jwksJson = new ObjectMapper().writeValueAsString(Map.of("keys", List.of(jwk)));
+        AtomicInteger downloads = new AtomicInteger();
+        Supplier<Mono<String>> fetcher = () -> Mono.fromCallable(() -> {
+            downloads.incrementAndGet();
+            return jwksJson;
+        });
+        JwtAuthenticationGlobalFilter filter = filter(new JwtKeySource(null, fetcher, Duration.ofMinutes(1), Clock.systemUTC()));
+
+        String token = Jwts.builder().header().keyId(jwk.getId()).and()
+                .subject("user-2").claim("roles", List.of("ADMIN"))
+                .expiration(Date.from(Instant.now().plusSeconds(600)))
+                .signWith(keyPair.getPrivate(), Jwts.SIG.ES256)
+                .compact();
+        String unknownKid = Jwts.builder().header().keyId("rotated-away").and()
+                .subject("user-2").expiration(Date.from(Instant.now().plusSeconds(600)))
+                .signWith(keyPair.getPrivate(), Jwts.SIG.ES256)
+                .compact();
+
+        filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/users")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)), chain).block();
+        MockServerWebExchange rejected = MockServerWebExchange.from(MockServerHttpRequest.get("/users")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + unknownKid));
+        filter.filter(rejected, chain).block();
+
+        assertThat(forwarded.get().getRequest().getHeaders().getFirst(JwtAuthenticationGlobalFilter.USER_ID_HEADER)).isEqualTo("user-2");
+        assertThat(rejected.getResponse().getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(downloads).hasValue(1);
+    }
+
+    private JwtAuthenticationGlobalFilter filter(JwtKeySource keySource) {
+        GatewayTokenVerifier verifier = new GatewayTokenVerifier(keySource, 1_000, meterRegistry);
+        return new JwtAuthenticationGlobalFilter(verifier, meterRegistry, true,
+                List.of("/auth/**", "/users/**", "/roles/**"),
+                List.of("/auth/login", "/auth/register", "/auth/refresh", "/auth/validate"));
+    }
+
+    private static String hmacToken(String subject, Instant expiresAt, String type) {
+        var builder = Jwts.builder()
+                .subject(subject)
+                .claim("email", subject + "@medihelp360.com")
+                .claim("roles", List.of("USER", "DOCTOR"))
+                .issuedAt(new Date())
+                .expiration(Date.from(expiresAt));
+        if (type != null) {
+            builder.claim("type", type);
+        }
+        return builder.signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)), Jwts.SIG.HS256).compact();
+    }
+}
@@ -0,0 +1,33 @@
+package com.medihelp360.benchmarks;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Punto de entrada de {@code benchmarks.jar}: delega en el runner de JMH y, salvo que se indique otro
+ * formato o fichero ({@code -rf}/{@code -rff}), guarda los resultados en
+ * {@code results/jmh-<versión>.json} para poder comparar versiones entre sí.
+ */
+public final class BenchmarkMain {
+
+    private BenchmarkMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> arguments = new ArrayList<>(Arrays.asList(args));
+        if (!arguments.contains("-rf") && !arguments.contains("-rff")) {
+            Path resultFile = Path.of("results", "jmh-" + version() + ".json");
+            Files.createDirectories(resultFile.getParent());
+            arguments.addAll(List.of("-rf", "json", "-rff", resultFile.toString()));
+        }
+        org.openjdk.jmh.Main.main(arguments.toArray(String[]::new));
+    }
+
+    private static String version() {
+        String version = BenchmarkMain.class.getPackage().getImplementationVersion();
+        return version != null ? version : "dev";
+    }
+}
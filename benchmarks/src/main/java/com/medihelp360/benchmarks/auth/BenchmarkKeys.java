@@ -0,0 +1,13 @@
+package com.medihelp360.benchmarks.auth;
+
+/**
+ * Material de claves compartido por los benchmarks de autenticación.
+ */
+final class BenchmarkKeys {
+
+    // Mismo tamaño que el secreto HS256 de producción (al menos 256 bits)
+    static final String SECRET = "benchmark-secret-key-for-medihelp360-jwt-signing-at-least-256-bits";
+
+    private BenchmarkKeys() {
+    }
+}
@@ -0,0 +1,74 @@
+package com.medihelp360.benchmarks.auth;
+
+import com.medihelp360.user.config.JwtAuthenticationFilter;
+import com.medihelp360.user.security.JwtKeyManager;
+import com.medihelp360.user.security.JwtTokenIssuer;
+import com.medihelp360.user.security.JwtTokenVerifier;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Autenticación de una petición en {@link JwtAuthenticationFilter}: extracción del bearer token,
+ * verificación de la firma y construcción del principal.
+ * <p>
+ * Con {@code verificationCacheSize = 0} el cache de claims no retiene nada y cada petición paga la
+ * verificación de la firma; con el tamaño por defecto se mide el camino habitual de un token repetido.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtFilterBenchmark {
+
+    @Param({JwtKeyManager.HS256, JwtKeyManager.ES256, JwtKeyManager.EDDSA})
+    public String algorithm;
+
+    @Param({"0", "10000"})
+    public long verificationCacheSize;
+
+    private JwtAuthenticationFilter filter;
+    private String authorizationHeader;
+    private final FilterChain chain = (request, response) -> { };
+
+    @Setup
+    public void setUp() {
+        JwtKeyManager keyManager = new JwtKeyManager(BenchmarkKeys.SECRET, algorithm, "", "", List.of(), false, true);
+        JwtTokenVerifier verifier = new JwtTokenVerifier(keyManager, verificationCacheSize, new SimpleMeterRegistry());
+        filter = new JwtAuthenticationFilter(verifier);
+        authorizationHeader = "Bearer " + new JwtTokenIssuer(keyManager, 1800)
+                .generateAccessToken(UUID.randomUUID(), "doctor@medihelp360.com", List.of("USER", "DOCTOR"), UUID.randomUUID());
+    }
+
+    @Benchmark
+    public Authentication authenticateRequest() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/auth/me");
+        request.addHeader("Authorization", authorizationHeader);
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), chain);
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.medihelp360.benchmarks.auth;
+
+import com.medihelp360.user.config.SecurityConfig;
+import com.medihelp360.user.security.PasswordHashingService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BCrypt {@code matches} con el {@link PasswordEncoder} de producción para varios costes: directamente
+ * y a través del pool de {@link PasswordHashingService} que usa el login.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PasswordHashingBenchmark {
+
+    private static final String PASSWORD = "Benchmark123!";
+
+    @Param({"10", "12"})
+    public int strength;
+
+    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
+    private String passwordHash;
+
+    @Setup
+    public void setUp() {
+        // Sin calibrar: el coste lo fija el parámetro del benchmark
+        passwordEncoder = new SecurityConfig(null).passwordEncoder(false, strength, 250, strength, strength);
+        passwordHashingService = new PasswordHashingService(passwordEncoder, new SimpleMeterRegistry(), 0, 64, 10_000);
+        passwordHash = passwordEncoder.encode(PASSWORD);
+    }
+
+    @TearDown
+    public void tearDown() {
+        passwordHashingService.shutdown();
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return passwordEncoder.matches(PASSWORD, passwordHash);
+    }
+
+    @Benchmark
+    public boolean matchesOnHashingPool() {
+        return passwordHashingService.matches(PASSWORD, passwordHash);
+    }
+}
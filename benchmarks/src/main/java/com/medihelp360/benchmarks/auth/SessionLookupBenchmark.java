@@ -0,0 +1,202 @@
+package com.medihelp360.benchmarks.auth;
+
+import com.medihelp360.user.security.TokenDigests;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Búsqueda de la sesión de un access token con el esquema de la migración V4: {@code token_hash} es el SHA-256
+ * del token (32 bytes) con índice único, como lo usan {@code AuthenticationService.validateToken} y
+ * {@code logout} a través de {@code UserSessionRepository.findByTokenHash}.
+ * <ul>
+ *     <li>{@code validateToken}: digest del token y lectura de su sesión.</li>
+ *     <li>{@code validateUnknownToken}: lo mismo para un token sin sesión (cerrada o revocada).</li>
+ *     <li>{@code logout}: lectura de la sesión y DELETE por id; se deshace al final para que la tabla no
+ *     cambie entre iteraciones, así que incluye también el coste del rollback.</li>
+ * </ul>
+ * Cada invocación elige una sesión al azar, de modo que las búsquedas recorren todo el índice y no solo las
+ * páginas ya en memoria.
+ * <p>
+ * Trabaja sobre una tabla propia ({@code bench_user_sessions}) que se rellena la primera vez con los tokens
+ * {@code bench-token-<n>}. Por defecto usa una base H2 en {@code target/bench-db}; para medir contra PostgreSQL:
+ * {@code -Dbenchmark.jdbc.url=jdbc:postgresql://localhost:5432/users_db -Dbenchmark.jdbc.user=... -Dbenchmark.jdbc.password=...}
+ * (pasadas a la JVM del fork con {@code -jvmArgsAppend}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class SessionLookupBenchmark {
+
+    private static final String DEFAULT_URL = "jdbc:h2:file:./target/bench-db/sessions;MODE=PostgreSQL";
+    private static final int INSERT_BATCH = 10_000;
+
+    private static final String COUNT_SQL = "SELECT COUNT(*) FROM bench_user_sessions";
+    private static final String FIND_BY_TOKEN_HASH_SQL =
+            "SELECT id, user_id, token_hash, refresh_token_hash, family_id, device_info, ip_address, "
+            + "expires_at, created_at, updated_at FROM bench_user_sessions WHERE token_hash = ?";
+    private static final String DELETE_SQL = "DELETE FROM bench_user_sessions WHERE id = ?";
+
+    @Param({"10000000"})
+    public int sessions;
+
+    private Connection connection;
+    private PreparedStatement findByTokenHash;
+    private PreparedStatement delete;
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection(
+                System.getProperty("benchmark.jdbc.url", DEFAULT_URL),
+                System.getProperty("benchmark.jdbc.user", "sa"),
+                System.getProperty("benchmark.jdbc.password", ""));
+        createTable();
+        populate();
+
+        findByTokenHash = connection.prepareStatement(FIND_BY_TOKEN_HASH_SQL);
+        delete = connection.prepareStatement(DELETE_SQL);
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public boolean validateToken() throws SQLException {
+        findByTokenHash.setBytes(1, TokenDigests.sha256(token(random.nextInt(sessions))));
+        try (ResultSet rs = findByTokenHash.executeQuery()) {
+            // Sesión encontrada y no expirada, como UserSession.isExpired()
+            return rs.next() && rs.getTimestamp("expires_at").toLocalDateTime().isAfter(LocalDateTime.now());
+        }
+    }
+
+    @Benchmark
+    public boolean validateUnknownToken() throws SQLException {
+        findByTokenHash.setBytes(1, TokenDigests.sha256("revoked-token-" + random.nextInt(sessions)));
+        try (ResultSet rs = findByTokenHash.executeQuery()) {
+            return rs.next();
+        }
+    }
+
+    @Benchmark
+    public void logout(Blackhole blackhole) throws SQLException {
+        connection.setAutoCommit(false);
+        try {
+            findByTokenHash.setBytes(1, TokenDigests.sha256(token(random.nextInt(sessions))));
+            Object sessionId;
+            try (ResultSet rs = findByTokenHash.executeQuery()) {
+                rs.next();
+                sessionId = rs.getObject("id");
+                blackhole.consume(rs.getObject("user_id"));
+            }
+            delete.setObject(1, sessionId);
+            blackhole.consume(delete.executeUpdate());
+        } finally {
+            connection.rollback();
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private static String token(long n) {
+        return "bench-token-" + n;
+    }
+
+    private void createTable() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS bench_user_sessions ("
+                    + "id UUID PRIMARY KEY, "
+                    + "user_id UUID NOT NULL, "
+                    + "token_hash BYTEA NOT NULL, "
+                    + "refresh_token_hash BYTEA NOT NULL, "
+                    + "family_id UUID NOT NULL, "
+                    + "device_info TEXT, "
+                    + "ip_address VARCHAR(255), "
+                    + "expires_at TIMESTAMP NOT NULL, "
+                    + "created_at TIMESTAMP NOT NULL, "
+                    + "updated_at TIMESTAMP NOT NULL, "
+                    + "CHECK (octet_length(token_hash) = 32), "
+                    + "CHECK (octet_length(refresh_token_hash) = 32))");
+            statement.execute("CREATE UNIQUE INDEX IF NOT EXISTS idx_bench_user_sessions_token_hash "
+                    + "ON bench_user_sessions(token_hash)");
+            statement.execute("CREATE UNIQUE INDEX IF NOT EXISTS idx_bench_user_sessions_refresh_token_hash "
+                    + "ON bench_user_sessions(refresh_token_hash)");
+        }
+    }
+
+    private void populate() throws SQLException {
+        long existing;
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(COUNT_SQL)) {
+            rs.next();
+            existing = rs.getLong(1);
+        }
+        if (existing >= sessions) {
+            return;
+        }
+
+        System.out.printf("Populating bench_user_sessions from %d to %d rows...%n", existing, sessions);
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp expiresAt = Timestamp.valueOf(now.plusYears(10));
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO bench_user_sessions "
+                + "(id, user_id, token_hash, refresh_token_hash, family_id, device_info, ip_address, expires_at, "
+                + "created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+            for (long i = existing; i < sessions; i++) {
+                Timestamp createdAt = Timestamp.valueOf(now.minusSeconds(sessions - i));
+                insert.setObject(1, UUID.randomUUID());
+                // Unas cuantas sesiones por usuario, como varios dispositivos
+                insert.setObject(2, new UUID(0L, i / 3));
+                insert.setBytes(3, TokenDigests.sha256(token(i)));
+                insert.setBytes(4, TokenDigests.sha256("bench-refresh-token-" + i));
+                insert.setObject(5, UUID.randomUUID());
+                insert.setString(6, "Mozilla/5.0 (benchmark)");
+                insert.setString(7, "10.0." + (i >> 8 & 0xff) + "." + (i & 0xff));
+                insert.setTimestamp(8, expiresAt);
+                insert.setTimestamp(9, createdAt);
+                insert.setTimestamp(10, createdAt);
+                insert.addBatch();
+                if ((i + 1) % INSERT_BATCH == 0) {
+                    insert.executeBatch();
+                    connection.commit();
+                }
+            }
+            insert.executeBatch();
+            connection.commit();
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+        try (Statement statement = connection.createStatement()) {
+            // Estadísticas al día para el planificador
+            statement.execute(connection.getMetaData().getDatabaseProductName().contains("PostgreSQL")
+                    ? "ANALYZE bench_user_sessions" : "ANALYZE");
+        }
+    }
+}
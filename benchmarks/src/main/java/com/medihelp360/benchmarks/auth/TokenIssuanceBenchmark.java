@@ -0,0 +1,58 @@
+package com.medihelp360.benchmarks.auth;
+
+import com.medihelp360.user.security.JwtKeyManager;
+import com.medihelp360.user.security.JwtTokenIssuer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Emisión de access y refresh tokens ({@link JwtTokenIssuer}) con cada algoritmo de firma soportado.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenIssuanceBenchmark {
+
+    @Param({JwtKeyManager.HS256, JwtKeyManager.ES256, JwtKeyManager.EDDSA})
+    public String algorithm;
+
+    private JwtTokenIssuer issuer;
+    private final UUID userId = UUID.randomUUID();
+    private final UUID familyId = UUID.randomUUID();
+    private final List<String> roles = List.of("USER", "DOCTOR");
+    private LocalDateTime sessionExpiresAt;
+
+    @Setup
+    public void setUp() {
+        JwtKeyManager keyManager = new JwtKeyManager(BenchmarkKeys.SECRET, algorithm, "", "", List.of(), false, true);
+        issuer = new JwtTokenIssuer(keyManager, 1800);
+        sessionExpiresAt = LocalDateTime.now().plusDays(7);
+    }
+
+    @Benchmark
+    public String generateAccessToken() {
+        return issuer.generateAccessToken(userId, "doctor@medihelp360.com", roles, familyId);
+    }
+
+    @Benchmark
+    public String generateRefreshToken() {
+        return issuer.generateRefreshToken(userId, familyId, sessionExpiresAt);
+    }
+}
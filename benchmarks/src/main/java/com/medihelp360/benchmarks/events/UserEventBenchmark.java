@@ -0,0 +1,155 @@
+package com.medihelp360.benchmarks.events;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.medihelp360.events.codec.UserEventData;
+import com.medihelp360.events.codec.UserEventDeserializer;
+import com.medihelp360.events.codec.UserEventFormat;
+import com.medihelp360.events.codec.UserEventSerializer;
+import com.medihelp360.user.event.UserCreatedEvent;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Codificación de {@link UserCreatedEvent} con event-codec en JSON y en binario (lo que hace
+ * {@code OutboxEventWriter}) y decodificación con {@code UserEventDeserializer}, que es lo que usan ahora
+ * los tres servicios de sincronización. El tamaño de cada payload se imprime al preparar el benchmark.
+ * <p>
+ * Los benchmarks {@code legacy*} conservan cómo deserializaba el JSON cada {@code UserEventListener}
+ * antes de event-codec, como referencia:
+ * <ul>
+ *   <li>A: {@code StringDeserializer} y {@code readValue(payload, Map.class)} con su ObjectMapper + JavaTimeModule.</li>
+ *   <li>B: {@code StringDeserializer} y {@code readValue(payload, UserEvent.class)} con el ObjectMapper de Spring Boot.</li>
+ *   <li>C: {@code ErrorHandlingDeserializer} sobre {@code JsonDeserializer} (tipo {@code Object}, sin cabeceras
+ *       de tipo) y {@code convertValue(map, UserEvent.class)} con su ObjectMapper.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserEventBenchmark {
+
+    private static final String TOPIC = "user-events";
+
+    private UserCreatedEvent event;
+    private final UserEventSerializer jsonSerializer = new UserEventSerializer(UserEventFormat.JSON);
+    private final UserEventSerializer binarySerializer = new UserEventSerializer(UserEventFormat.BINARY);
+    private final UserEventDeserializer userEventDeserializer = new UserEventDeserializer();
+    private byte[] message;
+    private byte[] binaryMessage;
+
+    private final StringDeserializer stringDeserializer = new StringDeserializer();
+    private ObjectMapper serviceAObjectMapper;
+    private ObjectMapper serviceBObjectMapper;
+    private ObjectMapper serviceCObjectMapper;
+    private ErrorHandlingDeserializer<Object> serviceCDeserializer;
+
+    @Setup
+    public void setUp() throws Exception {
+        event = new UserCreatedEvent(UUID.randomUUID(), "doctor@medihelp360.com", "Doctor House",
+                Set.of("USER", "DOCTOR"), "ACTIVE");
+        message = serializeJson();
+        binaryMessage = serializeBinary();
+        System.out.printf("%nUserCreatedEvent payload: json=%d bytes, binary=%d bytes (%.0f%%)%n",
+                message.length, binaryMessage.length, 100.0 * binaryMessage.length / message.length);
+
+        serviceAObjectMapper = new ObjectMapper();
+        serviceAObjectMapper.registerModule(new JavaTimeModule());
+
+        // Servicio B no declara ObjectMapper: usa el autoconfigurado por Spring Boot
+        serviceBObjectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+
+        serviceCObjectMapper = new ObjectMapper();
+        serviceCObjectMapper.findAndRegisterModules();
+
+        Map<String, Object> serviceCConfig = new HashMap<>();
+        serviceCConfig.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, JsonDeserializer.class.getName());
+        serviceCConfig.put(JsonDeserializer.VALUE_DEFAULT_TYPE, Object.class.getName());
+        serviceCConfig.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
+        serviceCConfig.put(JsonDeserializer.USE_TYPE_INFO_HEADERS, false);
+        serviceCDeserializer = new ErrorHandlingDeserializer<>();
+        serviceCDeserializer.configure(serviceCConfig, false);
+
+        // Un fallo de deserialización no debe medirse como un camino rápido
+        com.example.sync.event.UserEvent serviceCEvent = legacyDeserializeServiceC();
+        if (legacyDeserializeServiceA().get("eventType") == null
+                || legacyDeserializeServiceB().getEventType() == null
+                || serviceCEvent == null || serviceCEvent.getEventType() == null
+                || !deserializeJson().equals(deserializeBinary())) {
+            throw new IllegalStateException("Event payload was not deserialized by every sync service");
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        serviceCDeserializer.close();
+    }
+
+    @Benchmark
+    public byte[] serializeJson() {
+        // OutboxEventWriter guarda el payload codificado y OutboxRelay lo envía tal cual
+        return jsonSerializer.serialize(TOPIC, event.toEventData());
+    }
+
+    @Benchmark
+    public byte[] serializeBinary() {
+        return binarySerializer.serialize(TOPIC, event.toEventData());
+    }
+
+    @Benchmark
+    public UserEventData deserializeJson() {
+        return userEventDeserializer.deserialize(TOPIC, message);
+    }
+
+    @Benchmark
+    public UserEventData deserializeBinary() {
+        return userEventDeserializer.deserialize(TOPIC, binaryMessage);
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> legacyDeserializeServiceA() throws Exception {
+        String payload = stringDeserializer.deserialize(TOPIC, message);
+        return serviceAObjectMapper.readValue(payload, Map.class);
+    }
+
+    @Benchmark
+    public com.medihelp360.sync.event.UserEvent legacyDeserializeServiceB() throws Exception {
+        String payload = stringDeserializer.deserialize(TOPIC, message);
+        return serviceBObjectMapper.readValue(payload, com.medihelp360.sync.event.UserEvent.class);
+    }
+
+    @Benchmark
+    public com.example.sync.event.UserEvent legacyDeserializeServiceC() {
+        Headers headers = new RecordHeaders();
+        Object payload = serviceCDeserializer.deserialize(TOPIC, headers, message);
+        return serviceCObjectMapper.convertValue(payload, com.example.sync.event.UserEvent.class);
+    }
+}
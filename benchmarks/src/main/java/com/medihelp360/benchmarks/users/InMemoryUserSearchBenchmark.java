@@ -0,0 +1,59 @@
+package com.medihelp360.benchmarks.users;
+
+import com.medihelp360.user.search.InMemoryUserSearchIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Primera página de la misma búsqueda que {@link UserSearchBenchmark} con {@link InMemoryUserSearchIndex},
+ * el índice de n-gramas para H2 y desarrollo, sobre los mismos nombres y emails.
+ * <p>
+ * El índice vive en el heap, del orden de 1 GB por millón de usuarios, así que por defecto solo se mide con 1M
+ * usuarios y {@code -Xmx2g}. Para más usuarios hay que subir el heap a la vez, por ejemplo
+ * {@code -p users=5000000 -jvmArgsAppend -Xmx8g}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class InMemoryUserSearchBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"1000000"})
+    public int users;
+
+    @Param({"Garcia", "user4242"})
+    public String query;
+
+    private InMemoryUserSearchIndex index;
+
+    @Setup
+    public void setUp() {
+        index = new InMemoryUserSearchIndex(null, new SimpleMeterRegistry());
+        for (int i = 0; i < users; i++) {
+            index.put(UUID.randomUUID(), UserSearchBenchmark.name(i), UserSearchBenchmark.email(i));
+        }
+    }
+
+    @Benchmark
+    public void firstPage(Blackhole blackhole) {
+        blackhole.consume(index.search(query, null, PAGE_SIZE));
+    }
+}
@@ -0,0 +1,187 @@
+package com.medihelp360.benchmarks.users;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latencia de una página profunda de usuarios: OFFSET + COUNT (lo que hace {@code GET /users} con
+ * {@code Pageable}) frente a la búsqueda por cursor de {@code GET /users/keyset}, con el mismo SQL que
+ * {@code UserRepository} y el índice {@code (created_at, id)} de la migración V10.
+ * <p>
+ * Trabaja sobre una tabla propia ({@code bench_users}) que se rellena la primera vez. Por defecto usa una
+ * base H2 en {@code target/bench-db}; para medir contra PostgreSQL:
+ * {@code -Dbenchmark.jdbc.url=jdbc:postgresql://localhost:5432/users_db -Dbenchmark.jdbc.user=... -Dbenchmark.jdbc.password=...}
+ * (pasadas a la JVM del fork con {@code -jvmArgsAppend}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class KeysetPaginationBenchmark {
+
+    private static final String DEFAULT_URL = "jdbc:h2:file:./target/bench-db/users;MODE=PostgreSQL";
+    private static final int INSERT_BATCH = 10_000;
+
+    private static final String OFFSET_SQL =
+            "SELECT * FROM bench_users ORDER BY created_at, id LIMIT ? OFFSET ?";
+    private static final String COUNT_SQL = "SELECT COUNT(*) FROM bench_users";
+    private static final String KEYSET_SQL =
+            "SELECT * FROM bench_users WHERE (created_at, id) > (?, ?) ORDER BY created_at, id LIMIT ?";
+
+    @Param({"5000000"})
+    public int users;
+
+    @Param({"10000"})
+    public int page;
+
+    @Param({"20"})
+    public int pageSize;
+
+    private Connection connection;
+    private PreparedStatement offsetQuery;
+    private PreparedStatement countQuery;
+    private PreparedStatement keysetQuery;
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection(
+                System.getProperty("benchmark.jdbc.url", DEFAULT_URL),
+                System.getProperty("benchmark.jdbc.user", "sa"),
+                System.getProperty("benchmark.jdbc.password", ""));
+        createTable();
+        populate();
+
+        offsetQuery = connection.prepareStatement(OFFSET_SQL);
+        offsetQuery.setInt(1, pageSize);
+        offsetQuery.setLong(2, (long) page * pageSize);
+        countQuery = connection.prepareStatement(COUNT_SQL);
+
+        // Cursor del último usuario de la página anterior, como lo devolvería la API
+        keysetQuery = connection.prepareStatement(KEYSET_SQL);
+        try (PreparedStatement previous = connection.prepareStatement(
+                "SELECT created_at, id FROM bench_users ORDER BY created_at, id LIMIT 1 OFFSET ?")) {
+            previous.setLong(1, (long) page * pageSize - 1);
+            try (ResultSet rs = previous.executeQuery()) {
+                rs.next();
+                keysetQuery.setTimestamp(1, rs.getTimestamp(1));
+                keysetQuery.setObject(2, rs.getObject(2));
+            }
+        }
+        keysetQuery.setInt(3, pageSize);
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public void offsetPage(Blackhole blackhole) throws SQLException {
+        consume(offsetQuery, blackhole);
+        consume(countQuery, blackhole);
+    }
+
+    @Benchmark
+    public void offsetPageWithoutCount(Blackhole blackhole) throws SQLException {
+        consume(offsetQuery, blackhole);
+    }
+
+    @Benchmark
+    public void keysetPage(Blackhole blackhole) throws SQLException {
+        consume(keysetQuery, blackhole);
+    }
+
+    private static void consume(PreparedStatement query, Blackhole blackhole) throws SQLException {
+        try (ResultSet rs = query.executeQuery()) {
+            int columns = rs.getMetaData().getColumnCount();
+            while (rs.next()) {
+                for (int column = 1; column <= columns; column++) {
+                    blackhole.consume(rs.getObject(column));
+                }
+            }
+        }
+    }
+
+    private void createTable() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS bench_users ("
+                    + "id UUID PRIMARY KEY, "
+                    + "email VARCHAR(255) NOT NULL, "
+                    + "name VARCHAR(255) NOT NULL, "
+                    + "password_hash VARCHAR(255) NOT NULL, "
+                    + "status VARCHAR(50) NOT NULL, "
+                    + "created_at TIMESTAMP NOT NULL, "
+                    + "updated_at TIMESTAMP)");
+            statement.execute("CREATE INDEX IF NOT EXISTS idx_bench_users_created_at_id ON bench_users(created_at, id)");
+        }
+    }
+
+    private void populate() throws SQLException {
+        long existing;
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(COUNT_SQL)) {
+            rs.next();
+            existing = rs.getLong(1);
+        }
+        if (existing >= users) {
+            return;
+        }
+
+        System.out.printf("Populating bench_users from %d to %d rows...%n", existing, users);
+        LocalDateTime base = LocalDateTime.of(2020, 1, 1, 0, 0);
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO bench_users "
+                + "(id, email, name, password_hash, status, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+            for (long i = existing; i < users; i++) {
+                // Varios usuarios por segundo, como en una importación masiva: el id desempata
+                Timestamp createdAt = Timestamp.valueOf(base.plusSeconds(i / 4));
+                insert.setObject(1, UUID.randomUUID());
+                insert.setString(2, "user" + i + "@bench.medihelp360.com");
+                insert.setString(3, "Bench User " + i);
+                insert.setString(4, "{bcrypt}$2a$10$benchmarkbenchmarkbenchmarkbenchmarkbenchmarkbench");
+                insert.setString(5, i % 10 == 0 ? "DISABLED" : "ACTIVE");
+                insert.setTimestamp(6, createdAt);
+                insert.setTimestamp(7, createdAt);
+                insert.addBatch();
+                if ((i + 1) % INSERT_BATCH == 0) {
+                    insert.executeBatch();
+                    connection.commit();
+                }
+            }
+            insert.executeBatch();
+            connection.commit();
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+        try (Statement statement = connection.createStatement()) {
+            // Estadísticas al día para el planificador
+            statement.execute(connection.getMetaData().getDatabaseProductName().contains("PostgreSQL")
+                    ? "ANALYZE bench_users" : "ANALYZE");
+        }
+    }
+}
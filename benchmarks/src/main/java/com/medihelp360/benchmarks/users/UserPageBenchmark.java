@@ -0,0 +1,117 @@
+package com.medihelp360.benchmarks.users;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.medihelp360.user.domain.UserStatus;
+import com.medihelp360.user.dto.UserSummary;
+import com.medihelp360.user.repository.UserRepository;
+import com.medihelp360.user.repository.UserRoleRow;
+import com.medihelp360.user.repository.UserSummaryRow;
+import com.medihelp360.user.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Respuesta de {@code GET /users}: unión de la página de filas con sus roles en {@link UserSummary}
+ * ({@code UserService.getAllUsers}) y serialización JSON de la {@code Page<UserSummary>}.
+ * El repositorio devuelve filas ya cargadas, así que no interviene la base de datos.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserPageBenchmark {
+
+    @Param({"20", "100"})
+    public int pageSize;
+
+    private UserService userService;
+    private ObjectMapper objectMapper;
+    private Pageable pageable;
+    private Page<UserSummary> responsePage;
+
+    @Setup
+    public void setUp() {
+        pageable = PageRequest.of(0, pageSize);
+        List<UserSummaryRow> rows = rows(pageSize);
+        Page<UserSummaryRow> page = new PageImpl<>(rows, pageable, 10_000);
+        userService = new UserService(pageOnlyRepository(page, roleRows(rows)), null, null, null, null, null, null, null);
+        // Mismas opciones que el ObjectMapper autoconfigurado por Spring Boot
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        responsePage = userService.getAllUsers(pageable);
+    }
+
+    @Benchmark
+    public Page<UserSummary> mapToResponse() {
+        return userService.getAllUsers(pageable);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws Exception {
+        return objectMapper.writeValueAsBytes(responsePage);
+    }
+
+    @Benchmark
+    public byte[] mapAndSerializePage() throws Exception {
+        return objectMapper.writeValueAsBytes(userService.getAllUsers(pageable));
+    }
+
+    private static List<UserSummaryRow> rows(int count) {
+        LocalDateTime now = LocalDateTime.now();
+        List<UserSummaryRow> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(new UserSummaryRow(UUID.randomUUID(), "user" + i + "@medihelp360.com", "User " + i,
+                    UserStatus.ACTIVE, now.minusDays(i), now));
+        }
+        return rows;
+    }
+
+    private static List<UserRoleRow> roleRows(List<UserSummaryRow> rows) {
+        UUID userRoleId = UUID.randomUUID();
+        UUID doctorRoleId = UUID.randomUUID();
+        List<UserRoleRow> roleRows = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            UUID userId = rows.get(i).id();
+            roleRows.add(new UserRoleRow(userId, userRoleId, "USER", "Standard user"));
+            if (i % 2 == 1) {
+                roleRows.add(new UserRoleRow(userId, doctorRoleId, "DOCTOR", "Medical staff"));
+            }
+        }
+        return roleRows;
+    }
+
+    private static UserRepository pageOnlyRepository(Page<UserSummaryRow> page, List<UserRoleRow> roleRows) {
+        return (UserRepository) Proxy.newProxyInstance(UserRepository.class.getClassLoader(),
+                new Class<?>[]{UserRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findSummaries" -> page;
+                    case "findRoleRowsByUserIds" -> roleRows;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,206 @@
+package com.medihelp360.benchmarks.users;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Primera página de una búsqueda de usuarios por subcadena con cada motor SQL:
+ * <ul>
+ *     <li>{@code like}: lo que hace {@code GET /users/search}, {@code LIKE '%x%'} sobre nombre o email más el COUNT
+ *     de la página, sin índice que lo sirva.</li>
+ *     <li>{@code trigram}: la consulta ordenada de {@code TrigramUserSearchIndex} con los índices GIN de pg_trgm
+ *     (migración V11). Solo en PostgreSQL: con la base H2 por defecto su {@code @Setup} falla con un mensaje y JMH
+ *     sigue con el resto de combinaciones.</li>
+ * </ul>
+ * El índice de n-gramas en memoria se mide aparte en {@link InMemoryUserSearchBenchmark}.
+ * Dos consultas: {@code Garcia} (un apellido, ~10% de los usuarios) y {@code user4242} (un puñado de emails).
+ * <p>
+ * Cada tamaño usa su tabla ({@code bench_search_users_<users>}), que se rellena la primera vez, en H2 por defecto
+ * o en PostgreSQL con
+ * {@code -jvmArgsAppend "-Dbenchmark.jdbc.url=jdbc:postgresql://... -Dbenchmark.jdbc.user=... -Dbenchmark.jdbc.password=..."}.
+ * Las filas se leen con JDBC, así que el heap no depende del número de usuarios.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class UserSearchBenchmark {
+
+    private static final String DEFAULT_URL = "jdbc:h2:file:./target/bench-db/search;MODE=PostgreSQL";
+    private static final int INSERT_BATCH = 10_000;
+    private static final int PAGE_SIZE = 20;
+
+    private static final String[] FIRST_NAMES = {"Ana", "Luis", "Maria", "Jose", "Carmen", "Pedro", "Lucia", "Javier",
+            "Elena", "Pablo", "Sara", "Diego", "Laura", "Jorge", "Paula", "Andres", "Marta", "Raul", "Clara", "Hugo"};
+    private static final String[] SURNAMES = {"Garcia", "Martinez", "Lopez", "Sanchez", "Perez", "Gomez", "Fernandez",
+            "Rodriguez", "Diaz", "Torres", "Ruiz", "Romero", "Navarro", "Moreno", "Alonso", "Gutierrez", "Jimenez",
+            "Molina", "Castro", "Ortega"};
+
+    @Param({"1000000", "5000000", "20000000"})
+    public int users;
+
+    @Param({"like", "trigram"})
+    public String engine;
+
+    @Param({"Garcia", "user4242"})
+    public String query;
+
+    private Connection connection;
+    private PreparedStatement pageQuery;
+    private PreparedStatement countQuery;
+
+    @Setup
+    public void setUp() throws SQLException {
+        String url = System.getProperty("benchmark.jdbc.url", DEFAULT_URL);
+        if ("trigram".equals(engine) && !url.startsWith("jdbc:postgresql:")) {
+            throw new IllegalStateException("engine=trigram needs pg_trgm: run it with "
+                    + "-jvmArgsAppend \"-Dbenchmark.jdbc.url=jdbc:postgresql://...\" or pass -p engine=like");
+        }
+        connection = DriverManager.getConnection(url,
+                System.getProperty("benchmark.jdbc.user", "sa"),
+                System.getProperty("benchmark.jdbc.password", ""));
+        String table = "bench_search_users_" + users;
+        createTable(table);
+        populate(table);
+
+        String pattern = "%" + query + "%";
+        switch (engine) {
+            case "like" -> {
+                // Mismo filtro que UserRepository.findByNameContainingOrEmailContaining, más su COUNT
+                pageQuery = connection.prepareStatement("SELECT * FROM " + table
+                        + " WHERE name LIKE ? OR email LIKE ? ORDER BY created_at, id LIMIT " + PAGE_SIZE);
+                countQuery = connection.prepareStatement("SELECT COUNT(*) FROM " + table
+                        + " WHERE name LIKE ? OR email LIKE ?");
+                for (PreparedStatement statement : new PreparedStatement[]{pageQuery, countQuery}) {
+                    statement.setString(1, pattern);
+                    statement.setString(2, pattern);
+                }
+            }
+            case "trigram" -> {
+                // Misma consulta que TrigramUserSearchIndex, primera página
+                pageQuery = connection.prepareStatement("SELECT id, score FROM ("
+                        + "SELECT u.id, ROUND(CAST(GREATEST(similarity(u.name, ?), similarity(u.email, ?)) AS numeric), 4) "
+                        + "AS score FROM " + table + " u WHERE u.name ILIKE ? OR u.email ILIKE ?) ranked "
+                        + "ORDER BY score DESC, id LIMIT " + PAGE_SIZE);
+                pageQuery.setString(1, query);
+                pageQuery.setString(2, query);
+                pageQuery.setString(3, pattern);
+                pageQuery.setString(4, pattern);
+            }
+            default -> throw new IllegalArgumentException("Unknown engine: " + engine);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        if (connection != null) {
+            connection.close();
+        }
+    }
+
+    @Benchmark
+    public void firstPage(Blackhole blackhole) throws SQLException {
+        consume(pageQuery, blackhole);
+        if (countQuery != null) {
+            consume(countQuery, blackhole);
+        }
+    }
+
+    private static void consume(PreparedStatement statement, Blackhole blackhole) throws SQLException {
+        try (ResultSet rs = statement.executeQuery()) {
+            while (rs.next()) {
+                blackhole.consume(rs.getObject(1));
+            }
+        }
+    }
+
+    static String name(int i) {
+        return FIRST_NAMES[i % FIRST_NAMES.length] + " " + SURNAMES[(i / 7) % SURNAMES.length] + " "
+                + SURNAMES[(i / 3) % SURNAMES.length];
+    }
+
+    static String email(int i) {
+        return "user" + i + "@bench.medihelp360.com";
+    }
+
+    private void createTable(String table) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS " + table + " ("
+                    + "id UUID PRIMARY KEY, "
+                    + "email VARCHAR(255) NOT NULL, "
+                    + "name VARCHAR(255) NOT NULL, "
+                    + "created_at TIMESTAMP NOT NULL)");
+            statement.execute("CREATE INDEX IF NOT EXISTS idx_" + table + "_created_at_id ON " + table + "(created_at, id)");
+            if ("trigram".equals(engine)) {
+                statement.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+                statement.execute("CREATE INDEX IF NOT EXISTS idx_" + table + "_name_trgm ON " + table
+                        + " USING gin (name gin_trgm_ops)");
+                statement.execute("CREATE INDEX IF NOT EXISTS idx_" + table + "_email_trgm ON " + table
+                        + " USING gin (email gin_trgm_ops)");
+            }
+        }
+    }
+
+    private void populate(String table) throws SQLException {
+        long existing;
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM " + table)) {
+            rs.next();
+            existing = rs.getLong(1);
+        }
+        if (existing >= users) {
+            return;
+        }
+
+        System.out.printf("Populating %s from %d to %d rows...%n", table, existing, users);
+        LocalDateTime base = LocalDateTime.of(2020, 1, 1, 0, 0);
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO " + table + " (id, email, name, created_at) VALUES (?, ?, ?, ?)")) {
+            for (int i = (int) existing; i < users; i++) {
+                insert.setObject(1, UUID.randomUUID());
+                insert.setString(2, email(i));
+                insert.setString(3, name(i));
+                insert.setTimestamp(4, Timestamp.valueOf(base.plusSeconds(i)));
+                insert.addBatch();
+                if ((i + 1) % INSERT_BATCH == 0) {
+                    insert.executeBatch();
+                    connection.commit();
+                }
+            }
+            insert.executeBatch();
+            connection.commit();
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(connection.getMetaData().getDatabaseProductName().contains("PostgreSQL")
+                    ? "ANALYZE " + table : "ANALYZE");
+        }
+    }
+}
@@ -1,7 +1,7 @@
 package com.medihelp360.sync.listener;
 
+import com.medihelp360.events.codec.UserEventData;
 import com.medihelp360.sync.service.UserSyncService;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.annotation.KafkaListener;
@@ -12,15 +12,12 @@ import org.springframework.retry.annotation.Backoff;
 import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Component;
 
-import java.util.Map;
-
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class UserEventListener {
     
     private final UserSyncService userSyncService;
-    private final ObjectMapper objectMapper;
     
     @KafkaListener(topics = "user-events", groupId = "database-sync-service-a")
     @Retryable(
@@ -29,32 +26,31 @@ public class UserEventListener {
         backoff = @Backoff(delay = 1000, multiplier = 2)
     )
     public void handleUserEvent(
-            @Payload String payload,
+            @Payload UserEventData event,
             @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
             @Header(KafkaHeaders.OFFSET) long offset) {
         
         log.info("Received event from topic: {}, offset: {}", topic, offset);
         
         try {
-            // Parsear el evento genérico
-            Map<String, Object> eventData = objectMapper.readValue(payload, Map.class);
-            String eventType = (String) eventData.get("eventType");
+            // El deserializador de event-codec ya entrega el evento decodificado (JSON o binario)
+            String eventType = event.getEventType();
             
             log.info("Processing event type: {}", eventType);
             
             switch (eventType) {
                 case "UserCreatedEvent":
-                    userSyncService.handleUserCreated(eventData);
+                    userSyncService.handleUserCreated(event);
                     break;
                 case "UserUpdatedEvent":
-                    userSyncService.handleUserUpdated(eventData);
+                    userSyncService.handleUserUpdated(event);
                     break;
                 default:
                     log.warn("Unknown event type: {}", eventType);
             }
             
         } catch (Exception e) {
-            log.error("Error processing user event: {}", payload, e);
+            log.error("Error processing user event: {}", event, e);
             throw new RuntimeException("Failed to process user event", e);
         }
     }
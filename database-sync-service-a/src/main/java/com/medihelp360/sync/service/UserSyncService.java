@@ -1,5 +1,6 @@
 package com.medihelp360.sync.service;
 
+import com.medihelp360.events.codec.UserEventData;
 import com.medihelp360.sync.domain.SyncUser;
 import com.medihelp360.sync.repository.SyncUserRepository;
 import lombok.RequiredArgsConstructor;
@@ -8,8 +9,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.util.List;
-import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
@@ -20,15 +20,15 @@ public class UserSyncService {
     
     private final SyncUserRepository syncUserRepository;
     
-    public void handleUserCreated(Map<String, Object> eventData) {
-        log.info("Handling user created event for user: {}", eventData.get("userId"));
+    public void handleUserCreated(UserEventData eventData) {
+        log.info("Handling user created event for user: {}", eventData.getUserId());
         
         try {
-            UUID userId = UUID.fromString((String) eventData.get("userId"));
-            String email = (String) eventData.get("email");
-            String name = (String) eventData.get("name");
-            String status = (String) eventData.get("status");
-            List<String> roles = (List<String>) eventData.get("roles");
+            UUID userId = eventData.getUserId();
+            String email = eventData.getEmail();
+            String name = eventData.getName();
+            String status = eventData.getStatus();
+            Set<String> roles = eventData.getRoles();
             
             // Verificar si el usuario ya existe para evitar duplicados
             if (syncUserRepository.existsByOriginalUserId(userId)) {
@@ -58,15 +58,15 @@ public class UserSyncService {
         }
     }
     
-    public void handleUserUpdated(Map<String, Object> eventData) {
-        log.info("Handling user updated event for user: {}", eventData.get("userId"));
+    public void handleUserUpdated(UserEventData eventData) {
+        log.info("Handling user updated event for user: {}", eventData.getUserId());
         
         try {
-            UUID userId = UUID.fromString((String) eventData.get("userId"));
-            String email = (String) eventData.get("email");
-            String name = (String) eventData.get("name");
-            String status = (String) eventData.get("status");
-            List<String> roles = (List<String>) eventData.get("roles");
+            UUID userId = eventData.getUserId();
+            String email = eventData.getEmail();
+            String name = eventData.getName();
+            String status = eventData.getStatus();
+            Set<String> roles = eventData.getRoles();
             Long currentVersion = System.currentTimeMillis();
             
             SyncUser existingUser = syncUserRepository.findByOriginalUserId(userId)
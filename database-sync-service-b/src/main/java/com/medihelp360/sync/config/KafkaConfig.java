@@ -1,5 +1,7 @@
 package com.medihelp360.sync.config;
 
+import com.medihelp360.events.codec.UserEventData;
+import com.medihelp360.events.codec.UserEventDeserializer;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
@@ -32,10 +34,11 @@ public class KafkaConfig {
     private String groupId;
     
     /**
-     * Configuración del consumidor de Kafka
+     * Configuración del consumidor de Kafka. Los eventos de usuario se decodifican con event-codec,
+     * que acepta tanto el JSON anterior como el formato binario.
      */
     @Bean
-    public ConsumerFactory<String, String> consumerFactory() {
+    public ConsumerFactory<String, UserEventData> consumerFactory() {
         Map<String, Object> props = new HashMap<>();
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
@@ -48,7 +51,7 @@ public class KafkaConfig {
         
         // Configurar los deserializadores delegados
         props.put(ErrorHandlingDeserializer.KEY_DESERIALIZER_CLASS, StringDeserializer.class);
-        props.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, StringDeserializer.class);
+        props.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, UserEventDeserializer.class);
         
         return new DefaultKafkaConsumerFactory<>(props);
     }
@@ -57,8 +60,8 @@ public class KafkaConfig {
      * Factory para contenedores de listeners de Kafka
      */
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, String> kafkaListenerContainerFactory() {
-        ConcurrentKafkaListenerContainerFactory<String, String> factory = 
+    public ConcurrentKafkaListenerContainerFactory<String, UserEventData> kafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, UserEventData> factory = 
             new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());
         
@@ -2,12 +2,14 @@ package com.medihelp360.sync.event;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.medihelp360.events.codec.UserEventData;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
@@ -41,6 +43,25 @@ public class UserEvent {
     private String status;
     private String previousStatus; // Para eventos de actualización
     
+    /**
+     * Evento decodificado por event-codec (JSON o binario)
+     */
+    public static UserEvent from(UserEventData data) {
+        return UserEvent.builder()
+                .eventId(data.getEventId())
+                .eventType(data.getEventType())
+                .aggregateId(data.getAggregateId())
+                .timestamp(data.getTimestamp())
+                .metadata(data.getMetadata() != null ? new HashMap<>(data.getMetadata()) : null)
+                .userId(data.getUserId())
+                .email(data.getEmail())
+                .name(data.getName())
+                .roles(data.getRoles())
+                .status(data.getStatus())
+                .previousStatus(data.getPreviousStatus())
+                .build();
+    }
+    
     // Métodos de conveniencia para compatibilidad
     public String getEventId() {
         return eventId != null ? eventId.toString() : null;
@@ -1,8 +1,8 @@
 package com.medihelp360.sync.listener;
 
+import com.medihelp360.events.codec.UserEventData;
 import com.medihelp360.sync.event.UserEvent;
 import com.medihelp360.sync.service.UserSyncService;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
@@ -22,7 +22,6 @@ import org.springframework.stereotype.Component;
 public class UserEventListener {
     
     private final UserSyncService userSyncService;
-    private final ObjectMapper objectMapper;
     
     @KafkaListener(
         topics = "user-events",
@@ -30,7 +29,7 @@ public class UserEventListener {
         containerFactory = "kafkaListenerContainerFactory"
     )
     public void handleUserEvent(
-            @Payload String payload,
+            @Payload(required = false) UserEventData payload,
             @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
             @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
             @Header(KafkaHeaders.OFFSET) long offset,
@@ -41,15 +40,15 @@ public class UserEventListener {
         
         try {
             // Validar payload
-            if (payload == null || payload.trim().isEmpty()) {
+            if (payload == null) {
                 log.warn("Payload vacío o nulo recibido - Topic: {}, Partition: {}, Offset: {}", 
                         topic, partition, offset);
                 acknowledgment.acknowledge();
                 return;
             }
             
-            // Deserializar el evento
-            UserEvent userEvent = objectMapper.readValue(payload, UserEvent.class);
+            // El deserializador de event-codec ya decodificó el evento (JSON o binario)
+            UserEvent userEvent = UserEvent.from(payload);
             
             // Validar evento
             if (userEvent == null || userEvent.getEventType() == null) {
@@ -7,11 +7,13 @@ import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateTimeDeserializer;
 import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateTimeSerializer;
+import com.medihelp360.events.codec.UserEventData;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -61,6 +63,25 @@ public class UserEvent {
     private String previousStatus;
     
     // Métodos de conveniencia para compatibilidad
+    /**
+     * Evento decodificado por event-codec (JSON o binario)
+     */
+    public static UserEvent from(UserEventData data) {
+        UserEvent event = new UserEvent();
+        event.setEventId(data.getEventId());
+        event.setEventType(data.getEventType());
+        event.setAggregateId(data.getAggregateId());
+        event.setTimestamp(data.getTimestamp());
+        event.setMetadata(data.getMetadata() != null ? new HashMap<>(data.getMetadata()) : null);
+        event.setUserId(data.getUserId());
+        event.setEmail(data.getEmail());
+        event.setName(data.getName());
+        event.setRoles(data.getRoles());
+        event.setStatus(data.getStatus());
+        event.setPreviousStatus(data.getPreviousStatus());
+        return event;
+    }
+    
     public String getEventIdAsString() {
         return eventId != null ? eventId.toString() : null;
     }
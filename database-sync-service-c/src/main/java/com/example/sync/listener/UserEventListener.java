@@ -2,7 +2,7 @@ package com.example.sync.listener;
 
 import com.example.sync.event.UserEvent;
 import com.example.sync.service.UserSyncService;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medihelp360.events.codec.UserEventData;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
@@ -15,8 +15,6 @@ import org.springframework.retry.annotation.Backoff;
 import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Component;
 
-import java.util.Map;
-
 /**
  * Listener de eventos de usuario desde Kafka
  */
@@ -26,7 +24,6 @@ import java.util.Map;
 public class UserEventListener {
     
     private final UserSyncService userSyncService;
-    private final ObjectMapper objectMapper;
     
     /**
      * Maneja eventos de usuario desde Kafka
@@ -42,7 +39,7 @@ public class UserEventListener {
         backoff = @Backoff(delay = 1000, multiplier = 2)
     )
     public void handleUserEvent(
-            ConsumerRecord<String, Object> record,
+            ConsumerRecord<String, UserEventData> record,
             @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
             @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
             @Header(KafkaHeaders.OFFSET) long offset,
@@ -53,7 +50,7 @@ public class UserEventListener {
         
         try {
             // Extraer el payload del ConsumerRecord
-            Object payload = record.value();
+            UserEventData payload = record.value();
             
             // Validar payload
             if (payload == null) {
@@ -65,8 +62,8 @@ public class UserEventListener {
             
             log.debug("Payload extraído: {}", payload);
             
-            // Convertir payload a UserEvent
-            UserEvent userEvent = convertToUserEvent(payload);
+            // El deserializador de event-codec ya decodificó el evento (JSON o binario)
+            UserEvent userEvent = UserEvent.from(payload);
             
             // Validar evento
             if (userEvent.getEventType() == null || userEvent.getUserId() == null) {
@@ -112,23 +109,4 @@ public class UserEventListener {
             throw new RuntimeException("Error procesando evento de usuario", e);
         }
     }
-    
-    /**
-     * Convierte el payload a UserEvent
-     */
-    private UserEvent convertToUserEvent(Object payload) throws Exception {
-        if (payload instanceof UserEvent) {
-            return (UserEvent) payload;
-        } else if (payload instanceof Map) {
-            // Si es un Map, convertir a UserEvent
-            return objectMapper.convertValue(payload, UserEvent.class);
-        } else if (payload instanceof String) {
-            // Si es String JSON, deserializar
-            return objectMapper.readValue((String) payload, UserEvent.class);
-        } else {
-            // Intentar convertir usando ObjectMapper
-            String jsonPayload = objectMapper.writeValueAsString(payload);
-            return objectMapper.readValue(jsonPayload, UserEvent.class);
-        }
-    }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,81 @@
+package com.medihelp360.events.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Lectura del formato de {@link BinaryEventWriter}. Cualquier lectura fuera del payload o varint
+ * mal formado se señala con {@link EventCodecException}.
+ */
+final class BinaryEventReader {
+
+    private final byte[] buffer;
+    private int position;
+
+    BinaryEventReader(byte[] buffer, int offset) {
+        this.buffer = buffer;
+        this.position = offset;
+    }
+
+    int readByte() {
+        require(1);
+        return buffer[position++] & 0xFF;
+    }
+
+    long readVarLong() {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new EventCodecException("Malformed varint at offset " + position);
+    }
+
+    int readVarInt() {
+        long value = readVarLong();
+        if (value > Integer.MAX_VALUE) {
+            throw new EventCodecException("Varint out of int range at offset " + position);
+        }
+        return (int) value;
+    }
+
+    long readSignedVarLong() {
+        long value = readVarLong();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    String readString() {
+        int length = readVarInt();
+        require(length);
+        String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+
+    UUID readUuid() {
+        return new UUID(readLong(), readLong());
+    }
+
+    boolean hasRemaining() {
+        return position < buffer.length;
+    }
+
+    private long readLong() {
+        require(8);
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | (buffer[position++] & 0xFF);
+        }
+        return value;
+    }
+
+    private void require(int bytes) {
+        if (bytes < 0 || position + bytes > buffer.length) {
+            throw new EventCodecException("Truncated event payload: need " + bytes + " bytes at offset " + position
+                    + " of " + buffer.length);
+        }
+    }
+}
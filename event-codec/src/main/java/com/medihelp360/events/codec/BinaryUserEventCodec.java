@@ -0,0 +1,45 @@
+package com.medihelp360.events.codec;
+
+/**
+ * Formato binario compacto: un byte con la versión de esquema seguido del cuerpo que define esa versión
+ * en {@link EventSchemaRegistry}.
+ */
+public class BinaryUserEventCodec implements UserEventCodec {
+
+    private static final int INITIAL_CAPACITY = 128;
+
+    private final EventSchemaRegistry registry;
+
+    public BinaryUserEventCodec() {
+        this(EventSchemaRegistry.defaultRegistry());
+    }
+
+    public BinaryUserEventCodec(EventSchemaRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public byte[] encode(UserEventData event) {
+        UserEventSchema schema = registry.current();
+        BinaryEventWriter out = new BinaryEventWriter(INITIAL_CAPACITY);
+        out.writeByte(schema.version());
+        schema.write(event, out);
+        return out.toByteArray();
+    }
+
+    @Override
+    public UserEventData decode(byte[] payload) {
+        if (payload.length == 0) {
+            throw new EventCodecException("Empty user event payload");
+        }
+        BinaryEventReader in = new BinaryEventReader(payload, 0);
+        return registry.forVersion(in.readByte()).read(in);
+    }
+
+    /**
+     * Si el payload empieza por un byte de versión válido (y no por el de un documento JSON).
+     */
+    public static boolean isBinary(byte[] payload) {
+        return payload.length > 0 && payload[0] >= 1 && payload[0] <= EventSchemaRegistry.MAX_VERSION;
+    }
+}
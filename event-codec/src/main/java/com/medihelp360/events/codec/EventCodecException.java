@@ -0,0 +1,15 @@
+package com.medihelp360.events.codec;
+
+/**
+ * Payload que no se puede codificar o decodificar (formato corrupto o versión de esquema desconocida).
+ */
+public class EventCodecException extends RuntimeException {
+
+    public EventCodecException(String message) {
+        super(message);
+    }
+
+    public EventCodecException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,68 @@
+package com.medihelp360.events.codec;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Registro de esquemas binarios conocidos, versionados por el primer byte del payload.
+ * <p>
+ * Sustituye dentro del repositorio a un schema registry externo: los esquemas viajan con el código de
+ * este módulo en lugar de descargarse por id. Un productor escribe siempre la versión {@link #currentVersion()}
+ * y un consumidor lee cualquier versión registrada, así que para cambiar el formato se despliega primero
+ * a los consumidores una versión que conozca el esquema nuevo y después se sube {@code current}.
+ * <p>
+ * Las versiones van de 1 a {@value #MAX_VERSION}: así el primer byte de un payload binario nunca se
+ * confunde con el de un JSON ({@code '{'}, espacios, tabuladores, saltos de línea o BOM).
+ */
+public final class EventSchemaRegistry {
+
+    public static final int MAX_VERSION = 8;
+
+    private static final EventSchemaRegistry DEFAULT = new EventSchemaRegistry(UserEventSchemaV1.VERSION,
+            new UserEventSchemaV1());
+
+    private final Map<Integer, UserEventSchema> schemas = new TreeMap<>();
+    private final UserEventSchema current;
+
+    EventSchemaRegistry(int currentVersion, UserEventSchema... schemas) {
+        for (UserEventSchema schema : schemas) {
+            if (schema.version() < 1 || schema.version() > MAX_VERSION) {
+                throw new IllegalArgumentException("Schema version out of range: " + schema.version());
+            }
+            if (this.schemas.putIfAbsent(schema.version(), schema) != null) {
+                throw new IllegalArgumentException("Duplicate schema version: " + schema.version());
+            }
+        }
+        this.current = this.schemas.get(currentVersion);
+        if (current == null) {
+            throw new IllegalArgumentException("Current schema version not registered: " + currentVersion);
+        }
+    }
+
+    public static EventSchemaRegistry defaultRegistry() {
+        return DEFAULT;
+    }
+
+    public int currentVersion() {
+        return current.version();
+    }
+
+    public Set<Integer> supportedVersions() {
+        return Collections.unmodifiableSet(schemas.keySet());
+    }
+
+    UserEventSchema current() {
+        return current;
+    }
+
+    UserEventSchema forVersion(int version) {
+        UserEventSchema schema = schemas.get(version);
+        if (schema == null) {
+            throw new EventCodecException("Unknown user event schema version " + version
+                    + " (supported: " + schemas.keySet() + ")");
+        }
+        return schema;
+    }
+}
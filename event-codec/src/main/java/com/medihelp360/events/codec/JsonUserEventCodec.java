@@ -0,0 +1,47 @@
+package com.medihelp360.events.codec;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.IOException;
+
+/**
+ * El JSON que publicaba user-management-service hasta ahora (ObjectMapper de Spring Kafka): mismos nombres
+ * de campo y fechas como array {@code [año, mes, día, hora, minuto, segundo, nanos]}, que es lo que aceptan
+ * los listeners anteriores. Se mantiene para desplegar por fases: los consumidores que aún no usan este
+ * módulo lo siguen leyendo. Al leer también se aceptan fechas ISO-8601.
+ */
+public class JsonUserEventCodec implements UserEventCodec {
+
+    private final ObjectReader reader;
+    private final ObjectWriter writer;
+
+    public JsonUserEventCodec() {
+        ObjectMapper mapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        this.reader = mapper.readerFor(UserEventData.class);
+        this.writer = mapper.writerFor(UserEventData.class);
+    }
+
+    @Override
+    public byte[] encode(UserEventData event) {
+        try {
+            return writer.writeValueAsBytes(event);
+        } catch (IOException e) {
+            throw new EventCodecException("Could not write user event as JSON", e);
+        }
+    }
+
+    @Override
+    public UserEventData decode(byte[] payload) {
+        try {
+            return reader.readValue(payload);
+        } catch (IOException e) {
+            throw new EventCodecException("Could not read user event JSON", e);
+        }
+    }
+}
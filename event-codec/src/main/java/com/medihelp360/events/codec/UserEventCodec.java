@@ -0,0 +1,11 @@
+package com.medihelp360.events.codec;
+
+/**
+ * Convierte {@link UserEventData} a bytes y viceversa.
+ */
+public interface UserEventCodec {
+
+    byte[] encode(UserEventData event);
+
+    UserEventData decode(byte[] payload);
+}
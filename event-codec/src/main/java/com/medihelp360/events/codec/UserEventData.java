@@ -0,0 +1,40 @@
+package com.medihelp360.events.codec;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Evento de usuario tal como viaja por el topic {@code user-events}, independiente del formato.
+ * <p>
+ * Reúne los campos de {@code UserCreatedEvent} y {@code UserUpdatedEvent} de user-management-service;
+ * los nombres coinciden con los del JSON que ya publicaba el servicio, así que un consumidor antiguo
+ * sigue leyendo lo que escribe {@link JsonUserEventCodec}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class UserEventData {
+
+    private UUID eventId;
+    private String eventType;
+    private UUID aggregateId;
+    private LocalDateTime timestamp;
+    private Map<String, String> metadata;
+
+    private UUID userId;
+    private String email;
+    private String name;
+    private Set<String> roles;
+    private String status;
+    private String previousStatus;
+}
@@ -0,0 +1,24 @@
+package com.medihelp360.events.codec;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+
+/**
+ * {@link Deserializer} de Kafka para {@link UserEventData}. Lee tanto el JSON anterior como cualquier
+ * versión binaria registrada en {@link EventSchemaRegistry}, así que no necesita configuración y sirve
+ * mientras productores con formatos distintos conviven en el mismo topic.
+ */
+public class UserEventDeserializer implements Deserializer<UserEventData> {
+
+    @Override
+    public UserEventData deserialize(String topic, byte[] data) {
+        if (data == null || data.length == 0) {
+            return null;
+        }
+        try {
+            return UserEventFormat.decodeAny(data);
+        } catch (EventCodecException e) {
+            throw new SerializationException("Could not deserialize user event from topic " + topic, e);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.medihelp360.events.codec;
+
+import java.util.Locale;
+
+/**
+ * Formato con el que se escriben los eventos. La lectura no depende de él: {@link UserEventDeserializer}
+ * reconoce los dos por el primer byte.
+ */
+public enum UserEventFormat {
+
+    JSON {
+        @Override
+        public UserEventCodec codec() {
+            return JSON_CODEC;
+        }
+    },
+    BINARY {
+        @Override
+        public UserEventCodec codec() {
+            return BINARY_CODEC;
+        }
+    };
+
+    private static final UserEventCodec JSON_CODEC = new JsonUserEventCodec();
+    private static final UserEventCodec BINARY_CODEC = new BinaryUserEventCodec();
+
+    public abstract UserEventCodec codec();
+
+    /**
+     * Acepta el valor de configuración en cualquier combinación de mayúsculas ({@code json}, {@code binary}).
+     */
+    public static UserEventFormat fromString(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported user event format: " + value
+                    + " (expected json or binary)", e);
+        }
+    }
+
+    /**
+     * Decodifica un payload en cualquiera de los dos formatos.
+     */
+    public static UserEventData decodeAny(byte[] payload) {
+        return BinaryUserEventCodec.isBinary(payload) ? BINARY_CODEC.decode(payload) : JSON_CODEC.decode(payload);
+    }
+}
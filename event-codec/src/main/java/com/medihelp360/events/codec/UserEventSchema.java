@@ -0,0 +1,14 @@
+package com.medihelp360.events.codec;
+
+/**
+ * Una versión del formato binario de {@link UserEventData}. El byte de versión lo escribe y lee
+ * {@link BinaryUserEventCodec}; el esquema solo se ocupa del cuerpo.
+ */
+interface UserEventSchema {
+
+    int version();
+
+    void write(UserEventData event, BinaryEventWriter out);
+
+    UserEventData read(BinaryEventReader in);
+}
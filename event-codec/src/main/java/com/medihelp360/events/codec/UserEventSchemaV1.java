@@ -0,0 +1,197 @@
+package com.medihelp360.events.codec;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Esquema binario v1 de {@link UserEventData}.
+ * <pre>
+ * flags          varint   bit a bit, qué campos vienen a continuación (ver constantes)
+ * eventType      token
+ * eventId        uuid
+ * aggregateId    uuid     se omite si coincide con userId (FLAG_AGGREGATE_IS_USER)
+ * timestamp      zigzag varint segundos epoch (UTC) + varint nanos
+ * userId         uuid
+ * email, name    string
+ * roles          varint n + n tokens
+ * status         token
+ * previousStatus token
+ * metadata       varint n + n pares string/string
+ * </pre>
+ * Un token es un varint: {@code 0} seguido de un string literal, o {@code i + 1} para el valor {@code i}
+ * de su diccionario. Los diccionarios forman parte del esquema: añadir un valor exige una versión nueva,
+ * aunque los valores que no están en él siempre se pueden enviar como literal.
+ */
+final class UserEventSchemaV1 implements UserEventSchema {
+
+    static final int VERSION = 1;
+
+    private static final int FLAG_EVENT_TYPE = 1;
+    private static final int FLAG_EVENT_ID = 1 << 1;
+    private static final int FLAG_AGGREGATE_ID = 1 << 2;
+    private static final int FLAG_AGGREGATE_IS_USER = 1 << 3;
+    private static final int FLAG_TIMESTAMP = 1 << 4;
+    private static final int FLAG_USER_ID = 1 << 5;
+    private static final int FLAG_EMAIL = 1 << 6;
+    private static final int FLAG_NAME = 1 << 7;
+    private static final int FLAG_ROLES = 1 << 8;
+    private static final int FLAG_STATUS = 1 << 9;
+    private static final int FLAG_PREVIOUS_STATUS = 1 << 10;
+    private static final int FLAG_METADATA = 1 << 11;
+
+    private static final List<String> EVENT_TYPES = List.of("UserCreatedEvent", "UserUpdatedEvent", "UserDeletedEvent");
+    private static final List<String> STATUSES = List.of("ACTIVE", "INACTIVE", "DISABLED", "PENDING_VERIFICATION");
+    private static final List<String> ROLES = List.of("USER", "ADMIN", "MANAGER");
+
+    @Override
+    public int version() {
+        return VERSION;
+    }
+
+    @Override
+    public void write(UserEventData event, BinaryEventWriter out) {
+        boolean aggregateIsUser = event.getAggregateId() != null && event.getAggregateId().equals(event.getUserId());
+        int flags = flag(event.getEventType() != null, FLAG_EVENT_TYPE)
+                | flag(event.getEventId() != null, FLAG_EVENT_ID)
+                | flag(event.getAggregateId() != null && !aggregateIsUser, FLAG_AGGREGATE_ID)
+                | flag(aggregateIsUser, FLAG_AGGREGATE_IS_USER)
+                | flag(event.getTimestamp() != null, FLAG_TIMESTAMP)
+                | flag(event.getUserId() != null, FLAG_USER_ID)
+                | flag(event.getEmail() != null, FLAG_EMAIL)
+                | flag(event.getName() != null, FLAG_NAME)
+                | flag(event.getRoles() != null, FLAG_ROLES)
+                | flag(event.getStatus() != null, FLAG_STATUS)
+                | flag(event.getPreviousStatus() != null, FLAG_PREVIOUS_STATUS)
+                | flag(event.getMetadata() != null, FLAG_METADATA);
+        out.writeVarInt(flags);
+
+        if ((flags & FLAG_EVENT_TYPE) != 0) {
+            writeToken(out, event.getEventType(), EVENT_TYPES);
+        }
+        if ((flags & FLAG_EVENT_ID) != 0) {
+            out.writeUuid(event.getEventId());
+        }
+        if ((flags & FLAG_AGGREGATE_ID) != 0) {
+            out.writeUuid(event.getAggregateId());
+        }
+        if ((flags & FLAG_TIMESTAMP) != 0) {
+            out.writeSignedVarLong(event.getTimestamp().toEpochSecond(ZoneOffset.UTC));
+            out.writeVarInt(event.getTimestamp().getNano());
+        }
+        if ((flags & FLAG_USER_ID) != 0) {
+            out.writeUuid(event.getUserId());
+        }
+        if ((flags & FLAG_EMAIL) != 0) {
+            out.writeString(event.getEmail());
+        }
+        if ((flags & FLAG_NAME) != 0) {
+            out.writeString(event.getName());
+        }
+        if ((flags & FLAG_ROLES) != 0) {
+            out.writeVarInt(event.getRoles().size());
+            for (String role : event.getRoles()) {
+                writeToken(out, role, ROLES);
+            }
+        }
+        if ((flags & FLAG_STATUS) != 0) {
+            writeToken(out, event.getStatus(), STATUSES);
+        }
+        if ((flags & FLAG_PREVIOUS_STATUS) != 0) {
+            writeToken(out, event.getPreviousStatus(), STATUSES);
+        }
+        if ((flags & FLAG_METADATA) != 0) {
+            out.writeVarInt(event.getMetadata().size());
+            for (Map.Entry<String, String> entry : event.getMetadata().entrySet()) {
+                out.writeString(entry.getKey());
+                out.writeString(String.valueOf(entry.getValue()));
+            }
+        }
+    }
+
+    @Override
+    public UserEventData read(BinaryEventReader in) {
+        int flags = in.readVarInt();
+        UserEventData event = new UserEventData();
+
+        if ((flags & FLAG_EVENT_TYPE) != 0) {
+            event.setEventType(readToken(in, EVENT_TYPES));
+        }
+        if ((flags & FLAG_EVENT_ID) != 0) {
+            event.setEventId(in.readUuid());
+        }
+        if ((flags & FLAG_AGGREGATE_ID) != 0) {
+            event.setAggregateId(in.readUuid());
+        }
+        if ((flags & FLAG_TIMESTAMP) != 0) {
+            long epochSecond = in.readSignedVarLong();
+            int nanos = in.readVarInt();
+            event.setTimestamp(LocalDateTime.ofEpochSecond(epochSecond, nanos, ZoneOffset.UTC));
+        }
+        if ((flags & FLAG_USER_ID) != 0) {
+            event.setUserId(in.readUuid());
+        }
+        if ((flags & FLAG_AGGREGATE_IS_USER) != 0) {
+            event.setAggregateId(event.getUserId());
+        }
+        if ((flags & FLAG_EMAIL) != 0) {
+            event.setEmail(in.readString());
+        }
+        if ((flags & FLAG_NAME) != 0) {
+            event.setName(in.readString());
+        }
+        if ((flags & FLAG_ROLES) != 0) {
+            int count = in.readVarInt();
+            Set<String> roles = new LinkedHashSet<>();
+            for (int i = 0; i < count; i++) {
+                roles.add(readToken(in, ROLES));
+            }
+            event.setRoles(roles);
+        }
+        if ((flags & FLAG_STATUS) != 0) {
+            event.setStatus(readToken(in, STATUSES));
+        }
+        if ((flags & FLAG_PREVIOUS_STATUS) != 0) {
+            event.setPreviousStatus(readToken(in, STATUSES));
+        }
+        if ((flags & FLAG_METADATA) != 0) {
+            int count = in.readVarInt();
+            Map<String, String> metadata = new LinkedHashMap<>();
+            for (int i = 0; i < count; i++) {
+                metadata.put(in.readString(), in.readString());
+            }
+            event.setMetadata(metadata);
+        }
+        if (in.hasRemaining()) {
+            throw new EventCodecException("Trailing bytes after user event (schema v" + VERSION + ")");
+        }
+        return event;
+    }
+
+    private static int flag(boolean present, int flag) {
+        return present ? flag : 0;
+    }
+
+    private static void writeToken(BinaryEventWriter out, String value, List<String> dictionary) {
+        int index = dictionary.indexOf(value);
+        out.writeVarInt(index + 1);
+        if (index < 0) {
+            out.writeString(value);
+        }
+    }
+
+    private static String readToken(BinaryEventReader in, List<String> dictionary) {
+        int code = in.readVarInt();
+        if (code == 0) {
+            return in.readString();
+        }
+        if (code > dictionary.size()) {
+            throw new EventCodecException("Unknown dictionary code " + code + " (schema v" + VERSION + ")");
+        }
+        return dictionary.get(code - 1);
+    }
+}
@@ -0,0 +1,45 @@
+package com.medihelp360.events.codec;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.util.Map;
+
+/**
+ * {@link Serializer} de Kafka para {@link UserEventData}. El formato se elige con la propiedad
+ * {@value #FORMAT_CONFIG} ({@code json} por defecto, o {@code binary}) o en el constructor.
+ */
+public class UserEventSerializer implements Serializer<UserEventData> {
+
+    public static final String FORMAT_CONFIG = "medihelp360.user-events.format";
+
+    private UserEventCodec codec;
+
+    public UserEventSerializer() {
+        this(UserEventFormat.JSON);
+    }
+
+    public UserEventSerializer(UserEventFormat format) {
+        this.codec = format.codec();
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        Object format = configs.get(FORMAT_CONFIG);
+        if (format != null) {
+            this.codec = UserEventFormat.fromString(format.toString()).codec();
+        }
+    }
+
+    @Override
+    public byte[] serialize(String topic, UserEventData data) {
+        if (data == null) {
+            return null;
+        }
+        try {
+            return codec.encode(data);
+        } catch (EventCodecException e) {
+            throw new SerializationException("Could not serialize user event for topic " + topic, e);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.medihelp360.events.codec;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UserEventCodecTest {
+
+    private final BinaryUserEventCodec binaryCodec = new BinaryUserEventCodec();
+    private final JsonUserEventCodec jsonCodec = new JsonUserEventCodec();
+    private final UserEventDeserializer deserializer = new UserEventDeserializer();
+
+    @Test
+    void binaryRoundTripKeepsEveryField() {
+        UserEventData event = updatedEvent();
+        event.setMetadata(Map.of("source", "import"));
+
+        byte[] payload = binaryCodec.encode(event);
+
+        assertThat(payload[0]).isEqualTo((byte) EventSchemaRegistry.defaultRegistry().currentVersion());
+        assertThat(binaryCodec.decode(payload)).isEqualTo(event);
+    }
+
+    @Test
+    void valuesOutsideTheDictionariesAreSentAsLiterals() {
+        UserEventData event = updatedEvent();
+        event.setEventType("UserMergedEvent");
+        event.setStatus("LOCKED");
+        event.setRoles(new LinkedHashSet<>(List.of("USER", "NURSE")));
+        event.setAggregateId(UUID.randomUUID());
+
+        assertThat(binaryCodec.decode(binaryCodec.encode(event))).isEqualTo(event);
+    }
+
+    @Test
+    void nullFieldsAreOmitted() {
+        UserEventData event = UserEventData.builder()
+                .eventType("UserDeletedEvent")
+                .userId(UUID.randomUUID())
+                .build();
+
+        byte[] payload = binaryCodec.encode(event);
+
+        // versión + flags + token + uuid
+        assertThat(payload).hasSize(1 + 1 + 1 + 16);
+        assertThat(binaryCodec.decode(payload)).isEqualTo(event);
+    }
+
+    @Test
+    void binaryIsSmallerThanJson() {
+        UserEventData event = updatedEvent();
+
+        assertThat(binaryCodec.encode(event).length).isLessThan(jsonCodec.encode(event).length / 2);
+    }
+
+    @Test
+    void deserializerReadsLegacyJsonAndBinary() {
+        UserEventData event = updatedEvent();
+        String legacyJson = "{\"eventId\":\"" + event.getEventId() + "\",\"eventType\":\"UserUpdatedEvent\","
+                + "\"aggregateId\":\"" + event.getUserId() + "\",\"timestamp\":[2024,3,1,10,15,30,123456000],"
+                + "\"metadata\":null,\"userId\":\"" + event.getUserId() + "\",\"email\":\"ana.garcia@medihelp360.com\","
+                + "\"name\":\"Ana García\",\"roles\":[\"USER\",\"ADMIN\"],\"status\":\"ACTIVE\","
+                + "\"previousStatus\":\"PENDING_VERIFICATION\"}";
+
+        assertThat(deserializer.deserialize("user-events", legacyJson.getBytes(StandardCharsets.UTF_8)))
+                .isEqualTo(event);
+        assertThat(deserializer.deserialize("user-events", binaryCodec.encode(event))).isEqualTo(event);
+        assertThat(deserializer.deserialize("user-events", legacyJson.replace("[2024,3,1,10,15,30,123456000]",
+                "\"2024-03-01T10:15:30.123456\"").getBytes(StandardCharsets.UTF_8))).isEqualTo(event);
+        assertThat(deserializer.deserialize("user-events", jsonCodec.encode(event))).isEqualTo(event);
+    }
+
+    @Test
+    void serializerFormatIsConfigurable() {
+        UserEventSerializer serializer = new UserEventSerializer();
+        UserEventData event = updatedEvent();
+
+        byte[] json = serializer.serialize("user-events", event);
+        assertThat(new String(json, StandardCharsets.UTF_8)).contains("\"timestamp\":[2024,3,1,10,15,30,123456000]");
+
+        serializer.configure(Map.of(UserEventSerializer.FORMAT_CONFIG, "binary"), false);
+        assertThat(BinaryUserEventCodec.isBinary(serializer.serialize("user-events", event))).isTrue();
+    }
+
+    @Test
+    void unknownVersionAndTruncatedPayloadsAreRejected() {
+        byte[] payload = binaryCodec.encode(updatedEvent());
+
+        byte[] futureVersion = payload.clone();
+        futureVersion[0] = (byte) EventSchemaRegistry.MAX_VERSION;
+        assertThatThrownBy(() -> deserializer.deserialize("user-events", futureVersion))
+                .isInstanceOf(SerializationException.class)
+                .hasRootCauseMessage("Unknown user event schema version 8 (supported: [1])");
+
+        byte[] truncated = Arrays.copyOf(payload, payload.length - 3);
+        assertThatThrownBy(() -> binaryCodec.decode(truncated))
+                .isInstanceOf(EventCodecException.class)
+                .hasMessageStartingWith("Truncated event payload");
+    }
+
+    private static UserEventData updatedEvent() {
+        UUID userId = UUID.randomUUID();
+        return UserEventData.builder()
+                .eventId(UUID.randomUUID())
+                .eventType("UserUpdatedEvent")
+                .aggregateId(userId)
+                .timestamp(LocalDateTime.of(2024, 3, 1, 10, 15, 30, 123_456_000))
+                .userId(userId)
+                .email("ana.garcia@medihelp360.com")
+                .name("Ana García")
+                .roles(new LinkedHashSet<>(List.of("USER", "ADMIN")))
+                .status("ACTIVE")
+                .previousStatus("PENDING_VERIFICATION")
+                .build();
+    }
+}
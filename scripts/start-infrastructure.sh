@@ -133,6 +133,7 @@ sleep 10
 log "Creando tópicos de Kafka..."
 docker exec kafka kafka-topics --create --topic user-events --partitions 3 --replication-factor 1 --if-not-exists --bootstrap-server localhost:9092
 docker exec kafka kafka-topics --create --topic user-sync-errors --partitions 1 --replication-factor 1 --if-not-exists --bootstrap-server localhost:9092
+docker exec kafka kafka-topics --create --topic role-events --partitions 1 --replication-factor 1 --if-not-exists --bootstrap-server localhost:9092
 
 # Verificar tópicos creados
 log "Verificando tópicos de Kafka..."
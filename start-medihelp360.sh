@@ -129,7 +129,7 @@ build_service() {
     local path=$2
     echo "   📦 Building $service..."
     cd "$path"
-    docker build -t "localhost:5001/medihelp360-$service:latest" . || {
+    docker build --build-context event-codec=../event-codec -t "localhost:5001/medihelp360-$service:latest" . || {
         print_warning "Failed to build $service"
         cd ..
         return 1
@@ -0,0 +1,46 @@
+package com.medihelp360.user.audit;
+
+import com.medihelp360.user.domain.AccessLog;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Copia inmutable de un {@link AccessLog} lista para escribirse en lote.
+ * Solo guarda el ID del usuario para no retener entidades JPA en el buffer. El id de la fila se genera aquí
+ * y se inserta explícitamente: el {@code DEFAULT gen_random_uuid()} solo existe en PostgreSQL y las entradas
+ * de un fichero de spill antiguo, sin id, reciben uno al leerse.
+ */
+public record AccessLogEntry(
+        UUID id,
+        UUID userId,
+        String action,
+        String ipAddress,
+        String userAgent,
+        boolean success,
+        String details,
+        LocalDateTime timestamp) {
+
+    public AccessLogEntry {
+        if (id == null) {
+            id = UUID.randomUUID();
+        }
+    }
+
+    public AccessLogEntry(UUID userId, String action, String ipAddress, String userAgent, boolean success,
+                          String details, LocalDateTime timestamp) {
+        this(null, userId, action, ipAddress, userAgent, success, details, timestamp);
+    }
+
+    public static AccessLogEntry from(AccessLog accessLog) {
+        return new AccessLogEntry(
+                accessLog.getId(),
+                accessLog.getUser() != null ? accessLog.getUser().getId() : null,
+                accessLog.getAction(),
+                accessLog.getIpAddress(),
+                accessLog.getUserAgent(),
+                !Boolean.FALSE.equals(accessLog.getSuccess()),
+                accessLog.getDetails(),
+                accessLog.getTimestamp() != null ? accessLog.getTimestamp() : LocalDateTime.now());
+    }
+}
@@ -0,0 +1,435 @@
+package com.medihelp360.user.audit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medihelp360.user.domain.AccessLog;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.NonTransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Pipeline asíncrono de auditoría para {@link AccessLog}.
+ * <p>
+ * Los productores (login, logout, registro) solo encolan la entrada en un buffer acotado sin locks;
+ * un único hilo de fondo la escribe con inserts JDBC en lote, junto con el upsert de los contadores
+ * horarios de {@code access_log_hourly_counts}. Así la latencia de autenticación
+ * no incluye la E/S de auditoría. La tabla de contadores solo existe en PostgreSQL (migración V6): con
+ * {@code app.audit.partitions.enabled=false} (H2) se escriben solo las filas. Al parar el contexto se vacía el buffer antes de cerrar el DataSource.
+ */
+@Component
+@Slf4j
+public class AccessLogWriter implements SmartLifecycle {
+
+    static final String INSERT_SQL = "INSERT INTO access_logs "
+            + "(id, user_id, action, ip_address, user_agent, success, details, timestamp) "
+            + "VALUES (?, ?, ?, ?, ?, ?, CAST(? AS JSONB), ?)";
+
+    static final String ROLLUP_UPSERT_SQL = "INSERT INTO access_log_hourly_counts "
+            + "(bucket_hour, action, success, count) VALUES (?, ?, ?, ?) "
+            + "ON CONFLICT (bucket_hour, action, success) "
+            + "DO UPDATE SET count = access_log_hourly_counts.count + EXCLUDED.count";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int capacity;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final long blockTimeoutNanos;
+    private final AuditOverflowPolicy overflowPolicy;
+    private final Path spillFile;
+    private final boolean rollupEnabled;
+
+    // Cola MPSC sin locks; el tamaño se reserva con un contador atómico para acotarla
+    private final ConcurrentLinkedQueue<AccessLogEntry> buffer = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+
+    private volatile boolean running;
+    private volatile boolean closed;
+    private volatile Thread flusher;
+
+    private final Timer flushLatency;
+    private final Counter writtenEntries;
+    private final Counter droppedEntries;
+    private final Counter spilledEntries;
+    private final Counter rejectedEntries;
+    private final Counter flushFailures;
+
+    public AccessLogWriter(JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager,
+                           ObjectMapper objectMapper,
+                           MeterRegistry meterRegistry,
+                           @Value("${app.audit.buffer-capacity:10000}") int capacity,
+                           @Value("${app.audit.batch-size:500}") int batchSize,
+                           @Value("${app.audit.flush-interval-ms:200}") long flushIntervalMillis,
+                           @Value("${app.audit.overflow-policy:DROP}") AuditOverflowPolicy overflowPolicy,
+                           @Value("${app.audit.block-timeout-ms:50}") long blockTimeoutMillis,
+                           @Value("${app.audit.spill-file:}") String spillFile,
+                           @Value("${app.audit.partitions.enabled:true}") boolean rollupEnabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        this.blockTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(blockTimeoutMillis);
+        this.overflowPolicy = overflowPolicy;
+        this.spillFile = StringUtils.hasText(spillFile)
+                ? Path.of(spillFile)
+                : Path.of(System.getProperty("java.io.tmpdir"), "medihelp360-access-log-spill.ndjson");
+        this.rollupEnabled = rollupEnabled;
+
+        Gauge.builder("audit.queue.depth", size, AtomicInteger::get)
+                .description("Access log entries waiting to be flushed")
+                .register(meterRegistry);
+        this.flushLatency = Timer.builder("audit.flush.latency")
+                .description("Time spent writing one batch of access log entries")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.writtenEntries = Counter.builder("audit.entries").tag("outcome", "written").register(meterRegistry);
+        this.droppedEntries = Counter.builder("audit.entries").tag("outcome", "dropped").register(meterRegistry);
+        this.spilledEntries = Counter.builder("audit.entries").tag("outcome", "spilled").register(meterRegistry);
+        this.rejectedEntries = Counter.builder("audit.entries").tag("outcome", "rejected").register(meterRegistry);
+        this.flushFailures = Counter.builder("audit.flush.failures").register(meterRegistry);
+    }
+
+    /**
+     * Encola el registro de auditoría; nunca hace E/S de base de datos en el hilo llamante.
+     */
+    public void write(AccessLog accessLog) {
+        enqueue(AccessLogEntry.from(accessLog));
+    }
+
+    /**
+     * Encola el registro cuando se confirme la transacción en curso y lo descarta si se deshace: para entradas
+     * que referencian un usuario insertado en esa misma transacción, que el flusher no puede ver antes del
+     * commit. Sin transacción activa se encola directamente.
+     */
+    public void writeAfterCommit(AccessLog accessLog) {
+        AccessLogEntry entry = AccessLogEntry.from(accessLog);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            enqueue(entry);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                enqueue(entry);
+            }
+        });
+    }
+
+    public void enqueue(AccessLogEntry entry) {
+        if (closed) {
+            // Después del shutdown no queda hilo de fondo: escribir directamente
+            flush(List.of(entry));
+            return;
+        }
+        if (tryOffer(entry)) {
+            return;
+        }
+        switch (overflowPolicy) {
+            case BLOCK -> {
+                if (!offerBlocking(entry)) {
+                    droppedEntries.increment();
+                }
+            }
+            case SPILL -> spill(List.of(entry));
+            case DROP -> droppedEntries.increment();
+        }
+    }
+
+    public int getQueueDepth() {
+        return size.get();
+    }
+
+    private boolean tryOffer(AccessLogEntry entry) {
+        int reserved = size.incrementAndGet();
+        if (reserved > capacity) {
+            size.decrementAndGet();
+            return false;
+        }
+        buffer.offer(entry);
+        if (reserved >= batchSize) {
+            Thread current = flusher;
+            if (current != null) {
+                LockSupport.unpark(current);
+            }
+        }
+        return true;
+    }
+
+    private boolean offerBlocking(AccessLogEntry entry) {
+        long deadline = System.nanoTime() + blockTimeoutNanos;
+        while (System.nanoTime() < deadline) {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+            if (tryOffer(entry)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void runFlusher() {
+        List<AccessLogEntry> batch = new ArrayList<>(batchSize);
+        while (running) {
+            drainTo(batch);
+            if (batch.isEmpty()) {
+                LockSupport.parkNanos(this, flushIntervalNanos);
+                continue;
+            }
+            flush(batch);
+            batch.clear();
+        }
+    }
+
+    private void drainTo(List<AccessLogEntry> batch) {
+        AccessLogEntry entry;
+        while (batch.size() < batchSize && (entry = buffer.poll()) != null) {
+            size.decrementAndGet();
+            batch.add(entry);
+        }
+    }
+
+    void flush(List<AccessLogEntry> batch) {
+        long start = System.nanoTime();
+        try {
+            write(batch);
+            writtenEntries.increment(batch.size());
+        } catch (DataAccessException | TransactionException e) {
+            flushFailures.increment();
+            log.warn("Failed to write {} access log entries, retrying one by one: {}", batch.size(), e.getMessage());
+            flushOneByOne(batch);
+        } finally {
+            flushLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Reintenta un lote fallido fila a fila para que una entrada que la base de datos nunca aceptará (FK a un
+     * usuario borrado, datos inválidos) no arrastre al resto. Esa entrada se descarta: si se volcara al fichero
+     * de spill, fallaría de nuevo en cada arranque. Ante un error que no depende de la fila (conexión, timeout)
+     * se deja de reintentar y lo que queda sigue la política de overflow.
+     */
+    private void flushOneByOne(List<AccessLogEntry> batch) {
+        for (int i = 0; i < batch.size(); i++) {
+            AccessLogEntry entry = batch.get(i);
+            try {
+                write(List.of(entry));
+                writtenEntries.increment();
+            } catch (DataAccessException | TransactionException e) {
+                if (!isRejectedRow(e)) {
+                    keepForLater(batch.subList(i, batch.size()), e);
+                    return;
+                }
+                rejectedEntries.increment();
+                log.error("Discarding access log entry {} ({}, user {}): {}",
+                        entry.id(), entry.action(), entry.userId(), e.getMessage());
+            }
+        }
+    }
+
+    private void keepForLater(List<AccessLogEntry> entries, RuntimeException failure) {
+        log.error("Failed to write {} access log entries: {}", entries.size(), failure.getMessage());
+        if (overflowPolicy == AuditOverflowPolicy.SPILL) {
+            spill(entries);
+        } else {
+            droppedEntries.increment(entries.size());
+        }
+    }
+
+    private static boolean isRejectedRow(RuntimeException failure) {
+        return failure instanceof NonTransientDataAccessException
+                && !(failure instanceof DataAccessResourceFailureException);
+    }
+
+    private void write(List<AccessLogEntry> entries) {
+        // Filas y rollup horario en la misma transacción: los contadores nunca se desvían de los datos
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(INSERT_SQL, entries, entries.size(), this::bind);
+            if (rollupEnabled) {
+                List<HourlyCount> counts = rollup(entries);
+                jdbcTemplate.batchUpdate(ROLLUP_UPSERT_SQL, counts, counts.size(), this::bindRollup);
+            }
+        });
+    }
+
+    private void bind(PreparedStatement ps, AccessLogEntry entry) throws SQLException {
+        ps.setObject(1, entry.id());
+        ps.setObject(2, entry.userId());
+        ps.setString(3, entry.action());
+        ps.setString(4, entry.ipAddress());
+        ps.setString(5, entry.userAgent());
+        ps.setBoolean(6, entry.success());
+        if (entry.details() != null) {
+            ps.setString(7, entry.details());
+        } else {
+            ps.setNull(7, Types.VARCHAR);
+        }
+        ps.setObject(8, entry.timestamp());
+    }
+
+    /**
+     * Agrupa el lote por (hora, acción, éxito) para hacer un solo upsert por contador.
+     */
+    static List<HourlyCount> rollup(List<AccessLogEntry> batch) {
+        Map<HourlyCount.Key, Long> counts = new LinkedHashMap<>();
+        for (AccessLogEntry entry : batch) {
+            LocalDateTime timestamp = entry.timestamp() != null ? entry.timestamp() : LocalDateTime.now();
+            HourlyCount.Key key = new HourlyCount.Key(timestamp.truncatedTo(ChronoUnit.HOURS), entry.action(), entry.success());
+            counts.merge(key, 1L, Long::sum);
+        }
+        List<HourlyCount> result = new ArrayList<>(counts.size());
+        counts.forEach((key, count) -> result.add(new HourlyCount(key, count)));
+        return result;
+    }
+
+    private void bindRollup(PreparedStatement ps, HourlyCount count) throws SQLException {
+        ps.setObject(1, count.key().bucketHour());
+        ps.setString(2, count.key().action());
+        ps.setBoolean(3, count.key().success());
+        ps.setLong(4, count.count());
+    }
+
+    record HourlyCount(Key key, long count) {
+
+        record Key(LocalDateTime bucketHour, String action, boolean success) {
+        }
+    }
+
+    private synchronized void spill(List<AccessLogEntry> entries) {
+        try (BufferedWriter writer = Files.newBufferedWriter(spillFile, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (AccessLogEntry entry : entries) {
+                writer.write(objectMapper.writeValueAsString(entry));
+                writer.newLine();
+            }
+            spilledEntries.increment(entries.size());
+        } catch (IOException e) {
+            log.error("Failed to spill {} access log entries to {}: {}", entries.size(), spillFile, e.getMessage());
+            droppedEntries.increment(entries.size());
+        }
+    }
+
+    /**
+     * Reinserta las entradas que quedaron en el fichero de spill en una ejecución anterior.
+     */
+    private void replaySpillFile() {
+        if (!Files.exists(spillFile)) {
+            return;
+        }
+        Path replayFile = spillFile.resolveSibling(spillFile.getFileName() + ".replay");
+        try {
+            synchronized (this) {
+                Files.move(spillFile, replayFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+            int replayed = 0;
+            List<AccessLogEntry> batch = new ArrayList<>(batchSize);
+            try (BufferedReader reader = Files.newBufferedReader(replayFile, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    batch.add(objectMapper.readValue(line, AccessLogEntry.class));
+                    if (batch.size() == batchSize) {
+                        flush(batch);
+                        replayed += batch.size();
+                        batch.clear();
+                    }
+                }
+            }
+            if (!batch.isEmpty()) {
+                flush(batch);
+                replayed += batch.size();
+            }
+            Files.deleteIfExists(replayFile);
+            log.info("Replayed {} spilled access log entries from {}", replayed, spillFile);
+        } catch (IOException e) {
+            log.error("Failed to replay spilled access log entries from {}: {}", spillFile, e.getMessage());
+        }
+    }
+
+    @Override
+    public void start() {
+        replaySpillFile();
+        running = true;
+        closed = false;
+        Thread thread = new Thread(this::runFlusher, "access-log-flusher");
+        thread.setDaemon(true);
+        flusher = thread;
+        thread.start();
+        log.info("Access log writer started (capacity={}, batchSize={}, overflowPolicy={})",
+                capacity, batchSize, overflowPolicy);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Thread thread = flusher;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flusher = null;
+        closed = true;
+
+        // Flush-on-shutdown de lo que quede en el buffer
+        List<AccessLogEntry> batch = new ArrayList<>(batchSize);
+        int flushed = 0;
+        do {
+            batch.clear();
+            drainTo(batch);
+            if (!batch.isEmpty()) {
+                flush(batch);
+                flushed += batch.size();
+            }
+        } while (!batch.isEmpty());
+        log.info("Access log writer stopped, flushed {} pending entries", flushed);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
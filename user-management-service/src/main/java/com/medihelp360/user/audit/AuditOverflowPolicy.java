@@ -0,0 +1,16 @@
+package com.medihelp360.user.audit;
+
+/**
+ * Qué hacer con una entrada de auditoría cuando el buffer está lleno.
+ */
+public enum AuditOverflowPolicy {
+
+    /** Espera hasta {@code app.audit.block-timeout-ms} a que haya espacio; si no, descarta. */
+    BLOCK,
+
+    /** Descarta la entrada y la cuenta en {@code audit.entries.dropped}. */
+    DROP,
+
+    /** Escribe la entrada en el fichero local de spill; se reinsertará en el próximo arranque. */
+    SPILL
+}
@@ -0,0 +1,215 @@
+package com.medihelp360.user.cache;
+
+import com.medihelp360.user.domain.Role;
+import com.medihelp360.user.event.RoleCatalogChangedEvent;
+import com.medihelp360.user.repository.RoleRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Catálogo de roles en memoria: una foto inmutable de la tabla {@code roles} que se sustituye entera de forma
+ * atómica. Leerlo no toca la base de datos.
+ * <p>
+ * Se carga al arrancar, se actualiza con {@link RoleCatalogChangedEvent} tras el commit de {@code createRole} y
+ * {@code deleteRole}, se recarga cuando otra réplica avisa por {@code role-events} (ver {@link RoleCatalogEvents})
+ * y cada {@code refresh-interval-ms} por si se perdió algún aviso o alguien tocó la tabla a mano. Un nombre o id
+ * que no está en la foto provoca una recarga antes de darlo por inexistente, pero como mucho una cada
+ * {@code miss-reload-interval-ms}: un rol recién creado en otra réplica se encuentra aunque su aviso no haya
+ * llegado, y una ráfaga de búsquedas de roles que no existen no se convierte en una lectura de la tabla entera
+ * por petición. Dentro del intervalo se confía en la foto.
+ * <p>
+ * Devuelve siempre copias nuevas de {@link Role}, sin sesión: se pueden asignar a un usuario (Hibernate solo
+ * necesita el id para la tabla {@code user_roles}) y modificarlas no cambia el catálogo.
+ */
+@Component
+@Slf4j
+public class RoleCatalog {
+
+    private final RoleRepository roleRepository;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+    private final MeterRegistry meterRegistry;
+    private final long missReloadIntervalNanos;
+    private final AtomicLong lastMissReload;
+
+    public RoleCatalog(RoleRepository roleRepository,
+                       MeterRegistry meterRegistry,
+                       @Value("${app.roles.catalog.miss-reload-interval-ms:1000}") long missReloadIntervalMs) {
+        this.roleRepository = roleRepository;
+        this.meterRegistry = meterRegistry;
+        this.missReloadIntervalNanos = TimeUnit.MILLISECONDS.toNanos(missReloadIntervalMs);
+        this.lastMissReload = new AtomicLong(System.nanoTime() - missReloadIntervalNanos);
+        Gauge.builder("roles.catalog.size", this, catalog -> {
+                    Snapshot current = catalog.snapshot.get();
+                    return current != null ? current.byId().size() : 0;
+                })
+                .description("Roles in the in-memory role catalog")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reload("startup");
+    }
+
+    @Scheduled(fixedDelayString = "${app.roles.catalog.refresh-interval-ms:300000}",
+               initialDelayString = "${app.roles.catalog.refresh-interval-ms:300000}")
+    public void refresh() {
+        reload("scheduled");
+    }
+
+    /**
+     * Vuelve a leer todos los roles y sustituye la foto. Si mientras tanto se aplicó un cambio local, la lectura
+     * puede ser anterior a él y se repite.
+     */
+    public void reload(String reason) {
+        Snapshot before;
+        Snapshot fresh;
+        do {
+            before = snapshot.get();
+            fresh = Snapshot.ofRoles(roleRepository.findAll());
+        } while (!snapshot.compareAndSet(before, fresh));
+        Counter.builder("roles.catalog.reloads")
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+        log.debug("Role catalog reloaded ({}): {} roles", reason, fresh.byId().size());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRoleCatalogChanged(RoleCatalogChangedEvent event) {
+        current();
+        snapshot.updateAndGet(catalog -> catalog.apply(event));
+        log.debug("Role catalog updated: {} {}", event.getEventType(), event.getRoleName());
+    }
+
+    public Optional<Role> findByName(String name) {
+        String key = name.toUpperCase(Locale.ROOT);
+        Entry entry = current().byName().get(key);
+        if (entry == null && reloadOnMiss()) {
+            entry = snapshot.get().byName().get(key);
+        }
+        return Optional.ofNullable(entry).map(Entry::toRole);
+    }
+
+    public Optional<Role> findById(UUID roleId) {
+        Entry entry = current().byId().get(roleId);
+        if (entry == null && reloadOnMiss()) {
+            entry = snapshot.get().byId().get(roleId);
+        }
+        return Optional.ofNullable(entry).map(Entry::toRole);
+    }
+
+    /**
+     * Roles con esos nombres, sin distinguir mayúsculas. Los que no existen se ignoran.
+     */
+    public Set<Role> findByNames(Collection<String> names) {
+        Set<String> keys = new HashSet<>();
+        names.forEach(name -> keys.add(name.toUpperCase(Locale.ROOT)));
+        Set<Role> roles = lookup(current(), keys);
+        if (roles.size() < keys.size() && reloadOnMiss()) {
+            roles = lookup(snapshot.get(), keys);
+        }
+        return roles;
+    }
+
+    public List<Role> findAll() {
+        List<Role> roles = new ArrayList<>();
+        current().byName().values().stream()
+                .sorted(Comparator.comparing(Entry::name))
+                .forEach(entry -> roles.add(entry.toRole()));
+        return roles;
+    }
+
+    private static Set<Role> lookup(Snapshot catalog, Set<String> keys) {
+        Set<Role> roles = new HashSet<>();
+        for (String key : keys) {
+            Entry entry = catalog.byName().get(key);
+            if (entry != null) {
+                roles.add(entry.toRole());
+            }
+        }
+        return roles;
+    }
+
+    // Solo el primer fallo de cada intervalo recarga; los demás, y los concurrentes con esa recarga, usan la foto
+    private boolean reloadOnMiss() {
+        long now = System.nanoTime();
+        long last = lastMissReload.get();
+        if (now - last < missReloadIntervalNanos || !lastMissReload.compareAndSet(last, now)) {
+            return false;
+        }
+        reload("miss");
+        return true;
+    }
+
+    // Una petición anterior a ApplicationReadyEvent carga el catálogo ella misma
+    private Snapshot current() {
+        Snapshot current = snapshot.get();
+        if (current == null) {
+            reload("first-use");
+            current = snapshot.get();
+        }
+        return current;
+    }
+
+    private record Entry(UUID id, String name, String description) {
+
+        static Entry of(Role role) {
+            return new Entry(role.getId(), role.getName(), role.getDescription());
+        }
+
+        Role toRole() {
+            return new Role(id, name, description);
+        }
+    }
+
+    private record Snapshot(Map<UUID, Entry> byId, Map<String, Entry> byName) {
+
+        static Snapshot ofRoles(Collection<Role> roles) {
+            return of(roles.stream().map(Entry::of).toList());
+        }
+
+        static Snapshot of(List<Entry> entries) {
+            Map<UUID, Entry> byId = new HashMap<>();
+            Map<String, Entry> byName = new HashMap<>();
+            for (Entry entry : entries) {
+                byId.put(entry.id(), entry);
+                byName.put(entry.name().toUpperCase(Locale.ROOT), entry);
+            }
+            return new Snapshot(Map.copyOf(byId), Map.copyOf(byName));
+        }
+
+        Snapshot apply(RoleCatalogChangedEvent event) {
+            List<Entry> entries = new ArrayList<>(byId.values());
+            entries.removeIf(entry -> entry.id().equals(event.getRoleId()));
+            if (RoleCatalogChangedEvent.ROLE_CREATED.equals(event.getEventType())) {
+                entries.add(new Entry(event.getRoleId(), event.getRoleName(), event.getDescription()));
+            }
+            return of(entries);
+        }
+    }
+}
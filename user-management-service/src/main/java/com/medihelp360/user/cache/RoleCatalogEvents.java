@@ -0,0 +1,109 @@
+package com.medihelp360.user.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medihelp360.user.event.RoleCatalogChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * Mantiene alineados los {@link RoleCatalog} de todas las réplicas a través del tópico {@code role-events}.
+ * <p>
+ * Tras el commit de un alta o baja de rol envía el {@link RoleCatalogChangedEvent} con el id de esta instancia.
+ * Cada réplica lee el tópico entero con un grupo propio y, si el aviso viene de otra instancia, recarga su
+ * catálogo de la base de datos en lugar de aplicar el cambio: así da igual que los avisos lleguen desordenados
+ * o repetidos. Si un envío se pierde, la recarga periódica del catálogo acaba corrigiéndolo.
+ * <p>
+ * Con {@code app.roles.catalog.events.enabled=false} (tests, una sola instancia) no se envía ni se escucha nada.
+ */
+@Component
+@ConditionalOnProperty(name = "app.roles.catalog.events.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class RoleCatalogEvents {
+
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final RoleCatalog roleCatalog;
+    private final String topic;
+    private final String groupId;
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private final Counter sent;
+    private final Counter sendFailures;
+    private final Counter received;
+
+    public RoleCatalogEvents(KafkaTemplate<String, byte[]> kafkaTemplate,
+                             ObjectMapper objectMapper,
+                             RoleCatalog roleCatalog,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.roles.catalog.events.topic:role-events}") String topic,
+                             @Value("${spring.application.name:user-management-service}") String applicationName) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.objectMapper = objectMapper;
+        this.roleCatalog = roleCatalog;
+        this.topic = topic;
+        this.groupId = applicationName + "-role-catalog-" + instanceId;
+
+        this.sent = Counter.builder("roles.catalog.events").tag("outcome", "sent").register(meterRegistry);
+        this.sendFailures = Counter.builder("roles.catalog.events").tag("outcome", "send-failed").register(meterRegistry);
+        this.received = Counter.builder("roles.catalog.events").tag("outcome", "received").register(meterRegistry);
+    }
+
+    public String getGroupId() {
+        return groupId;
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRoleCatalogChanged(RoleCatalogChangedEvent event) {
+        byte[] payload;
+        try {
+            payload = objectMapper.writeValueAsBytes(event.withSourceInstance(instanceId));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize role catalog event", e);
+        }
+        kafkaTemplate.send(topic, String.valueOf(event.getRoleId()), payload).whenComplete((result, failure) -> {
+            if (failure != null) {
+                sendFailures.increment();
+                log.warn("Could not publish {} for role {}: {}", event.getEventType(), event.getRoleName(),
+                        failure.getMessage());
+            } else {
+                sent.increment();
+            }
+        });
+    }
+
+    @KafkaListener(topics = "${app.roles.catalog.events.topic:role-events}",
+                   groupId = "#{__listener.groupId}",
+                   containerFactory = "broadcastListenerContainerFactory")
+    public void onRoleEvent(byte[] payload) {
+        RoleCatalogChangedEvent event;
+        try {
+            event = objectMapper.readValue(payload, RoleCatalogChangedEvent.class);
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable role catalog event: {}", e.getMessage());
+            return;
+        }
+        if (instanceId.equals(event.getSourceInstance())) {
+            return;
+        }
+        received.increment();
+        log.debug("Role catalog changed on instance {}: {} {}", event.getSourceInstance(), event.getEventType(),
+                event.getRoleName());
+        roleCatalog.reload("remote");
+    }
+}
@@ -0,0 +1,55 @@
+package com.medihelp360.user.cache;
+
+import com.medihelp360.user.domain.Role;
+import com.medihelp360.user.domain.User;
+import com.medihelp360.user.domain.UserStatus;
+import com.medihelp360.user.dto.UserResponse;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Copia inmutable de los datos de un usuario que se sirven desde {@link UserSnapshotCache}.
+ * {@code generation} es la generación del cache en el momento de leer la fila.
+ */
+public record UserSnapshot(UUID id,
+                           String email,
+                           String name,
+                           UserStatus status,
+                           List<RoleSnapshot> roles,
+                           LocalDateTime createdAt,
+                           LocalDateTime updatedAt,
+                           long generation) {
+
+    public record RoleSnapshot(UUID id, String name, String description) {
+    }
+
+    public static UserSnapshot of(User user, long generation) {
+        List<RoleSnapshot> roles = user.getRoles() == null ? List.of() : user.getRoles().stream()
+                .map(role -> new RoleSnapshot(role.getId(), role.getName(), role.getDescription()))
+                .toList();
+        return new UserSnapshot(user.getId(), user.getEmail(), user.getName(), user.getStatus(),
+                roles, user.getCreatedAt(), user.getUpdatedAt(), generation);
+    }
+
+    /**
+     * Respuesta nueva en cada llamada: {@link UserResponse} y {@link Role} son mutables.
+     */
+    public UserResponse toResponse() {
+        Set<Role> responseRoles = roles.stream()
+                .map(role -> new Role(role.id(), role.name(), role.description()))
+                .collect(Collectors.toSet());
+        return UserResponse.builder()
+                .id(id)
+                .email(email)
+                .name(name)
+                .status(status)
+                .roles(responseRoles)
+                .createdAt(createdAt)
+                .updatedAt(updatedAt)
+                .build();
+    }
+}
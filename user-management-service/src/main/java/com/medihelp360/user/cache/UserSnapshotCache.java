@@ -0,0 +1,141 @@
+package com.medihelp360.user.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.medihelp360.user.event.UserUpdatedEvent;
+import com.medihelp360.user.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache en memoria de {@link UserSnapshot} por id de usuario para {@code /auth/me} y {@code GET /users/{id}}.
+ * Un acierto no toca la base de datos.
+ * <p>
+ * Las entradas se invalidan cuando se confirma la transacción que publicó un {@link UserUpdatedEvent} y, en
+ * las demás réplicas, cuando el mismo evento llega por {@code user-events} (ver {@link UserSnapshotEvents}).
+ * Cada lectura de la base de datos guarda la generación del cache en la que empezó, y cada invalidación
+ * registra una generación nueva para ese usuario. Un snapshot leído antes de la última invalidación de su
+ * usuario no se guarda ni se sirve, aunque la lectura termine después de la invalidación. El TTL acota
+ * cuánto tiempo puede servir datos antiguos una instancia que no recibió el evento.
+ * <p>
+ * Un evento de Kafka siempre descarta el snapshot, también el eco del propio cambio o una entrega repetida:
+ * comparar el {@code updatedAt} del snapshot con la hora del evento no es fiable entre réplicas con relojes
+ * desfasados, y {@code updated_at} también cambia con escrituras que no publican evento (el login). Cuesta
+ * una recarga de más. El tiempo desde el cambio se registra en {@code user.snapshot.cache.staleness}.
+ */
+@Component
+@Slf4j
+public class UserSnapshotCache {
+
+    private final UserRepository userRepository;
+    private final Cache<UUID, UserSnapshot> snapshots;
+    private final Cache<UUID, Long> invalidatedAt;
+    private final AtomicLong generation = new AtomicLong();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter invalidations;
+    private final Timer staleness;
+
+    public UserSnapshotCache(UserRepository userRepository,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.cache.user-snapshot.max-size:10000}") long maxSize,
+                             @Value("${app.cache.user-snapshot.ttl:5m}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.snapshots = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .evictionListener((UUID userId, UserSnapshot snapshot, RemovalCause cause) ->
+                        Counter.builder("user.snapshot.cache.evictions")
+                                .tag("cause", cause.name().toLowerCase(Locale.ROOT))
+                                .register(meterRegistry)
+                                .increment())
+                .build();
+        // Basta con recordar una invalidación mientras pueda quedar un snapshot anterior a ella
+        this.invalidatedAt = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+
+        this.hits = Counter.builder("user.snapshot.cache.requests")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("user.snapshot.cache.requests")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        this.invalidations = Counter.builder("user.snapshot.cache.invalidations")
+                .register(meterRegistry);
+        this.staleness = Timer.builder("user.snapshot.cache.staleness")
+                .description("Time a replica served a snapshot older than a change reported on user-events")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("user.snapshot.cache.size", snapshots, Cache::estimatedSize)
+                .register(meterRegistry);
+        Gauge.builder("user.snapshot.cache.hit.ratio", this, cache -> {
+                    double total = cache.hits.count() + cache.misses.count();
+                    return total == 0 ? 0 : cache.hits.count() / total;
+                })
+                .register(meterRegistry);
+    }
+
+    /**
+     * Snapshot del usuario, desde el cache o, si falta o está invalidado, desde la base de datos.
+     */
+    public Optional<UserSnapshot> get(UUID userId) {
+        UserSnapshot cached = snapshots.getIfPresent(userId);
+        if (cached != null && isCurrent(cached)) {
+            hits.increment();
+            return Optional.of(cached);
+        }
+
+        misses.increment();
+        long loadGeneration = generation.get();
+        Optional<UserSnapshot> loaded = userRepository.findById(userId)
+                .map(user -> UserSnapshot.of(user, loadGeneration));
+        loaded.filter(this::isCurrent).ifPresent(snapshot -> snapshots.put(userId, snapshot));
+        return loaded;
+    }
+
+    public void invalidate(UUID userId) {
+        invalidatedAt.put(userId, generation.incrementAndGet());
+        snapshots.invalidate(userId);
+        invalidations.increment();
+    }
+
+    /**
+     * Invalidación por un cambio hecho en otra réplica (o el eco de uno propio), ocurrido en {@code changedAt}.
+     */
+    public void invalidate(UUID userId, LocalDateTime changedAt) {
+        if (changedAt != null && snapshots.getIfPresent(userId) != null) {
+            Duration stale = Duration.between(changedAt, LocalDateTime.now());
+            staleness.record(stale.isNegative() ? Duration.ZERO : stale);
+        }
+        invalidate(userId);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserUpdated(UserUpdatedEvent event) {
+        log.debug("Invalidating user snapshot {}", event.getUserId());
+        invalidate(event.getUserId());
+    }
+
+    private boolean isCurrent(UserSnapshot snapshot) {
+        Long invalidation = invalidatedAt.getIfPresent(snapshot.id());
+        return invalidation == null || snapshot.generation() >= invalidation;
+    }
+}
@@ -0,0 +1,76 @@
+package com.medihelp360.user.cache;
+
+import com.medihelp360.events.codec.UserEventData;
+import com.medihelp360.events.codec.UserEventDeserializer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.errors.SerializationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Invalida el {@link UserSnapshotCache} de esta réplica con los eventos que publica el propio servicio en
+ * {@code user-events}, así que los cambios hechos en otras réplicas dejan de servirse en cuanto el relay de la
+ * outbox los publica, sin esperar al TTL.
+ * <p>
+ * Cada instancia lee el tópico entero con un grupo propio desde el final (ver
+ * {@code KafkaConfig#broadcastListenerContainerFactory}). Los eventos se decodifican con event-codec, que
+ * acepta tanto JSON como el formato binario. Con {@code app.cache.user-snapshot.events.enabled=false} la
+ * caché solo se invalida con los cambios locales y el TTL.
+ */
+@Component
+@ConditionalOnProperty(name = "app.cache.user-snapshot.events.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class UserSnapshotEvents {
+
+    private final UserSnapshotCache userSnapshotCache;
+    private final UserEventDeserializer deserializer = new UserEventDeserializer();
+    private final String topic;
+    private final String groupId;
+
+    private final Counter received;
+    private final Counter unreadable;
+
+    public UserSnapshotEvents(UserSnapshotCache userSnapshotCache,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.cache.user-snapshot.events.topic:user-events}") String topic,
+                              @Value("${spring.application.name:user-management-service}") String applicationName) {
+        this.userSnapshotCache = userSnapshotCache;
+        this.topic = topic;
+        this.groupId = applicationName + "-user-snapshot-" + UUID.randomUUID();
+        this.received = Counter.builder("user.snapshot.cache.events").tag("result", "received").register(meterRegistry);
+        this.unreadable = Counter.builder("user.snapshot.cache.events").tag("result", "unreadable").register(meterRegistry);
+    }
+
+    public String getGroupId() {
+        return groupId;
+    }
+
+    @KafkaListener(topics = "${app.cache.user-snapshot.events.topic:user-events}",
+                   groupId = "#{__listener.groupId}",
+                   containerFactory = "broadcastListenerContainerFactory")
+    public void onUserEvent(byte[] payload) {
+        UserEventData event;
+        try {
+            event = deserializer.deserialize(topic, payload);
+        } catch (SerializationException e) {
+            unreadable.increment();
+            log.warn("Ignoring unreadable user event: {}", e.getMessage());
+            return;
+        }
+        if (event == null) {
+            return;
+        }
+        UUID userId = event.getUserId() != null ? event.getUserId() : event.getAggregateId();
+        if (userId == null) {
+            return;
+        }
+        received.increment();
+        userSnapshotCache.invalidate(userId, event.getTimestamp());
+    }
+}
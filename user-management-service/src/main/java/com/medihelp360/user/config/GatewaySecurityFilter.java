@@ -41,7 +41,9 @@ public class GatewaySecurityFilter extends OncePerRequestFilter {
         "/api/actuator/health",
         "/api/actuator/info",
         "/api/actuator/metrics",
-        "/api/actuator/prometheus"
+        "/api/actuator/prometheus",
+        // Claves públicas de JWT: el gateway y los servicios las consultan directamente
+        "/.well-known/jwks.json"
     );
 
     @Override
@@ -1,14 +1,14 @@
 package com.medihelp360.user.config;
 
+import com.medihelp360.user.security.AuthenticatedUser;
+import com.medihelp360.user.security.JwtTokenVerifier;
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -16,17 +16,16 @@ import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
-import javax.crypto.SecretKey;
 import java.io.IOException;
 import java.util.List;
 import java.util.stream.Collectors;
 
 @Component
+@RequiredArgsConstructor
 @Slf4j
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
-    @Value("${app.jwt.secret:defaultSecretKeyForDevelopmentOnly}")
-    private String jwtSecret;
+    private final JwtTokenVerifier jwtTokenVerifier;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
@@ -42,21 +41,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 Claims claims = validateAndParseToken(jwt);
                 
                 if (claims != null) {
-                    String userId = claims.getSubject();
-                    String email = claims.get("email", String.class);
+                    // Los claims verificados viajan con la request en el principal
+                    AuthenticatedUser principal = AuthenticatedUser.fromClaims(claims);
                     
-                    @SuppressWarnings("unchecked")
-                    List<String> roles = claims.get("roles", List.class);
-                    
-                    List<SimpleGrantedAuthority> authorities = roles.stream()
+                    List<SimpleGrantedAuthority> authorities = principal.roles().stream()
                         .map(role -> new SimpleGrantedAuthority("ROLE_" + role))
                         .collect(Collectors.toList());
                     
                     UsernamePasswordAuthenticationToken authentication = 
-                        new UsernamePasswordAuthenticationToken(userId, null, authorities);
+                        new UsernamePasswordAuthenticationToken(principal, null, authorities);
                     
                     SecurityContextHolder.getContext().setAuthentication(authentication);
-                    log.info("JWT Filter: Authentication successful for user: {} (ID: {}) with roles: {}", email, userId, roles);
+                    log.info("JWT Filter: Authentication successful for user: {} (ID: {}) with roles: {}",
+                            principal.email(), principal.userId(), principal.roles());
                 } else {
                     log.warn("JWT Filter: JWT token validation failed");
                 }
@@ -80,18 +77,6 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     }
     
     private Claims validateAndParseToken(String token) {
-        try {
-            SecretKey signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes());
-            
-            return Jwts.parser()
-                .verifyWith(signingKey)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-                
-        } catch (Exception e) {
-            log.warn("JWT token validation failed: {}", e.getMessage());
-            return null;
-        }
+        return jwtTokenVerifier.verifyAccessToken(token).orElse(null);
     }
 }
@@ -1,40 +1,128 @@
 package com.medihelp360.user.config;
 
+import com.medihelp360.events.codec.UserEventFormat;
+import com.medihelp360.events.codec.UserEventSerializer;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.MicrometerProducerListener;
 import org.springframework.kafka.core.ProducerFactory;
-import org.springframework.kafka.support.serializer.JsonSerializer;
 
 import java.util.HashMap;
 import java.util.Map;
 
 @Configuration
+@Slf4j
 public class KafkaConfig {
-    
+
+    public static final String DEFAULT_PRODUCER_PROFILE = "default";
+    public static final String HIGH_THROUGHPUT_PRODUCER_PROFILE = "high-throughput";
+
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
-    
+
+    @Value("${app.kafka.producer.profile:default}")
+    private String producerProfile;
+
+    @Value("${app.kafka.producer.high-throughput.compression-type:lz4}")
+    private String compressionType;
+
+    @Value("${app.kafka.producer.high-throughput.linger-ms:20}")
+    private int lingerMs;
+
+    @Value("${app.kafka.producer.high-throughput.batch-size:131072}")
+    private int batchSize;
+
+    @Value("${app.kafka.user-events.format:json}")
+    private String userEventsFormat;
+
+    /**
+     * Codifica los eventos de usuario al escribirlos en la outbox. {@code json} es el formato que ya
+     * leen todos los consumidores; {@code binary} solo debe activarse cuando todos usan event-codec.
+     */
+    @Bean
+    public UserEventSerializer userEventSerializer() {
+        UserEventFormat format = UserEventFormat.fromString(userEventsFormat);
+        log.info("User events format: {}", format);
+        return new UserEventSerializer(format);
+    }
+
+    /**
+     * Los eventos salen de la tabla outbox ya codificados (ver OutboxEventWriter), así que el valor
+     * se envía tal cual con ByteArraySerializer. Las métricas del cliente Kafka (tasa de envío,
+     * tamaño medio de lote, ratio de compresión) se exportan a Micrometer.
+     */
+    @Bean
+    public ProducerFactory<String, byte[]> producerFactory(MeterRegistry meterRegistry) {
+        boolean highThroughput = HIGH_THROUGHPUT_PRODUCER_PROFILE.equals(producerProfile);
+        if (!highThroughput && !DEFAULT_PRODUCER_PROFILE.equals(producerProfile)) {
+            throw new IllegalStateException("Unsupported app.kafka.producer.profile: " + producerProfile);
+        }
+        log.info("Kafka producer profile: {}", producerProfile);
+
+        DefaultKafkaProducerFactory<String, byte[]> factory = new DefaultKafkaProducerFactory<>(
+                producerConfigs(bootstrapServers, highThroughput, compressionType, lingerMs, batchSize));
+        factory.addListener(new MicrometerProducerListener<>(meterRegistry));
+        return factory;
+    }
+
+    @Bean
+    public KafkaTemplate<String, byte[]> kafkaTemplate(ProducerFactory<String, byte[]> producerFactory) {
+        return new KafkaTemplate<>(producerFactory);
+    }
+
+    /**
+     * Contenedores para los tópicos que cada réplica tiene que leer entero, como los avisos de invalidación de
+     * caches. Cada listener usa un grupo propio de su instancia (ver {@code RoleCatalogEvents}) y empieza por
+     * el final del tópico: al arrancar el estado sale de la base de datos y solo hacen falta los avisos
+     * posteriores. Los grupos de instancias que ya no existen caducan solos en el broker.
+     */
     @Bean
-    public ProducerFactory<String, Object> producerFactory() {
+    public ConcurrentKafkaListenerContainerFactory<String, byte[]> broadcastListenerContainerFactory() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+
+        ConcurrentKafkaListenerContainerFactory<String, byte[]> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(new DefaultKafkaConsumerFactory<>(props));
+        return factory;
+    }
+
+    /**
+     * Configuración del productor. El perfil {@code high-throughput} agrupa más mensajes por petición
+     * (linger y lotes más grandes) y los comprime; el resto (acks=all, idempotencia) es igual en los dos.
+     */
+    public static Map<String, Object> producerConfigs(String bootstrapServers, boolean highThroughput,
+                                                      String compressionType, int lingerMs, int batchSize) {
         Map<String, Object> configProps = new HashMap<>();
         configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
         configProps.put(ProducerConfig.ACKS_CONFIG, "all");
         configProps.put(ProducerConfig.RETRIES_CONFIG, 3);
         configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
         configProps.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
-        
-        return new DefaultKafkaProducerFactory<>(configProps);
-    }
-    
-    @Bean
-    public KafkaTemplate<String, Object> kafkaTemplate() {
-        return new KafkaTemplate<>(producerFactory());
+
+        if (highThroughput) {
+            configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType);
+            configProps.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+            configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
+        }
+        return configProps;
     }
-} 
\ No newline at end of file
+}
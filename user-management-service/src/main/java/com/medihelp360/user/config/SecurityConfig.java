@@ -1,22 +1,28 @@
 package com.medihelp360.user.config;
 
+import com.medihelp360.user.security.BCryptCostCalibrator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
 import java.util.Arrays;
+import java.util.Map;
 
 @Configuration
 @EnableWebSecurity
@@ -35,6 +41,9 @@ public class SecurityConfig {
             .cors(cors -> cors.configurationSource(corsConfigurationSource()))
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+            // Sin token válido (o con un refresh token) la respuesta es 401; 403 queda para la falta de rol
+            .exceptionHandling(exceptions -> exceptions
+                .authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
             .authorizeHttpRequests(auth -> auth
                 // Public endpoints - System (más específicos primero)
                 .requestMatchers("/actuator/**").permitAll()
@@ -45,7 +54,10 @@ public class SecurityConfig {
                 .requestMatchers("/auth/register").permitAll()
                 .requestMatchers("/auth/validate").permitAll()
                 .requestMatchers("/auth/refresh").permitAll()
+                .requestMatchers("/.well-known/jwks.json").permitAll()
                 // Protected endpoints (más específicos)
+                // Validación por lotes: hasta max-tokens verificaciones por petición, solo para servicios internos
+                .requestMatchers("/auth/validate/batch").hasAnyRole("SERVICE", "ADMIN")
                 .requestMatchers("/auth/me").authenticated()
                 .requestMatchers("/auth/logout").authenticated()
                 .requestMatchers("/users/**").authenticated()
@@ -58,9 +70,26 @@ public class SecurityConfig {
         return http.build();
     }
     
+    /**
+     * BCrypt con el coste calibrado al arrancar para acercarse al tiempo objetivo por hash.
+     * Los hashes nuevos llevan prefijo {bcrypt}; los antiguos sin prefijo se siguen validando
+     * y se regeneran en el siguiente login correcto (ver {@code upgradeEncoding}).
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+            @Value("${app.security.password.bcrypt.calibrate:true}") boolean calibrate,
+            @Value("${app.security.password.bcrypt.strength:10}") int strength,
+            @Value("${app.security.password.bcrypt.target-ms:250}") long targetMillis,
+            @Value("${app.security.password.bcrypt.min-strength:10}") int minStrength,
+            @Value("${app.security.password.bcrypt.max-strength:14}") int maxStrength) {
+        int effectiveStrength = calibrate
+                ? BCryptCostCalibrator.calibrate(targetMillis, minStrength, maxStrength)
+                : strength;
+        
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(effectiveStrength);
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", bcrypt));
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return encoder;
     }
     
     @Bean
@@ -1,5 +1,6 @@
 package com.medihelp360.user.controller;
 
+import com.medihelp360.user.dto.BatchTokenValidationRequest;
 import com.medihelp360.user.dto.LoginRequest;
 import com.medihelp360.user.dto.LoginResponse;
 import com.medihelp360.user.dto.RegisterRequest;
@@ -7,22 +8,26 @@ import com.medihelp360.user.dto.RegisterResponse;
 import com.medihelp360.user.dto.UserResponse;
 import com.medihelp360.user.dto.ErrorResponse;
 import com.medihelp360.user.exception.AuthenticationException;
+import com.medihelp360.user.exception.PasswordHashingUnavailableException;
 import com.medihelp360.user.exception.RegistrationException;
+import com.medihelp360.user.security.AuthenticatedUser;
 import com.medihelp360.user.service.AuthenticationService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
-import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @RestController
@@ -51,6 +56,8 @@ public class AuthenticationController {
                 request.setDeviceInfo(userAgent);
             }
             
+            // Bloqueos en memoria antes de abrir la transacción del login
+            authenticationService.rejectIfBlocked(request);
             LoginResponse response = authenticationService.login(request);
             log.info("Login successful for user: {}", request.getEmail());
             return ResponseEntity.ok(response);
@@ -59,12 +66,29 @@ public class AuthenticationController {
             log.warn("Authentication failed for user: {} - {} (Code: {})", 
                     request.getEmail(), e.getMessage(), e.getErrorCode());
             
+            if (e.getHttpStatus() == HttpStatus.TOO_MANY_REQUESTS.value()) {
+                ErrorResponse errorResponse = ErrorResponse.tooManyRequests(
+                    e.getMessage(), 
+                    httpRequest.getRequestURI(),
+                    e.getErrorCode()
+                );
+                ResponseEntity.BodyBuilder builder = ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS);
+                if (e.getRetryAfter() != null) {
+                    builder.header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, e.getRetryAfter().toSeconds())));
+                }
+                return builder.body(errorResponse);
+            }
+            
             ErrorResponse errorResponse = ErrorResponse.authenticationError(
                 e.getMessage(), 
                 httpRequest.getRequestURI()
             );
             return ResponseEntity.status(e.getHttpStatus()).body(errorResponse);
             
+        } catch (PasswordHashingUnavailableException e) {
+            log.warn("Login rejected for user: {} - {}", request.getEmail(), e.getMessage());
+            return serviceBusy(e, httpRequest);
+            
         } catch (IllegalArgumentException e) {
             log.warn("Invalid login request for user: {} - {}", request.getEmail(), e.getMessage());
             
@@ -119,6 +143,10 @@ public class AuthenticationController {
             );
             return ResponseEntity.status(e.getHttpStatus()).body(errorResponse);
             
+        } catch (PasswordHashingUnavailableException e) {
+            log.warn("Registration rejected for email: {} - {}", request.getEmail(), e.getMessage());
+            return serviceBusy(e, httpRequest);
+            
         } catch (IllegalArgumentException e) {
             log.warn("Invalid registration request for email: {} - {}", request.getEmail(), e.getMessage());
             
@@ -181,13 +209,13 @@ public class AuthenticationController {
     }
     
     @GetMapping("/me")
-    public ResponseEntity<?> getCurrentUser(HttpServletRequest httpRequest) {
-        log.info("Get current user request received");
+    public ResponseEntity<?> getCurrentUser(@AuthenticationPrincipal AuthenticatedUser principal,
+                                          HttpServletRequest httpRequest) {
+        log.debug("Get current user request received");
         
         try {
-            // Extract JWT token from Authorization header
-            String authHeader = httpRequest.getHeader("Authorization");
-            if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            // El filtro JWT ya verificó el token y dejó sus claims en el principal
+            if (principal == null) {
                 log.warn("Missing or invalid Authorization header");
                 ErrorResponse errorResponse = ErrorResponse.unauthorized(
                     "Missing or invalid Authorization header", 
@@ -196,10 +224,7 @@ public class AuthenticationController {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(errorResponse);
             }
             
-            String token = authHeader.substring(7); // Remove "Bearer " prefix
-            
-            UserResponse userResponse = authenticationService.getCurrentUser(token);
-            log.info("Current user retrieved successfully");
+            UserResponse userResponse = authenticationService.getCurrentUser(principal);
             return ResponseEntity.ok(userResponse);
             
         } catch (AuthenticationException e) {
@@ -251,24 +276,63 @@ public class AuthenticationController {
         }
     }
     
+    @PostMapping("/validate/batch")
+    public ResponseEntity<?> validateTokens(@Valid @RequestBody BatchTokenValidationRequest request,
+                                          HttpServletRequest httpRequest) {
+        try {
+            Map<String, Boolean> results = authenticationService.validateTokens(request.getTokens());
+            return ResponseEntity.ok(results);
+            
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid batch token validation request: {}", e.getMessage());
+            
+            ErrorResponse errorResponse = ErrorResponse.badRequest(
+                e.getMessage(), 
+                httpRequest.getRequestURI()
+            );
+            return ResponseEntity.badRequest().body(errorResponse);
+            
+        } catch (Exception e) {
+            log.error("Unexpected error during batch token validation: {}", e.getMessage(), e);
+            
+            ErrorResponse errorResponse = ErrorResponse.internalError(
+                "An unexpected error occurred during token validation. Please try again later.", 
+                httpRequest.getRequestURI()
+            );
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+        }
+    }
+    
     @PostMapping("/refresh")
     public ResponseEntity<?> refreshToken(@RequestHeader("Authorization") String authorizationHeader,
                                         HttpServletRequest httpRequest) {
         try {
-            // TODO: Implement refresh token logic
-            log.info("Refresh token request received");
+            String refreshToken = extractTokenFromHeader(authorizationHeader);
+            LoginResponse response = authenticationService.refresh(
+                refreshToken,
+                getClientIpAddress(httpRequest),
+                httpRequest.getHeader("User-Agent")
+            );
+            return ResponseEntity.ok(response);
+            
+        } catch (AuthenticationException e) {
+            log.warn("Refresh token rejected: {} (Code: {})", e.getMessage(), e.getErrorCode());
+            
+            ErrorResponse errorResponse = ErrorResponse.authenticationError(
+                e.getMessage(), 
+                httpRequest.getRequestURI()
+            );
+            errorResponse.setErrorCode(e.getErrorCode());
+            return ResponseEntity.status(e.getHttpStatus()).body(errorResponse);
             
-            ErrorResponse errorResponse = ErrorResponse.builder()
-                .timestamp(LocalDateTime.now())
-                .status(501)
-                .error("Not Implemented")
-                .message("Refresh token functionality is not yet implemented")
-                .path(httpRequest.getRequestURI())
-                .errorCode("FEAT_001")
-                .suggestion("Please login again to get a new access token")
-                .build();
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid refresh token request: {}", e.getMessage());
             
-            return ResponseEntity.status(HttpStatus.NOT_IMPLEMENTED).body(errorResponse);
+            ErrorResponse errorResponse = ErrorResponse.badRequest(
+                e.getMessage(), 
+                httpRequest.getRequestURI()
+            );
+            return ResponseEntity.badRequest().body(errorResponse);
             
         } catch (Exception e) {
             log.error("Unexpected error during refresh token: {}", e.getMessage(), e);
@@ -288,6 +352,18 @@ public class AuthenticationController {
         throw new IllegalArgumentException("Invalid Authorization header");
     }
     
+    private ResponseEntity<ErrorResponse> serviceBusy(PasswordHashingUnavailableException e,
+                                                      HttpServletRequest httpRequest) {
+        ErrorResponse errorResponse = ErrorResponse.serviceUnavailable(
+            e.getMessage(),
+            httpRequest.getRequestURI(),
+            PasswordHashingUnavailableException.ERROR_CODE
+        );
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, "1")
+            .body(errorResponse);
+    }
+    
     private String getClientIpAddress(HttpServletRequest request) {
         String xForwardedFor = request.getHeader("X-Forwarded-For");
         if (xForwardedFor != null && !xForwardedFor.isEmpty() && !"unknown".equalsIgnoreCase(xForwardedFor)) {
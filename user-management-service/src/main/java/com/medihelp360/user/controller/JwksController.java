@@ -0,0 +1,47 @@
+package com.medihelp360.user.controller;
+
+import com.medihelp360.user.security.JwtKeyManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publica las claves públicas de firma de JWT (RFC 7517) para la verificación offline
+ * en el gateway y en el resto de servicios.
+ */
+@RestController
+@Slf4j
+public class JwksController {
+
+    private final JwtKeyManager jwtKeyManager;
+    private final long maxAgeSeconds;
+
+    public JwksController(JwtKeyManager jwtKeyManager,
+                          @Value("${app.jwt.jwks.max-age-seconds:300}") long maxAgeSeconds) {
+        this.jwtKeyManager = jwtKeyManager;
+        this.maxAgeSeconds = maxAgeSeconds;
+    }
+
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<Map<String, List<Map<String, ?>>>> jwks(WebRequest request) {
+        List<Map<String, ?>> keys = jwtKeyManager.publicJwks();
+        String etag = "\"" + Integer.toHexString(keys.hashCode()) + "\"";
+        CacheControl cacheControl = CacheControl.maxAge(maxAgeSeconds, TimeUnit.SECONDS).cachePublic();
+
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(304).cacheControl(cacheControl).eTag(etag).build();
+        }
+        return ResponseEntity.ok()
+                .cacheControl(cacheControl)
+                .eTag(etag)
+                .body(Map.of("keys", keys));
+    }
+}
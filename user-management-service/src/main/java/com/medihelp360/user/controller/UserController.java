@@ -1,19 +1,29 @@
 package com.medihelp360.user.controller;
 
 import com.medihelp360.user.dto.CreateUserRequest;
+import com.medihelp360.user.dto.KeysetPage;
 import com.medihelp360.user.dto.UpdateUserRequest;
+import com.medihelp360.user.dto.UserImportReport;
 import com.medihelp360.user.dto.UserResponse;
+import com.medihelp360.user.dto.UserSummary;
 import com.medihelp360.user.domain.UserStatus;
+import com.medihelp360.user.service.UserExportService;
+import com.medihelp360.user.service.UserImportService;
 import com.medihelp360.user.service.UserService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -25,6 +35,8 @@ import java.util.UUID;
 public class UserController {
     
     private final UserService userService;
+    private final UserImportService userImportService;
+    private final UserExportService userExportService;
     
     @PostMapping
     public ResponseEntity<UserResponse> createUser(@Valid @RequestBody CreateUserRequest request) {
@@ -33,6 +45,31 @@ public class UserController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
     
+    /**
+     * Alta masiva en NDJSON o CSV. El cuerpo se procesa en streaming; la respuesta es el informe
+     * con los contadores y las filas rechazadas.
+     */
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"})
+    public ResponseEntity<UserImportReport> importUsers(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                        InputStream body) throws IOException {
+        log.info("Importing users from {}", contentType);
+        UserImportReport report = userImportService.importUsers(contentType, body);
+        return ResponseEntity.ok(report);
+    }
+    
+    /**
+     * Exportación completa en NDJSON, escrita en la respuesta a medida que se lee de la base de datos.
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void exportUsers(@RequestParam(required = false) UserStatus status,
+                            @RequestParam(required = false) String role,
+                            HttpServletResponse response) throws IOException {
+        log.info("Exporting users with status: {} and role: {}", status, role);
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        userExportService.exportUsers(status, role, response.getOutputStream());
+    }
+    
     @GetMapping("/{userId}")
     public ResponseEntity<UserResponse> getUserById(@PathVariable UUID userId) {
         log.info("Getting user by ID: {}", userId);
@@ -41,9 +78,9 @@ public class UserController {
     }
     
     @GetMapping
-    public ResponseEntity<Page<UserResponse>> getAllUsers(Pageable pageable) {
+    public ResponseEntity<Page<UserSummary>> getAllUsers(Pageable pageable) {
         log.info("Getting all users with pagination: {}", pageable);
-        Page<UserResponse> response = userService.getAllUsers(pageable);
+        Page<UserSummary> response = userService.getAllUsers(pageable);
         return ResponseEntity.ok(response);
     }
     
@@ -57,17 +94,57 @@ public class UserController {
         return ResponseEntity.ok(response);
     }
     
+    /**
+     * Listado por cursor ({@code created_at, id}): se pide la siguiente página con el {@code nextCursor}
+     * de la anterior. Sin OFFSET ni COUNT, salvo {@code includeCount=true}.
+     */
+    @GetMapping("/keyset")
+    public ResponseEntity<KeysetPage<UserSummary>> getUsersKeyset(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean includeCount) {
+        log.info("Getting users with cursor: {} and size: {}", cursor, size);
+        KeysetPage<UserSummary> response = userService.getUsersAfter(cursor, size, includeCount);
+        return ResponseEntity.ok(response);
+    }
+    
+    @GetMapping("/search/keyset")
+    public ResponseEntity<KeysetPage<UserSummary>> searchUsersKeyset(
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) String email,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean includeCount) {
+        log.info("Searching users with name: {} and email: {} and cursor: {}", name, email, cursor);
+        KeysetPage<UserSummary> response = userService.searchUsersAfter(name, email, cursor, size, includeCount);
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Búsqueda de {@code q} en nombre y email ordenada por relevancia, servida por índice
+     * (pg_trgm en PostgreSQL, índice de n-gramas en memoria en H2).
+     */
+    @GetMapping("/search/ranked")
+    public ResponseEntity<KeysetPage<UserSummary>> searchUsersRanked(
+            @RequestParam String q,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        log.info("Ranked search for: {} and cursor: {}", q, cursor);
+        KeysetPage<UserSummary> response = userService.searchUsersRanked(q, cursor, size);
+        return ResponseEntity.ok(response);
+    }
+    
     @GetMapping("/status/{status}")
-    public ResponseEntity<List<UserResponse>> getUsersByStatus(@PathVariable UserStatus status) {
+    public ResponseEntity<List<UserSummary>> getUsersByStatus(@PathVariable UserStatus status) {
         log.info("Getting users by status: {}", status);
-        List<UserResponse> response = userService.getUsersByStatus(status);
+        List<UserSummary> response = userService.getUsersByStatus(status);
         return ResponseEntity.ok(response);
     }
     
     @GetMapping("/role/{roleName}")
-    public ResponseEntity<List<UserResponse>> getUsersByRole(@PathVariable String roleName) {
+    public ResponseEntity<List<UserSummary>> getUsersByRole(@PathVariable String roleName) {
         log.info("Getting users by role: {}", roleName);
-        List<UserResponse> response = userService.getUsersByRole(roleName);
+        List<UserSummary> response = userService.getUsersByRole(roleName);
         return ResponseEntity.ok(response);
     }
     
@@ -6,6 +6,8 @@ import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
 import org.hibernate.type.SqlTypes;
 
 import java.time.LocalDateTime;
@@ -23,8 +25,10 @@ public class AccessLog {
     @GeneratedValue(strategy = GenerationType.UUID)
     private UUID id;
     
+    // ON DELETE SET NULL como en la migración V6, también en el esquema generado (H2)
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
+    @OnDelete(action = OnDeleteAction.SET_NULL)
     private User user;
     
     @Column(name = "action", nullable = false, length = 100)
@@ -0,0 +1,68 @@
+package com.medihelp360.user.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Evento pendiente de publicar en Kafka (patrón outbox). Se inserta en la misma transacción que el
+ * cambio que lo origina; {@code OutboxRelay} lo publica y rellena {@code publishedAt}.
+ */
+@Entity
+@Table(name = "outbox_events")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEvent {
+    
+    // Secuencial: el relay publica en orden de id
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "topic", nullable = false)
+    private String topic;
+    
+    @Column(name = "aggregate_id", nullable = false)
+    private UUID aggregateId;
+    
+    @Column(name = "event_type", nullable = false, length = 100)
+    private String eventType;
+    
+    // Evento ya codificado (JSON o binario, ver event-codec), tal como se envía a Kafka
+    @Column(name = "payload", nullable = false, columnDefinition = "BYTEA")
+    private byte[] payload;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "published_at")
+    private LocalDateTime publishedAt;
+    
+    // Envíos fallidos; OutboxEventWriter inserta por JDBC sin esta columna, de ahí el DEFAULT
+    @Builder.Default
+    @ColumnDefault("0")
+    @Column(name = "attempts", nullable = false)
+    private Integer attempts = 0;
+    
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+    
+    // Aparcado tras un fallo permanente o demasiados intentos: el relay ya no lo envía
+    @Column(name = "dead_lettered_at")
+    private LocalDateTime deadLetteredAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
+}
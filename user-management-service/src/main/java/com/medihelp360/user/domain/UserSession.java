@@ -25,11 +25,16 @@ public class UserSession {
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
     
-    @Column(name = "token_hash", nullable = false, length = 255)
-    private String tokenHash;
+    // SHA-256 digests (32 bytes) of the access and refresh tokens
+    @Column(name = "token_hash", nullable = false, unique = true, length = 32)
+    private byte[] tokenHash;
     
-    @Column(name = "refresh_token_hash", nullable = false, length = 255)
-    private String refreshTokenHash;
+    @Column(name = "refresh_token_hash", nullable = false, unique = true, length = 32)
+    private byte[] refreshTokenHash;
+    
+    // Familia de refresh tokens: se mantiene en todas las rotaciones de la sesión (claim "sid")
+    @Column(name = "family_id", nullable = false, unique = true)
+    private UUID familyId;
     
     @Column(name = "device_info", columnDefinition = "TEXT")
     private String deviceInfo;
@@ -48,6 +53,9 @@ public class UserSession {
     
     @PrePersist
     protected void onCreate() {
+        if (familyId == null) {
+            familyId = UUID.randomUUID();
+        }
         createdAt = LocalDateTime.now();
         updatedAt = LocalDateTime.now();
     }
@@ -0,0 +1,20 @@
+package com.medihelp360.user.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchTokenValidationRequest {
+    
+    @NotEmpty(message = "At least one token is required")
+    private List<@NotBlank(message = "Tokens must not be blank") String> tokens;
+}
@@ -122,4 +122,28 @@ public class ErrorResponse {
             .suggestion("Please provide valid authentication credentials")
             .build();
     }
+    
+    public static ErrorResponse tooManyRequests(String message, String path, String errorCode) {
+        return ErrorResponse.builder()
+            .timestamp(LocalDateTime.now())
+            .status(429)
+            .error("Too Many Requests")
+            .message(message)
+            .path(path)
+            .errorCode(errorCode)
+            .suggestion("Please wait before trying again")
+            .build();
+    }
+    
+    public static ErrorResponse serviceUnavailable(String message, String path, String errorCode) {
+        return ErrorResponse.builder()
+            .timestamp(LocalDateTime.now())
+            .status(503)
+            .error("Service Unavailable")
+            .message(message)
+            .path(path)
+            .errorCode(errorCode)
+            .suggestion("The service is under heavy load, please retry in a few seconds")
+            .build();
+    }
 }
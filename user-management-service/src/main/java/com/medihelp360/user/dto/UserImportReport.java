@@ -0,0 +1,39 @@
+package com.medihelp360.user.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Resultado de {@code POST /users/import}: contadores por resultado y las filas rechazadas
+ * (hasta {@code app.users.import.max-errors}).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserImportReport {
+
+    private long rows;
+    private long imported;
+    private long duplicates;
+    private long invalid;
+    private long failed;
+    private int chunks;
+    private long durationMs;
+    private long rowsPerSecond;
+    private List<RowError> errors;
+    private boolean errorsTruncated;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private long line;
+        private String email;
+        private String reason;
+    }
+}
@@ -0,0 +1,24 @@
+package com.medihelp360.user.dto;
+
+import com.medihelp360.user.domain.UserStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Usuario en los listados ({@code GET /users}, {@code /users/status/{status}}, {@code /users/role/{roleName}}).
+ * Mismos campos en JSON que {@link UserResponse}, pero inmutable y sin entidades: los roles son
+ * {@link RoleSummary} con {@code id}, {@code name} y {@code description}, como los serializaba {@code Role}.
+ */
+public record UserSummary(UUID id,
+                          String email,
+                          String name,
+                          UserStatus status,
+                          List<RoleSummary> roles,
+                          LocalDateTime createdAt,
+                          LocalDateTime updatedAt) {
+
+    public record RoleSummary(UUID id, String name, String description) {
+    }
+}
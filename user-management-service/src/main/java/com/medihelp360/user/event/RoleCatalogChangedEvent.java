@@ -0,0 +1,46 @@
+package com.medihelp360.user.event;
+
+import com.medihelp360.user.domain.Role;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Alta o baja de un rol. Se publica dentro de la transacción de {@code RoleService}; tras el commit actualiza
+ * el catálogo de roles de la instancia y se reenvía al tópico {@code role-events} para que las demás réplicas
+ * recarguen el suyo. {@code sourceInstance} solo va relleno en el mensaje de Kafka.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoleCatalogChangedEvent {
+
+    public static final String ROLE_CREATED = "RoleCreated";
+    public static final String ROLE_DELETED = "RoleDeleted";
+
+    private UUID eventId;
+    private String eventType;
+    private UUID roleId;
+    private String roleName;
+    private String description;
+    private String sourceInstance;
+    private LocalDateTime timestamp;
+
+    public static RoleCatalogChangedEvent created(Role role) {
+        return new RoleCatalogChangedEvent(UUID.randomUUID(), ROLE_CREATED, role.getId(), role.getName(),
+                role.getDescription(), null, LocalDateTime.now());
+    }
+
+    public static RoleCatalogChangedEvent deleted(UUID roleId, String roleName) {
+        return new RoleCatalogChangedEvent(UUID.randomUUID(), ROLE_DELETED, roleId, roleName, null, null,
+                LocalDateTime.now());
+    }
+
+    public RoleCatalogChangedEvent withSourceInstance(String sourceInstance) {
+        return new RoleCatalogChangedEvent(eventId, eventType, roleId, roleName, description, sourceInstance,
+                timestamp);
+    }
+}
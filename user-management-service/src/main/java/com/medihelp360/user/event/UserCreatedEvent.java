@@ -1,5 +1,6 @@
 package com.medihelp360.user.event;
 
+import com.medihelp360.events.codec.UserEventData;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
@@ -26,4 +27,15 @@ public class UserCreatedEvent extends UserEvent {
         this.roles = roles;
         this.status = status;
     }
-} 
\ No newline at end of file
+    
+    @Override
+    public UserEventData toEventData() {
+        return eventDataBuilder()
+                .userId(userId)
+                .email(email)
+                .name(name)
+                .roles(roles)
+                .status(status)
+                .build();
+    }
+}
@@ -1,10 +1,12 @@
 package com.medihelp360.user.event;
 
+import com.medihelp360.events.codec.UserEventData;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.UUID;
 
@@ -24,4 +26,25 @@ public abstract class UserEvent {
         this.timestamp = LocalDateTime.now();
         this.eventType = this.getClass().getSimpleName();
     }
-} 
\ No newline at end of file
+    
+    /**
+     * Representación que se publica en Kafka (ver event-codec).
+     */
+    public abstract UserEventData toEventData();
+    
+    protected UserEventData.UserEventDataBuilder eventDataBuilder() {
+        Map<String, String> eventMetadata = null;
+        if (metadata != null) {
+            eventMetadata = new LinkedHashMap<>();
+            for (Map.Entry<String, Object> entry : metadata.entrySet()) {
+                eventMetadata.put(entry.getKey(), String.valueOf(entry.getValue()));
+            }
+        }
+        return UserEventData.builder()
+                .eventId(eventId)
+                .eventType(eventType)
+                .aggregateId(aggregateId)
+                .timestamp(timestamp)
+                .metadata(eventMetadata);
+    }
+}
@@ -1,5 +1,6 @@
 package com.medihelp360.user.event;
 
+import com.medihelp360.events.codec.UserEventData;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
@@ -17,9 +18,17 @@ public class UserUpdatedEvent extends UserEvent {
     private Set<String> roles;
     private String status;
     private String previousStatus;
+    // Solo para listeners locales (contadores de /users/stats); no forma parte del evento publicado
+    private Set<String> previousRoles;
     
     public UserUpdatedEvent(UUID userId, String email, String name, 
                            Set<String> roles, String status, String previousStatus) {
+        this(userId, email, name, roles, status, previousStatus, roles);
+    }
+    
+    public UserUpdatedEvent(UUID userId, String email, String name, 
+                           Set<String> roles, String status, String previousStatus,
+                           Set<String> previousRoles) {
         super(userId);
         this.userId = userId;
         this.email = email;
@@ -27,5 +36,18 @@ public class UserUpdatedEvent extends UserEvent {
         this.roles = roles;
         this.status = status;
         this.previousStatus = previousStatus;
+        this.previousRoles = previousRoles;
+    }
+    
+    @Override
+    public UserEventData toEventData() {
+        return eventDataBuilder()
+                .userId(userId)
+                .email(email)
+                .name(name)
+                .roles(roles)
+                .status(status)
+                .previousStatus(previousStatus)
+                .build();
     }
-} 
\ No newline at end of file
+}
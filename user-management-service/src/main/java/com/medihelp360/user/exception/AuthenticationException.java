@@ -2,33 +2,52 @@ package com.medihelp360.user.exception;
 
 import lombok.Getter;
 
+import java.time.Duration;
+
 @Getter
 public class AuthenticationException extends RuntimeException {
     
     private final String errorCode;
     private final int httpStatus;
+    private final Duration retryAfter;
     
     public AuthenticationException(String message) {
         super(message);
         this.errorCode = "AUTH_001";
         this.httpStatus = 401;
+        this.retryAfter = null;
     }
     
     public AuthenticationException(String message, String errorCode) {
         super(message);
         this.errorCode = errorCode;
         this.httpStatus = 401;
+        this.retryAfter = null;
     }
     
     public AuthenticationException(String message, String errorCode, int httpStatus) {
         super(message);
         this.errorCode = errorCode;
         this.httpStatus = httpStatus;
+        this.retryAfter = null;
+    }
+    
+    public AuthenticationException(String message, String errorCode, int httpStatus, Duration retryAfter) {
+        super(message);
+        this.errorCode = errorCode;
+        this.httpStatus = httpStatus;
+        this.retryAfter = retryAfter;
     }
     
     public AuthenticationException(String message, Throwable cause) {
         super(message, cause);
         this.errorCode = "AUTH_001";
         this.httpStatus = 401;
+        this.retryAfter = null;
     }
+    
+    // Códigos de error específicos de autenticación
+    public static final String TOO_MANY_ATTEMPTS = "AUTH_003";
+    public static final String INVALID_REFRESH_TOKEN = "AUTH_004";
+    public static final String REFRESH_TOKEN_REUSED = "AUTH_005";
 }
@@ -0,0 +1,21 @@
+package com.medihelp360.user.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * El pool de hashing de contraseñas está saturado; el cliente debe reintentar más tarde.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class PasswordHashingUnavailableException extends RuntimeException {
+    
+    public static final String ERROR_CODE = "SYS_002";
+    
+    public PasswordHashingUnavailableException(String message) {
+        super(message);
+    }
+    
+    public PasswordHashingUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,85 @@
+package com.medihelp360.user.maintenance;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Date;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Mantenimiento de las particiones diarias de {@code access_logs} (migración V6): crea las
+ * particiones de los próximos días y aplica la retención eliminando particiones completas,
+ * sin DELETEs fila a fila. También recorta el rollup horario, que se conserva más tiempo.
+ */
+@Component
+@ConditionalOnProperty(name = "app.audit.partitions.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class AccessLogPartitionJob {
+
+    static final String LOCK_NAME = "access-log-partitions";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ClusterTaskLock clusterTaskLock;
+    private final int daysAhead;
+    private final int retentionDays;
+    private final int rollupRetentionDays;
+
+    private final Counter partitionsCreated;
+    private final Counter partitionsDropped;
+
+    public AccessLogPartitionJob(JdbcTemplate jdbcTemplate,
+                                 ClusterTaskLock clusterTaskLock,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${app.audit.partitions.days-ahead:7}") int daysAhead,
+                                 @Value("${app.audit.partitions.retention-days:90}") int retentionDays,
+                                 @Value("${app.audit.partitions.rollup-retention-days:730}") int rollupRetentionDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.clusterTaskLock = clusterTaskLock;
+        this.daysAhead = daysAhead;
+        this.retentionDays = retentionDays;
+        this.rollupRetentionDays = rollupRetentionDays;
+        this.partitionsCreated = Counter.builder("audit.partitions.created").register(meterRegistry);
+        this.partitionsDropped = Counter.builder("audit.partitions.dropped").register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintain();
+    }
+
+    @Scheduled(cron = "${app.audit.partitions.cron:0 15 0 * * *}")
+    public void maintain() {
+        if (!clusterTaskLock.tryLock(LOCK_NAME, Duration.ofMinutes(5))) {
+            return;
+        }
+        try {
+            Integer created = jdbcTemplate.queryForObject(
+                    "SELECT ensure_access_log_partitions(?)", Integer.class, daysAhead);
+            Integer dropped = jdbcTemplate.queryForObject(
+                    "SELECT drop_access_log_partitions_before(?)", Integer.class,
+                    Date.valueOf(LocalDate.now().minusDays(retentionDays)));
+            int rollupsDeleted = jdbcTemplate.update(
+                    "DELETE FROM access_log_hourly_counts WHERE bucket_hour < ?",
+                    LocalDateTime.now().minusDays(rollupRetentionDays));
+
+            partitionsCreated.increment(created != null ? created : 0);
+            partitionsDropped.increment(dropped != null ? dropped : 0);
+            log.info("Access log partitions maintained: {} created, {} dropped, {} hourly rollups removed",
+                    created, dropped, rollupsDeleted);
+        } catch (RuntimeException e) {
+            log.error("Access log partition maintenance failed: {}", e.getMessage(), e);
+        } finally {
+            clusterTaskLock.unlock(LOCK_NAME);
+        }
+    }
+}
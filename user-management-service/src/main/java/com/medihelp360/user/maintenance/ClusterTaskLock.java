@@ -0,0 +1,65 @@
+package com.medihelp360.user.maintenance;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Lock de cluster sobre la tabla {@code scheduled_task_locks} para que una tarea programada
+ * corra en una sola réplica. El lock caduca solo ({@code locked_until}), de modo que una réplica
+ * caída no bloquea la tarea indefinidamente.
+ */
+@Component
+@Slf4j
+public class ClusterTaskLock {
+
+    private static final String TAKE_EXPIRED_SQL = "UPDATE scheduled_task_locks "
+            + "SET locked_until = ?, locked_at = ?, locked_by = ? WHERE name = ? AND locked_until <= ?";
+    private static final String INSERT_SQL = "INSERT INTO scheduled_task_locks "
+            + "(name, locked_until, locked_at, locked_by) VALUES (?, ?, ?, ?)";
+    private static final String RELEASE_SQL = "UPDATE scheduled_task_locks "
+            + "SET locked_until = ? WHERE name = ? AND locked_by = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String instanceId;
+
+    public ClusterTaskLock(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.instanceId = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID();
+    }
+
+    /**
+     * Intenta tomar el lock durante como máximo {@code lockAtMostFor}.
+     *
+     * @return true si esta réplica tiene ahora el lock
+     */
+    public boolean tryLock(String name, Duration lockAtMostFor) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime lockedUntil = now.plus(lockAtMostFor);
+
+        if (jdbcTemplate.update(TAKE_EXPIRED_SQL, lockedUntil, now, instanceId, name, now) == 1) {
+            return true;
+        }
+        try {
+            // Primera ejecución de la tarea: la fila todavía no existe
+            return jdbcTemplate.update(INSERT_SQL, name, lockedUntil, now, instanceId) == 1;
+        } catch (DuplicateKeyException e) {
+            log.debug("Lock {} is held by another instance", name);
+            return false;
+        }
+    }
+
+    public void unlock(String name) {
+        jdbcTemplate.update(RELEASE_SQL, LocalDateTime.now(), name, instanceId);
+    }
+
+    String getInstanceId() {
+        return instanceId;
+    }
+}
@@ -0,0 +1,128 @@
+package com.medihelp360.user.maintenance;
+
+import com.medihelp360.user.repository.FailedLoginAttemptRepository;
+import com.medihelp360.user.repository.OutboxEventRepository;
+import com.medihelp360.user.repository.UserSessionRepository;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.function.IntSupplier;
+
+/**
+ * Purga periódica de sesiones caducadas, de intentos de login obsoletos y de los eventos
+ * del outbox ya publicados.
+ * <p>
+ * Borra en trozos pequeños, en el orden del índice, cada uno en su propia transacción, y limita
+ * el número de trozos por segundo para no competir con el tráfico de login. Solo la réplica que
+ * obtiene el {@link ClusterTaskLock} ejecuta la purga.
+ */
+@Component
+@Slf4j
+public class ExpiredDataPurgeJob {
+
+    static final String LOCK_NAME = "expired-data-purge";
+
+    private final UserSessionRepository userSessionRepository;
+    private final FailedLoginAttemptRepository failedLoginAttemptRepository;
+    private final OutboxEventRepository outboxEventRepository;
+    private final ClusterTaskLock clusterTaskLock;
+    private final MeterRegistry meterRegistry;
+
+    private final int chunkSize;
+    private final int maxChunksPerRun;
+    private final Duration failedAttemptRetention;
+    private final Duration outboxRetention;
+    private final Duration lockAtMostFor;
+    private final Bucket chunkRateLimiter;
+
+    private final Counter lockSkipped;
+
+    public ExpiredDataPurgeJob(UserSessionRepository userSessionRepository,
+                               FailedLoginAttemptRepository failedLoginAttemptRepository,
+                               OutboxEventRepository outboxEventRepository,
+                               ClusterTaskLock clusterTaskLock,
+                               MeterRegistry meterRegistry,
+                               @Value("${app.maintenance.purge.chunk-size:500}") int chunkSize,
+                               @Value("${app.maintenance.purge.max-chunks-per-second:5}") int maxChunksPerSecond,
+                               @Value("${app.maintenance.purge.max-chunks-per-run:200}") int maxChunksPerRun,
+                               @Value("${app.maintenance.purge.failed-attempt-retention-hours:24}") long failedAttemptRetentionHours,
+                               @Value("${app.maintenance.purge.outbox-retention-hours:24}") long outboxRetentionHours,
+                               @Value("${app.maintenance.purge.lock-at-most-for-minutes:10}") long lockAtMostForMinutes) {
+        this.userSessionRepository = userSessionRepository;
+        this.failedLoginAttemptRepository = failedLoginAttemptRepository;
+        this.outboxEventRepository = outboxEventRepository;
+        this.clusterTaskLock = clusterTaskLock;
+        this.meterRegistry = meterRegistry;
+        this.chunkSize = chunkSize;
+        this.maxChunksPerRun = maxChunksPerRun;
+        this.failedAttemptRetention = Duration.ofHours(failedAttemptRetentionHours);
+        this.outboxRetention = Duration.ofHours(outboxRetentionHours);
+        this.lockAtMostFor = Duration.ofMinutes(lockAtMostForMinutes);
+        this.chunkRateLimiter = Bucket.builder()
+                .addLimit(Bandwidth.builder()
+                        .capacity(maxChunksPerSecond)
+                        .refillGreedy(maxChunksPerSecond, Duration.ofSeconds(1))
+                        .build())
+                .build();
+        this.lockSkipped = Counter.builder("maintenance.purge.lock.skipped")
+                .description("Purge runs skipped because another instance holds the lock")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${app.maintenance.purge.cron:0 */10 * * * *}")
+    public void purge() {
+        if (!clusterTaskLock.tryLock(LOCK_NAME, lockAtMostFor)) {
+            lockSkipped.increment();
+            return;
+        }
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            purgeTable("user_sessions",
+                    () -> userSessionRepository.deleteExpiredChunk(now, chunkSize));
+            purgeTable("failed_login_attempts",
+                    () -> failedLoginAttemptRepository.deleteStaleChunk(now.minus(failedAttemptRetention), now, chunkSize));
+            purgeTable("outbox_events",
+                    () -> outboxEventRepository.deletePublishedChunk(now.minus(outboxRetention), chunkSize));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Expired data purge interrupted");
+        } finally {
+            clusterTaskLock.unlock(LOCK_NAME);
+        }
+    }
+
+    private long purgeTable(String table, IntSupplier deleteChunk) throws InterruptedException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        long purged = 0;
+        int chunks = 0;
+        int deleted;
+        do {
+            chunkRateLimiter.asBlocking().consume(1);
+            deleted = deleteChunk.getAsInt();
+            purged += deleted;
+            chunks++;
+        } while (deleted == chunkSize && chunks < maxChunksPerRun);
+
+        sample.stop(Timer.builder("maintenance.purge.duration")
+                .tag("table", table)
+                .register(meterRegistry));
+        Counter.builder("maintenance.purge.rows")
+                .tag("table", table)
+                .register(meterRegistry)
+                .increment(purged);
+
+        if (purged > 0) {
+            log.info("Purged {} rows from {} in {} chunks", purged, table, chunks);
+        }
+        return purged;
+    }
+}
@@ -0,0 +1,75 @@
+package com.medihelp360.user.outbox;
+
+import com.medihelp360.events.codec.UserEventSerializer;
+import com.medihelp360.user.domain.OutboxEvent;
+import com.medihelp360.user.event.UserEvent;
+import com.medihelp360.user.repository.OutboxEventRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Escribe los eventos de usuario en {@code outbox_events} dentro de la transacción del cambio:
+ * o se confirman los dos o ninguno. {@link OutboxRelay} los publica después en Kafka.
+ * <p>
+ * El payload se guarda ya codificado con el formato configurado ({@code app.kafka.user-events.format}),
+ * así que cambiar de formato solo afecta a los eventos escritos a partir de ese momento.
+ * <p>
+ * {@link #appendAll} escribe un lote entero con inserts JDBC en lote: con el id {@code IDENTITY}
+ * Hibernate insertaría las filas de una en una.
+ */
+@Component
+public class OutboxEventWriter {
+
+    static final String INSERT_SQL = "INSERT INTO outbox_events "
+            + "(topic, aggregate_id, event_type, payload, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final UserEventSerializer userEventSerializer;
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+
+    public OutboxEventWriter(OutboxEventRepository outboxEventRepository,
+                             UserEventSerializer userEventSerializer,
+                             JdbcTemplate jdbcTemplate,
+                             @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:20}") int batchSize) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.userEventSerializer = userEventSerializer;
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public OutboxEvent append(String topic, UserEvent event) {
+        return outboxEventRepository.save(OutboxEvent.builder()
+                .topic(topic)
+                .aggregateId(event.getAggregateId())
+                .eventType(event.getEventType())
+                .payload(userEventSerializer.serialize(topic, event.toEventData()))
+                .createdAt(event.getTimestamp())
+                .build());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void appendAll(String topic, List<? extends UserEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, events, batchSize, (statement, event) -> bind(statement, topic, event));
+    }
+
+    private void bind(PreparedStatement statement, String topic, UserEvent event) throws SQLException {
+        statement.setString(1, topic);
+        statement.setObject(2, event.getAggregateId());
+        statement.setString(3, event.getEventType());
+        statement.setBytes(4, userEventSerializer.serialize(topic, event.toEventData()));
+        statement.setTimestamp(5, Timestamp.valueOf(event.getTimestamp()));
+    }
+}
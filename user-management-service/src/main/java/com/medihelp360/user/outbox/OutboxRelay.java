@@ -0,0 +1,295 @@
+package com.medihelp360.user.outbox;
+
+import com.medihelp360.user.domain.OutboxEvent;
+import com.medihelp360.user.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.errors.InvalidTopicException;
+import org.apache.kafka.common.errors.RecordBatchTooLargeException;
+import org.apache.kafka.common.errors.RecordTooLargeException;
+import org.apache.kafka.common.errors.SerializationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publica en Kafka los eventos pendientes de {@code outbox_events}.
+ * <p>
+ * Cada lote es una transacción: bloquea hasta {@code batch-size} filas pendientes con
+ * {@code FOR UPDATE SKIP LOCKED} (otras réplicas toman las siguientes), las envía todas de forma
+ * asíncrona, espera las confirmaciones y marca las publicadas con un único UPDATE (entrega at-least-once).
+ * <p>
+ * Un envío fallido suma un intento y guarda el error en la fila. Los eventos posteriores del mismo
+ * {@code aggregateId} se retienen y se reenvían detrás de él en la siguiente pasada, para no desordenar los
+ * eventos de un usuario; los de otros usuarios confirmados por Kafka se marcan igualmente. Un evento que Kafka
+ * no aceptará nunca (demasiado grande, topic inválido, error de serialización) o que agota
+ * {@code max-attempts} se aparca ({@code dead_lettered_at}) y se cuenta en
+ * {@code outbox.relay.events{result=dead_lettered}}. Los intentos solo agotan un evento si el broker confirmó
+ * otros del mismo lote: durante una caída de Kafka no se aparca nada.
+ * <p>
+ * Los mensajes llevan como clave el {@code aggregateId}: todos los eventos de un usuario van a la misma
+ * partición y los consumidores pueden repartir particiones entre hilos sin desordenarlos. Cada envío
+ * registra su latencia y, si falla, la causa en Micrometer desde el callback del productor.
+ */
+@Component
+@Slf4j
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int maxBatchesPerPoll;
+    private final long sendTimeoutNanos;
+    private final int maxAttempts;
+
+    private final MeterRegistry meterRegistry;
+    private final AtomicLong lagMillis = new AtomicLong();
+    private final DistributionSummary batchSizes;
+    private final Timer publishLatency;
+    private final Timer deliveryDelay;
+    private final Counter publishedEvents;
+    private final Counter failedEvents;
+    private final Counter heldEvents;
+    private final Counter deadLetteredEvents;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       KafkaTemplate<String, byte[]> kafkaTemplate,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry,
+                       @Value("${app.outbox.relay.enabled:true}") boolean enabled,
+                       @Value("${app.outbox.relay.batch-size:500}") int batchSize,
+                       @Value("${app.outbox.relay.max-batches-per-poll:20}") int maxBatchesPerPoll,
+                       @Value("${app.outbox.relay.send-timeout-ms:10000}") long sendTimeoutMillis,
+                       @Value("${app.outbox.relay.max-attempts:10}") int maxAttempts) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.maxBatchesPerPoll = maxBatchesPerPoll;
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMillis);
+        this.maxAttempts = maxAttempts;
+        this.meterRegistry = meterRegistry;
+
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Las filas quedan bloqueadas mientras se esperan las confirmaciones de Kafka
+        this.transactionTemplate.setTimeout((int) TimeUnit.MILLISECONDS.toSeconds(sendTimeoutMillis) + 30);
+
+        TimeGauge.builder("outbox.relay.lag", lagMillis, TimeUnit.MILLISECONDS, AtomicLong::get)
+                .description("Age of the oldest outbox event still waiting to be published")
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("outbox.relay.batch.size")
+                .description("Outbox events locked per relay batch")
+                .register(meterRegistry);
+        this.publishLatency = Timer.builder("outbox.relay.publish.latency")
+                .description("Time from sending a batch to Kafka until every send is acknowledged")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.deliveryDelay = Timer.builder("outbox.event.delivery.delay")
+                .description("Time from writing an outbox event until it is published")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.publishedEvents = Counter.builder("outbox.relay.events").tag("result", "published").register(meterRegistry);
+        this.failedEvents = Counter.builder("outbox.relay.events").tag("result", "failed").register(meterRegistry);
+        this.heldEvents = Counter.builder("outbox.relay.events").tag("result", "held").register(meterRegistry);
+        this.deadLetteredEvents = Counter.builder("outbox.relay.events")
+                .tag("result", "dead_lettered")
+                .description("Outbox events parked after a permanent failure or too many attempts")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.relay.poll-interval-ms:100}")
+    public void poll() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            relayPending();
+        } catch (RuntimeException e) {
+            log.error("Outbox relay pass failed", e);
+        }
+    }
+
+    /**
+     * Publica lotes hasta vaciar los pendientes, dejar un evento para reintentar o llegar a
+     * {@code max-batches-per-poll}.
+     *
+     * @return número de eventos publicados y marcados
+     */
+    public int relayPending() {
+        int published = 0;
+        for (int batch = 0; batch < maxBatchesPerPoll; batch++) {
+            BatchResult result = transactionTemplate.execute(status -> relayBatch());
+            published += result.published();
+            if (result.locked() < batchSize || result.failed()) {
+                break;
+            }
+        }
+        updateLag();
+        return published;
+    }
+
+    private BatchResult relayBatch() {
+        List<OutboxEvent> batch = outboxEventRepository.lockPendingBatch(batchSize);
+        if (batch.isEmpty()) {
+            return new BatchResult(0, 0, false);
+        }
+        batchSizes.record(batch.size());
+
+        long start = System.nanoTime();
+        List<CompletableFuture<SendResult<String, byte[]>>> sends = new ArrayList<>(batch.size());
+        for (OutboxEvent event : batch) {
+            sends.add(send(event));
+        }
+        // El lote ya está completo: no tiene sentido esperar a linger.ms antes de enviarlo
+        kafkaTemplate.flush();
+
+        // Resultado de cada envío en orden: null si Kafka lo confirmó
+        List<Throwable> failures = new ArrayList<>(batch.size());
+        long deadline = start + sendTimeoutNanos;
+        for (int i = 0; i < sends.size(); i++) {
+            try {
+                sends.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                failures.add(null);
+            } catch (InterruptedException e) {
+                // Los que quedan sin esperar no se marcan ni cuentan como intento
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                failures.add(e.getCause() != null ? e.getCause() : e);
+            } catch (TimeoutException e) {
+                failures.add(e);
+            }
+        }
+        publishLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        // Si Kafka confirmó algún evento del lote, los fallos son de esos eventos y no del broker
+        boolean brokerReachable = failures.contains(null);
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> published = new ArrayList<>(batch.size());
+        Set<UUID> heldAggregates = new HashSet<>();
+        int retrying = 0;
+        int parked = 0;
+        for (int i = 0; i < failures.size(); i++) {
+            OutboxEvent event = batch.get(i);
+            Throwable failure = failures.get(i);
+            if (heldAggregates.contains(event.getAggregateId())) {
+                heldEvents.increment();
+            } else if (failure == null) {
+                published.add(event);
+            } else if (isPermanent(failure) || (brokerReachable && event.getAttempts() + 1 >= maxAttempts)) {
+                log.error("Parking outbox event {} ({}, aggregate {}) after {} attempt(s): {}", event.getId(),
+                        event.getEventType(), event.getAggregateId(), event.getAttempts() + 1, describe(failure));
+                outboxEventRepository.recordFailedSend(event.getId(), describe(failure), now);
+                parked++;
+            } else {
+                log.warn("Could not publish outbox event {} ({}), will retry: {}",
+                        event.getId(), event.getEventType(), describe(failure));
+                outboxEventRepository.recordFailedSend(event.getId(), describe(failure), null);
+                heldAggregates.add(event.getAggregateId());
+                retrying++;
+            }
+        }
+
+        if (!published.isEmpty()) {
+            outboxEventRepository.markPublished(published.stream().map(OutboxEvent::getId).toList(), now);
+        }
+        for (OutboxEvent event : published) {
+            deliveryDelay.record(Duration.between(event.getCreatedAt(), now));
+        }
+        publishedEvents.increment(published.size());
+        failedEvents.increment(retrying + parked);
+        deadLetteredEvents.increment(parked);
+        return new BatchResult(batch.size(), published.size(), retrying > 0 || failures.size() < batch.size());
+    }
+
+    /**
+     * Errores que ningún reintento va a resolver.
+     */
+    private static boolean isPermanent(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RecordTooLargeException || cause instanceof RecordBatchTooLargeException
+                    || cause instanceof InvalidTopicException || cause instanceof SerializationException) {
+                return true;
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+        return false;
+    }
+
+    private static String describe(Throwable failure) {
+        Throwable root = failure;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        String description = root.getClass().getSimpleName() + ": " + root.getMessage();
+        return description.length() > 1000 ? description.substring(0, 1000) : description;
+    }
+
+    private CompletableFuture<SendResult<String, byte[]>> send(OutboxEvent event) {
+        long sendStart = System.nanoTime();
+        CompletableFuture<SendResult<String, byte[]>> future;
+        try {
+            future = kafkaTemplate.send(event.getTopic(), event.getAggregateId().toString(), event.getPayload());
+        } catch (RuntimeException e) {
+            // Errores síncronos del productor (serialización, metadatos): cuentan como fallo de este evento
+            future = CompletableFuture.failedFuture(e);
+        }
+        future.whenComplete((result, failure) -> recordSend(event.getTopic(), sendStart, failure));
+        return future;
+    }
+
+    private void recordSend(String topic, long sendStart, Throwable failure) {
+        Timer.builder("outbox.relay.send.latency")
+                .description("Time from handing one event to the producer until the broker acknowledges it")
+                .tag("topic", topic)
+                .tag("result", failure == null ? "success" : "failure")
+                .register(meterRegistry)
+                .record(System.nanoTime() - sendStart, TimeUnit.NANOSECONDS);
+        if (failure != null) {
+            Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                    ? failure.getCause()
+                    : failure;
+            Counter.builder("outbox.relay.send.failures")
+                    .tag("topic", topic)
+                    .tag("exception", cause.getClass().getSimpleName())
+                    .register(meterRegistry)
+                    .increment();
+        }
+    }
+
+    private void updateLag() {
+        long lag = outboxEventRepository.findFirstByPublishedAtIsNullAndDeadLetteredAtIsNullOrderByIdAsc()
+                .map(oldest -> Math.max(0, Duration.between(oldest.getCreatedAt(), LocalDateTime.now()).toMillis()))
+                .orElse(0L);
+        lagMillis.set(lag);
+    }
+
+    private record BatchResult(int locked, int published, boolean failed) {
+    }
+}
@@ -26,7 +26,8 @@ public interface AccessLogRepository extends JpaRepository<AccessLog, UUID> {
     @Query("SELECT a FROM AccessLog a WHERE a.ipAddress = :ipAddress ORDER BY a.timestamp DESC")
     List<AccessLog> findByIpAddressOrderByTimestampDesc(@Param("ipAddress") String ipAddress);
     
-    @Query("SELECT COUNT(a) FROM AccessLog a WHERE a.user = :userId AND a.action = :action AND a.timestamp >= :since")
+    // Por usuario no hay rollup: se apoya en idx_access_logs_user_action_timestamp y en la poda de particiones
+    @Query("SELECT COUNT(a) FROM AccessLog a WHERE a.user.id = :userId AND a.action = :action AND a.timestamp >= :since")
     Long countByUserIdAndActionSince(@Param("userId") UUID userId, 
                                    @Param("action") String action, 
                                    @Param("since") LocalDateTime since);
@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -34,4 +35,19 @@ public interface FailedLoginAttemptRepository extends JpaRepository<FailedLoginA
     @Modifying
     @Query("DELETE FROM FailedLoginAttempt f WHERE f.lastAttemptAt < :cutoffDate")
     void deleteOldAttempts(@Param("cutoffDate") LocalDateTime cutoffDate);
+    
+    /**
+     * Borra como máximo {@code limit} intentos sin actividad desde {@code cutoffDate} y sin bloqueo vigente,
+     * en orden (last_attempt_at, id).
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM failed_login_attempts WHERE id IN (" +
+                   "SELECT id FROM failed_login_attempts WHERE last_attempt_at < :cutoffDate " +
+                   "AND (blocked_until IS NULL OR blocked_until < :now) " +
+                   "ORDER BY last_attempt_at, id LIMIT :limit)",
+           nativeQuery = true)
+    int deleteStaleChunk(@Param("cutoffDate") LocalDateTime cutoffDate,
+                         @Param("now") LocalDateTime now,
+                         @Param("limit") int limit);
 }
@@ -0,0 +1,62 @@
+package com.medihelp360.user.repository;
+
+import com.medihelp360.user.domain.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+    
+    /**
+     * Bloquea hasta {@code limit} eventos pendientes (ni publicados ni aparcados), en orden de id,
+     * saltándose los que ya tiene bloqueados otro relay: varias réplicas pueden publicar a la vez sin
+     * repetir filas. Debe llamarse dentro de la transacción que después los marca como publicados.
+     */
+    @Query(value = "SELECT * FROM outbox_events WHERE published_at IS NULL AND dead_lettered_at IS NULL " +
+                   "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<OutboxEvent> lockPendingBatch(@Param("limit") int limit);
+    
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.publishedAt = :publishedAt WHERE e.id IN :ids")
+    int markPublished(@Param("ids") Collection<Long> ids, @Param("publishedAt") LocalDateTime publishedAt);
+    
+    /**
+     * Envío fallido: suma un intento, guarda el error y, si {@code deadLetteredAt} no es null, aparca el evento.
+     */
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.attempts = e.attempts + 1, e.lastError = :lastError, " +
+           "e.deadLetteredAt = :deadLetteredAt WHERE e.id = :id")
+    int recordFailedSend(@Param("id") Long id,
+                         @Param("lastError") String lastError,
+                         @Param("deadLetteredAt") LocalDateTime deadLetteredAt);
+    
+    /**
+     * Evento pendiente más antiguo (LIMIT 1 sobre el índice parcial de pendientes).
+     */
+    Optional<OutboxEvent> findFirstByPublishedAtIsNullAndDeadLetteredAtIsNullOrderByIdAsc();
+    
+    long countByPublishedAtIsNull();
+    
+    long countByDeadLetteredAtIsNotNull();
+    
+    /**
+     * Borra como máximo {@code limit} eventos publicados antes de {@code cutoff}, los más antiguos primero.
+     * Cada llamada es una transacción corta.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM outbox_events WHERE id IN (" +
+                   "SELECT id FROM outbox_events WHERE published_at < :cutoff ORDER BY published_at, id LIMIT :limit)",
+           nativeQuery = true)
+    int deletePublishedChunk(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+}
@@ -0,0 +1,22 @@
+package com.medihelp360.user.repository;
+
+import com.medihelp360.user.domain.UserStatus;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Fila de la búsqueda de sesión por refresh token: sesión, usuario y el nombre de uno de sus roles
+ * (null si no tiene roles).
+ */
+public record RefreshSessionRow(
+        UUID sessionId,
+        UUID familyId,
+        LocalDateTime expiresAt,
+        UUID userId,
+        String email,
+        String name,
+        UserStatus status,
+        LocalDateTime lastLogin,
+        String roleName) {
+}
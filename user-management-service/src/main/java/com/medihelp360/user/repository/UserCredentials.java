@@ -0,0 +1,53 @@
+package com.medihelp360.user.repository;
+
+import com.medihelp360.user.domain.UserStatus;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Lo que necesita el login de un usuario, cargado con una sola consulta y sin gestionar
+ * la entidad {@code User} (ni su colección EAGER de roles).
+ */
+public record UserCredentials(
+        UUID id,
+        String email,
+        String name,
+        String passwordHash,
+        UserStatus status,
+        boolean accountLocked,
+        LocalDateTime lockedUntil,
+        LocalDateTime lastLogin,
+        Set<String> roleNames) {
+
+    public boolean isAccountLocked() {
+        return accountLocked && lockedUntil != null && LocalDateTime.now().isBefore(lockedUntil);
+    }
+
+    static Optional<UserCredentials> fromRows(List<UserCredentialsRow> rows) {
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        UserCredentialsRow first = rows.get(0);
+        Set<String> roleNames = new LinkedHashSet<>();
+        for (UserCredentialsRow row : rows) {
+            if (row.roleName() != null) {
+                roleNames.add(row.roleName());
+            }
+        }
+        return Optional.of(new UserCredentials(
+                first.id(),
+                first.email(),
+                first.name(),
+                first.passwordHash(),
+                first.status(),
+                Boolean.TRUE.equals(first.accountLocked()),
+                first.lockedUntil(),
+                first.lastLogin(),
+                Set.copyOf(roleNames)));
+    }
+}
@@ -0,0 +1,22 @@
+package com.medihelp360.user.repository;
+
+import com.medihelp360.user.domain.UserStatus;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Fila plana de la proyección de login: datos del usuario más el nombre de uno de sus roles
+ * (null si no tiene roles). Se agrupa en {@link UserCredentials}.
+ */
+public record UserCredentialsRow(
+        UUID id,
+        String email,
+        String name,
+        String passwordHash,
+        UserStatus status,
+        Boolean accountLocked,
+        LocalDateTime lockedUntil,
+        LocalDateTime lastLogin,
+        String roleName) {
+}
@@ -5,13 +5,16 @@ import com.medihelp360.user.domain.UserStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 @Repository
@@ -21,12 +24,76 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     
     boolean existsByEmail(String email);
     
-    List<User> findByStatus(UserStatus status);
+    /**
+     * Emails de la lista que ya existen, en una sola consulta {@code IN} (importación por lotes).
+     */
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    Set<String> findExistingEmails(@Param("emails") Collection<String> emails);
+    
+    /**
+     * Usuario y nombres de rol en una sola consulta (una fila por rol), para el login.
+     */
+    @Query("SELECT new com.medihelp360.user.repository.UserCredentialsRow(" +
+           "u.id, u.email, u.name, u.passwordHash, u.status, u.accountLocked, u.lockedUntil, u.lastLogin, r.name) " +
+           "FROM User u LEFT JOIN u.roles r WHERE u.email = :email")
+    List<UserCredentialsRow> findCredentialRowsByEmail(@Param("email") String email);
+    
+    default Optional<UserCredentials> findCredentialsByEmail(String email) {
+        return UserCredentials.fromRows(findCredentialRowsByEmail(email));
+    }
+    
+    /**
+     * Login correcto: último acceso, reinicio de intentos fallidos y, si hace falta, el hash re-generado,
+     * todo en un único UPDATE.
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.lastLogin = :now, u.updatedAt = :now, u.failedAttempts = 0, " +
+           "u.accountLocked = false, u.lockedUntil = null, u.passwordHash = :passwordHash WHERE u.id = :id")
+    int recordSuccessfulLogin(@Param("id") UUID id,
+                              @Param("now") LocalDateTime now,
+                              @Param("passwordHash") String passwordHash);
+    
+    /**
+     * Contraseña incorrecta: incrementa los intentos y bloquea la cuenta al llegar a {@code maxAttempts},
+     * en un único UPDATE sin cargar la entidad.
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.failedAttempts = COALESCE(u.failedAttempts, 0) + 1, " +
+           "u.accountLocked = CASE WHEN COALESCE(u.failedAttempts, 0) + 1 >= :maxAttempts THEN true ELSE u.accountLocked END, " +
+           "u.lockedUntil = CASE WHEN COALESCE(u.failedAttempts, 0) + 1 >= :maxAttempts THEN :lockedUntil ELSE u.lockedUntil END " +
+           "WHERE u.id = :id")
+    int recordFailedLogin(@Param("id") UUID id,
+                          @Param("maxAttempts") int maxAttempts,
+                          @Param("lockedUntil") LocalDateTime lockedUntil);
     
     Page<User> findByStatus(UserStatus status, Pageable pageable);
     
-    @Query("SELECT u FROM User u JOIN u.roles r WHERE r.name = :roleName")
-    List<User> findByRoleName(@Param("roleName") String roleName);
+    /**
+     * Listados sin entidades: las filas de usuario salen de una proyección y sus roles de
+     * {@link #findRoleRowsByUserIds} en una sola consulta por página, en lugar de una por usuario
+     * (los roles de {@link User} son EAGER).
+     */
+    @Query(value = "SELECT new com.medihelp360.user.repository.UserSummaryRow(" +
+                   "u.id, u.email, u.name, u.status, u.createdAt, u.updatedAt) FROM User u",
+           countQuery = "SELECT COUNT(u) FROM User u")
+    Page<UserSummaryRow> findSummaries(Pageable pageable);
+    
+    @Query("SELECT new com.medihelp360.user.repository.UserSummaryRow(" +
+           "u.id, u.email, u.name, u.status, u.createdAt, u.updatedAt) FROM User u WHERE u.status = :status")
+    List<UserSummaryRow> findSummariesByStatus(@Param("status") UserStatus status);
+    
+    @Query("SELECT new com.medihelp360.user.repository.UserSummaryRow(" +
+           "u.id, u.email, u.name, u.status, u.createdAt, u.updatedAt) FROM User u JOIN u.roles r " +
+           "WHERE r.name = :roleName")
+    List<UserSummaryRow> findSummariesByRoleName(@Param("roleName") String roleName);
+    
+    @Query("SELECT new com.medihelp360.user.repository.UserSummaryRow(" +
+           "u.id, u.email, u.name, u.status, u.createdAt, u.updatedAt) FROM User u WHERE u.id IN :ids")
+    List<UserSummaryRow> findSummariesByIds(@Param("ids") Collection<UUID> ids);
+    
+    @Query("SELECT new com.medihelp360.user.repository.UserRoleRow(u.id, r.id, r.name, r.description) " +
+           "FROM User u JOIN u.roles r WHERE u.id IN :userIds")
+    List<UserRoleRow> findRoleRowsByUserIds(@Param("userIds") Collection<UUID> userIds);
     
     @Query("SELECT u FROM User u WHERE u.createdAt BETWEEN :startDate AND :endDate")
     List<User> findUsersCreatedBetween(@Param("startDate") LocalDateTime startDate, 
@@ -37,6 +104,51 @@ public interface UserRepository extends JpaRepository<User, UUID> {
                                                      @Param("email") String email, 
                                                      Pageable pageable);
     
+    /**
+     * Paginación por cursor (keyset) sobre {@code (created_at, id)}: la primera página y las siguientes
+     * a partir del último usuario devuelto, sin OFFSET. El tamaño lo marca el {@code Pageable}
+     * (una fila más para saber si hay página siguiente); al devolver {@code List} no se lanza COUNT.
+     * Como los demás listados, devuelven la proyección y los roles se piden aparte con
+     * {@link #findRoleRowsByUserIds}.
+     * <p>
+     * HQL no admite comparar tuplas con parámetros, así que {@code (created_at, id) > (:createdAt, :id)} se
+     * escribe como {@code created_at >= :createdAt AND (created_at > :createdAt OR id > :id)}: la primera
+     * condición acota el recorrido de {@code idx_users_created_at_id} desde el cursor y la segunda solo
+     * descarta los usuarios ya devueltos con el mismo {@code created_at}.
+     */
+    @Query("SELECT new com.medihelp360.user.repository.UserSummaryRow(" +
+           "u.id, u.email, u.name, u.status, u.createdAt, u.updatedAt) FROM User u ORDER BY u.createdAt, u.id")
+    List<UserSummaryRow> findFirstKeysetPage(Pageable pageable);
+    
+    @Query("SELECT new com.medihelp360.user.repository.UserSummaryRow(" +
+           "u.id, u.email, u.name, u.status, u.createdAt, u.updatedAt) FROM User u " +
+           "WHERE u.createdAt >= :createdAt AND (u.createdAt > :createdAt OR u.id > :id) " +
+           "ORDER BY u.createdAt, u.id")
+    List<UserSummaryRow> findKeysetPageAfter(@Param("createdAt") LocalDateTime createdAt,
+                                             @Param("id") UUID id,
+                                             Pageable pageable);
+    
+    @Query("SELECT new com.medihelp360.user.repository.UserSummaryRow(" +
+           "u.id, u.email, u.name, u.status, u.createdAt, u.updatedAt) FROM User u " +
+           "WHERE (u.name LIKE %:name% OR u.email LIKE %:email%) ORDER BY u.createdAt, u.id")
+    List<UserSummaryRow> searchFirstKeysetPage(@Param("name") String name,
+                                               @Param("email") String email,
+                                               Pageable pageable);
+    
+    @Query("SELECT new com.medihelp360.user.repository.UserSummaryRow(" +
+           "u.id, u.email, u.name, u.status, u.createdAt, u.updatedAt) FROM User u " +
+           "WHERE (u.name LIKE %:name% OR u.email LIKE %:email%) " +
+           "AND u.createdAt >= :createdAt AND (u.createdAt > :createdAt OR u.id > :id) " +
+           "ORDER BY u.createdAt, u.id")
+    List<UserSummaryRow> searchKeysetPageAfter(@Param("name") String name,
+                                               @Param("email") String email,
+                                               @Param("createdAt") LocalDateTime createdAt,
+                                               @Param("id") UUID id,
+                                               Pageable pageable);
+    
+    @Query("SELECT COUNT(u) FROM User u WHERE u.name LIKE %:name% OR u.email LIKE %:email%")
+    long countByNameContainingOrEmailContaining(@Param("name") String name, @Param("email") String email);
+    
     @Query("SELECT COUNT(u) FROM User u WHERE u.status = :status")
     Long countByStatus(@Param("status") UserStatus status);
 } 
\ No newline at end of file
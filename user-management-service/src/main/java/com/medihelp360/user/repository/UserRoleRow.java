@@ -0,0 +1,14 @@
+package com.medihelp360.user.repository;
+
+import java.util.UUID;
+
+/**
+ * Fila de {@code user_roles} con los datos del rol, para resolver los roles de una página de usuarios
+ * en una sola consulta.
+ */
+public record UserRoleRow(
+        UUID userId,
+        UUID roleId,
+        String roleName,
+        String roleDescription) {
+}
@@ -2,11 +2,14 @@ package com.medihelp360.user.repository;
 
 import com.medihelp360.user.domain.UserSession;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -14,9 +17,45 @@ import java.util.UUID;
 @Repository
 public interface UserSessionRepository extends JpaRepository<UserSession, UUID> {
     
-    Optional<UserSession> findByTokenHash(String tokenHash);
+    Optional<UserSession> findByTokenHash(byte[] tokenHash);
     
-    Optional<UserSession> findByRefreshTokenHash(String refreshTokenHash);
+    Optional<UserSession> findByRefreshTokenHash(byte[] refreshTokenHash);
+    
+    /**
+     * Digests de access token, de entre {@code tokenHashes}, que tienen una sesión vigente:
+     * una sola consulta {@code WHERE token_hash IN (...)} para validar lotes de tokens.
+     */
+    @Query("SELECT s.tokenHash FROM UserSession s WHERE s.tokenHash IN :tokenHashes AND s.expiresAt > :now")
+    List<byte[]> findActiveTokenHashes(@Param("tokenHashes") Collection<byte[]> tokenHashes,
+                                       @Param("now") LocalDateTime now);
+    
+    /**
+     * Sesión y datos del usuario para rotar un refresh token, con una búsqueda por el índice único
+     * de refresh_token_hash (una fila por rol).
+     */
+    @Query("SELECT new com.medihelp360.user.repository.RefreshSessionRow(" +
+           "s.id, s.familyId, s.expiresAt, u.id, u.email, u.name, u.status, u.lastLogin, r.name) " +
+           "FROM UserSession s JOIN s.user u LEFT JOIN u.roles r WHERE s.refreshTokenHash = :refreshTokenHash")
+    List<RefreshSessionRow> findRefreshRows(@Param("refreshTokenHash") byte[] refreshTokenHash);
+    
+    /**
+     * Sustituye los digests de la sesión solo si el refresh token presentado sigue siendo el vigente;
+     * 0 filas significa que otra petición ya lo rotó.
+     */
+    @Modifying
+    @Query("UPDATE UserSession s SET s.tokenHash = :tokenHash, s.refreshTokenHash = :newRefreshTokenHash, " +
+           "s.ipAddress = :ipAddress, s.updatedAt = :now " +
+           "WHERE s.id = :sessionId AND s.refreshTokenHash = :currentRefreshTokenHash")
+    int rotateTokens(@Param("sessionId") UUID sessionId,
+                     @Param("currentRefreshTokenHash") byte[] currentRefreshTokenHash,
+                     @Param("tokenHash") byte[] tokenHash,
+                     @Param("newRefreshTokenHash") byte[] newRefreshTokenHash,
+                     @Param("ipAddress") String ipAddress,
+                     @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Query("DELETE FROM UserSession s WHERE s.familyId = :familyId")
+    int deleteByFamilyId(@Param("familyId") UUID familyId);
     
     List<UserSession> findByUserId(UUID userId);
     
@@ -26,4 +65,15 @@ public interface UserSessionRepository extends JpaRepository<UserSession, UUID>
     void deleteByUserId(UUID userId);
     
     void deleteByExpiresAtBefore(LocalDateTime date);
+    
+    /**
+     * Borra como máximo {@code limit} sesiones caducadas, las más antiguas primero (orden del índice
+     * (expires_at, id)). Cada llamada es una transacción corta.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM user_sessions WHERE id IN (" +
+                   "SELECT id FROM user_sessions WHERE expires_at < :cutoff ORDER BY expires_at, id LIMIT :limit)",
+           nativeQuery = true)
+    int deleteExpiredChunk(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
 }
@@ -0,0 +1,19 @@
+package com.medihelp360.user.repository;
+
+import com.medihelp360.user.domain.UserStatus;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Fila de la proyección de los listados de usuarios: solo las columnas de {@code users} que se devuelven,
+ * sin cargar la entidad ni sus roles (que van aparte, en {@link UserRoleRow}).
+ */
+public record UserSummaryRow(
+        UUID id,
+        String email,
+        String name,
+        UserStatus status,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt) {
+}
@@ -0,0 +1,261 @@
+package com.medihelp360.user.search;
+
+import com.medihelp360.user.event.UserCreatedEvent;
+import com.medihelp360.user.event.UserUpdatedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice invertido de trigramas en memoria, para H2 y desarrollo, donde no hay pg_trgm.
+ * <p>
+ * Cada usuario es un documento numerado; cada trigrama de su nombre o email apunta a la lista de documentos que
+ * lo contienen. Los números solo crecen, así que las listas quedan ordenadas y se intersecan con búsqueda
+ * binaria empezando por la más corta; los candidatos se confirman con {@code contains} y solo ellos se puntúan.
+ * Cambiar un usuario crea un documento nuevo y deja el anterior vacío; cuando hay tantos vacíos como vivos
+ * se reconstruye el índice.
+ * <p>
+ * Se carga de la base de datos al arrancar y se mantiene con {@link UserCreatedEvent} y {@link UserUpdatedEvent}
+ * tras el commit. Solo ve los cambios hechos en su propia instancia, por eso no es para producción con varias
+ * réplicas, y ocupa memoria proporcional al total de usuarios.
+ */
+@Component
+@ConditionalOnProperty(name = "app.users.search.engine", havingValue = "memory")
+@Slf4j
+public class InMemoryUserSearchIndex implements UserSearchIndex {
+
+    private static final int MIN_REMOVED_FOR_COMPACTION = 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Por número de documento; null si el usuario cambió después
+    private final List<Document> documents = new ArrayList<>();
+    private final Map<UUID, Integer> documentByUser = new HashMap<>();
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private int removed;
+
+    public InMemoryUserSearchIndex(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        Gauge.builder("users.search.index.documents", this, InMemoryUserSearchIndex::size)
+                .description("Users in the in-memory search index")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long start = System.nanoTime();
+        // Sin reemplazar: un evento recibido durante la carga es más reciente que la fila leída
+        jdbcTemplate.query("SELECT id, name, email FROM users", (RowCallbackHandler) rs ->
+                add(rs.getObject("id", UUID.class), rs.getString("name"), rs.getString("email"), false));
+        log.info("Loaded {} users into the in-memory search index in {} ms",
+                size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserCreated(UserCreatedEvent event) {
+        put(event.getUserId(), event.getName(), event.getEmail());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserUpdated(UserUpdatedEvent event) {
+        put(event.getUserId(), event.getName(), event.getEmail());
+    }
+
+    public void put(UUID userId, String name, String email) {
+        add(userId, name, email, true);
+    }
+
+    public void remove(UUID userId) {
+        lock.writeLock().lock();
+        try {
+            Integer number = documentByUser.remove(userId);
+            if (number != null) {
+                documents.set(number, null);
+                removed++;
+                compactIfNeeded();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documentByUser.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<UserSearchHit> search(String query, UserSearchCursor after, int limit) {
+        String text = normalize(query);
+        long[] queryTrigrams = Trigrams.of(text);
+        // Montículo con el peor resultado arriba: se queda con los limit mejores sin ordenar todos
+        PriorityQueue<UserSearchHit> best = new PriorityQueue<>(limit + 1, UserSearchHit.RANKING.reversed());
+        lock.readLock().lock();
+        try {
+            int[] candidates = candidates(queryTrigrams);
+            int count = candidates != null ? candidates.length : documents.size();
+            for (int i = 0; i < count; i++) {
+                Document document = documents.get(candidates != null ? candidates[i] : i);
+                if (document == null || !document.contains(text)) {
+                    continue;
+                }
+                UserSearchHit hit = new UserSearchHit(document.userId(), document.score(text, queryTrigrams));
+                if (after != null && !after.precedes(hit)) {
+                    continue;
+                }
+                best.offer(hit);
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<UserSearchHit> hits = new ArrayList<>(best);
+        hits.sort(UserSearchHit.RANKING);
+        return hits;
+    }
+
+    private void add(UUID userId, String name, String email, boolean replace) {
+        Document document = new Document(userId, normalize(name), normalize(email));
+        lock.writeLock().lock();
+        try {
+            Integer previous = documentByUser.get(userId);
+            if (previous != null) {
+                // Un cambio de estado o de roles no toca el texto indexado
+                if (!replace || document.sameText(documents.get(previous))) {
+                    return;
+                }
+                documents.set(previous, null);
+                removed++;
+            }
+            index(document);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void index(Document document) {
+        int number = documents.size();
+        documents.add(document);
+        documentByUser.put(document.userId(), number);
+        for (long trigram : Trigrams.union(Trigrams.of(document.name()), Trigrams.of(document.email()))) {
+            postings.computeIfAbsent(trigram, key -> new Postings()).add(number);
+        }
+    }
+
+    private void compactIfNeeded() {
+        if (removed < MIN_REMOVED_FOR_COMPACTION || removed < documentByUser.size()) {
+            return;
+        }
+        List<Document> live = documents.stream().filter(Objects::nonNull).toList();
+        documents.clear();
+        documentByUser.clear();
+        postings.clear();
+        removed = 0;
+        live.forEach(this::index);
+        log.debug("Compacted in-memory search index to {} users", live.size());
+    }
+
+    /**
+     * Documentos que tienen todos los trigramas de la consulta, o {@code null} si la consulta es demasiado
+     * corta para tenerlos y hay que recorrerlos todos.
+     */
+    private int[] candidates(long[] queryTrigrams) {
+        if (queryTrigrams.length == 0) {
+            return null;
+        }
+        List<Postings> lists = new ArrayList<>(queryTrigrams.length);
+        for (long trigram : queryTrigrams) {
+            Postings list = postings.get(trigram);
+            if (list == null) {
+                return new int[0];
+            }
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(list -> list.size));
+        int[] candidates = Arrays.copyOf(lists.get(0).documents, lists.get(0).size);
+        int length = candidates.length;
+        for (int i = 1; i < lists.size() && length > 0; i++) {
+            length = retainAll(candidates, length, lists.get(i));
+        }
+        return Arrays.copyOf(candidates, length);
+    }
+
+    // Deja al principio de candidates los que también están en la lista; devuelve cuántos quedan
+    private static int retainAll(int[] candidates, int length, Postings list) {
+        int kept = 0;
+        int from = 0;
+        for (int i = 0; i < length && from < list.size; i++) {
+            int found = Arrays.binarySearch(list.documents, from, list.size, candidates[i]);
+            if (found >= 0) {
+                candidates[kept++] = candidates[i];
+                from = found + 1;
+            } else {
+                from = -found - 1;
+            }
+        }
+        return kept;
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private record Document(UUID userId, String name, String email) {
+
+        boolean contains(String query) {
+            return name.contains(query) || email.contains(query);
+        }
+
+        double score(String query, long[] queryTrigrams) {
+            return UserSearchHit.round(Math.max(
+                    Trigrams.similarity(query, queryTrigrams, name),
+                    Trigrams.similarity(query, queryTrigrams, email)));
+        }
+
+        boolean sameText(Document other) {
+            return name.equals(other.name) && email.equals(other.email);
+        }
+    }
+
+    private static final class Postings {
+
+        private int[] documents = new int[2];
+        private int size;
+
+        void add(int document) {
+            if (size == documents.length) {
+                documents = Arrays.copyOf(documents, size * 2);
+            }
+            documents[size++] = document;
+        }
+    }
+}
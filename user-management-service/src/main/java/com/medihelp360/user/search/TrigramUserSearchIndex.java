@@ -0,0 +1,58 @@
+package com.medihelp360.user.search;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Búsqueda en PostgreSQL con los índices GIN de pg_trgm (migración V11).
+ * <p>
+ * El filtro {@code ILIKE '%x%'} lo resuelven los índices trigram de {@code name} y {@code email}; solo los
+ * candidatos se puntúan con {@code similarity()} y se ordenan. El score se redondea en SQL para que el
+ * cursor {@code (score, id)} se compare contra el mismo valor numérico que se devolvió.
+ */
+@Component
+@ConditionalOnProperty(name = "app.users.search.engine", havingValue = "trigram", matchIfMissing = true)
+public class TrigramUserSearchIndex implements UserSearchIndex {
+
+    private static final String RANKED = "SELECT id, score FROM ("
+            + "SELECT u.id, ROUND(CAST(GREATEST(similarity(u.name, ?), similarity(u.email, ?)) AS numeric), "
+            + UserSearchHit.SCORE_SCALE + ") AS score "
+            + "FROM users u WHERE u.name ILIKE ? OR u.email ILIKE ?) ranked ";
+    private static final String AFTER = "WHERE score < ? OR (score = ? AND id > ?) ";
+    private static final String ORDER = "ORDER BY score DESC, id LIMIT ?";
+
+    private static final RowMapper<UserSearchHit> HIT = (rs, rowNum) ->
+            new UserSearchHit(rs.getObject("id", UUID.class), rs.getBigDecimal("score").doubleValue());
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TrigramUserSearchIndex(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<UserSearchHit> search(String query, UserSearchCursor after, int limit) {
+        String pattern = "%" + escapeLike(query) + "%";
+        List<Object> args = new ArrayList<>(List.of(query, query, pattern, pattern));
+        String sql = RANKED;
+        if (after != null) {
+            BigDecimal score = BigDecimal.valueOf(after.score());
+            args.addAll(List.of(score, score, after.id()));
+            sql += AFTER;
+        }
+        args.add(limit);
+        return jdbcTemplate.query(sql + ORDER, HIT, args.toArray());
+    }
+
+    // '\' es el carácter de escape por defecto de LIKE en PostgreSQL
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,87 @@
+package com.medihelp360.user.search;
+
+import java.util.Arrays;
+
+/**
+ * Trigramas de un texto ya normalizado, empaquetados en un {@code long} (tres caracteres de 16 bits).
+ * <p>
+ * Son los trigramas "crudos", sin el relleno por palabra de pg_trgm: una subcadena de tres o más caracteres
+ * contiene solo trigramas que también están en el texto, que es lo que necesita el índice para descartar
+ * candidatos. La similitud es el índice de Jaccard sobre esos conjuntos, una aproximación a
+ * {@code similarity()} de pg_trgm suficiente para ordenar.
+ */
+final class Trigrams {
+
+    private Trigrams() {
+    }
+
+    /**
+     * Trigramas distintos del texto, ordenados.
+     */
+    static long[] of(String text) {
+        if (text.length() < 3) {
+            return new long[0];
+        }
+        long[] trigrams = new long[text.length() - 2];
+        for (int i = 0; i < trigrams.length; i++) {
+            trigrams[i] = ((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2);
+        }
+        Arrays.sort(trigrams);
+        int distinct = 1;
+        for (int i = 1; i < trigrams.length; i++) {
+            if (trigrams[i] != trigrams[distinct - 1]) {
+                trigrams[distinct++] = trigrams[i];
+            }
+        }
+        return distinct == trigrams.length ? trigrams : Arrays.copyOf(trigrams, distinct);
+    }
+
+    /**
+     * Unión de dos conjuntos ordenados de trigramas, ordenada y sin repetidos.
+     */
+    static long[] union(long[] left, long[] right) {
+        long[] merged = new long[left.length + right.length];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < left.length || j < right.length) {
+            long next;
+            if (j == right.length || (i < left.length && left[i] <= right[j])) {
+                next = left[i++];
+            } else {
+                next = right[j++];
+            }
+            if (size == 0 || merged[size - 1] != next) {
+                merged[size++] = next;
+            }
+        }
+        return Arrays.copyOf(merged, size);
+    }
+
+    /**
+     * Similitud entre la consulta y un texto. Con consultas de menos de tres caracteres (sin trigramas)
+     * cuenta la parte del texto que cubre la consulta, si la contiene.
+     */
+    static double similarity(String query, long[] queryTrigrams, String text) {
+        long[] textTrigrams = of(text);
+        if (queryTrigrams.length == 0 || textTrigrams.length == 0) {
+            return text.contains(query) ? (double) query.length() / text.length() : 0;
+        }
+        int shared = 0;
+        int i = 0;
+        int j = 0;
+        while (i < queryTrigrams.length && j < textTrigrams.length) {
+            int comparison = Long.compare(queryTrigrams[i], textTrigrams[j]);
+            if (comparison == 0) {
+                shared++;
+                i++;
+                j++;
+            } else if (comparison < 0) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return (double) shared / (queryTrigrams.length + textTrigrams.length - shared);
+    }
+}
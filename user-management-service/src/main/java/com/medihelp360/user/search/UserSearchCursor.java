@@ -0,0 +1,42 @@
+package com.medihelp360.user.search;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Posición de la búsqueda ordenada: el {@code (score, id)} del último resultado devuelto, como token opaco
+ * (Base64 URL-safe) con prefijo de versión, igual que el cursor del listado.
+ */
+public record UserSearchCursor(double score, UUID id) {
+
+    private static final String VERSION = "s1";
+
+    public static UserSearchCursor of(UserSearchHit hit) {
+        return new UserSearchCursor(hit.score(), hit.id());
+    }
+
+    public String encode() {
+        String raw = VERSION + "|" + score + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static UserSearchCursor decode(String token) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\|");
+            if (parts.length != 3 || !VERSION.equals(parts[0])) {
+                throw new IllegalArgumentException("Invalid search cursor");
+            }
+            return new UserSearchCursor(Double.parseDouble(parts[1]), UUID.fromString(parts[2]));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid search cursor", e);
+        }
+    }
+
+    /**
+     * {@code true} si el resultado va detrás de esta posición en el orden {@link UserSearchHit#RANKING}.
+     */
+    boolean precedes(UserSearchHit hit) {
+        return UserSearchHit.RANKING.compare(new UserSearchHit(id, score), hit) < 0;
+    }
+}
@@ -0,0 +1,24 @@
+package com.medihelp360.user.search;
+
+import java.util.Comparator;
+import java.util.UUID;
+
+/**
+ * Usuario encontrado y su relevancia, redondeada a {@link #SCORE_SCALE} decimales en los dos motores para que
+ * el cursor compare exactamente el mismo valor que se devolvió.
+ */
+public record UserSearchHit(UUID id, double score) {
+
+    public static final int SCORE_SCALE = 4;
+
+    /**
+     * Orden de los resultados: más relevantes primero y, a igualdad, por id.
+     */
+    public static final Comparator<UserSearchHit> RANKING = Comparator
+            .comparingDouble(UserSearchHit::score).reversed()
+            .thenComparing(UserSearchHit::id);
+
+    static double round(double score) {
+        return Math.round(score * 10_000) / 10_000.0;
+    }
+}
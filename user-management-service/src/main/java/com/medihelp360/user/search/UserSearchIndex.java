@@ -0,0 +1,21 @@
+package com.medihelp360.user.search;
+
+import java.util.List;
+
+/**
+ * Búsqueda de usuarios por subcadena de nombre o email, ordenada por relevancia.
+ * <p>
+ * Los resultados van por {@code score} descendente y, a igualdad, por id, y se paginan por cursor: con
+ * {@code after} se devuelven solo los que van detrás de esa posición. Hay dos implementaciones, elegidas con
+ * {@code app.users.search.engine}: {@link TrigramUserSearchIndex} (PostgreSQL con pg_trgm, migración V11) e
+ * {@link InMemoryUserSearchIndex} (H2 y desarrollo).
+ */
+public interface UserSearchIndex {
+
+    /**
+     * @param query texto a buscar, ya recortado y no vacío
+     * @param after posición tras la que continuar, o {@code null} para la primera página
+     * @param limit número máximo de resultados
+     */
+    List<UserSearchHit> search(String query, UserSearchCursor after, int limit);
+}
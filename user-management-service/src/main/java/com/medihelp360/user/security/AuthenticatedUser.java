@@ -0,0 +1,32 @@
+package com.medihelp360.user.security;
+
+import io.jsonwebtoken.Claims;
+
+import java.security.Principal;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Principal que {@code JwtAuthenticationFilter} deja en el {@code SecurityContext}: los claims ya
+ * verificados del access token, para que los controladores no vuelvan a leer ni a parsear el token.
+ */
+public record AuthenticatedUser(UUID userId, String email, List<String> roles, Claims claims) implements Principal {
+
+    @SuppressWarnings("unchecked")
+    public static AuthenticatedUser fromClaims(Claims claims) {
+        List<String> roles = claims.get("roles", List.class);
+        return new AuthenticatedUser(
+                UUID.fromString(claims.getSubject()),
+                claims.get("email", String.class),
+                roles != null ? List.copyOf(roles) : List.of(),
+                claims);
+    }
+
+    /**
+     * El id de usuario, como el principal {@code String} que se usaba antes.
+     */
+    @Override
+    public String getName() {
+        return userId.toString();
+    }
+}
@@ -0,0 +1,42 @@
+package com.medihelp360.user.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * Elige el factor de coste de BCrypt que más se acerca, sin pasarse, al tiempo objetivo
+ * de hash en el host actual.
+ */
+@Slf4j
+public final class BCryptCostCalibrator {
+
+    private static final String SAMPLE_PASSWORD = "calibration-Password-123!";
+
+    private BCryptCostCalibrator() {
+    }
+
+    public static int calibrate(long targetMillis, int minStrength, int maxStrength) {
+        // Calentamiento para que el JIT no penalice la primera medición
+        new BCryptPasswordEncoder(minStrength).encode(SAMPLE_PASSWORD);
+
+        int strength = minStrength;
+        long millis = measure(strength);
+        // Cada punto de coste duplica el trabajo
+        while (strength < maxStrength && millis * 2 <= targetMillis) {
+            strength++;
+            millis = measure(strength);
+        }
+        if (millis > targetMillis && strength > minStrength) {
+            strength--;
+        }
+        log.info("BCrypt calibrated to strength {} (~{} ms per hash, target {} ms)", strength, millis, targetMillis);
+        return strength;
+    }
+
+    private static long measure(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        long start = System.nanoTime();
+        encoder.encode(SAMPLE_PASSWORD);
+        return (System.nanoTime() - start) / 1_000_000L;
+    }
+}
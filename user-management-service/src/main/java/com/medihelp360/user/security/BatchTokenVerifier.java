@@ -0,0 +1,119 @@
+package com.medihelp360.user.security;
+
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Verifica lotes de JWT repartiendo las firmas entre los núcleos disponibles.
+ * <p>
+ * Cada lote se divide en tantos trozos como hilos tiene el pool y cada trozo se verifica con
+ * {@link JwtTokenVerifier} (mismo parser y mismo cache de claims). El hilo de la petición verifica
+ * uno de los trozos; si el pool está saturado, el resto también se ejecuta en el hilo de la petición
+ * en lugar de fallar.
+ */
+@Component
+@Slf4j
+public class BatchTokenVerifier {
+
+    // Por debajo de este tamaño repartir el lote cuesta más que verificarlo en serie
+    private static final int MIN_PARALLEL_BATCH = 32;
+
+    private final JwtTokenVerifier jwtTokenVerifier;
+    private final ThreadPoolExecutor executor;
+    private final int parallelism;
+
+    private final DistributionSummary batchSizes;
+
+    public BatchTokenVerifier(JwtTokenVerifier jwtTokenVerifier,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.jwt.validation.batch.threads:0}") int threads) {
+        this.jwtTokenVerifier = jwtTokenVerifier;
+        this.parallelism = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(parallelism, parallelism, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(parallelism * 4),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "jwt-batch-verify-" + threadCounter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+
+        this.batchSizes = DistributionSummary.builder("auth.jwt.batch.size")
+                .description("Number of tokens per batch validation request")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Verifica firma y expiración de todos los tokens.
+     *
+     * @return los claims de los tokens válidos; los inválidos no aparecen en el mapa
+     */
+    public Map<String, Claims> verifyAll(Collection<String> tokens) {
+        List<String> distinct = new ArrayList<>(new LinkedHashSet<>(tokens));
+        batchSizes.record(distinct.size());
+
+        if (distinct.size() < MIN_PARALLEL_BATCH || parallelism == 1) {
+            return verifyChunk(distinct);
+        }
+
+        int chunkSize = (distinct.size() + parallelism - 1) / parallelism;
+        List<Future<Map<String, Claims>>> futures = new ArrayList<>();
+        for (int from = chunkSize; from < distinct.size(); from += chunkSize) {
+            List<String> chunk = distinct.subList(from, Math.min(from + chunkSize, distinct.size()));
+            futures.add(executor.submit(() -> verifyChunk(chunk)));
+        }
+
+        Map<String, Claims> verified = new HashMap<>(verifyChunk(distinct.subList(0, chunkSize)));
+        for (Future<Map<String, Claims>> future : futures) {
+            verified.putAll(await(future));
+        }
+        return verified;
+    }
+
+    private Map<String, Claims> verifyChunk(List<String> tokens) {
+        Map<String, Claims> verified = new HashMap<>();
+        for (String token : tokens) {
+            jwtTokenVerifier.verifyAccessToken(token).ifPresent(claims -> verified.put(token, claims));
+        }
+        return verified;
+    }
+
+    private static Map<String, Claims> await(Future<Map<String, Claims>> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Batch token verification interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Batch token verification failed", e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
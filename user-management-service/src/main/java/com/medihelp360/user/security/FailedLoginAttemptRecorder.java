@@ -0,0 +1,91 @@
+package com.medihelp360.user.security;
+
+import com.medihelp360.user.domain.FailedLoginAttempt;
+import com.medihelp360.user.repository.FailedLoginAttemptRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persiste en {@code failed_login_attempts} el estado de bloqueo calculado en memoria por
+ * {@link LoginAttemptLimiter}. Las escrituras se hacen en un hilo propio para que el login
+ * nunca espere a la base de datos; solo sirven para sobrevivir a reinicios.
+ */
+@Component
+@Slf4j
+public class FailedLoginAttemptRecorder {
+
+    private final FailedLoginAttemptRepository failedLoginAttemptRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor executor;
+
+    public FailedLoginAttemptRecorder(FailedLoginAttemptRepository failedLoginAttemptRepository,
+                                      PlatformTransactionManager transactionManager) {
+        this.failedLoginAttemptRepository = failedLoginAttemptRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Un solo hilo y cola acotada: si la base de datos no da abasto se descartan las escrituras más antiguas
+        this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(10_000),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "failed-login-recorder");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.DiscardOldestPolicy());
+    }
+
+    /**
+     * Guarda (o actualiza) el bloqueo de una clave email/IP de forma asíncrona.
+     */
+    public void recordBlock(String email, String ipAddress, int attemptCount, LocalDateTime blockedUntil) {
+        executor.execute(() -> runSafely("record block", () -> {
+            FailedLoginAttempt attempt = failedLoginAttemptRepository
+                    .findByEmailAndIpAddress(email, ipAddress)
+                    .orElseGet(() -> FailedLoginAttempt.builder()
+                            .email(email)
+                            .ipAddress(ipAddress)
+                            .build());
+            attempt.setAttemptCount(attemptCount);
+            attempt.setBlockedUntil(blockedUntil);
+            failedLoginAttemptRepository.save(attempt);
+        }));
+    }
+
+    /**
+     * Elimina de forma asíncrona el bloqueo persistido tras un login correcto.
+     */
+    public void clear(String email, String ipAddress) {
+        executor.execute(() -> runSafely("clear block",
+                () -> failedLoginAttemptRepository.deleteByEmailAndIpAddress(email, ipAddress)));
+    }
+
+    /**
+     * Bloqueos todavía vigentes, usados para reconstruir el estado en memoria al arrancar.
+     */
+    public List<FailedLoginAttempt> loadActiveBlocks() {
+        return transactionTemplate.execute(status ->
+                failedLoginAttemptRepository.findCurrentlyBlocked(LocalDateTime.now()));
+    }
+
+    private void runSafely(String operation, Runnable work) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> work.run());
+        } catch (Exception e) {
+            log.warn("Failed to {} in failed_login_attempts: {}", operation, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+}
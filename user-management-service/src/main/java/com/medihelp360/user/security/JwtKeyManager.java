@@ -0,0 +1,198 @@
+package com.medihelp360.user.security;
+
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.PublicJwk;
+import io.jsonwebtoken.security.SignatureAlgorithm;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.crypto.SecretKey;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Claves de firma y verificación de los JWT emitidos por este servicio.
+ * <p>
+ * Con {@code HS256} (por defecto) se usa el secreto compartido {@code app.jwt.secret}. Con {@code ES256}
+ * o {@code EdDSA} los tokens se firman con la clave privada activa y llevan su {@code kid} (thumbprint
+ * RFC 7638); las claves públicas activa y retiradas se publican en {@code /.well-known/jwks.json} para que
+ * cualquier servicio verifique los tokens sin llamar a user-management.
+ * <p>
+ * Rotación: se despliega la nueva clave como activa y la anterior pasa a
+ * {@code app.jwt.signing.retired-public-keys} hasta que caduquen los tokens que firmó.
+ * <p>
+ * Con firma asimétrica los tokens HS256 solo se aceptan con {@code app.jwt.signing.accept-hmac=true}, durante
+ * la migración desde HS256; fuera de ella bastaría el secreto compartido para falsificar un token. Sin claves
+ * configuradas solo se genera un par efímero si {@code app.jwt.signing.allow-ephemeral-key=true} (perfiles
+ * dev y test); en otro caso el arranque falla.
+ */
+@Component
+@Slf4j
+public class JwtKeyManager {
+
+    public static final String HS256 = "HS256";
+    public static final String ES256 = "ES256";
+    public static final String EDDSA = "EdDSA";
+
+    private final String algorithm;
+    private final SecretKey hmacKey;
+    private final boolean acceptHmac;
+    private final PrivateKey signingKey;
+    private final String activeKeyId;
+    private final Map<String, PublicJwk<?>> publicKeys;
+
+    public JwtKeyManager(@Value("${app.jwt.secret:defaultSecretKeyForDevelopmentOnly}") String jwtSecret,
+                         @Value("${app.jwt.signing.algorithm:HS256}") String algorithm,
+                         @Value("${app.jwt.signing.private-key:}") String privateKeyPem,
+                         @Value("${app.jwt.signing.public-key:}") String publicKeyPem,
+                         @Value("${app.jwt.signing.retired-public-keys:}") List<String> retiredPublicKeyPems,
+                         @Value("${app.jwt.signing.accept-hmac:false}") boolean acceptHmac,
+                         @Value("${app.jwt.signing.allow-ephemeral-key:false}") boolean allowEphemeralKey) {
+        this.algorithm = algorithm;
+        this.hmacKey = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+
+        if (HS256.equals(algorithm)) {
+            this.acceptHmac = true;
+            this.signingKey = null;
+            this.activeKeyId = null;
+            this.publicKeys = Map.of();
+            log.info("JWT signing with HS256 shared secret");
+            return;
+        }
+        if (!ES256.equals(algorithm) && !EDDSA.equals(algorithm)) {
+            throw new IllegalStateException("Unsupported app.jwt.signing.algorithm: " + algorithm);
+        }
+
+        // Solo mientras se migra desde HS256 se siguen aceptando los tokens HMAC ya emitidos
+        this.acceptHmac = acceptHmac;
+        if (acceptHmac) {
+            log.warn("Accepting HS256 tokens alongside {}: disable app.jwt.signing.accept-hmac once the "
+                    + "HMAC tokens issued before the migration have expired", algorithm);
+        }
+
+        KeyPair activePair;
+        if (StringUtils.hasText(privateKeyPem) && StringUtils.hasText(publicKeyPem)) {
+            activePair = new KeyPair(readPublicKey(publicKeyPem), readPrivateKey(privateKeyPem));
+        } else if (!allowEphemeralKey) {
+            throw new IllegalStateException("No JWT signing key configured for " + algorithm + ": set "
+                    + "app.jwt.signing.private-key and app.jwt.signing.public-key");
+        } else {
+            log.warn("No JWT signing key configured for {}: generating an ephemeral key pair. "
+                    + "Tokens will not survive a restart and replicas will not share keys.", algorithm);
+            activePair = EDDSA.equals(algorithm)
+                    ? Jwks.CRV.Ed25519.keyPair().build()
+                    : Jwts.SIG.ES256.keyPair().build();
+        }
+        this.signingKey = activePair.getPrivate();
+
+        Map<String, PublicJwk<?>> keys = new LinkedHashMap<>();
+        PublicJwk<?> activeJwk = toJwk(activePair.getPublic());
+        keys.put(activeJwk.getId(), activeJwk);
+        for (String retiredPem : retiredPublicKeyPems) {
+            if (StringUtils.hasText(retiredPem)) {
+                PublicJwk<?> retired = toJwk(readPublicKey(retiredPem));
+                keys.putIfAbsent(retired.getId(), retired);
+            }
+        }
+        this.activeKeyId = activeJwk.getId();
+        this.publicKeys = Collections.unmodifiableMap(keys);
+        log.info("JWT signing with {} (kid={}, {} published keys)", algorithm, activeKeyId, keys.size());
+    }
+
+    /**
+     * Firma el token con la clave activa (y añade su {@code kid} si es asimétrica).
+     */
+    public String sign(JwtBuilder builder) {
+        if (signingKey == null) {
+            return builder.signWith(hmacKey, Jwts.SIG.HS256).compact();
+        }
+        SignatureAlgorithm signatureAlgorithm = EDDSA.equals(algorithm) ? Jwts.SIG.EdDSA : Jwts.SIG.ES256;
+        return builder.header().keyId(activeKeyId).and()
+                .signWith(signingKey, signatureAlgorithm)
+                .compact();
+    }
+
+    /**
+     * Localiza la clave de verificación según la cabecera del token: {@code kid} para las asimétricas,
+     * el secreto compartido para los HS256 sin {@code kid}.
+     */
+    public LocatorAdapter<Key> keyLocator() {
+        return new LocatorAdapter<>() {
+            @Override
+            protected Key locate(JwsHeader header) {
+                String keyId = header.getKeyId();
+                if (keyId != null) {
+                    PublicJwk<?> jwk = publicKeys.get(keyId);
+                    return jwk != null ? jwk.toKey() : null;
+                }
+                return acceptHmac && HS256.equals(header.getAlgorithm()) ? hmacKey : null;
+            }
+        };
+    }
+
+    /**
+     * Claves públicas publicadas en el JWKS (vacío con HS256).
+     */
+    public List<Map<String, ?>> publicJwks() {
+        return new ArrayList<>(publicKeys.values());
+    }
+
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    private PublicJwk<?> toJwk(PublicKey publicKey) {
+        return Jwks.builder()
+                .key(publicKey)
+                .algorithm(algorithm)
+                .publicKeyUse("sig")
+                .idFromThumbprint()
+                .build();
+    }
+
+    private PublicKey readPublicKey(String pem) {
+        byte[] der = decodePem(pem);
+        try {
+            return keyFactory().generatePublic(new X509EncodedKeySpec(der));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Invalid " + algorithm + " public key", e);
+        }
+    }
+
+    private PrivateKey readPrivateKey(String pem) {
+        byte[] der = decodePem(pem);
+        try {
+            return keyFactory().generatePrivate(new PKCS8EncodedKeySpec(der));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Invalid " + algorithm + " private key", e);
+        }
+    }
+
+    private KeyFactory keyFactory() throws GeneralSecurityException {
+        return KeyFactory.getInstance(EDDSA.equals(algorithm) ? "Ed25519" : "EC");
+    }
+
+    private static byte[] decodePem(String pem) {
+        String base64 = pem.replaceAll("-----(BEGIN|END) [A-Z ]+-----", "").replaceAll("\\s", "");
+        return Base64.getDecoder().decode(base64);
+    }
+}
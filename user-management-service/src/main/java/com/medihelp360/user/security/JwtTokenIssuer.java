@@ -0,0 +1,69 @@
+package com.medihelp360.user.security;
+
+import io.jsonwebtoken.Jwts;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Emisión de los access y refresh tokens de una sesión, firmados con la clave activa de {@link JwtKeyManager}.
+ */
+@Component
+public class JwtTokenIssuer {
+
+    public static final String SESSION_CLAIM = "sid";
+    public static final String TOKEN_TYPE_CLAIM = "type";
+    public static final String REFRESH_TOKEN_TYPE = "refresh";
+
+    private final JwtKeyManager jwtKeyManager;
+    private final long accessTokenExpiration;
+
+    public JwtTokenIssuer(JwtKeyManager jwtKeyManager,
+                          @Value("${app.jwt.expiration:1800}") long accessTokenExpiration) { // 30 minutes default
+        this.jwtKeyManager = jwtKeyManager;
+        this.accessTokenExpiration = accessTokenExpiration;
+    }
+
+    public String generateAccessToken(UUID userId, String email, Collection<String> roleNames, UUID familyId) {
+        Date now = new Date();
+        Date expiryDate = Date.from(now.toInstant().plusSeconds(accessTokenExpiration));
+
+        return jwtKeyManager.sign(Jwts.builder()
+                .setId(UUID.randomUUID().toString()) // unique token digest per session
+                .setSubject(userId.toString())
+                .claim(SESSION_CLAIM, familyId.toString())
+                .claim("email", email)
+                .claim("roles", List.copyOf(roleNames))
+                .setIssuedAt(now)
+                .setExpiration(expiryDate));
+    }
+
+    /**
+     * Refresh tokens expire with their session: rotation never extends the absolute session lifetime.
+     */
+    public String generateRefreshToken(UUID userId, UUID familyId, LocalDateTime sessionExpiresAt) {
+        Date now = new Date();
+        Date expiryDate = Date.from(sessionExpiresAt.atZone(ZoneId.systemDefault()).toInstant());
+
+        return jwtKeyManager.sign(Jwts.builder()
+                .setId(UUID.randomUUID().toString())
+                .setSubject(userId.toString())
+                .claim(SESSION_CLAIM, familyId.toString())
+                .claim(TOKEN_TYPE_CLAIM, REFRESH_TOKEN_TYPE)
+                .setIssuedAt(now)
+                .setExpiration(expiryDate));
+    }
+
+    /**
+     * Validez de los access tokens en segundos.
+     */
+    public long getAccessTokenExpiration() {
+        return accessTokenExpiration;
+    }
+}
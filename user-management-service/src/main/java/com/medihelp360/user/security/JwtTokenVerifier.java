@@ -0,0 +1,137 @@
+package com.medihelp360.user.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verificador de JWT compartido por el filtro de autenticación y el servicio de autenticación.
+ * El parser se construye una sola vez y resuelve la clave con {@link JwtKeyManager} (HMAC o la
+ * clave pública del {@code kid}); los claims ya verificados se guardan
+ * en un cache acotado, indexado por el SHA-256 del token, que expira con el {@code exp} del token.
+ */
+@Component
+@Slf4j
+public class JwtTokenVerifier {
+
+    private final JwtParser parser;
+    private final Cache<String, Claims> verifiedClaims;
+
+    private final Timer verificationTimer;
+    private final Counter cacheHits;
+    private final Counter cacheMisses;
+    private final Counter rejectedTokens;
+
+    public JwtTokenVerifier(JwtKeyManager keyManager,
+                            @Value("${app.jwt.verification-cache.max-size:10000}") long cacheMaxSize,
+                            MeterRegistry meterRegistry) {
+        this.parser = Jwts.parser()
+                .keyLocator(keyManager.keyLocator())
+                .build();
+        this.verifiedClaims = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new ExpireAtTokenExpiration())
+                .build();
+
+        this.verificationTimer = Timer.builder("auth.jwt.verification")
+                .description("Time spent verifying JWT tokens, including cache lookups")
+                .publishPercentiles(0.5, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.cacheHits = Counter.builder("auth.jwt.cache.requests")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.cacheMisses = Counter.builder("auth.jwt.cache.requests")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        this.rejectedTokens = Counter.builder("auth.jwt.rejected")
+                .description("Tokens rejected because of an invalid signature, format or expiration")
+                .register(meterRegistry);
+        Gauge.builder("auth.jwt.cache.size", verifiedClaims, Cache::estimatedSize)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Verifica firma y expiración del token.
+     *
+     * @return los claims del token, o vacío si el token no es válido
+     */
+    public Optional<Claims> verify(String token) {
+        long start = System.nanoTime();
+        try {
+            String cacheKey = TokenDigests.sha256Hex(token);
+            Claims cached = verifiedClaims.getIfPresent(cacheKey);
+            if (cached != null && !isExpired(cached)) {
+                cacheHits.increment();
+                return Optional.of(cached);
+            }
+
+            cacheMisses.increment();
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            verifiedClaims.put(cacheKey, claims);
+            return Optional.of(claims);
+
+        } catch (JwtException | IllegalArgumentException e) {
+            rejectedTokens.increment();
+            log.warn("JWT token validation failed: {}", e.getMessage());
+            return Optional.empty();
+        } finally {
+            verificationTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Como {@link #verify}, pero solo para access tokens: un refresh token (claim {@code type=refresh}) tiene
+     * firma válida y vida larga, y solo debe servir en {@code /auth/refresh}, nunca como credencial Bearer.
+     */
+    public Optional<Claims> verifyAccessToken(String token) {
+        return verify(token).filter(claims ->
+                !JwtTokenIssuer.REFRESH_TOKEN_TYPE.equals(claims.get(JwtTokenIssuer.TOKEN_TYPE_CLAIM, String.class)));
+    }
+
+    private static boolean isExpired(Claims claims) {
+        Date expiration = claims.getExpiration();
+        return expiration != null && expiration.before(new Date());
+    }
+
+    /**
+     * Cada entrada vive exactamente hasta el {@code exp} de su token.
+     */
+    private static class ExpireAtTokenExpiration implements Expiry<String, Claims> {
+
+        @Override
+        public long expireAfterCreate(String key, Claims claims, long currentTime) {
+            Date expiration = claims.getExpiration();
+            if (expiration == null) {
+                return 0L;
+            }
+            long remainingMillis = expiration.getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0L, remainingMillis));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.medihelp360.user.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.medihelp360.user.domain.FailedLoginAttempt;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Limitador de fuerza bruta para el login, completamente en memoria.
+ * <p>
+ * Lleva tres contadores de intentos fallidos por ventana deslizante (buckets de Bucket4j con
+ * recarga gradual): por IP, por email y por IP+email. Cuando cualquiera se agota, la clave queda
+ * bloqueada durante {@code block-minutes}. Los intentos rechazados no tocan la base de datos;
+ * el bloqueo se persiste de forma asíncrona con {@link FailedLoginAttemptRecorder}.
+ */
+@Component
+@Slf4j
+public class LoginAttemptLimiter {
+
+    /** Valor de {@code failed_login_attempts.email} para bloqueos solo por IP (compatible con los datos existentes). */
+    static final String ANY_EMAIL = "";
+    /** Valor de {@code failed_login_attempts.ip_address} para bloqueos solo por email. */
+    static final String ANY_IP = "*";
+
+    private final FailedLoginAttemptRecorder recorder;
+    private final Duration window;
+    private final Duration blockDuration;
+    private final int maxFailuresPerIp;
+    private final int maxFailuresPerEmail;
+    private final int maxFailuresPerIpAndEmail;
+
+    // Caffeine reparte las claves en un ConcurrentHashMap segmentado y los buckets son lock-free
+    private final Cache<String, AttemptState> states;
+
+    private final Counter rejectedAttempts;
+    private final Counter blocksStarted;
+
+    public LoginAttemptLimiter(FailedLoginAttemptRecorder recorder,
+                               MeterRegistry meterRegistry,
+                               @Value("${app.security.login-limiter.window-minutes:15}") long windowMinutes,
+                               @Value("${app.security.login-limiter.block-minutes:30}") long blockMinutes,
+                               @Value("${app.security.login-limiter.max-failures-per-ip:20}") int maxFailuresPerIp,
+                               @Value("${app.security.login-limiter.max-failures-per-email:10}") int maxFailuresPerEmail,
+                               @Value("${app.security.login-limiter.max-failures-per-ip-email:5}") int maxFailuresPerIpAndEmail,
+                               @Value("${app.security.login-limiter.max-tracked-keys:100000}") long maxTrackedKeys) {
+        this.recorder = recorder;
+        this.window = Duration.ofMinutes(windowMinutes);
+        this.blockDuration = Duration.ofMinutes(blockMinutes);
+        this.maxFailuresPerIp = maxFailuresPerIp;
+        this.maxFailuresPerEmail = maxFailuresPerEmail;
+        this.maxFailuresPerIpAndEmail = maxFailuresPerIpAndEmail;
+        this.states = Caffeine.newBuilder()
+                .maximumSize(maxTrackedKeys)
+                .expireAfterAccess(window.plus(blockDuration))
+                .build();
+
+        this.rejectedAttempts = Counter.builder("auth.login.limiter.rejected")
+                .description("Login attempts rejected in memory because the caller is blocked")
+                .register(meterRegistry);
+        this.blocksStarted = Counter.builder("auth.login.limiter.blocks")
+                .description("Keys (IP, email or IP+email) that reached their failure limit")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Tiempo de bloqueo restante para esta IP/email, si alguna de sus claves está bloqueada.
+     */
+    public Optional<Duration> remainingBlock(String ipAddress, String email) {
+        long now = System.currentTimeMillis();
+        long blockedUntil = Math.max(blockedUntil(ipKey(ipAddress), now),
+                Math.max(blockedUntil(emailKey(email), now), blockedUntil(pairKey(ipAddress, email), now)));
+        if (blockedUntil <= now) {
+            return Optional.empty();
+        }
+        rejectedAttempts.increment();
+        return Optional.of(Duration.ofMillis(blockedUntil - now));
+    }
+
+    /**
+     * Cuenta un intento fallido en las tres ventanas y bloquea las claves que superen su límite.
+     */
+    public void recordFailure(String ipAddress, String email) {
+        consume(ipKey(ipAddress), maxFailuresPerIp, ANY_EMAIL, nullSafe(ipAddress));
+        consume(emailKey(email), maxFailuresPerEmail, normalize(email), ANY_IP);
+        consume(pairKey(ipAddress, email), maxFailuresPerIpAndEmail, normalize(email), nullSafe(ipAddress));
+    }
+
+    /**
+     * Un login correcto limpia los contadores del email y del par IP+email (no los de la IP).
+     */
+    public void recordSuccess(String ipAddress, String email) {
+        clear(emailKey(email), normalize(email), ANY_IP);
+        clear(pairKey(ipAddress, email), normalize(email), nullSafe(ipAddress));
+    }
+
+    /**
+     * Restaura los bloqueos persistidos para que un reinicio no los levante.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void restoreActiveBlocks() {
+        try {
+            int restored = 0;
+            for (FailedLoginAttempt attempt : recorder.loadActiveBlocks()) {
+                String key = keyFor(attempt.getEmail(), attempt.getIpAddress());
+                long blockedUntil = attempt.getBlockedUntil().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+                AttemptState state = states.get(key, k -> new AttemptState(limitFor(k)));
+                state.blockedUntil = blockedUntil;
+                state.persisted = true;
+                restored++;
+            }
+            log.info("Restored {} active login blocks", restored);
+        } catch (Exception e) {
+            log.warn("Could not restore login blocks from failed_login_attempts: {}", e.getMessage());
+        }
+    }
+
+    private void consume(String key, int limit, String email, String ipAddress) {
+        AttemptState state = states.get(key, k -> new AttemptState(limit));
+        if (state.bucket.tryConsume(1) && state.bucket.getAvailableTokens() > 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (state.blockedUntil > now) {
+            return;
+        }
+        state.blockedUntil = now + blockDuration.toMillis();
+        state.persisted = true;
+        blocksStarted.increment();
+        log.warn("Login blocked for {} during {} minutes", key, blockDuration.toMinutes());
+        recorder.recordBlock(email, ipAddress, limit,
+                LocalDateTime.now().plus(blockDuration));
+    }
+
+    private void clear(String key, String email, String ipAddress) {
+        AttemptState state = states.asMap().remove(key);
+        if (state != null && state.persisted) {
+            recorder.clear(email, ipAddress);
+        }
+    }
+
+    private long blockedUntil(String key, long now) {
+        AttemptState state = states.getIfPresent(key);
+        return state != null && state.blockedUntil > now ? state.blockedUntil : 0L;
+    }
+
+    private int limitFor(String key) {
+        if (key.startsWith("ip:")) {
+            return maxFailuresPerIp;
+        }
+        return key.startsWith("email:") ? maxFailuresPerEmail : maxFailuresPerIpAndEmail;
+    }
+
+    private String keyFor(String email, String ipAddress) {
+        if (ANY_EMAIL.equals(email)) {
+            return ipKey(ipAddress);
+        }
+        if (ANY_IP.equals(ipAddress)) {
+            return emailKey(email);
+        }
+        return pairKey(ipAddress, email);
+    }
+
+    private static String ipKey(String ipAddress) {
+        return "ip:" + nullSafe(ipAddress);
+    }
+
+    private static String emailKey(String email) {
+        return "email:" + normalize(email);
+    }
+
+    private static String pairKey(String ipAddress, String email) {
+        return "pair:" + nullSafe(ipAddress) + "|" + normalize(email);
+    }
+
+    private static String normalize(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String nullSafe(String value) {
+        return value == null ? "unknown" : value;
+    }
+
+    private final class AttemptState {
+        private final Bucket bucket;
+        private volatile long blockedUntil;
+        private volatile boolean persisted;
+
+        private AttemptState(int limit) {
+            // Recarga gradual: cada fallo "caduca" de forma continua a lo largo de la ventana
+            this.bucket = Bucket.builder()
+                    .addLimit(Bandwidth.builder()
+                            .capacity(limit)
+                            .refillGreedy(limit, window)
+                            .build())
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.medihelp360.user.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Digests de tokens JWT usados como claves de cache y de búsqueda.
+ */
+public final class TokenDigests {
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    private TokenDigests() {
+    }
+
+    /**
+     * SHA-256 del token completo (32 bytes).
+     */
+    public static byte[] sha256(String token) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+        } catch (NoSuchAlgorithmException e) {
+            // Todas las JVM deben soportar SHA-256
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public static String sha256Hex(String token) {
+        return HEX.formatHex(sha256(token));
+    }
+}
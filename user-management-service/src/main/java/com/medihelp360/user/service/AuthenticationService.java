@@ -1,30 +1,47 @@
 package com.medihelp360.user.service;
 
+import com.medihelp360.user.audit.AccessLogEntry;
+import com.medihelp360.user.audit.AccessLogWriter;
+import com.medihelp360.user.cache.UserSnapshot;
+import com.medihelp360.user.cache.UserSnapshotCache;
 import com.medihelp360.user.domain.*;
 import com.medihelp360.user.dto.LoginRequest;
 import com.medihelp360.user.dto.LoginResponse;
 import com.medihelp360.user.dto.RegisterRequest;
 import com.medihelp360.user.dto.RegisterResponse;
 import com.medihelp360.user.dto.UserResponse;
-import com.medihelp360.user.repository.AccessLogRepository;
-import com.medihelp360.user.repository.FailedLoginAttemptRepository;
+import com.medihelp360.user.event.UserCreatedEvent;
+import com.medihelp360.user.repository.RefreshSessionRow;
+import com.medihelp360.user.repository.UserCredentials;
 import com.medihelp360.user.repository.UserRepository;
 import com.medihelp360.user.repository.UserSessionRepository;
+import com.medihelp360.user.exception.AuthenticationException;
+import com.medihelp360.user.security.AuthenticatedUser;
+import com.medihelp360.user.security.BatchTokenVerifier;
+import com.medihelp360.user.security.JwtTokenIssuer;
+import com.medihelp360.user.security.JwtTokenVerifier;
+import com.medihelp360.user.security.LoginAttemptLimiter;
+import com.medihelp360.user.security.PasswordHashingService;
+import com.medihelp360.user.security.TokenDigests;
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.security.Keys;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
@@ -35,92 +52,121 @@ import java.util.stream.Collectors;
 @Slf4j
 public class AuthenticationService {
     
+    private static final int MAX_FAILED_ATTEMPTS = 5;
+    private static final int ACCOUNT_LOCK_MINUTES = 30;
+    
     private final UserRepository userRepository;
     private final UserSessionRepository userSessionRepository;
-    private final AccessLogRepository accessLogRepository;
-    private final FailedLoginAttemptRepository failedLoginAttemptRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final AccessLogWriter accessLogWriter;
+    private final LoginAttemptLimiter loginAttemptLimiter;
+    private final PasswordHashingService passwordHashingService;
     private final RoleService roleService;
-    
-    @Value("${app.jwt.secret:defaultSecretKeyForDevelopmentOnly}")
-    private String jwtSecret;
-    
-    @Value("${app.jwt.expiration:1800}") // 30 minutes default
-    private Long jwtExpiration;
+    private final JwtTokenVerifier jwtTokenVerifier;
+    private final BatchTokenVerifier batchTokenVerifier;
+    private final UserSnapshotCache userSnapshotCache;
+    private final JwtTokenIssuer jwtTokenIssuer;
+    private final ApplicationEventPublisher applicationEventPublisher;
     
     @Value("${app.jwt.refresh-expiration:604800}") // 7 days default
     private Long refreshExpiration;
     
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+    @Value("${app.jwt.validation.batch.max-tokens:1000}")
+    private int maxBatchTokens;
+    
+    /**
+     * Rechaza el intento si la IP o el email están bloqueados por {@link LoginAttemptLimiter}.
+     * <p>
+     * Sin transacción: la comprobación es en memoria y la auditoría va a la cola del writer, así que un
+     * intento bloqueado no pide ninguna conexión al pool. Se llama antes de {@link #login}, cuya
+     * transacción ya toma una conexión al empezar.
+     */
+    public void rejectIfBlocked(LoginRequest request) {
+        Optional<Duration> remainingBlock = loginAttemptLimiter.remainingBlock(request.getIpAddress(), request.getEmail());
+        if (remainingBlock.isPresent()) {
+            log.warn("Login blocked: IP {} / email {} is blocked", request.getIpAddress(), request.getEmail());
+            performAuditSaveUser(AccessLog.loginFailed(request.getEmail(), request.getIpAddress(), "", "IP_BLOCKED"));
+            throw new AuthenticationException(
+                    "Access temporarily blocked due to multiple failed attempts",
+                    AuthenticationException.TOO_MANY_ATTEMPTS,
+                    429,
+                    remainingBlock.get());
+        }
     }
     
-    @Transactional
+    /**
+     * Los intentos fallidos terminan en {@link AuthenticationException} sin deshacer la transacción: el
+     * contador de {@code failed_attempts} y el bloqueo de la cuenta tienen que quedar guardados.
+     */
+    @Transactional(noRollbackFor = AuthenticationException.class)
     public LoginResponse login(LoginRequest request) {
         log.info("Login attempt for user: {}", request.getEmail());
         
-        // Check if IP is blocked
-        if (isIpBlocked(request.getIpAddress())) {
-            log.warn("Login blocked: IP {} is blocked", request.getIpAddress());
-            recordFailedLogin(request.getEmail(), request.getIpAddress(), "IP_BLOCKED");
-            throw new RuntimeException("Access temporarily blocked due to multiple failed attempts");
-        }
-        
-        // Find user by email
-        Optional<User> userOpt = userRepository.findByEmail(request.getEmail());
-        if (userOpt.isEmpty()) {
+        // User and role names in a single projection query (no managed entity, no EAGER roles load)
+        Optional<UserCredentials> credentialsOpt = userRepository.findCredentialsByEmail(request.getEmail());
+        if (credentialsOpt.isEmpty()) {
             log.warn("Login failed: User not found for email: {}", request.getEmail());
             recordFailedLogin(request.getEmail(), request.getIpAddress(), "USER_NOT_FOUND");
-            throw new RuntimeException("Invalid credentials");
+            throw new AuthenticationException("Invalid credentials");
         }
         
-        User user = userOpt.get();
+        UserCredentials user = credentialsOpt.get();
         
         // Check if account is locked
         if (user.isAccountLocked()) {
             log.warn("Login failed: Account locked for user: {}", request.getEmail());
             recordFailedLogin(request.getEmail(), request.getIpAddress(), "ACCOUNT_LOCKED");
-            throw new RuntimeException("Account is temporarily locked. Please try again later.");
+            throw new AuthenticationException("Account is temporarily locked. Please try again later.");
         }
         
         // Validate password
-        if (!passwordEncoder.matches(request.getPassword(), user.getPasswordHash())) {
+        if (!passwordHashingService.matches(request.getPassword(), user.passwordHash())) {
             log.warn("Login failed: Invalid password for user: {}", request.getEmail());
-            user.recordFailedLogin();
-            userRepository.save(user);
+            userRepository.recordFailedLogin(user.id(), MAX_FAILED_ATTEMPTS,
+                    LocalDateTime.now().plusMinutes(ACCOUNT_LOCK_MINUTES));
             recordFailedLogin(request.getEmail(), request.getIpAddress(), "INVALID_PASSWORD");
-            throw new RuntimeException("Invalid credentials");
+            throw new AuthenticationException("Invalid credentials");
         }
         
         // Check if user is active
-        if (user.getStatus() != UserStatus.ACTIVE) {
+        if (user.status() != UserStatus.ACTIVE) {
             log.warn("Login failed: Inactive user: {}", request.getEmail());
             recordFailedLogin(request.getEmail(), request.getIpAddress(), "INACTIVE_USER");
-            throw new RuntimeException("Account is not active");
+            throw new AuthenticationException("Account is not active");
         }
         
-        // Generate tokens
-        String accessToken = generateAccessToken(user);
-        String refreshToken = generateRefreshToken(user);
+        // Re-hash transparently when the stored hash uses an older algorithm or cost
+        String passwordHash = user.passwordHash();
+        if (passwordHashingService.needsRehash(passwordHash)) {
+            log.info("Upgrading password hash for user: {}", user.id());
+            passwordHash = passwordHashingService.encode(request.getPassword());
+        }
         
-        // Record successful login
-        user.recordSuccessfulLogin();
-        userRepository.save(user);
+        // Generate tokens; the session is a new refresh-token family
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime sessionExpiresAt = now.plusSeconds(refreshExpiration);
+        UUID familyId = UUID.randomUUID();
+        String accessToken = jwtTokenIssuer.generateAccessToken(user.id(), user.email(), user.roleNames(), familyId);
+        String refreshToken = jwtTokenIssuer.generateRefreshToken(user.id(), familyId, sessionExpiresAt);
         
-        // Create session
+        // Record successful login: last_login, failed_attempts and lock reset in one UPDATE
+        userRepository.recordSuccessfulLogin(user.id(), now, passwordHash);
+        
+        // Create session; the user reference is a proxy, so no extra SELECT is issued
         UserSession session = UserSession.builder()
-                .user(user)
+                .user(userRepository.getReferenceById(user.id()))
                 .tokenHash(hashToken(accessToken))
                 .refreshTokenHash(hashToken(refreshToken))
+                .familyId(familyId)
                 .deviceInfo(request.getDeviceInfo())
                 .ipAddress(request.getIpAddress())
-                .expiresAt(LocalDateTime.now().plusSeconds(refreshExpiration))
+                .expiresAt(sessionExpiresAt)
                 .build();
         
         userSessionRepository.save(session);
         
         // Log successful login
-        performAuditSaveUser(AccessLog.loginSuccess(user, request.getIpAddress(), request.getDeviceInfo()));
+        accessLogWriter.enqueue(new AccessLogEntry(
+                user.id(), "LOGIN_SUCCESS", request.getIpAddress(), request.getDeviceInfo(), true, null, now));
 
         // Reset failed attempts for this IP
         resetFailedAttempts(request.getEmail(), request.getIpAddress());
@@ -130,23 +176,21 @@ public class AuthenticationService {
         return LoginResponse.builder()
                 .accessToken(accessToken)
                 .refreshToken(refreshToken)
-                .expiresIn(jwtExpiration)
+                .expiresIn(jwtTokenIssuer.getAccessTokenExpiration())
                 .user(LoginResponse.UserInfo.builder()
-                        .id(user.getId().toString())
-                        .email(user.getEmail())
-                        .name(user.getName())
-                        .status(user.getStatus().name())
-                        .roles(user.getRoles().stream()
-                                .map(Role::getName)
-                                .collect(Collectors.toSet()))
-                        .lastLogin(user.getLastLogin())
+                        .id(user.id().toString())
+                        .email(user.email())
+                        .name(user.name())
+                        .status(user.status().name())
+                        .roles(user.roleNames())
+                        .lastLogin(now)
                         .build())
                 .build();
     }
     
     @Transactional
     public void logout(String token, String ipAddress, String userAgent) {
-        String tokenHash = hashToken(token);
+        byte[] tokenHash = hashToken(token);
         Optional<UserSession> userSessionOpt = userSessionRepository.findByTokenHash(tokenHash);
         
         if (userSessionOpt.isPresent()) {
@@ -163,68 +207,112 @@ public class AuthenticationService {
         }
     }
     
-    @Transactional(readOnly = true)
-    public UserResponse getCurrentUser(String token) {
-        try {
-            // Validate and parse JWT token
-            Claims claims = Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
-            
-            String userId = claims.getSubject();
-            
-            // Find user
-            Optional<User> userOpt = userRepository.findById(UUID.fromString(userId));
-            if (userOpt.isEmpty()) {
-                log.warn("Get current user failed: User not found for ID: {}", userId);
-                throw new RuntimeException("User not found");
-            }
-            
-            User user = userOpt.get();
-            
-            // Check if user is active
-            if (user.getStatus() != UserStatus.ACTIVE) {
-                log.warn("Get current user failed: Inactive user: {}", user.getEmail());
-                throw new RuntimeException("User account is not active");
-            }
-            
-            // Map to UserResponse
-            UserResponse userResponse = UserResponse.builder()
-                .id(user.getId())
-                .email(user.getEmail())
-                .name(user.getName())
-                .status(user.getStatus())
-                .roles(user.getRoles())
-                .createdAt(user.getCreatedAt())
-                .updatedAt(user.getUpdatedAt())
+    /**
+     * Rota el refresh token de una sesión sin tocar el codificador de contraseñas.
+     * <p>
+     * La sesión se localiza por el digest del refresh token (índice único). Un token con firma válida
+     * cuyo digest ya no está en ninguna sesión es un token rotado que se está reutilizando: se revoca
+     * toda la familia (la sesión del claim "sid") y el cliente tendrá que volver a hacer login.
+     */
+    @Transactional(noRollbackFor = AuthenticationException.class)
+    public LoginResponse refresh(String refreshToken, String ipAddress, String userAgent) {
+        Claims claims = jwtTokenVerifier.verify(refreshToken)
+                .filter(verified -> JwtTokenIssuer.REFRESH_TOKEN_TYPE.equals(verified.get(JwtTokenIssuer.TOKEN_TYPE_CLAIM, String.class)))
+                .orElseThrow(() -> new AuthenticationException(
+                        "Invalid or expired refresh token", AuthenticationException.INVALID_REFRESH_TOKEN));
+        
+        byte[] currentHash = hashToken(refreshToken);
+        List<RefreshSessionRow> rows = userSessionRepository.findRefreshRows(currentHash);
+        if (rows.isEmpty()) {
+            throw revokeReusedFamily(claims, ipAddress, userAgent);
+        }
+        
+        RefreshSessionRow session = rows.get(0);
+        if (!LocalDateTime.now().isBefore(session.expiresAt())) {
+            userSessionRepository.deleteByFamilyId(session.familyId());
+            throw new AuthenticationException("Session expired", AuthenticationException.INVALID_REFRESH_TOKEN);
+        }
+        if (session.status() != UserStatus.ACTIVE) {
+            userSessionRepository.deleteByFamilyId(session.familyId());
+            throw new AuthenticationException("Account is not active", AuthenticationException.INVALID_REFRESH_TOKEN);
+        }
+        
+        Set<String> roleNames = rows.stream()
+                .map(RefreshSessionRow::roleName)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        String newAccessToken = jwtTokenIssuer.generateAccessToken(session.userId(), session.email(), roleNames, session.familyId());
+        String newRefreshToken = jwtTokenIssuer.generateRefreshToken(session.userId(), session.familyId(), session.expiresAt());
+        
+        LocalDateTime now = LocalDateTime.now();
+        int rotated = userSessionRepository.rotateTokens(session.sessionId(), currentHash,
+                hashToken(newAccessToken), hashToken(newRefreshToken), ipAddress, now);
+        if (rotated == 0) {
+            // Another request rotated this token first: the same refresh token was used twice
+            throw revokeReusedFamily(claims, ipAddress, userAgent);
+        }
+        
+        accessLogWriter.enqueue(new AccessLogEntry(
+                session.userId(), "TOKEN_REFRESH", ipAddress, userAgent, true, null, now));
+        
+        return LoginResponse.builder()
+                .accessToken(newAccessToken)
+                .refreshToken(newRefreshToken)
+                .tokenType("Bearer")
+                .expiresIn(jwtTokenIssuer.getAccessTokenExpiration())
+                .user(LoginResponse.UserInfo.builder()
+                        .id(session.userId().toString())
+                        .email(session.email())
+                        .name(session.name())
+                        .status(session.status().name())
+                        .roles(roleNames)
+                        .lastLogin(session.lastLogin())
+                        .build())
                 .build();
-            
-            log.info("Current user retrieved successfully: {}", user.getEmail());
-            return userResponse;
-            
-        } catch (Exception e) {
-            log.error("Error getting current user: {}", e.getMessage(), e);
-            throw new RuntimeException("Failed to retrieve user information", e);
+    }
+    
+    private AuthenticationException revokeReusedFamily(Claims claims, String ipAddress, String userAgent) {
+        String familyId = claims.get(JwtTokenIssuer.SESSION_CLAIM, String.class);
+        int revoked = familyId != null ? userSessionRepository.deleteByFamilyId(UUID.fromString(familyId)) : 0;
+        log.warn("Refresh token reuse detected for user {} (family {}), {} session(s) revoked",
+                claims.getSubject(), familyId, revoked);
+        accessLogWriter.enqueue(new AccessLogEntry(
+                UUID.fromString(claims.getSubject()), "REFRESH_TOKEN_REUSE", ipAddress, userAgent, false,
+                "{\"family\":\"" + familyId + "\"}", LocalDateTime.now()));
+        return new AuthenticationException(
+                "Refresh token has already been used; the session has been revoked",
+                AuthenticationException.REFRESH_TOKEN_REUSED);
+    }
+    
+    /**
+     * Usuario autenticado a partir del principal que dejó el filtro JWT (sin volver a parsear el token).
+     * Sin transacción propia: con el snapshot en cache no se abre ninguna conexión a la base de datos.
+     */
+    public UserResponse getCurrentUser(AuthenticatedUser principal) {
+        UserSnapshot user = userSnapshotCache.get(principal.userId())
+                .orElseThrow(() -> {
+                    log.warn("Get current user failed: User not found for ID: {}", principal.userId());
+                    return new AuthenticationException("User not found");
+                });
+        
+        if (user.status() != UserStatus.ACTIVE) {
+            log.warn("Get current user failed: Inactive user: {}", user.email());
+            throw new AuthenticationException("User account is not active");
         }
+        
+        log.debug("Current user retrieved: {}", user.email());
+        return user.toResponse();
     }
     
     public boolean validateToken(String token) {
         try {
-            Claims claims = Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
-            
-            // Check if token is expired
-            if (claims.getExpiration().before(new Date())) {
+            // Signature and expiration are checked by the verifier
+            if (jwtTokenVerifier.verifyAccessToken(token).isEmpty()) {
                 return false;
             }
             
             // Check if session exists and is not expired
-            String tokenHash = hashToken(token);
+            byte[] tokenHash = hashToken(token);
             Optional<UserSession> sessionOpt = userSessionRepository.findByTokenHash(tokenHash);
             
             if (sessionOpt.isEmpty()) {
@@ -240,77 +328,53 @@ public class AuthenticationService {
         }
     }
     
-    private String generateAccessToken(User user) {
-        Date now = new Date();
-        Date expiryDate = Date.from(now.toInstant().plusSeconds(jwtExpiration));
-        
-        return Jwts.builder()
-                .setSubject(user.getId().toString())
-                .claim("email", user.getEmail())
-                .claim("roles", user.getRoles().stream()
-                        .map(Role::getName)
-                        .collect(Collectors.toList()))
-                .setIssuedAt(now)
-                .setExpiration(expiryDate)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
-                .compact();
-    }
-    
-    private String generateRefreshToken(User user) {
-        Date now = new Date();
-        Date expiryDate = Date.from(now.toInstant().plusSeconds(refreshExpiration));
+    /**
+     * Valida un lote de access tokens: las firmas se verifican en paralelo y las sesiones de todos
+     * los tokens con firma válida se resuelven con una única consulta {@code token_hash IN (...)}.
+     *
+     * @return validez de cada token, en el orden recibido
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Boolean> validateTokens(List<String> tokens) {
+        if (tokens.size() > maxBatchTokens) {
+            throw new IllegalArgumentException("At most " + maxBatchTokens + " tokens can be validated per request");
+        }
         
-        return Jwts.builder()
-                .setSubject(user.getId().toString())
-                .claim("type", "refresh")
-                .setIssuedAt(now)
-                .setExpiration(expiryDate)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
-                .compact();
-    }
-    
-    private String hashToken(String token) {
-        // In production, use a proper hash function
-        return token.substring(0, Math.min(token.length(), 50));
-    }
-    
-    private boolean isIpBlocked(String ipAddress) {
-        Optional<FailedLoginAttempt> attemptOpt = failedLoginAttemptRepository
-                .findByEmailAndIpAddress("", ipAddress);
+        Map<String, Claims> verified = batchTokenVerifier.verifyAll(tokens);
+        Map<ByteBuffer, String> tokensByHash = new HashMap<>();
+        for (String token : verified.keySet()) {
+            tokensByHash.put(ByteBuffer.wrap(hashToken(token)), token);
+        }
         
-        if (attemptOpt.isPresent()) {
-            FailedLoginAttempt attempt = attemptOpt.get();
-            return attempt.isBlocked();
+        Set<String> activeTokens = new HashSet<>();
+        if (!tokensByHash.isEmpty()) {
+            List<byte[]> hashes = tokensByHash.keySet().stream().map(ByteBuffer::array).toList();
+            for (byte[] activeHash : userSessionRepository.findActiveTokenHashes(hashes, LocalDateTime.now())) {
+                activeTokens.add(tokensByHash.get(ByteBuffer.wrap(activeHash)));
+            }
         }
         
-        return false;
+        Map<String, Boolean> results = new LinkedHashMap<>();
+        for (String token : tokens) {
+            results.put(token, activeTokens.contains(token));
+        }
+        log.debug("Validated batch of {} tokens: {} valid", tokens.size(), activeTokens.size());
+        return results;
+    }
+    
+    private byte[] hashToken(String token) {
+        return TokenDigests.sha256(token);
     }
     
     private void recordFailedLogin(String email, String ipAddress, String reason) {
-        Optional<FailedLoginAttempt> attemptOpt = failedLoginAttemptRepository
-                .findByEmailAndIpAddress(email, ipAddress);
-        
-        if (attemptOpt.isPresent()) {
-            FailedLoginAttempt attempt = attemptOpt.get();
-            attempt.incrementAttempts();
-            if (attempt.getAttemptCount() >= 5) {
-                attempt.block(30); // Block for 30 minutes
-            }
-            failedLoginAttemptRepository.save(attempt);
-        } else {
-            FailedLoginAttempt newAttempt = FailedLoginAttempt.builder()
-                    .email(email)
-                    .ipAddress(ipAddress)
-                    .build();
-            failedLoginAttemptRepository.save(newAttempt);
-        }
+        loginAttemptLimiter.recordFailure(ipAddress, email);
         
         // Log failed attempt
         performAuditSaveUser(AccessLog.loginFailed(email, ipAddress, "", reason));
     }
     
     private void resetFailedAttempts(String email, String ipAddress) {
-        failedLoginAttemptRepository.deleteByEmailAndIpAddress(email, ipAddress);
+        loginAttemptLimiter.recordSuccess(ipAddress, email);
     }
     
     /**
@@ -330,6 +394,8 @@ public class AuthenticationService {
             throw new IllegalArgumentException("Email already exists: " + request.getEmail());
         }
         
+        String passwordHash = passwordHashingService.encode(request.getPassword());
+        
         try {
             // Get default USER role
             Role userRole = roleService.getRoleByName("USER");
@@ -338,16 +404,17 @@ public class AuthenticationService {
             User user = User.builder()
                 .email(request.getEmail())
                 .name(request.getName())
-                .passwordHash(passwordEncoder.encode(request.getPassword()))
+                .passwordHash(passwordHash)
                 .status(UserStatus.ACTIVE)
                 .roles(Set.of(userRole))
                 .createdAt(new Date().toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime())
                 .build();
             
             User savedUser = userRepository.save(user);
+            publishRegistered(savedUser);
             
-            // Log successful registration
-            performAuditSaveUser(AccessLog.builder()
+            // Log successful registration once the user row is committed (access_logs.user_id references it)
+            accessLogWriter.writeAfterCommit(AccessLog.builder()
                     .user(savedUser)
                     .action("USER_REGISTRATION")
                     .ipAddress(request.getIpAddress())
@@ -375,11 +442,12 @@ public class AuthenticationService {
                 User user = User.builder()
                     .email(request.getEmail())
                     .name(request.getName())
-                    .passwordHash(passwordEncoder.encode(request.getPassword()))
+                    .passwordHash(passwordHash)
                     .status(UserStatus.ACTIVE)
                     .build();
                 
                 User savedUser = userRepository.save(user);
+                publishRegistered(savedUser);
                 
                 log.info("User registered successfully without default role with ID: {}", savedUser.getId());
                 
@@ -396,8 +464,20 @@ public class AuthenticationService {
         }
     }
 
-    private void performAuditSaveUser(AccessLog savedUser) {
-        AccessLog registrationLog = savedUser;
-        accessLogRepository.save(registrationLog);
+    // Solo para listeners locales (índice de búsqueda en memoria); el registro no publica en Kafka
+    private void publishRegistered(User user) {
+        applicationEventPublisher.publishEvent(new UserCreatedEvent(
+            user.getId(),
+            user.getEmail(),
+            user.getName(),
+            user.getRoles() != null
+                ? user.getRoles().stream().map(Role::getName).collect(Collectors.toSet())
+                : Set.of(),
+            user.getStatus().toString()));
+    }
+    
+    private void performAuditSaveUser(AccessLog accessLog) {
+        // Audit entries are written in batches by a background flusher, outside this transaction
+        accessLogWriter.write(accessLog);
     }
 }
@@ -1,17 +1,26 @@
 package com.medihelp360.user.service;
 
+import com.medihelp360.user.cache.RoleCatalog;
 import com.medihelp360.user.domain.Role;
 import com.medihelp360.user.dto.CreateRoleRequest;
+import com.medihelp360.user.event.RoleCatalogChangedEvent;
 import com.medihelp360.user.repository.RoleRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 
+/**
+ * Las lecturas salen del {@link RoleCatalog} en memoria, sin abrir transacción ni tocar la base de datos;
+ * las altas y bajas escriben en la tabla y publican un {@link RoleCatalogChangedEvent} que, tras el commit,
+ * actualiza el catálogo de esta instancia y avisa a las demás.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -19,6 +28,8 @@ import java.util.UUID;
 public class RoleService {
     
     private final RoleRepository roleRepository;
+    private final RoleCatalog roleCatalog;
+    private final ApplicationEventPublisher eventPublisher;
     
     public Role createRole(CreateRoleRequest request) {
         log.info("Creating role with name: {}", request.getName());
@@ -33,44 +44,42 @@ public class RoleService {
             .build();
         
         Role savedRole = roleRepository.save(role);
+        eventPublisher.publishEvent(RoleCatalogChangedEvent.created(savedRole));
         log.info("Role created successfully with ID: {}", savedRole.getId());
         
         return savedRole;
     }
     
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Role getRoleById(UUID roleId) {
-        return roleRepository.findById(roleId)
+        return roleCatalog.findById(roleId)
             .orElseThrow(() -> new IllegalArgumentException("Role not found with ID: " + roleId));
     }
     
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Role getRoleByName(String name) {
-        return roleRepository.findByName(name.toUpperCase())
+        return roleCatalog.findByName(name)
             .orElseThrow(() -> new IllegalArgumentException("Role not found with name: " + name));
     }
     
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<Role> getAllRoles() {
-        return roleRepository.findAll();
+        return roleCatalog.findAll();
     }
     
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Set<Role> getRolesByNames(Set<String> names) {
-        Set<String> upperCaseNames = names.stream()
-            .map(String::toUpperCase)
-            .collect(java.util.stream.Collectors.toSet());
-        return roleRepository.findByNameIn(upperCaseNames);
+        return roleCatalog.findByNames(names);
     }
     
     public void deleteRole(UUID roleId) {
         log.info("Deleting role with ID: {}", roleId);
         
-        if (!roleRepository.existsById(roleId)) {
-            throw new IllegalArgumentException("Role not found with ID: " + roleId);
-        }
+        Role role = roleRepository.findById(roleId)
+            .orElseThrow(() -> new IllegalArgumentException("Role not found with ID: " + roleId));
         
-        roleRepository.deleteById(roleId);
+        roleRepository.delete(role);
+        eventPublisher.publishEvent(RoleCatalogChangedEvent.deleted(roleId, role.getName()));
         log.info("Role deleted successfully with ID: {}", roleId);
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,132 @@
+package com.medihelp360.user.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medihelp360.user.domain.Role;
+import com.medihelp360.user.domain.User;
+import com.medihelp360.user.domain.UserStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Exportación completa de usuarios en NDJSON ({@code GET /users/export}).
+ * <p>
+ * Los usuarios se leen con un cursor del servidor ({@code getResultStream} con {@code fetch-size})
+ * y sus roles en la misma consulta ({@code JOIN FETCH}, ordenada por id para que el cursor agrupe
+ * las filas de cada usuario). Cada usuario se escribe con el {@link JsonGenerator} directamente en
+ * la respuesta y se saca del contexto de persistencia, así que la memoria no depende del número de usuarios.
+ */
+@Service
+@Slf4j
+public class UserExportService {
+
+    private static final String SELECT_USERS = "SELECT u FROM User u LEFT JOIN FETCH u.roles";
+    private static final String ORDER_BY_ID = " ORDER BY u.id";
+
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final int fetchSize;
+    private final Counter exportedRows;
+
+    public UserExportService(EntityManager entityManager,
+                             ObjectMapper objectMapper,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.users.export.fetch-size:500}") int fetchSize) {
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.fetchSize = fetchSize;
+        this.exportedRows = Counter.builder("users.export.rows")
+                .description("Users written by /users/export")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Escribe una línea JSON por usuario, opcionalmente filtrando por estado y rol.
+     *
+     * @return número de usuarios exportados
+     */
+    @Transactional(readOnly = true)
+    public long exportUsers(UserStatus status, String roleName, OutputStream output) throws IOException {
+        long start = System.nanoTime();
+        long rows = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(output, JsonEncoding.UTF8)
+                     .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+             Stream<User> users = query(status, roleName).getResultStream()) {
+            for (User user : (Iterable<User>) users::iterator) {
+                write(generator, user);
+                entityManager.detach(user);
+                if (++rows % fetchSize == 0) {
+                    // Entrega al cliente lo escrito hasta ahora
+                    generator.flush();
+                }
+            }
+        }
+        exportedRows.increment(rows);
+        log.info("Exported {} users (status: {}, role: {}) in {} ms",
+                rows, status, roleName, (System.nanoTime() - start) / 1_000_000);
+        return rows;
+    }
+
+    private TypedQuery<User> query(UserStatus status, String roleName) {
+        List<String> conditions = new ArrayList<>();
+        if (status != null) {
+            conditions.add("u.status = :status");
+        }
+        if (roleName != null) {
+            // Subconsulta para filtrar sin recortar los roles que se exportan de cada usuario
+            conditions.add("u.id IN (SELECT ru.id FROM User ru JOIN ru.roles r WHERE r.name = :roleName)");
+        }
+        String jpql = SELECT_USERS
+                + (conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions))
+                + ORDER_BY_ID;
+        TypedQuery<User> query = entityManager.createQuery(jpql, User.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true);
+        if (status != null) {
+            query.setParameter("status", status);
+        }
+        if (roleName != null) {
+            query.setParameter("roleName", roleName.toUpperCase());
+        }
+        return query;
+    }
+
+    private static void write(JsonGenerator generator, User user) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("id", user.getId().toString());
+        generator.writeStringField("email", user.getEmail());
+        generator.writeStringField("name", user.getName());
+        generator.writeStringField("status", user.getStatus().name());
+        generator.writeArrayFieldStart("roles");
+        for (Role role : user.getRoles()) {
+            generator.writeString(role.getName());
+        }
+        generator.writeEndArray();
+        writeTimestamp(generator, "createdAt", user.getCreatedAt());
+        writeTimestamp(generator, "updatedAt", user.getUpdatedAt());
+        writeTimestamp(generator, "lastLogin", user.getLastLogin());
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    private static void writeTimestamp(JsonGenerator generator, String field, LocalDateTime value) throws IOException {
+        if (value != null) {
+            generator.writeStringField(field, value.toString());
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.medihelp360.user.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.springframework.http.MediaType;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Lee el cuerpo de {@code POST /users/import} fila a fila, sin cargarlo entero en memoria.
+ * <ul>
+ *   <li>NDJSON: un objeto por línea, {@code {"email":..,"name":..,"password":..,"roles":["DOCTOR"]}}</li>
+ *   <li>CSV: cabecera con las columnas {@code email,name,password,roles} en cualquier orden; los roles
+ *   van separados por {@code |}</li>
+ * </ul>
+ * Una fila mal formada no corta la importación: se devuelve con {@code error} para el informe.
+ */
+abstract class UserImportReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final BufferedReader reader;
+    private long lineNumber;
+
+    private UserImportReader(InputStream body) {
+        this.reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    static UserImportReader open(MediaType contentType, InputStream body, ObjectMapper objectMapper) throws IOException {
+        if (contentType != null && contentType.isCompatibleWith(MediaType.APPLICATION_NDJSON)) {
+            return new NdjsonReader(body, objectMapper);
+        }
+        if (contentType != null && contentType.isCompatibleWith(MediaType.parseMediaType("text/csv"))) {
+            return new CsvReader(body);
+        }
+        throw new IllegalArgumentException("Unsupported import content type: " + contentType
+                + " (expected application/x-ndjson or text/csv)");
+    }
+
+    /**
+     * Siguiente fila con contenido, o {@code null} al terminar el cuerpo.
+     */
+    ImportRow next() throws IOException {
+        String line;
+        while ((line = readLine()) != null) {
+            if (!line.isBlank()) {
+                return parse(lineNumber, line);
+            }
+        }
+        return null;
+    }
+
+    abstract ImportRow parse(long lineNumber, String line);
+
+    String readLine() throws IOException {
+        String line = reader.readLine();
+        if (line != null) {
+            lineNumber++;
+            // BOM de ficheros exportados desde Excel
+            if (lineNumber == 1 && line.startsWith("\uFEFF")) {
+                line = line.substring(1);
+            }
+        }
+        return line;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Fila leída; si {@code error} no es nulo la fila no se pudo interpretar.
+     */
+    record ImportRow(long line, String email, String name, String password, Set<String> roles, String error) {
+
+        static ImportRow malformed(long line, String email, String error) {
+            return new ImportRow(line, email, null, null, Set.of(), error);
+        }
+    }
+
+    private static final class NdjsonReader extends UserImportReader {
+
+        private final ObjectReader rowReader;
+
+        NdjsonReader(InputStream body, ObjectMapper objectMapper) {
+            super(body);
+            this.rowReader = objectMapper.readerFor(JsonRow.class);
+        }
+
+        @Override
+        ImportRow parse(long lineNumber, String line) {
+            try {
+                JsonRow row = rowReader.readValue(line);
+                if (row == null) {
+                    return ImportRow.malformed(lineNumber, null, "Malformed JSON line");
+                }
+                return new ImportRow(lineNumber, trim(row.email()), trim(row.name()), row.password(),
+                        normalizeRoles(row.roles()), null);
+            } catch (IOException e) {
+                return ImportRow.malformed(lineNumber, null, "Malformed JSON line");
+            }
+        }
+
+        private record JsonRow(String email, String name, String password, List<String> roles) {
+        }
+    }
+
+    private static final class CsvReader extends UserImportReader {
+
+        private static final List<String> COLUMNS = List.of("email", "name", "password", "roles");
+
+        private final int[] positions = new int[COLUMNS.size()];
+        private final int requiredFields;
+
+        CsvReader(InputStream body) throws IOException {
+            super(body);
+            String header = readLine();
+            if (header == null) {
+                throw new IllegalArgumentException("CSV import is empty, a header line is required");
+            }
+            List<String> names = split(header).stream()
+                    .map(name -> name.trim().toLowerCase(Locale.ROOT))
+                    .toList();
+            for (int i = 0; i < COLUMNS.size(); i++) {
+                positions[i] = names.indexOf(COLUMNS.get(i));
+            }
+            if (positions[0] < 0 || positions[1] < 0 || positions[2] < 0) {
+                throw new IllegalArgumentException("CSV header must contain email, name and password columns");
+            }
+            requiredFields = Math.max(positions[0], Math.max(positions[1], positions[2])) + 1;
+        }
+
+        @Override
+        ImportRow parse(long lineNumber, String line) {
+            List<String> fields = split(line);
+            String email = trim(field(fields, positions[0]));
+            if (fields.size() < requiredFields) {
+                return ImportRow.malformed(lineNumber, email, "Malformed CSV line");
+            }
+            String roles = field(fields, positions[3]);
+            return new ImportRow(lineNumber, email, trim(field(fields, positions[1])), field(fields, positions[2]),
+                    roles == null || roles.isBlank() ? Set.of() : normalizeRoles(Arrays.asList(roles.split("\\|"))),
+                    null);
+        }
+
+        private static String field(List<String> fields, int position) {
+            return position >= 0 && position < fields.size() ? fields.get(position) : null;
+        }
+
+        /**
+         * Separa una línea CSV (RFC 4180 sin saltos de línea dentro de los campos).
+         */
+        private static List<String> split(String line) {
+            List<String> fields = new ArrayList<>();
+            StringBuilder current = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        current.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(current.toString());
+                    current.setLength(0);
+                } else {
+                    current.append(c);
+                }
+            }
+            fields.add(current.toString());
+            return fields;
+        }
+    }
+
+    private static String trim(String value) {
+        return value == null ? null : value.trim();
+    }
+
+    private static Set<String> normalizeRoles(List<String> roles) {
+        if (roles == null) {
+            return Set.of();
+        }
+        return roles.stream()
+                .filter(role -> role != null && !role.isBlank())
+                .map(role -> role.trim().toUpperCase(Locale.ROOT))
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+}
@@ -0,0 +1,340 @@
+package com.medihelp360.user.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medihelp360.user.domain.Role;
+import com.medihelp360.user.domain.User;
+import com.medihelp360.user.domain.UserStatus;
+import com.medihelp360.user.dto.CreateUserRequest;
+import com.medihelp360.user.dto.UserImportReport;
+import com.medihelp360.user.event.UserCreatedEvent;
+import com.medihelp360.user.outbox.OutboxEventWriter;
+import com.medihelp360.user.repository.UserRepository;
+import com.medihelp360.user.service.UserImportReader.ImportRow;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Alta masiva de usuarios ({@code POST /users/import}).
+ * <p>
+ * El cuerpo se lee en streaming y se procesa por bloques de {@code chunk-size} filas:
+ * <ol>
+ *   <li>validación con las mismas reglas que {@code POST /users}</li>
+ *   <li>emails ya existentes con una sola consulta {@code IN} por bloque</li>
+ *   <li>hashing de contraseñas en paralelo, en un pool propio para no saturar el de login</li>
+ *   <li>una transacción por bloque: inserts en lote de Hibernate ({@code hibernate.jdbc.batch_size})
+ *   y los {@link UserCreatedEvent} del bloque en la outbox con un único batch JDBC</li>
+ * </ol>
+ * Cada bloque se confirma por separado: un fallo solo descarta ese bloque y queda en el informe.
+ * Los duplicados con bloques anteriores los detecta la consulta {@code IN}, porque ya están confirmados.
+ */
+@Service
+@Slf4j
+public class UserImportService {
+
+    private static final String USER_TOPIC = "user-events";
+
+    private final UserRepository userRepository;
+    private final RoleService roleService;
+    private final OutboxEventWriter outboxEventWriter;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final PasswordEncoder passwordEncoder;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService hashingExecutor;
+    private final int hashingThreads;
+    private final int chunkSize;
+    private final int maxErrors;
+
+    private final Timer chunkLatency;
+    private final Counter importedRows;
+    private final Counter duplicateRows;
+    private final Counter invalidRows;
+    private final Counter failedRows;
+
+    public UserImportService(UserRepository userRepository,
+                             RoleService roleService,
+                             OutboxEventWriter outboxEventWriter,
+                             ApplicationEventPublisher applicationEventPublisher,
+                             PasswordEncoder passwordEncoder,
+                             Validator validator,
+                             ObjectMapper objectMapper,
+                             EntityManager entityManager,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.users.import.chunk-size:1000}") int chunkSize,
+                             @Value("${app.users.import.hashing-threads:0}") int hashingThreads,
+                             @Value("${app.users.import.max-errors:1000}") int maxErrors) {
+        this.userRepository = userRepository;
+        this.roleService = roleService;
+        this.outboxEventWriter = outboxEventWriter;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.passwordEncoder = passwordEncoder;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.maxErrors = maxErrors;
+
+        this.hashingThreads = hashingThreads > 0 ? hashingThreads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.hashingExecutor = Executors.newFixedThreadPool(this.hashingThreads, runnable -> {
+            Thread thread = new Thread(runnable, "user-import-hashing-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.chunkLatency = Timer.builder("users.import.chunk.latency")
+                .description("Time spent validating, hashing and writing one chunk of imported users")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.importedRows = Counter.builder("users.import.rows").tag("outcome", "imported").register(meterRegistry);
+        this.duplicateRows = Counter.builder("users.import.rows").tag("outcome", "duplicate").register(meterRegistry);
+        this.invalidRows = Counter.builder("users.import.rows").tag("outcome", "invalid").register(meterRegistry);
+        this.failedRows = Counter.builder("users.import.rows").tag("outcome", "failed").register(meterRegistry);
+    }
+
+    public UserImportReport importUsers(MediaType contentType, InputStream body) throws IOException {
+        long start = System.nanoTime();
+        ImportProgress progress = new ImportProgress();
+        // Catálogo de roles leído una vez por importación, por nombre en mayúsculas como llegan las filas
+        Map<String, Role> rolesByName = roleService.getAllRoles().stream()
+                .collect(Collectors.toMap(role -> role.getName().toUpperCase(Locale.ROOT), role -> role,
+                        (first, second) -> first));
+
+        try (UserImportReader reader = UserImportReader.open(contentType, body, objectMapper)) {
+            List<ImportRow> chunk = new ArrayList<>(chunkSize);
+            ImportRow row;
+            while ((row = reader.next()) != null) {
+                chunk.add(row);
+                if (chunk.size() == chunkSize) {
+                    processChunk(chunk, rolesByName, progress);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                processChunk(chunk, rolesByName, progress);
+            }
+        }
+
+        long durationMs = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        log.info("User import finished: {} rows, {} imported, {} duplicates, {} invalid, {} failed in {} ms",
+                progress.rows, progress.imported, progress.duplicates, progress.invalid, progress.failed, durationMs);
+        return UserImportReport.builder()
+                .rows(progress.rows)
+                .imported(progress.imported)
+                .duplicates(progress.duplicates)
+                .invalid(progress.invalid)
+                .failed(progress.failed)
+                .chunks(progress.chunks)
+                .durationMs(durationMs)
+                .rowsPerSecond(progress.rows * 1000 / durationMs)
+                .errors(progress.errors)
+                .errorsTruncated(progress.errorsTruncated)
+                .build();
+    }
+
+    private void processChunk(List<ImportRow> chunk, Map<String, Role> rolesByName, ImportProgress progress) {
+        chunkLatency.record(() -> {
+            List<ImportRow> candidates = validate(chunk, rolesByName, progress);
+            if (!candidates.isEmpty()) {
+                List<String> hashes = hashPasswords(candidates);
+                write(candidates, hashes, rolesByName, progress);
+            }
+        });
+        progress.rows += chunk.size();
+        progress.chunks++;
+        log.debug("User import progress: {} rows read, {} imported", progress.rows, progress.imported);
+    }
+
+    /**
+     * Filas válidas y nuevas del bloque; el resto va al informe como inválidas o duplicadas.
+     */
+    private List<ImportRow> validate(List<ImportRow> chunk, Map<String, Role> rolesByName, ImportProgress progress) {
+        List<ImportRow> valid = new ArrayList<>(chunk.size());
+        for (ImportRow row : chunk) {
+            String error = row.error() != null ? row.error() : validationError(row, rolesByName);
+            if (error != null) {
+                progress.invalid++;
+                invalidRows.increment();
+                progress.reject(row, error, maxErrors);
+            } else {
+                valid.add(row);
+            }
+        }
+        if (valid.isEmpty()) {
+            return valid;
+        }
+
+        Set<String> existing = userRepository.findExistingEmails(
+                valid.stream().map(ImportRow::email).collect(Collectors.toSet()));
+        Set<String> seen = new HashSet<>();
+        List<ImportRow> candidates = new ArrayList<>(valid.size());
+        for (ImportRow row : valid) {
+            if (existing.contains(row.email())) {
+                progress.duplicate(row, "Email already exists", maxErrors);
+                duplicateRows.increment();
+            } else if (!seen.add(row.email())) {
+                progress.duplicate(row, "Email repeated in import", maxErrors);
+                duplicateRows.increment();
+            } else {
+                candidates.add(row);
+            }
+        }
+        return candidates;
+    }
+
+    private String validationError(ImportRow row, Map<String, Role> rolesByName) {
+        CreateUserRequest request = new CreateUserRequest();
+        request.setEmail(row.email());
+        request.setName(row.name());
+        request.setPassword(row.password());
+        Set<ConstraintViolation<CreateUserRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .sorted(Comparator.comparing(violation -> violation.getPropertyPath().toString()))
+                    .map(ConstraintViolation::getMessage)
+                    .collect(Collectors.joining("; "));
+        }
+        for (String roleName : row.roles()) {
+            if (!rolesByName.containsKey(roleName)) {
+                return "Unknown role: " + roleName;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Hashea las contraseñas del bloque repartidas en tantos trozos como hilos tenga el pool.
+     */
+    private List<String> hashPasswords(List<ImportRow> rows) {
+        int sliceSize = (rows.size() + hashingThreads - 1) / hashingThreads;
+        List<Callable<List<String>>> tasks = new ArrayList<>(hashingThreads);
+        for (int from = 0; from < rows.size(); from += sliceSize) {
+            List<ImportRow> slice = rows.subList(from, Math.min(rows.size(), from + sliceSize));
+            tasks.add(() -> slice.stream().map(row -> passwordEncoder.encode(row.password())).toList());
+        }
+
+        List<String> hashes = new ArrayList<>(rows.size());
+        try {
+            for (Future<List<String>> future : hashingExecutor.invokeAll(tasks)) {
+                hashes.addAll(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("User import interrupted while hashing passwords", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password hashing failed during user import", e.getCause());
+        }
+        return hashes;
+    }
+
+    private void write(List<ImportRow> rows, List<String> hashes, Map<String, Role> rolesByName,
+                       ImportProgress progress) {
+        List<User> users = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            ImportRow row = rows.get(i);
+            users.add(User.builder()
+                    .email(row.email())
+                    .name(row.name())
+                    .passwordHash(hashes.get(i))
+                    .status(UserStatus.ACTIVE)
+                    .roles(row.roles().stream().map(rolesByName::get).collect(Collectors.toCollection(HashSet::new)))
+                    .build());
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                userRepository.saveAll(users);
+                entityManager.flush();
+                List<UserCreatedEvent> events = users.stream()
+                        .map(user -> new UserCreatedEvent(
+                                user.getId(),
+                                user.getEmail(),
+                                user.getName(),
+                                user.getRoles().stream().map(Role::getName).collect(Collectors.toCollection(LinkedHashSet::new)),
+                                user.getStatus().toString()))
+                        .toList();
+                outboxEventWriter.appendAll(USER_TOPIC, events);
+                // Listeners locales (p. ej. el índice de búsqueda en memoria), tras el commit del bloque
+                events.forEach(applicationEventPublisher::publishEvent);
+                // Sin esto el contexto de persistencia crece con cada bloque
+                entityManager.clear();
+            });
+            progress.imported += users.size();
+            importedRows.increment(users.size());
+        } catch (DataAccessException | TransactionException e) {
+            // Normalmente un email dado de alta en paralelo: se descarta el bloque entero
+            log.warn("User import chunk of {} rows failed: {}", rows.size(), e.getMessage());
+            progress.failed += rows.size();
+            failedRows.increment(rows.size());
+            for (ImportRow row : rows) {
+                progress.reject(row, "Chunk write failed: " + e.getClass().getSimpleName(), maxErrors);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashingExecutor.shutdown();
+    }
+
+    private static final class ImportProgress {
+        private long rows;
+        private long imported;
+        private long duplicates;
+        private long invalid;
+        private long failed;
+        private int chunks;
+        private final List<UserImportReport.RowError> errors = new ArrayList<>();
+        private boolean errorsTruncated;
+
+        void duplicate(ImportRow row, String reason, int maxErrors) {
+            duplicates++;
+            reject(row, reason, maxErrors);
+        }
+
+        void reject(ImportRow row, String reason, int maxErrors) {
+            if (errors.size() < maxErrors) {
+                errors.add(new UserImportReport.RowError(row.line(), row.email(), reason));
+            } else {
+                errorsTruncated = true;
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.medihelp360.user.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Posición de la paginación por cursor: el {@code (created_at, id)} del último usuario devuelto.
+ * Para el cliente es un token opaco (Base64 URL-safe); el prefijo de versión permite cambiar el
+ * formato sin romper los cursores ya emitidos.
+ */
+record UserPageCursor(LocalDateTime createdAt, UUID id) {
+
+    private static final String VERSION = "v1";
+
+    String encode() {
+        String raw = VERSION + "|" + createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static UserPageCursor decode(String token) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\|");
+            if (parts.length != 3 || !VERSION.equals(parts[0])) {
+                throw new IllegalArgumentException("Invalid page cursor");
+            }
+            return new UserPageCursor(LocalDateTime.parse(parts[1]), UUID.fromString(parts[2]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid page cursor", e);
+        }
+    }
+}
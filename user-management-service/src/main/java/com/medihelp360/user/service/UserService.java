@@ -1,29 +1,46 @@
 package com.medihelp360.user.service;
 
+import com.medihelp360.user.cache.UserSnapshot;
+import com.medihelp360.user.cache.UserSnapshotCache;
 import com.medihelp360.user.domain.Role;
 import com.medihelp360.user.domain.User;
 import com.medihelp360.user.domain.UserStatus;
 import com.medihelp360.user.dto.CreateUserRequest;
+import com.medihelp360.user.dto.KeysetPage;
 import com.medihelp360.user.dto.UpdateUserRequest;
 import com.medihelp360.user.dto.UserResponse;
+import com.medihelp360.user.dto.UserSummary;
 import com.medihelp360.user.event.UserCreatedEvent;
+import com.medihelp360.user.event.UserEvent;
 import com.medihelp360.user.event.UserUpdatedEvent;
+import com.medihelp360.user.outbox.OutboxEventWriter;
 import com.medihelp360.user.repository.UserRepository;
+import com.medihelp360.user.repository.UserRoleRow;
+import com.medihelp360.user.repository.UserSummaryRow;
+import com.medihelp360.user.search.UserSearchCursor;
+import com.medihelp360.user.search.UserSearchHit;
+import com.medihelp360.user.search.UserSearchIndex;
+import com.medihelp360.user.security.PasswordHashingService;
+import com.medihelp360.user.stats.UserStatisticsCounters;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.kafka.core.KafkaTemplate;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -34,10 +51,16 @@ public class UserService {
     
     private final UserRepository userRepository;
     private final RoleService roleService;
-    private final PasswordEncoder passwordEncoder;
-    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final PasswordHashingService passwordHashingService;
+    private final OutboxEventWriter outboxEventWriter;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final UserSearchIndex userSearchIndex;
+    private final UserStatisticsCounters userStatisticsCounters;
+    private final UserSnapshotCache userSnapshotCache;
     
     private static final String USER_TOPIC = "user-events";
+    private static final int MAX_KEYSET_PAGE_SIZE = 1000;
+    private static final int ROLE_LOOKUP_BATCH_SIZE = 1000;
     
     public UserResponse createUser(CreateUserRequest request) {
         log.info("Creating user with email: {}", request.getEmail());
@@ -60,7 +83,7 @@ public class UserService {
         User user = User.builder()
             .email(request.getEmail())
             .name(request.getName())
-            .passwordHash(passwordEncoder.encode(request.getPassword()))
+            .passwordHash(passwordHashingService.encode(request.getPassword()))
             .status(UserStatus.ACTIVE)
             .roles(managedRoles)
             .build();
@@ -89,6 +112,9 @@ public class UserService {
             .orElseThrow(() -> new IllegalArgumentException("User not found with ID: " + userId));
         
         String previousStatus = user.getStatus().toString();
+        Set<String> previousRoles = user.getRoles() != null
+            ? user.getRoles().stream().map(Role::getName).collect(Collectors.toSet())
+            : Set.of();
         
         // Actualizar campos
         if (request.getName() != null) {
@@ -115,7 +141,8 @@ public class UserService {
             savedUser.getName(),
             savedUser.getRoles().stream().map(role -> role.getName()).collect(Collectors.toSet()),
             savedUser.getStatus().toString(),
-            previousStatus
+            previousStatus,
+            previousRoles
         );
         
         publishEvent(event);
@@ -177,19 +204,24 @@ public class UserService {
         log.info("User disabled successfully with ID: {}", savedUser.getId());
     }
     
-    @Transactional(readOnly = true)
+    // Sale del cache de snapshots; solo un fallo abre transacción, la del repositorio
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public UserResponse getUserById(UUID userId) {
-        User user = userRepository.findById(userId)
+        return userSnapshotCache.get(userId)
+            .map(UserSnapshot::toResponse)
             .orElseThrow(() -> new IllegalArgumentException("User not found with ID: " + userId));
-        
-        return mapToResponse(user);
     }
     
+    /**
+     * Página de usuarios sin cargar entidades: proyección de la página, COUNT y una consulta para los roles
+     * de toda la página, sea cual sea su tamaño.
+     */
     @Transactional(readOnly = true)
-    public Page<UserResponse> getAllUsers(Pageable pageable) {
+    public Page<UserSummary> getAllUsers(Pageable pageable) {
         log.info("Getting all users with pagination: {}", pageable);
-        Page<User> users = userRepository.findAll(pageable);
-        return users.map(this::mapToResponse);
+        Page<UserSummaryRow> rows = userRepository.findSummaries(pageable);
+        Map<UUID, List<UserSummary.RoleSummary>> roles = rolesByUser(rows.getContent());
+        return rows.map(row -> toSummary(row, roles));
     }
     
     @Transactional(readOnly = true)
@@ -204,51 +236,153 @@ public class UserService {
         return users.map(this::mapToResponse);
     }
     
+    /**
+     * Listado por cursor: coste constante sea cual sea la página y COUNT solo si se pide. Sin entidades,
+     * como {@link #getAllUsers}: proyección de la página y una consulta para sus roles.
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<UserSummary> getUsersAfter(String cursor, int size, boolean includeCount) {
+        log.info("Getting users after cursor: {} (size {})", cursor, size);
+        Pageable limit = keysetLimit(size);
+        List<UserSummaryRow> users;
+        if (cursor == null) {
+            users = userRepository.findFirstKeysetPage(limit);
+        } else {
+            UserPageCursor position = UserPageCursor.decode(cursor);
+            users = userRepository.findKeysetPageAfter(position.createdAt(), position.id(), limit);
+        }
+        return toKeysetPage(users, limit, includeCount ? userRepository.count() : null);
+    }
+    
+    @Transactional(readOnly = true)
+    public KeysetPage<UserSummary> searchUsersAfter(String name, String email, String cursor, int size,
+                                                    boolean includeCount) {
+        log.info("Searching users with name: {} and email: {} after cursor: {}", name, email, cursor);
+        
+        String searchName = name != null ? name : "";
+        String searchEmail = email != null ? email : "";
+        Pageable limit = keysetLimit(size);
+        List<UserSummaryRow> users;
+        if (cursor == null) {
+            users = userRepository.searchFirstKeysetPage(searchName, searchEmail, limit);
+        } else {
+            UserPageCursor position = UserPageCursor.decode(cursor);
+            users = userRepository.searchKeysetPageAfter(
+                searchName, searchEmail, position.createdAt(), position.id(), limit);
+        }
+        Long total = includeCount
+            ? userRepository.countByNameContainingOrEmailContaining(searchName, searchEmail)
+            : null;
+        return toKeysetPage(users, limit, total);
+    }
+    
+    /**
+     * Búsqueda por subcadena de nombre o email con el {@link UserSearchIndex} configurado: resultados por
+     * relevancia y página siguiente por cursor {@code (score, id)}.
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<UserSummary> searchUsersRanked(String query, String cursor, int size) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query is required");
+        }
+        log.info("Ranked search for: {} after cursor: {}", query, cursor);
+        
+        Pageable limit = keysetLimit(size);
+        UserSearchCursor after = cursor != null ? UserSearchCursor.decode(cursor) : null;
+        List<UserSearchHit> hits = userSearchIndex.search(query.trim(), after, limit.getPageSize());
+        
+        int pageSize = limit.getPageSize() - 1;
+        boolean hasNext = hits.size() > pageSize;
+        List<UserSearchHit> page = hasNext ? hits.subList(0, pageSize) : hits;
+        // Proyección de la página y sus roles, una consulta cada una, devueltas en el orden del índice
+        Map<UUID, UserSummary> users = toSummaries(
+                userRepository.findSummariesByIds(page.stream().map(UserSearchHit::id).toList())).stream()
+            .collect(Collectors.toMap(UserSummary::id, Function.identity()));
+        return KeysetPage.<UserSummary>builder()
+            .content(page.stream()
+                .map(hit -> users.get(hit.id()))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList()))
+            .size(pageSize)
+            .hasNext(hasNext)
+            .nextCursor(hasNext ? UserSearchCursor.of(page.get(page.size() - 1)).encode() : null)
+            .build();
+    }
+    
     @Transactional(readOnly = true)
-    public List<UserResponse> getUsersByStatus(UserStatus status) {
+    public List<UserSummary> getUsersByStatus(UserStatus status) {
         log.info("Getting users by status: {}", status);
-        List<User> users = userRepository.findByStatus(status);
-        return users.stream()
-            .map(this::mapToResponse)
-            .collect(Collectors.toList());
+        return toSummaries(userRepository.findSummariesByStatus(status));
     }
     
     @Transactional(readOnly = true)
-    public List<UserResponse> getUsersByRole(String roleName) {
+    public List<UserSummary> getUsersByRole(String roleName) {
         log.info("Getting users by role: {}", roleName);
-        List<User> users = userRepository.findByRoleName(roleName.toUpperCase());
-        return users.stream()
-            .map(this::mapToResponse)
-            .collect(Collectors.toList());
+        return toSummaries(userRepository.findSummariesByRoleName(roleName.toUpperCase()));
     }
     
-    @Transactional(readOnly = true)
+    /**
+     * Contadores mantenidos en memoria por {@link UserStatisticsCounters}: no consulta la base de datos
+     * (SUPPORTS para no abrir una transacción ni pedir conexión).
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Map<String, Object> getUserStatistics() {
-        log.info("Getting user statistics");
-        
-        Map<String, Object> stats = new HashMap<>();
-        
-        // Contar usuarios por estado
-        for (UserStatus status : UserStatus.values()) {
-            Long count = userRepository.countByStatus(status);
-            stats.put(status.toString().toLowerCase() + "Users", count);
-        }
-        
-        // Total de usuarios
-        long totalUsers = userRepository.count();
-        stats.put("totalUsers", totalUsers);
-        
-        return stats;
+        log.debug("Getting user statistics");
+        return userStatisticsCounters.snapshot();
+    }
+    
+    private void publishEvent(UserEvent event) {
+        // Listeners locales (p. ej. invalidación de UserSnapshotCache tras el commit)
+        applicationEventPublisher.publishEvent(event);
+        // Outbox: el evento se confirma con el cambio y OutboxRelay lo publica en Kafka
+        outboxEventWriter.append(USER_TOPIC, event);
+        log.debug("Event written to outbox: {}", event.getEventType());
     }
     
-    private void publishEvent(Object event) {
-        try {
-            kafkaTemplate.send(USER_TOPIC, event);
-            log.info("Event published: {}", event.getClass().getSimpleName());
-        } catch (Exception e) {
-            log.error("Failed to publish event: {}", event.getClass().getSimpleName(), e);
-            // En un escenario real, podrías usar un patrón Outbox para garantizar eventual consistency
+    // Una fila de más para saber si existe la página siguiente sin contar
+    private static Pageable keysetLimit(int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_KEYSET_PAGE_SIZE));
+        return PageRequest.ofSize(pageSize + 1);
+    }
+    
+    private KeysetPage<UserSummary> toKeysetPage(List<UserSummaryRow> users, Pageable limit, Long total) {
+        int pageSize = limit.getPageSize() - 1;
+        boolean hasNext = users.size() > pageSize;
+        List<UserSummaryRow> page = hasNext ? users.subList(0, pageSize) : users;
+        UserSummaryRow last = page.isEmpty() ? null : page.get(page.size() - 1);
+        return KeysetPage.<UserSummary>builder()
+            .content(toSummaries(page))
+            .size(pageSize)
+            .hasNext(hasNext)
+            .nextCursor(hasNext ? new UserPageCursor(last.createdAt(), last.id()).encode() : null)
+            .totalElements(total)
+            .build();
+    }
+    
+    private List<UserSummary> toSummaries(List<UserSummaryRow> rows) {
+        Map<UUID, List<UserSummary.RoleSummary>> roles = rolesByUser(rows);
+        return rows.stream()
+            .map(row -> toSummary(row, roles))
+            .collect(Collectors.toList());
+    }
+    
+    // Roles de todas las filas con una consulta por cada ROLE_LOOKUP_BATCH_SIZE usuarios (parámetros del IN)
+    private Map<UUID, List<UserSummary.RoleSummary>> rolesByUser(List<UserSummaryRow> rows) {
+        List<UUID> userIds = rows.stream().map(UserSummaryRow::id).distinct().toList();
+        Map<UUID, List<UserSummary.RoleSummary>> roles = new HashMap<>();
+        for (int from = 0; from < userIds.size(); from += ROLE_LOOKUP_BATCH_SIZE) {
+            List<UUID> batch = userIds.subList(from, Math.min(userIds.size(), from + ROLE_LOOKUP_BATCH_SIZE));
+            for (UserRoleRow row : userRepository.findRoleRowsByUserIds(batch)) {
+                roles.computeIfAbsent(row.userId(), userId -> new ArrayList<>())
+                    .add(new UserSummary.RoleSummary(row.roleId(), row.roleName(), row.roleDescription()));
+            }
         }
+        return roles;
+    }
+    
+    private static UserSummary toSummary(UserSummaryRow row, Map<UUID, List<UserSummary.RoleSummary>> roles) {
+        return new UserSummary(row.id(), row.email(), row.name(), row.status(),
+            List.copyOf(roles.getOrDefault(row.id(), List.of())), row.createdAt(), row.updatedAt());
     }
     
     private UserResponse mapToResponse(User user) {
@@ -0,0 +1,248 @@
+package com.medihelp360.user.stats;
+
+import com.medihelp360.user.domain.UserStatus;
+import com.medihelp360.user.event.UserCreatedEvent;
+import com.medihelp360.user.event.UserUpdatedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Contadores de {@code /users/stats} en memoria: usuarios por estado y por rol y altas por día.
+ * <p>
+ * Se actualizan con {@link UserCreatedEvent} y {@link UserUpdatedEvent} tras el commit (alta, importación,
+ * registro, cambios de estado y de roles), y cada {@code reconcile-interval-ms} se sustituyen por el resultado
+ * de una única consulta agregada. Los cambios que llegan mientras esa consulta está en curso se vuelven a
+ * aplicar sobre el resultado, así que no se pierden. La reconciliación corrige lo que los eventos no ven: cambios
+ * hechos por otras réplicas o directamente en la base de datos, y el caso raro de un cambio confirmado justo antes
+ * de la consulta cuyo evento llega después (contado dos veces hasta la siguiente).
+ * <p>
+ * {@link #snapshot()} devuelve un mapa inmutable ya construido: leerlo no cuesta nada ni toca la base de datos.
+ */
+@Component
+@Slf4j
+public class UserStatisticsCounters {
+
+    private static final String RECONCILE_SQL =
+            "SELECT 'status' AS dimension, u.status AS bucket, COUNT(*) AS users FROM users u GROUP BY u.status "
+            + "UNION ALL "
+            + "SELECT 'role', r.name, COUNT(*) FROM user_roles ur JOIN roles r ON r.id = ur.role_id GROUP BY r.name "
+            + "UNION ALL "
+            + "SELECT 'signup', CAST(CAST(u.created_at AS DATE) AS VARCHAR(10)), COUNT(*) FROM users u "
+            + "WHERE u.created_at >= ? GROUP BY CAST(u.created_at AS DATE)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int signupDays;
+    private final Timer reconcileLatency;
+    private final Counter reconcileDrift;
+
+    private final Object lock = new Object();
+    private final Object reconcileLock = new Object();
+    // Protegidos por lock
+    private Counts counts = new Counts();
+    private List<Consumer<Counts>> changesDuringReconcile;
+    private LocalDateTime reconciledAt;
+
+    private volatile Map<String, Object> snapshot;
+
+    public UserStatisticsCounters(JdbcTemplate jdbcTemplate,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${app.users.stats.signup-days:30}") int signupDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.signupDays = signupDays;
+        this.reconcileLatency = Timer.builder("users.stats.reconcile.latency")
+                .description("Time spent recomputing /users/stats counters from the database")
+                .register(meterRegistry);
+        this.reconcileDrift = Counter.builder("users.stats.reconcile.drift")
+                .description("Sum of the corrections applied to /users/stats counters by reconciliation")
+                .register(meterRegistry);
+        this.snapshot = counts.toSnapshot(null);
+    }
+
+    public Map<String, Object> snapshot() {
+        return snapshot;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserCreated(UserCreatedEvent event) {
+        LocalDate day = event.getTimestamp() != null ? event.getTimestamp().toLocalDate() : LocalDate.now();
+        apply(counts -> {
+            counts.add(counts.byStatus, event.getStatus(), 1);
+            if (event.getRoles() != null) {
+                event.getRoles().forEach(role -> counts.add(counts.byRole, role, 1));
+            }
+            counts.signupsByDay.merge(day, 1L, Long::sum);
+        });
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserUpdated(UserUpdatedEvent event) {
+        Set<String> previousRoles = event.getPreviousRoles() != null ? event.getPreviousRoles() : Set.of();
+        Set<String> roles = event.getRoles() != null ? event.getRoles() : Set.of();
+        boolean statusChanged = event.getPreviousStatus() != null
+                && !event.getPreviousStatus().equals(event.getStatus());
+        if (!statusChanged && previousRoles.equals(roles)) {
+            return;
+        }
+        apply(counts -> {
+            if (statusChanged) {
+                counts.add(counts.byStatus, event.getPreviousStatus(), -1);
+                counts.add(counts.byStatus, event.getStatus(), 1);
+            }
+            previousRoles.stream().filter(role -> !roles.contains(role))
+                    .forEach(role -> counts.add(counts.byRole, role, -1));
+            roles.stream().filter(role -> !previousRoles.contains(role))
+                    .forEach(role -> counts.add(counts.byRole, role, 1));
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileOnStartup() {
+        reconcile();
+    }
+
+    /**
+     * Recalcula todos los contadores con una consulta y sustituye los actuales.
+     */
+    @Scheduled(fixedDelayString = "${app.users.stats.reconcile-interval-ms:60000}",
+               initialDelayString = "${app.users.stats.reconcile-interval-ms:60000}")
+    public void reconcile() {
+        synchronized (reconcileLock) {
+            synchronized (lock) {
+                changesDuringReconcile = new ArrayList<>();
+            }
+            Timer.Sample sample = Timer.start();
+            Counts fresh = new Counts();
+            try {
+                LocalDate firstDay = LocalDate.now().minusDays(signupDays - 1L);
+                jdbcTemplate.query(RECONCILE_SQL, (RowCallbackHandler) rs -> fresh.load(
+                        rs.getString("dimension"), rs.getString("bucket"), rs.getLong("users")),
+                        Timestamp.valueOf(firstDay.atStartOfDay()));
+            } catch (DataAccessException e) {
+                synchronized (lock) {
+                    changesDuringReconcile = null;
+                }
+                log.warn("User statistics reconciliation failed, keeping incremental counters: {}", e.getMessage());
+                return;
+            }
+            sample.stop(reconcileLatency);
+
+            synchronized (lock) {
+                changesDuringReconcile.forEach(change -> change.accept(fresh));
+                changesDuringReconcile = null;
+                long drift = fresh.distanceTo(counts);
+                if (drift > 0) {
+                    reconcileDrift.increment(drift);
+                    log.info("User statistics reconciled with a drift of {}", drift);
+                }
+                counts = fresh;
+                reconciledAt = LocalDateTime.now();
+                publish();
+            }
+        }
+    }
+
+    private void apply(Consumer<Counts> change) {
+        synchronized (lock) {
+            change.accept(counts);
+            if (changesDuringReconcile != null) {
+                changesDuringReconcile.add(change);
+            }
+            publish();
+        }
+    }
+
+    private void publish() {
+        counts.signupsByDay.headMap(LocalDate.now().minusDays(signupDays - 1L)).clear();
+        snapshot = counts.toSnapshot(reconciledAt);
+    }
+
+    private static final class Counts {
+
+        private final Map<String, Long> byStatus = new HashMap<>();
+        private final Map<String, Long> byRole = new HashMap<>();
+        private final TreeMap<LocalDate, Long> signupsByDay = new TreeMap<>();
+
+        void add(Map<String, Long> counters, String key, long delta) {
+            if (key != null) {
+                counters.merge(key, delta, Long::sum);
+            }
+        }
+
+        void load(String dimension, String bucket, long users) {
+            switch (dimension) {
+                case "status" -> byStatus.put(bucket, users);
+                case "role" -> byRole.put(bucket, users);
+                case "signup" -> signupsByDay.put(LocalDate.parse(bucket), users);
+                default -> throw new IllegalStateException("Unknown statistics dimension: " + dimension);
+            }
+        }
+
+        // Suma de las diferencias absolutas con otros contadores
+        long distanceTo(Counts other) {
+            return distance(byStatus, other.byStatus) + distance(byRole, other.byRole)
+                    + distance(signupsByDay, other.signupsByDay);
+        }
+
+        private static <K> long distance(Map<K, Long> left, Map<K, Long> right) {
+            Set<K> keys = new HashSet<>(left.keySet());
+            keys.addAll(right.keySet());
+            long distance = 0;
+            for (K key : keys) {
+                distance += Math.abs(left.getOrDefault(key, 0L) - right.getOrDefault(key, 0L));
+            }
+            return distance;
+        }
+
+        Map<String, Object> toSnapshot(LocalDateTime reconciledAt) {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            long total = 0;
+            for (UserStatus status : UserStatus.values()) {
+                long users = byStatus.getOrDefault(status.name(), 0L);
+                stats.put(status.name().toLowerCase(Locale.ROOT) + "Users", users);
+                total += users;
+            }
+            stats.put("totalUsers", total);
+            Map<String, Long> roles = new TreeMap<>();
+            byRole.forEach((role, users) -> {
+                if (users != 0) {
+                    roles.put(role, users);
+                }
+            });
+            stats.put("usersByRole", Collections.unmodifiableMap(roles));
+            Map<String, Long> signups = new LinkedHashMap<>();
+            signupsByDay.forEach((day, users) -> signups.put(day.toString(), users));
+            stats.put("signupsByDay", Collections.unmodifiableMap(signups));
+            if (reconciledAt != null) {
+                stats.put("reconciledAt", reconciledAt.toString());
+            }
+            return Collections.unmodifiableMap(stats);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+-- Migration V10: Keyset pagination on users
+-- Description: /users/keyset and /users/search/keyset page with WHERE (created_at, id) > (?, ?) ORDER BY created_at, id.
+-- The composite index serves that seek directly, so page N costs the same as page 1, and it replaces the
+-- single-column created_at index. Rows without created_at would be skipped by the seek, so the column becomes NOT NULL.
+
+UPDATE users SET created_at = COALESCE(updated_at, CURRENT_TIMESTAMP) WHERE created_at IS NULL;
+ALTER TABLE users ALTER COLUMN created_at SET NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_users_created_at_id ON users(created_at, id);
+DROP INDEX IF EXISTS idx_users_created_at;
@@ -0,0 +1,10 @@
+-- Migration V11: Trigram indexes for user search
+-- Description: /users/search and /users/search/keyset filter with name LIKE '%x%' OR email LIKE '%x%', and
+-- /users/search/ranked with ILIKE plus similarity() ranking. A B-tree cannot serve a leading wildcard, so every search
+-- was a sequential scan. pg_trgm GIN indexes answer LIKE/ILIKE on any substring of three or more characters
+-- (a BitmapOr of both indexes for the OR). Creating the extension needs a role with CREATE on the database.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_users_name_trgm ON users USING gin (name gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_users_email_trgm ON users USING gin (email gin_trgm_ops);
@@ -0,0 +1,10 @@
+-- Migration V12: Create SERVICE role
+-- Description: Role for internal service accounts (e.g. the API gateway) allowed to call
+-- internal endpoints such as /auth/validate/batch
+
+INSERT INTO roles (id, name, description)
+VALUES (
+    gen_random_uuid(),
+    'SERVICE',
+    'Internal service account role for service-to-service endpoints'
+) ON CONFLICT (name) DO NOTHING;
@@ -0,0 +1,17 @@
+-- Migration V13: Delivery attempts and dead-lettering for the outbox
+-- Description: an event Kafka never accepts (record too large, invalid topic, serialization error) used to stay at
+-- the head of the relay's batch forever. The relay now counts failed sends, keeps the last error, and parks events
+-- that fail permanently or too many times (dead_lettered_at). Parked rows are not published nor purged; they stay
+-- for inspection and can be re-queued by clearing dead_lettered_at.
+
+ALTER TABLE outbox_events ADD COLUMN attempts INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE outbox_events ADD COLUMN last_error VARCHAR(1000);
+ALTER TABLE outbox_events ADD COLUMN dead_lettered_at TIMESTAMP;
+
+-- The relay's batch query and the lag probe skip parked rows
+DROP INDEX IF EXISTS idx_outbox_events_pending;
+CREATE INDEX IF NOT EXISTS idx_outbox_events_pending ON outbox_events(id)
+    WHERE published_at IS NULL AND dead_lettered_at IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_outbox_events_dead_lettered ON outbox_events(dead_lettered_at)
+    WHERE dead_lettered_at IS NOT NULL;
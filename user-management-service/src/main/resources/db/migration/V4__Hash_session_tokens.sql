@@ -0,0 +1,24 @@
+-- Migration V4: Store SHA-256 digests of session tokens
+-- Description: token_hash/refresh_token_hash used to hold the first 50 characters of the JWT,
+-- which are mostly the shared header. They now hold a fixed 32-byte SHA-256 digest with unique indexes.
+
+-- Existing sessions cannot be converted (the full token was never stored); clients must log in again
+DELETE FROM user_sessions;
+
+DROP INDEX IF EXISTS idx_user_sessions_token_hash;
+DROP INDEX IF EXISTS idx_user_sessions_refresh_token_hash;
+
+ALTER TABLE user_sessions DROP COLUMN token_hash;
+ALTER TABLE user_sessions DROP COLUMN refresh_token_hash;
+
+ALTER TABLE user_sessions ADD COLUMN token_hash BYTEA NOT NULL;
+ALTER TABLE user_sessions ADD COLUMN refresh_token_hash BYTEA NOT NULL;
+
+ALTER TABLE user_sessions ADD CONSTRAINT chk_user_sessions_token_hash_length
+    CHECK (octet_length(token_hash) = 32);
+ALTER TABLE user_sessions ADD CONSTRAINT chk_user_sessions_refresh_token_hash_length
+    CHECK (octet_length(refresh_token_hash) = 32);
+
+-- A single index probe resolves a session by either token
+CREATE UNIQUE INDEX idx_user_sessions_token_hash ON user_sessions(token_hash);
+CREATE UNIQUE INDEX idx_user_sessions_refresh_token_hash ON user_sessions(refresh_token_hash);
@@ -0,0 +1,18 @@
+-- Migration V5: Cluster-wide locks for scheduled maintenance tasks
+-- Description: only the replica holding a task's row lock (locked_until in the future) runs that task.
+-- Expired locks are taken over by a conditional UPDATE, so a crashed replica never blocks the task forever.
+
+CREATE TABLE IF NOT EXISTS scheduled_task_locks (
+    name VARCHAR(64) PRIMARY KEY,
+    locked_until TIMESTAMP NOT NULL,
+    locked_at TIMESTAMP NOT NULL,
+    locked_by VARCHAR(255) NOT NULL
+);
+
+-- Keyset order used by the chunked purge of stale failed login attempts
+CREATE INDEX IF NOT EXISTS idx_failed_login_attempts_last_attempt_at
+    ON failed_login_attempts(last_attempt_at, id);
+
+-- user_sessions already has idx_user_sessions_expires_at; add id so the chunk ORDER BY is index-only
+CREATE INDEX IF NOT EXISTS idx_user_sessions_expires_at_id ON user_sessions(expires_at, id);
+DROP INDEX IF EXISTS idx_user_sessions_expires_at;
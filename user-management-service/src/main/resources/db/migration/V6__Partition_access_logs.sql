@@ -0,0 +1,109 @@
+-- Migration V6: Range-partitioned access_logs with hourly rollups
+-- Description: access_logs becomes a table partitioned by day on "timestamp". Partitions are created
+-- ahead of time by ensure_access_log_partitions() and retention drops whole partitions with
+-- drop_access_log_partitions_before() instead of running DELETEs. access_log_hourly_counts keeps
+-- counts per (hour, action, success), maintained incrementally by the audit writer.
+
+-- 1. Move the existing heap out of the way (its indexes would clash with the new ones)
+DROP INDEX IF EXISTS idx_access_logs_user_id;
+DROP INDEX IF EXISTS idx_access_logs_action;
+DROP INDEX IF EXISTS idx_access_logs_success;
+DROP INDEX IF EXISTS idx_access_logs_timestamp;
+ALTER TABLE access_logs RENAME TO access_logs_legacy;
+
+-- 2. Partitioned parent; the partition key must be part of the primary key
+CREATE TABLE access_logs (
+    id UUID NOT NULL DEFAULT gen_random_uuid(),
+    user_id UUID REFERENCES users(id) ON DELETE SET NULL,
+    action VARCHAR(100) NOT NULL,
+    ip_address VARCHAR(255),
+    user_agent TEXT,
+    success BOOLEAN NOT NULL DEFAULT true,
+    details JSONB,
+    timestamp TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id, timestamp)
+) PARTITION BY RANGE (timestamp);
+
+-- Safety net for rows outside the pre-created range; should stay empty
+CREATE TABLE access_logs_default PARTITION OF access_logs DEFAULT;
+
+CREATE INDEX idx_access_logs_timestamp ON access_logs(timestamp);
+CREATE INDEX idx_access_logs_user_action_timestamp ON access_logs(user_id, action, timestamp);
+CREATE INDEX idx_access_logs_action_timestamp ON access_logs(action, timestamp);
+
+-- 3. Partition management functions
+CREATE OR REPLACE FUNCTION create_access_log_partition(partition_day DATE) RETURNS BOOLEAN AS $$
+DECLARE
+    partition_name TEXT := 'access_logs_' || to_char(partition_day, 'YYYYMMDD');
+BEGIN
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN false;
+    END IF;
+    EXECUTE format('CREATE TABLE %I PARTITION OF access_logs FOR VALUES FROM (%L) TO (%L)',
+                   partition_name, partition_day, partition_day + 1);
+    RETURN true;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION ensure_access_log_partitions(days_ahead INTEGER) RETURNS INTEGER AS $$
+DECLARE
+    created INTEGER := 0;
+    partition_day DATE;
+BEGIN
+    FOR partition_day IN SELECT generate_series(CURRENT_DATE, CURRENT_DATE + days_ahead, INTERVAL '1 day')::date LOOP
+        IF create_access_log_partition(partition_day) THEN
+            created := created + 1;
+        END IF;
+    END LOOP;
+    RETURN created;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION drop_access_log_partitions_before(cutoff DATE) RETURNS INTEGER AS $$
+DECLARE
+    dropped INTEGER := 0;
+    child_partition RECORD;
+BEGIN
+    FOR child_partition IN
+        SELECT child.relname
+        FROM pg_inherits
+        JOIN pg_class parent ON parent.oid = pg_inherits.inhparent
+        JOIN pg_class child ON child.oid = pg_inherits.inhrelid
+        WHERE parent.relname = 'access_logs'
+          AND child.relname ~ '^access_logs_[0-9]{8}$'
+          AND to_date(substring(child.relname FROM 13), 'YYYYMMDD') < cutoff
+    LOOP
+        EXECUTE format('DROP TABLE %I', child_partition.relname);
+        dropped := dropped + 1;
+    END LOOP;
+    RETURN dropped;
+END;
+$$ LANGUAGE plpgsql;
+
+-- 4. Copy the legacy rows into daily partitions
+SELECT create_access_log_partition(log_day::date)
+FROM (SELECT DISTINCT date_trunc('day', COALESCE(timestamp, CURRENT_TIMESTAMP)) AS log_day FROM access_logs_legacy) log_days;
+
+SELECT ensure_access_log_partitions(7);
+
+INSERT INTO access_logs (id, user_id, action, ip_address, user_agent, success, details, timestamp)
+SELECT id, user_id, action, ip_address, user_agent, success, details, COALESCE(timestamp, CURRENT_TIMESTAMP)
+FROM access_logs_legacy;
+
+DROP TABLE access_logs_legacy;
+
+-- 5. Hourly rollup
+CREATE TABLE IF NOT EXISTS access_log_hourly_counts (
+    bucket_hour TIMESTAMP NOT NULL,
+    action VARCHAR(100) NOT NULL,
+    success BOOLEAN NOT NULL,
+    count BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (bucket_hour, action, success)
+);
+
+CREATE INDEX IF NOT EXISTS idx_access_log_hourly_counts_action ON access_log_hourly_counts(action, bucket_hour);
+
+INSERT INTO access_log_hourly_counts (bucket_hour, action, success, count)
+SELECT date_trunc('hour', timestamp), action, success, COUNT(*)
+FROM access_logs
+GROUP BY 1, 2, 3;
@@ -0,0 +1,9 @@
+-- Migration V7: Refresh token families
+-- Description: every session is one refresh-token family. The family id travels in the "sid" claim so that
+-- a rotated (already used) refresh token can be traced back to its session and the whole family revoked.
+
+ALTER TABLE user_sessions ADD COLUMN family_id UUID;
+UPDATE user_sessions SET family_id = id WHERE family_id IS NULL;
+ALTER TABLE user_sessions ALTER COLUMN family_id SET NOT NULL;
+
+CREATE UNIQUE INDEX IF NOT EXISTS idx_user_sessions_family_id ON user_sessions(family_id);
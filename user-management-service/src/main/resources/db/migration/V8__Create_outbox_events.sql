@@ -0,0 +1,20 @@
+-- Migration V8: Transactional outbox for user events
+-- Description: user mutations write their event here in the same transaction; OutboxRelay publishes pending rows
+-- to Kafka in id order (FOR UPDATE SKIP LOCKED, so several replicas can relay concurrently) and marks them published.
+-- Published rows are removed by the maintenance purge after the retention period.
+
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id BIGSERIAL PRIMARY KEY,
+    topic VARCHAR(255) NOT NULL,
+    aggregate_id UUID NOT NULL,
+    event_type VARCHAR(100) NOT NULL,
+    payload TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    published_at TIMESTAMP
+);
+
+-- Pending rows only: the relay's batch query and the lag probe never touch published history
+CREATE INDEX IF NOT EXISTS idx_outbox_events_pending ON outbox_events(id) WHERE published_at IS NULL;
+
+-- Purge of published rows, oldest first
+CREATE INDEX IF NOT EXISTS idx_outbox_events_published_at ON outbox_events(published_at, id) WHERE published_at IS NOT NULL;
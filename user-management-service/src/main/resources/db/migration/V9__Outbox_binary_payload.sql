@@ -0,0 +1,6 @@
+-- Migration V9: Store outbox payloads as bytes
+-- Description: events are now encoded by the shared event codec, either as the previous JSON or as the compact
+-- binary format. Existing rows hold JSON text; converting them to UTF-8 bytes keeps them readable by consumers,
+-- which detect the format from the first byte.
+
+ALTER TABLE outbox_events ALTER COLUMN payload TYPE BYTEA USING convert_to(payload, 'UTF8');
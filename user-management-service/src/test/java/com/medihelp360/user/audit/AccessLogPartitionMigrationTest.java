@@ -0,0 +1,112 @@
+package com.medihelp360.user.audit;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Migración V6 sobre PostgreSQL 15 real: el perfil de test usa H2 sin Flyway, así que el particionado, las
+ * funciones plpgsql y el rollup horario solo se ejercitan aquí. Parte de una base en V5 con filas de auditoría,
+ * la lleva a V6 y después al resto de migraciones. Necesita Docker; sin él el test se salta.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class AccessLogPartitionMigrationTest {
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    @Container
+    private final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+                postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword()));
+    }
+
+    @Test
+    void v6MovesExistingLogsIntoDailyPartitionsAndBackfillsTheRollup() {
+        migrateTo("5");
+        UUID userId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO users (id, email, name, password_hash) VALUES (?, ?, 'Legacy', 'x')",
+                userId, "legacy-audit@medihelp360.com");
+        LocalDateTime threeDaysAgo = LocalDate.now().minusDays(3).atTime(10, 15);
+        LocalDateTime yesterday = LocalDate.now().minusDays(1).atTime(22, 5);
+        insertLegacyLog(userId, "LOGIN_SUCCESS", true, threeDaysAgo);
+        insertLegacyLog(userId, "LOGIN_SUCCESS", true, threeDaysAgo.plusMinutes(30));
+        insertLegacyLog(null, "LOGIN_FAILED", false, yesterday);
+        // Las filas anteriores a V6 podían no tener timestamp
+        insertLegacyLog(userId, "LOGOUT", true, null);
+
+        migrateTo("6");
+
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT relkind::text FROM pg_class WHERE relname = 'access_logs'", String.class)).isEqualTo("p");
+        assertThat(legacyRows()).isEqualTo(4);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM access_logs_default", Long.class)).isZero();
+        assertThat(partitionExists(threeDaysAgo.toLocalDate())).isTrue();
+        assertThat(partitionExists(LocalDate.now().plusDays(7))).isTrue();
+        assertThat(rollupCount(threeDaysAgo.withMinute(0), "LOGIN_SUCCESS", true)).isEqualTo(2);
+        assertThat(rollupCount(yesterday.withMinute(0), "LOGIN_FAILED", false)).isEqualTo(1);
+
+        // Lo que hacen AccessLogWriter y AccessLogPartitionJob contra el esquema migrado
+        Timestamp bucket = Timestamp.valueOf(threeDaysAgo.withMinute(0));
+        jdbcTemplate.update(AccessLogWriter.ROLLUP_UPSERT_SQL, bucket, "LOGIN_SUCCESS", true, 3L);
+        assertThat(rollupCount(threeDaysAgo.withMinute(0), "LOGIN_SUCCESS", true)).isEqualTo(5);
+        assertThat(jdbcTemplate.queryForObject("SELECT ensure_access_log_partitions(7)", Integer.class)).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT drop_access_log_partitions_before(?)", Integer.class,
+                LocalDate.now().minusDays(2))).isEqualTo(1);
+        assertThat(partitionExists(threeDaysAgo.toLocalDate())).isFalse();
+        assertThat(legacyRows()).isEqualTo(2);
+
+        migrateTo(null);
+        assertThat(legacyRows()).isEqualTo(2);
+    }
+
+    private void migrateTo(String version) {
+        var configuration = Flyway.configure()
+                .dataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())
+                .locations("classpath:db/migration");
+        if (version != null) {
+            configuration.target(version);
+        }
+        configuration.load().migrate();
+    }
+
+    private void insertLegacyLog(UUID userId, String action, boolean success, LocalDateTime timestamp) {
+        jdbcTemplate.update("INSERT INTO access_logs (user_id, action, ip_address, user_agent, success, timestamp) "
+                        + "VALUES (?, ?, '10.0.8.8', 'AccessLogPartitionMigrationTest', ?, ?)",
+                userId, action, success, timestamp != null ? Timestamp.valueOf(timestamp) : null);
+    }
+
+    // V2 y V3 ya dejan sus propias filas de auditoría: solo se cuentan las de este test
+    private long legacyRows() {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM access_logs WHERE user_agent = 'AccessLogPartitionMigrationTest'", Long.class);
+    }
+
+    private boolean partitionExists(LocalDate day) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class,
+                "access_logs_" + day.format(PARTITION_SUFFIX)));
+    }
+
+    private long rollupCount(LocalDateTime bucketHour, String action, boolean success) {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(SUM(count), 0) FROM access_log_hourly_counts "
+                + "WHERE bucket_hour = ? AND action = ? AND success = ?", Long.class,
+                Timestamp.valueOf(bucketHour), action, success);
+    }
+}
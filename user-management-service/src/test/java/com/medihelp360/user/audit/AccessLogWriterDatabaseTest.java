@@ -0,0 +1,104 @@
+package com.medihelp360.user.audit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medihelp360.user.domain.User;
+import com.medihelp360.user.domain.UserStatus;
+import com.medihelp360.user.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Lotes de auditoría escritos contra el datasource real del perfil de test (H2, esquema generado desde las
+ * entidades, sin los defaults ni la tabla de contadores de PostgreSQL).
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class AccessLogWriterDatabaseTest {
+
+    private static final String EMAIL = "audit-writer@medihelp360.com";
+
+    @TempDir
+    Path tempDir;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private AccessLogWriter writer;
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() {
+        userId = userRepository.save(User.builder()
+                .email(EMAIL)
+                .name("Audit Writer")
+                .passwordHash("not-a-real-hash")
+                .status(UserStatus.ACTIVE)
+                .build()).getId();
+        writer = new AccessLogWriter(jdbcTemplate, transactionManager, objectMapper, meterRegistry,
+                100, 50, 10, AuditOverflowPolicy.SPILL, 10, tempDir.resolve("spill.ndjson").toString(), false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM access_logs WHERE user_id = ? OR user_agent = 'AccessLogWriterDatabaseTest'",
+                userId);
+        jdbcTemplate.update("DELETE FROM users WHERE email = ?", EMAIL);
+    }
+
+    @Test
+    void flushInsertsEntriesWithGeneratedIds() {
+        AccessLogEntry login = entry(userId, "LOGIN_SUCCESS", true, null);
+        AccessLogEntry failed = entry(null, "LOGIN_FAILED", false, "{\"reason\":\"INVALID_PASSWORD\"}");
+
+        writer.flush(List.of(login, failed));
+
+        assertThat(jdbcTemplate.queryForList("SELECT id FROM access_logs WHERE id IN (?, ?)", UUID.class,
+                login.id(), failed.id())).containsExactlyInAnyOrder(login.id(), failed.id());
+        assertThat(meterRegistry.get("audit.entries").tag("outcome", "written").counter().count()).isEqualTo(2.0);
+        assertThat(meterRegistry.get("audit.flush.failures").counter().count()).isZero();
+    }
+
+    @Test
+    void entryForAMissingUserIsDiscardedWithoutLosingTheBatch() {
+        AccessLogEntry before = entry(userId, "LOGIN_SUCCESS", true, null);
+        AccessLogEntry orphan = entry(UUID.randomUUID(), "LOGOUT", true, null);
+        AccessLogEntry after = entry(userId, "LOGOUT", true, null);
+
+        writer.flush(List.of(before, orphan, after));
+
+        assertThat(jdbcTemplate.queryForList("SELECT id FROM access_logs WHERE id IN (?, ?, ?)", UUID.class,
+                before.id(), orphan.id(), after.id())).containsExactlyInAnyOrder(before.id(), after.id());
+        assertThat(meterRegistry.get("audit.entries").tag("outcome", "rejected").counter().count()).isEqualTo(1.0);
+        assertThat(tempDir.resolve("spill.ndjson")).doesNotExist();
+    }
+
+    private static AccessLogEntry entry(UUID userId, String action, boolean success, String details) {
+        return new AccessLogEntry(userId, action, "10.0.0.1", "AccessLogWriterDatabaseTest", success, details,
+                LocalDateTime.now());
+    }
+}
@@ -0,0 +1,194 @@
+package com.medihelp360.user.audit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class AccessLogWriterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final List<AccessLogEntry> written = new CopyOnWriteArrayList<>();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private AccessLogWriter writer;
+
+    @AfterEach
+    void tearDown() {
+        if (writer != null && writer.isRunning()) {
+            writer.stop();
+        }
+    }
+
+    @Test
+    void flushesEntriesInBatchesOffTheCallerThread() throws Exception {
+        recordBatches();
+        writer = writer(1_000, AuditOverflowPolicy.DROP);
+        writer.start();
+
+        for (int i = 0; i < 250; i++) {
+            writer.enqueue(entry("LOGIN_SUCCESS"));
+        }
+
+        // El contador se incrementa cuando vuelve el lote, un poco después de que el mock lo haya guardado
+        long deadline = System.currentTimeMillis() + 5_000;
+        while ((written.size() < 250 || writtenCount() < 250) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(written).hasSize(250);
+        assertThat(writtenCount()).isEqualTo(250.0);
+    }
+
+    @Test
+    void dropsAndCountsEntriesWhenBufferIsFull() {
+        recordBatches();
+        writer = writer(2, AuditOverflowPolicy.DROP);
+
+        writer.enqueue(entry("A"));
+        writer.enqueue(entry("B"));
+        writer.enqueue(entry("C"));
+
+        assertThat(writer.getQueueDepth()).isEqualTo(2);
+        assertThat(meterRegistry.get("audit.entries").tag("outcome", "dropped").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void spillsOverflowToFileAndReplaysItOnStart() throws Exception {
+        recordBatches();
+        writer = writer(1, AuditOverflowPolicy.SPILL);
+
+        writer.enqueue(entry("KEPT"));
+        writer.enqueue(entry("SPILLED"));
+
+        Path spillFile = tempDir.resolve("spill.ndjson");
+        assertThat(Files.readAllLines(spillFile)).hasSize(1);
+
+        writer.start();
+        writer.stop();
+
+        assertThat(written).extracting(AccessLogEntry::action).containsExactlyInAnyOrder("SPILLED", "KEPT");
+        assertThat(spillFile).doesNotExist();
+    }
+
+    @Test
+    void flushesPendingEntriesOnShutdown() {
+        recordBatches();
+        writer = writer(100, AuditOverflowPolicy.DROP);
+
+        writer.enqueue(entry("LOGOUT"));
+        writer.enqueue(entry("LOGOUT"));
+        writer.stop();
+
+        assertThat(written).hasSize(2);
+        assertThat(writer.getQueueDepth()).isZero();
+    }
+
+    @Test
+    void rejectedRowDoesNotTakeTheRestOfTheBatchWithIt() throws Exception {
+        recordBatchesRejecting("POISON");
+        writer = writer(100, AuditOverflowPolicy.SPILL);
+
+        writer.flush(List.of(entry("LOGIN_SUCCESS"), entry("POISON"), entry("LOGOUT")));
+
+        assertThat(written).extracting(AccessLogEntry::action).containsExactly("LOGIN_SUCCESS", "LOGOUT");
+        assertThat(writtenCount()).isEqualTo(2.0);
+        assertThat(meterRegistry.get("audit.entries").tag("outcome", "rejected").counter().count()).isEqualTo(1.0);
+        // La entrada rechazada no va al spill: fallaría otra vez en cada arranque
+        assertThat(tempDir.resolve("spill.ndjson")).doesNotExist();
+    }
+
+    @Test
+    void spillsTheBatchWhenTheDatabaseIsUnavailable() throws Exception {
+        doAnswer(invocation -> {
+            throw new DataAccessResourceFailureException("Connection refused");
+        }).when(jdbcTemplate).batchUpdate(eq(AccessLogWriter.INSERT_SQL), any(Collection.class), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+        writer = writer(100, AuditOverflowPolicy.SPILL);
+
+        writer.flush(List.of(entry("LOGIN_SUCCESS"), entry("LOGOUT")));
+
+        assertThat(Files.readAllLines(tempDir.resolve("spill.ndjson"))).hasSize(2);
+        assertThat(meterRegistry.get("audit.entries").tag("outcome", "rejected").counter().count()).isZero();
+    }
+
+    @Test
+    void aggregatesHourlyCountsPerActionAndOutcome() {
+        LocalDateTime hour = LocalDateTime.of(2024, 3, 1, 10, 0);
+        List<AccessLogEntry> batch = List.of(
+                entry("LOGIN_SUCCESS", true, hour.plusMinutes(1)),
+                entry("LOGIN_SUCCESS", true, hour.plusMinutes(59)),
+                entry("LOGIN_FAILED", false, hour.plusMinutes(5)),
+                entry("LOGIN_SUCCESS", true, hour.plusHours(1)));
+
+        List<AccessLogWriter.HourlyCount> counts = AccessLogWriter.rollup(batch);
+
+        assertThat(counts).containsExactly(
+                new AccessLogWriter.HourlyCount(new AccessLogWriter.HourlyCount.Key(hour, "LOGIN_SUCCESS", true), 2),
+                new AccessLogWriter.HourlyCount(new AccessLogWriter.HourlyCount.Key(hour, "LOGIN_FAILED", false), 1),
+                new AccessLogWriter.HourlyCount(new AccessLogWriter.HourlyCount.Key(hour.plusHours(1), "LOGIN_SUCCESS", true), 1));
+    }
+
+    private double writtenCount() {
+        return meterRegistry.get("audit.entries").tag("outcome", "written").counter().count();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void recordBatches() {
+        doAnswer(invocation -> {
+            written.addAll((Collection<AccessLogEntry>) invocation.getArgument(1));
+            return new int[0][0];
+        }).when(jdbcTemplate).batchUpdate(eq(AccessLogWriter.INSERT_SQL), any(Collection.class), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void recordBatchesRejecting(String action) {
+        doAnswer(invocation -> {
+            Collection<AccessLogEntry> batch = invocation.getArgument(1);
+            if (batch.stream().anyMatch(entry -> action.equals(entry.action()))) {
+                throw new DataIntegrityViolationException("Referential integrity constraint violation");
+            }
+            written.addAll(batch);
+            return new int[0][0];
+        }).when(jdbcTemplate).batchUpdate(eq(AccessLogWriter.INSERT_SQL), any(Collection.class), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    private AccessLogWriter writer(int capacity, AuditOverflowPolicy policy) {
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        return new AccessLogWriter(jdbcTemplate, transactionManager, objectMapper, meterRegistry, capacity, 50, 10, policy, 10,
+                tempDir.resolve("spill.ndjson").toString(), true);
+    }
+
+    private static AccessLogEntry entry(String action) {
+        return entry(action, true, LocalDateTime.now());
+    }
+
+    private static AccessLogEntry entry(String action, boolean success, LocalDateTime timestamp) {
+        return new AccessLogEntry(UUID.randomUUID(), action, "127.0.0.1", "JUnit", success, null, timestamp);
+    }
+}
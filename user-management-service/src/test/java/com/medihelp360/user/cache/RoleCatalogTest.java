@@ -0,0 +1,255 @@
+package com.medihelp360.user.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medihelp360.user.domain.Role;
+import com.medihelp360.user.dto.CreateRoleRequest;
+import com.medihelp360.user.dto.CreateUserRequest;
+import com.medihelp360.user.dto.RegisterRequest;
+import com.medihelp360.user.dto.RegisterResponse;
+import com.medihelp360.user.dto.UpdateUserRequest;
+import com.medihelp360.user.dto.UserResponse;
+import com.medihelp360.user.event.RoleCatalogChangedEvent;
+import com.medihelp360.user.repository.RoleRepository;
+import com.medihelp360.user.service.AuthenticationService;
+import com.medihelp360.user.service.RoleService;
+import com.medihelp360.user.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Las lecturas de roles de registro, alta y edición de usuarios salen del catálogo en memoria, las altas y
+ * bajas de roles lo sustituyen sin recargarlo, y un aviso de otra réplica por {@code role-events} lo recarga.
+ * El catálogo del contexto recarga en cada fallo ({@code miss-reload-interval-ms=0}) para que el orden de los
+ * tests no importe; el límite de recargas por fallo se prueba con un catálogo propio.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "app.roles.catalog.miss-reload-interval-ms=0"
+})
+@ActiveProfiles("test")
+class RoleCatalogTest {
+
+    private static final String DOMAIN = "@roles.medihelp360.com";
+
+    @Autowired
+    private RoleCatalog roleCatalog;
+
+    @Autowired
+    private RoleService roleService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private AuthenticationService authenticationService;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void setUp() {
+        roleRepository.findByName("USER").orElseGet(() -> roleRepository.save(new Role(null, "USER", "User")));
+        roleRepository.findByName("DOCTOR").orElseGet(() -> roleRepository.save(new Role(null, "DOCTOR", "Doctor")));
+        roleRepository.findByName("NURSE").orElseGet(() -> roleRepository.save(new Role(null, "NURSE", "Nurse")));
+        roleCatalog.reload("test");
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        // El registro audita en segundo plano; su fila de access_logs tiene que estar escrita antes de borrar
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (auditPending() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        String created = "SELECT id FROM users WHERE email LIKE '%" + DOMAIN + "'";
+        jdbcTemplate.update("DELETE FROM access_logs WHERE user_id IN (" + created + ")");
+        jdbcTemplate.update("DELETE FROM user_sessions WHERE user_id IN (" + created + ")");
+        jdbcTemplate.update("DELETE FROM outbox_events WHERE aggregate_id IN (" + created + ")");
+        jdbcTemplate.update("DELETE FROM user_roles WHERE user_id IN (" + created + ")");
+        jdbcTemplate.update("DELETE FROM users WHERE email LIKE '%" + DOMAIN + "'");
+        jdbcTemplate.update("DELETE FROM roles WHERE name IN ('AUDITOR', 'PHARMACIST')");
+        roleCatalog.reload("test");
+    }
+
+    @Test
+    void userWritesResolveRolesWithoutTouchingTheDatabase() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        double reloads = reloads();
+
+        RegisterResponse registered = authenticationService.register(RegisterRequest.builder()
+                .email("register" + DOMAIN)
+                .name("Registered User")
+                .password("Password123!")
+                .confirmPassword("Password123!")
+                .ipAddress("10.0.0.1")
+                .deviceInfo("RoleCatalogTest")
+                .build());
+        UserResponse created = userService.createUser(createRequest("created", "doctor"));
+
+        assertThat(statistics.getEntityStatistics(Role.class.getName()).getLoadCount()).isZero();
+
+        UserResponse updated = userService.updateUser(created.getId(),
+                UpdateUserRequest.builder().roles(Set.of(role("NURSE"), role("DOCTOR"))).build());
+
+        assertThat(reloads()).isEqualTo(reloads);
+        assertThat(registered.getRoles()).containsExactly("USER");
+        assertThat(created.getRoles()).extracting(Role::getName).containsExactly("DOCTOR");
+        assertThat(updated.getRoles()).extracting(Role::getName).containsExactlyInAnyOrder("DOCTOR", "NURSE");
+        assertThat(jdbcTemplate.queryForList("SELECT r.name FROM user_roles ur JOIN roles r ON r.id = ur.role_id "
+                + "WHERE ur.user_id = ?", String.class, created.getId())).containsExactlyInAnyOrder("DOCTOR", "NURSE");
+    }
+
+    @Test
+    void createAndDeleteRoleSwapTheCatalogWithoutReloadingIt() {
+        double reloads = reloads();
+
+        Role auditor = roleService.createRole(new CreateRoleRequest("auditor", "Auditor"));
+        Role cached = roleService.getRoleByName("Auditor");
+        cached.setName("CHANGED");
+
+        assertThat(roleService.getRoleById(auditor.getId()).getName()).isEqualTo("AUDITOR");
+        assertThat(roleService.getAllRoles()).extracting(Role::getName).contains("AUDITOR", "DOCTOR", "USER");
+
+        roleService.deleteRole(auditor.getId());
+
+        assertThat(roleService.getAllRoles()).extracting(Role::getName).doesNotContain("AUDITOR");
+        assertThat(reloads()).isEqualTo(reloads);
+    }
+
+    @Test
+    void rolesCreatedElsewhereAreFoundOnFirstLookup() {
+        insertRoleDirectly("PHARMACIST");
+
+        assertThat(roleService.getAllRoles()).extracting(Role::getName).doesNotContain("PHARMACIST");
+        assertThat(roleService.getRolesByNames(Set.of("doctor", "pharmacist")))
+                .extracting(Role::getName).containsExactlyInAnyOrder("DOCTOR", "PHARMACIST");
+    }
+
+    @Test
+    void missesReloadAtMostOncePerInterval() {
+        RoleRepository repository = mock(RoleRepository.class);
+        when(repository.findAll()).thenReturn(List.of(new Role(UUID.randomUUID(), "DOCTOR", "Doctor")));
+        RoleCatalog catalog = new RoleCatalog(repository, new SimpleMeterRegistry(), 60_000);
+
+        assertThat(catalog.findByName("doctor")).isPresent();
+        verify(repository, times(1)).findAll();
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(catalog.findByName("no-such-role-" + i)).isEmpty();
+            assertThat(catalog.findById(UUID.randomUUID())).isEmpty();
+            assertThat(catalog.findByNames(Set.of("doctor", "no-such-role"))).extracting(Role::getName)
+                    .containsExactly("DOCTOR");
+        }
+
+        // La carga inicial y una sola recarga por el primer fallo
+        verify(repository, times(2)).findAll();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void roleEventsFromOtherReplicasReloadTheCatalog() throws Exception {
+        KafkaTemplate<String, byte[]> kafkaTemplate = mock(KafkaTemplate.class);
+        when(kafkaTemplate.send(anyString(), anyString(), any(byte[].class)))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        RoleCatalogEvents events = new RoleCatalogEvents(kafkaTemplate, objectMapper, roleCatalog, meterRegistry,
+                "role-events", "user-management-service");
+
+        // Lo que envía esta réplica lleva su id y ella misma lo ignora
+        Role auditor = new Role(UUID.randomUUID(), "AUDITOR", "Auditor");
+        events.onRoleCatalogChanged(RoleCatalogChangedEvent.created(auditor));
+        ArgumentCaptor<byte[]> sent = ArgumentCaptor.forClass(byte[].class);
+        verify(kafkaTemplate).send(eq("role-events"), eq(auditor.getId().toString()), sent.capture());
+        RoleCatalogChangedEvent message = objectMapper.readValue(sent.getValue(), RoleCatalogChangedEvent.class);
+        assertThat(message.getSourceInstance()).isEqualTo(events.getInstanceId());
+        assertThat(message.getRoleName()).isEqualTo("AUDITOR");
+
+        double remoteReloads = reloads("remote");
+        events.onRoleEvent(sent.getValue());
+        assertThat(reloads("remote")).isEqualTo(remoteReloads);
+
+        // Otra réplica crea un rol: su aviso basta para verlo
+        UUID pharmacistId = insertRoleDirectly("PHARMACIST");
+        assertThat(roleService.getAllRoles()).extracting(Role::getName).doesNotContain("PHARMACIST");
+
+        events.onRoleEvent(objectMapper.writeValueAsBytes(RoleCatalogChangedEvent
+                .created(new Role(pharmacistId, "PHARMACIST", null)).withSourceInstance("other-replica")));
+
+        assertThat(reloads("remote")).isEqualTo(remoteReloads + 1);
+        assertThat(roleService.getAllRoles()).extracting(Role::getName).contains("PHARMACIST");
+    }
+
+    private UUID insertRoleDirectly(String name) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO roles (id, name, description) VALUES (?, ?, ?)", id, name, name);
+        return id;
+    }
+
+    private boolean auditPending() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users u WHERE u.email = 'register" + DOMAIN + "' "
+                + "AND NOT EXISTS (SELECT 1 FROM access_logs a WHERE a.user_id = u.id)", Long.class) > 0;
+    }
+
+    private double reloads() {
+        return meterRegistry.find("roles.catalog.reloads").counters().stream()
+                .mapToDouble(counter -> counter.count())
+                .sum();
+    }
+
+    private double reloads(String reason) {
+        return meterRegistry.find("roles.catalog.reloads").tag("reason", reason).counters().stream()
+                .mapToDouble(counter -> counter.count())
+                .sum();
+    }
+
+    private static CreateUserRequest createRequest(String localPart, String roleName) {
+        CreateUserRequest request = new CreateUserRequest();
+        request.setName("Roles " + localPart);
+        request.setEmail(localPart + DOMAIN);
+        request.setPassword("Password123!");
+        request.setRoles(Set.of(role(roleName)));
+        return request;
+    }
+
+    private static Role role(String name) {
+        return new Role(null, name, null);
+    }
+}
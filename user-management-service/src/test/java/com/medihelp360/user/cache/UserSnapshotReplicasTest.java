@@ -0,0 +1,168 @@
+package com.medihelp360.user.cache;
+
+import com.medihelp360.user.dto.CreateUserRequest;
+import com.medihelp360.user.dto.UpdateUserRequest;
+import com.medihelp360.user.outbox.OutboxRelay;
+import com.medihelp360.user.repository.UserRepository;
+import com.medihelp360.user.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+/**
+ * Varias réplicas con su propio {@link UserSnapshotCache} sobre la misma base de datos. La réplica del contexto
+ * hace los cambios; las demás los ven en cuanto el relay publica el evento en {@code user-events}, que aquí se
+ * entrega a todas a mano, y como tarde al cumplirse {@code app.cache.user-snapshot.ttl} si el evento no llega.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class UserSnapshotReplicasTest {
+
+    private static final String DOMAIN = "@replicas.medihelp360.com";
+    private static final String TOPIC = "user-events";
+    private static final Duration REPLICA_TTL = Duration.ofSeconds(1);
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserSnapshotCache localCache;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockBean
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
+
+    private final List<UserSnapshotEvents> subscribers = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("UPDATE outbox_events SET published_at = CURRENT_TIMESTAMP WHERE published_at IS NULL");
+        // El broker: cada mensaje de user-events llega a todas las réplicas suscritas
+        when(kafkaTemplate.send(eq(TOPIC), anyString(), any(byte[].class))).thenAnswer(invocation -> {
+            byte[] payload = invocation.getArgument(2);
+            subscribers.forEach(subscriber -> subscriber.onUserEvent(payload));
+            return CompletableFuture.completedFuture(null);
+        });
+        subscribers.add(new UserSnapshotEvents(localCache, meterRegistry, TOPIC, "replica-a"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        String created = "SELECT id FROM users WHERE email LIKE '%" + DOMAIN + "'";
+        jdbcTemplate.update("DELETE FROM outbox_events WHERE aggregate_id IN (" + created + ")");
+        jdbcTemplate.update("DELETE FROM user_roles WHERE user_id IN (" + created + ")");
+        jdbcTemplate.update("DELETE FROM users WHERE email LIKE '%" + DOMAIN + "'");
+    }
+
+    @Test
+    void updateIsVisibleOnEveryReplicaOnceTheEventIsRelayed() {
+        SimpleMeterRegistry replicaMetrics = new SimpleMeterRegistry();
+        List<UserSnapshotCache> replicas = List.of(replica("replica-b", replicaMetrics), replica("replica-c", replicaMetrics));
+        UUID userId = createUser("relayed");
+        outboxRelay.relayPending();
+
+        assertThat(name(localCache, userId)).isEqualTo("Before");
+        replicas.forEach(replica -> assertThat(name(replica, userId)).isEqualTo("Before"));
+
+        userService.updateUser(userId, UpdateUserRequest.builder().name("After").build());
+
+        // La réplica que hizo el cambio lo ve al momento; las demás siguen sirviendo su snapshot
+        assertThat(userService.getUserById(userId).getName()).isEqualTo("After");
+        replicas.forEach(replica -> assertThat(name(replica, userId)).isEqualTo("Before"));
+
+        double invalidationsBefore = meterRegistry.get("user.snapshot.cache.invalidations").counter().count();
+        assertThat(outboxRelay.relayPending()).isEqualTo(1);
+
+        replicas.forEach(replica -> assertThat(name(replica, userId)).isEqualTo("After"));
+        assertThat(replicaMetrics.get("user.snapshot.cache.staleness").timer().count()).isEqualTo(2);
+        // Su propio eco también descarta el snapshot que ya recargó; la siguiente lectura lo vuelve a cargar
+        assertThat(meterRegistry.get("user.snapshot.cache.invalidations").counter().count())
+                .isEqualTo(invalidationsBefore + 1);
+        assertThat(name(localCache, userId)).isEqualTo("After");
+    }
+
+    @Test
+    void eventOlderThanTheSnapshotStillInvalidatesIt() {
+        UserSnapshotCache replica = new UserSnapshotCache(userRepository, new SimpleMeterRegistry(), 100, REPLICA_TTL);
+        UUID userId = createUser("skewed");
+        // updated_at por delante del reloj de quien publica el evento (desfase, o un login que lo movió)
+        jdbcTemplate.update("UPDATE users SET updated_at = ? WHERE id = ?", LocalDateTime.now().plusMinutes(5), userId);
+        assertThat(name(replica, userId)).isEqualTo("Before");
+
+        jdbcTemplate.update("UPDATE users SET name = 'After' WHERE id = ?", userId);
+        replica.invalidate(userId, LocalDateTime.now());
+
+        assertThat(name(replica, userId)).isEqualTo("After");
+    }
+
+    @Test
+    void replicaThatMissesTheEventCatchesUpWithinTheTtl() throws InterruptedException {
+        UserSnapshotCache replica = new UserSnapshotCache(userRepository, new SimpleMeterRegistry(), 100, REPLICA_TTL);
+        UUID userId = createUser("missed");
+
+        assertThat(name(replica, userId)).isEqualTo("Before");
+        long committedAt = System.nanoTime();
+        userService.updateUser(userId, UpdateUserRequest.builder().name("After").build());
+
+        assertThat(name(replica, userId)).isEqualTo("Before");
+        // Solo puede leer el dato antiguo si la lectura empieza antes de cumplirse el TTL
+        while (true) {
+            long readAt = System.nanoTime();
+            if ("After".equals(name(replica, userId))) {
+                break;
+            }
+            assertThat(Duration.ofNanos(readAt - committedAt)).isLessThanOrEqualTo(REPLICA_TTL);
+            Thread.sleep(20);
+        }
+    }
+
+    private UserSnapshotCache replica(String name, MeterRegistry replicaMetrics) {
+        UserSnapshotCache replica = new UserSnapshotCache(userRepository, replicaMetrics, 100, REPLICA_TTL);
+        subscribers.add(new UserSnapshotEvents(replica, replicaMetrics, TOPIC, name));
+        return replica;
+    }
+
+    private UUID createUser(String localPart) {
+        CreateUserRequest request = new CreateUserRequest();
+        request.setName("Before");
+        request.setEmail(localPart + DOMAIN);
+        request.setPassword("Password123!");
+        return userService.createUser(request).getId();
+    }
+
+    private static String name(UserSnapshotCache cache, UUID userId) {
+        return cache.get(userId).orElseThrow().name();
+    }
+}
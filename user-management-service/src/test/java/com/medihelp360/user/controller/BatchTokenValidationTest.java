@@ -0,0 +1,218 @@
+package com.medihelp360.user.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medihelp360.user.domain.Role;
+import com.medihelp360.user.domain.User;
+import com.medihelp360.user.domain.UserStatus;
+import com.medihelp360.user.dto.LoginRequest;
+import com.medihelp360.user.repository.RoleRepository;
+import com.medihelp360.user.repository.UserRepository;
+import com.medihelp360.user.repository.UserSessionRepository;
+import com.medihelp360.user.security.PasswordHashingService;
+import com.medihelp360.user.service.AuthenticationService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * /auth/validate/batch: validez por token con una sola consulta de sesiones, solo para cuentas de servicio o
+ * administradores, y comparación de tokens/s frente a /auth/validate (benchmark opcional con
+ * {@code -Dloadtest=true}).
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "app.jwt.validation.batch.max-tokens=1000"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class BatchTokenValidationTest {
+
+    private static final String EMAIL = "batch@medihelp360.com";
+    private static final String SERVICE_EMAIL = "batch-service@medihelp360.com";
+    private static final String PASSWORD = "Batch123!";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private AuthenticationService authenticationService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private UserSessionRepository userSessionRepository;
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private String serviceToken;
+
+    @BeforeEach
+    void setUp() {
+        Role service = roleRepository.findByName("SERVICE")
+                .orElseGet(() -> roleRepository.save(new Role(null, "SERVICE", "Service account")));
+        userRepository.save(User.builder()
+                .email(EMAIL)
+                .name("Batch User")
+                .passwordHash(passwordHashingService.encode(PASSWORD))
+                .status(UserStatus.ACTIVE)
+                .build());
+        userRepository.save(User.builder()
+                .email(SERVICE_EMAIL)
+                .name("Batch Service")
+                .passwordHash(passwordHashingService.encode(PASSWORD))
+                .status(UserStatus.ACTIVE)
+                .roles(Set.of(service))
+                .build());
+        serviceToken = login(SERVICE_EMAIL);
+    }
+
+    @AfterEach
+    void tearDown() {
+        userSessionRepository.deleteAll();
+        userRepository.findByEmail(EMAIL).ifPresent(userRepository::delete);
+        userRepository.findByEmail(SERVICE_EMAIL).ifPresent(userRepository::delete);
+    }
+
+    @Test
+    void returnsValidityPerTokenWithASingleSessionQuery() throws Exception {
+        String active = login();
+        String loggedOut = login();
+        authenticationService.logout(loggedOut, "10.0.0.1", "BatchTokenValidationTest");
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        Map<String, Boolean> results = validateBatch(List.of(active, loggedOut, "not-a-jwt", active));
+
+        assertThat(results).containsExactly(
+                Map.entry(active, true),
+                Map.entry(loggedOut, false),
+                Map.entry("not-a-jwt", false));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void requiresAServiceOrAdminCaller() throws Exception {
+        String body = objectMapper.writeValueAsString(Map.of("tokens", List.of("not-a-jwt")));
+
+        mockMvc.perform(post("/auth/validate/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(post("/auth/validate/batch")
+                        .header("Authorization", "Bearer " + login())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void rejectsBatchesAboveTheLimit() throws Exception {
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i <= 1000; i++) {
+            tokens.add("token-" + i);
+        }
+
+        mockMvc.perform(post("/auth/validate/batch")
+                        .header("Authorization", "Bearer " + serviceToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("tokens", tokens))))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "loadtest", matches = "true")
+    void batchEndpointOutperformsSingleTokenEndpoint() throws Exception {
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            tokens.add(login());
+        }
+        // Calentamiento de ambos caminos (el cache de claims queda caliente para los dos por igual)
+        for (String token : tokens) {
+            validateSingle(token);
+        }
+        validateBatch(tokens);
+
+        int rounds = 5;
+        long singleStart = System.nanoTime();
+        for (int round = 0; round < rounds; round++) {
+            for (String token : tokens) {
+                assertThat(validateSingle(token)).isTrue();
+            }
+        }
+        double singleSeconds = (System.nanoTime() - singleStart) / 1_000_000_000.0;
+
+        long batchStart = System.nanoTime();
+        for (int round = 0; round < rounds; round++) {
+            assertThat(validateBatch(tokens).values()).containsOnly(true);
+        }
+        double batchSeconds = (System.nanoTime() - batchStart) / 1_000_000_000.0;
+
+        double singleRate = rounds * tokens.size() / singleSeconds;
+        double batchRate = rounds * tokens.size() / batchSeconds;
+        assertThat(batchRate).as("/auth/validate/batch tokens/s vs /auth/validate %.0f tokens/s", singleRate)
+                .isGreaterThan(singleRate);
+    }
+
+    private String login() {
+        return login(EMAIL);
+    }
+
+    private String login(String email) {
+        return authenticationService.login(LoginRequest.builder()
+                .email(email)
+                .password(PASSWORD)
+                .ipAddress("10.0.0.1")
+                .deviceInfo("BatchTokenValidationTest")
+                .build()).getAccessToken();
+    }
+
+    private boolean validateSingle(String token) throws Exception {
+        String body = mockMvc.perform(post("/auth/validate").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return Boolean.parseBoolean(body);
+    }
+
+    private Map<String, Boolean> validateBatch(List<String> tokens) throws Exception {
+        String body = mockMvc.perform(post("/auth/validate/batch")
+                        .header("Authorization", "Bearer " + serviceToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("tokens", tokens))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(body, new TypeReference<LinkedHashMap<String, Boolean>>() {});
+    }
+}
@@ -0,0 +1,97 @@
+package com.medihelp360.user.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medihelp360.user.dto.LoginRequest;
+import com.medihelp360.user.security.LoginAttemptLimiter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import javax.sql.DataSource;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Un intento de login bloqueado por {@link LoginAttemptLimiter} se rechaza antes de abrir la transacción:
+ * el hilo de la petición no pide ninguna conexión al pool. Los hilos de fondo (relay del outbox, flusher de
+ * auditoría) sí usan el pool, por eso se mira qué hilo llama a {@code getConnection()}.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class BlockedLoginConnectionTest {
+
+    private static final String IP = "10.0.4.4";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private LoginAttemptLimiter loginAttemptLimiter;
+
+    @SpyBean
+    private DataSource dataSource;
+
+    private final Set<Thread> connectionCallers = ConcurrentHashMap.newKeySet();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        doAnswer(invocation -> {
+            connectionCallers.add(Thread.currentThread());
+            return invocation.callRealMethod();
+        }).when(dataSource).getConnection();
+    }
+
+    @Test
+    void blockedAttemptIsRejectedWithoutAConnection() throws Exception {
+        String email = "blocked@medihelp360.com";
+        for (int i = 0; i < 5; i++) {
+            loginAttemptLimiter.recordFailure(IP, email);
+        }
+        connectionCallers.clear();
+
+        login(email)
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+
+        assertThat(connectionCallers).doesNotContain(Thread.currentThread());
+    }
+
+    @Test
+    void attemptThatIsNotBlockedReachesTheDatabase() throws Exception {
+        connectionCallers.clear();
+
+        login("not-blocked@medihelp360.com");
+
+        assertThat(connectionCallers).contains(Thread.currentThread());
+    }
+
+    private ResultActions login(String email) throws Exception {
+        LoginRequest request = LoginRequest.builder()
+                .email(email)
+                .password("Wrong123!")
+                .ipAddress(IP)
+                .deviceInfo("BlockedLoginConnectionTest")
+                .build();
+        return mockMvc.perform(post("/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)));
+    }
+}
@@ -0,0 +1,153 @@
+package com.medihelp360.user.controller;
+
+import com.medihelp360.user.cache.UserSnapshotCache;
+import com.medihelp360.user.domain.User;
+import com.medihelp360.user.domain.UserStatus;
+import com.medihelp360.user.dto.LoginRequest;
+import com.medihelp360.user.dto.LoginResponse;
+import com.medihelp360.user.dto.UpdateUserRequest;
+import com.medihelp360.user.repository.UserRepository;
+import com.medihelp360.user.repository.UserSessionRepository;
+import com.medihelp360.user.security.PasswordHashingService;
+import com.medihelp360.user.service.AuthenticationService;
+import com.medihelp360.user.service.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * /auth/me se sirve desde el principal del filtro JWT y {@link UserSnapshotCache}: un acierto no ejecuta
+ * ninguna sentencia SQL y una actualización del usuario invalida el snapshot tras el commit.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class CurrentUserEndpointTest {
+
+    private static final String EMAIL = "me@medihelp360.com";
+    private static final String PASSWORD = "CurrentUser123!";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AuthenticationService authenticationService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserSessionRepository userSessionRepository;
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private UUID userId;
+    private String accessToken;
+    private String refreshToken;
+
+    @BeforeEach
+    void setUp() {
+        userId = userRepository.save(User.builder()
+                .email(EMAIL)
+                .name("Current User")
+                .passwordHash(passwordHashingService.encode(PASSWORD))
+                .status(UserStatus.ACTIVE)
+                .build()).getId();
+        LoginResponse login = authenticationService.login(LoginRequest.builder()
+                .email(EMAIL)
+                .password(PASSWORD)
+                .ipAddress("10.0.0.1")
+                .deviceInfo("CurrentUserEndpointTest")
+                .build());
+        accessToken = login.getAccessToken();
+        refreshToken = login.getRefreshToken();
+    }
+
+    @AfterEach
+    void tearDown() {
+        userSessionRepository.deleteAll();
+        userRepository.findByEmail(EMAIL).ifPresent(userRepository::delete);
+    }
+
+    @Test
+    void cachedSnapshotIsServedWithoutDatabaseStatements() throws Exception {
+        mockMvc.perform(get("/auth/me").header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isOk());
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        mockMvc.perform(get("/auth/me").header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email").value(EMAIL))
+                .andExpect(jsonPath("$.name").value("Current User"));
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    void refreshTokenIsNotABearerCredential() throws Exception {
+        mockMvc.perform(get("/auth/me").header("Authorization", "Bearer " + refreshToken))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/users/" + userId).header("Authorization", "Bearer " + refreshToken))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void userUpdateInvalidatesSnapshot() throws Exception {
+        mockMvc.perform(get("/auth/me").header("Authorization", "Bearer " + accessToken))
+                .andExpect(jsonPath("$.name").value("Current User"));
+
+        userService.updateUser(userId, UpdateUserRequest.builder().name("Renamed User").build());
+
+        mockMvc.perform(get("/auth/me").header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Renamed User"));
+    }
+
+    @Test
+    void snapshotLoadedBeforeAnInvalidationIsNotCached() {
+        UserRepository repository = mock(UserRepository.class);
+        UserSnapshotCache cache = new UserSnapshotCache(repository, new SimpleMeterRegistry(), 100, Duration.ofMinutes(5));
+        User user = User.builder().id(userId).email(EMAIL).name("Before update").status(UserStatus.ACTIVE).build();
+        // La actualización se confirma mientras se está leyendo la fila antigua
+        when(repository.findById(userId)).thenAnswer(invocation -> {
+            cache.invalidate(userId);
+            return Optional.of(user);
+        });
+
+        assertThat(cache.get(userId)).map(snapshot -> snapshot.name()).contains("Before update");
+        cache.get(userId);
+
+        verify(repository, times(2)).findById(userId);
+    }
+}
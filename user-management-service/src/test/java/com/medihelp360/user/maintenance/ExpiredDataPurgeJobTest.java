@@ -0,0 +1,125 @@
+package com.medihelp360.user.maintenance;
+
+import com.medihelp360.user.domain.User;
+import com.medihelp360.user.domain.UserSession;
+import com.medihelp360.user.domain.UserStatus;
+import com.medihelp360.user.repository.UserRepository;
+import com.medihelp360.user.repository.UserSessionRepository;
+import com.medihelp360.user.security.TokenDigests;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "app.maintenance.purge.chunk-size=2",
+        "app.maintenance.purge.max-chunks-per-second=1000"
+})
+@ActiveProfiles("test")
+class ExpiredDataPurgeJobTest {
+
+    @Autowired
+    private ExpiredDataPurgeJob purgeJob;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserSessionRepository userSessionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        // En H2 el esquema sale de las entidades; la tabla de locks solo existe en la migración V5
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS scheduled_task_locks ("
+                + "name VARCHAR(64) PRIMARY KEY, locked_until TIMESTAMP NOT NULL, "
+                + "locked_at TIMESTAMP NOT NULL, locked_by VARCHAR(255) NOT NULL)");
+        jdbcTemplate.update("DELETE FROM scheduled_task_locks");
+
+        user = userRepository.save(User.builder()
+                .email("purge@medihelp360.com")
+                .name("Purge User")
+                .passwordHash("{bcrypt}unused")
+                .status(UserStatus.ACTIVE)
+                .build());
+
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < 5; i++) {
+            saveSession("expired-" + i, now.minusHours(i + 1));
+        }
+        saveSession("active-1", now.plusHours(1));
+        saveSession("active-2", now.plusDays(7));
+
+        insertAttempt("stale@medihelp360.com", now.minusDays(2), null);
+        insertAttempt("stale2@medihelp360.com", now.minusDays(3), null);
+        insertAttempt("stale3@medihelp360.com", now.minusDays(4), now.minusDays(4));
+        insertAttempt("recent@medihelp360.com", now.minusMinutes(5), null);
+        insertAttempt("blocked@medihelp360.com", now.minusDays(2), now.plusHours(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        userSessionRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM failed_login_attempts");
+        userRepository.delete(user);
+    }
+
+    @Test
+    void purgesExpiredRowsInChunks() {
+        purgeJob.purge();
+
+        assertThat(userSessionRepository.count()).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForList("SELECT email FROM failed_login_attempts", String.class))
+                .containsExactlyInAnyOrder("recent@medihelp360.com", "blocked@medihelp360.com");
+        assertThat(meterRegistry.get("maintenance.purge.rows").tag("table", "user_sessions").counter().count())
+                .isGreaterThanOrEqualTo(5.0);
+        // El lock se libera al terminar
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM scheduled_task_locks WHERE locked_until > ?", Integer.class,
+                LocalDateTime.now())).isZero();
+    }
+
+    @Test
+    void skipsWhenAnotherInstanceHoldsTheLock() {
+        jdbcTemplate.update("INSERT INTO scheduled_task_locks (name, locked_until, locked_at, locked_by) VALUES (?, ?, ?, ?)",
+                ExpiredDataPurgeJob.LOCK_NAME, LocalDateTime.now().plusMinutes(5), LocalDateTime.now(), "other-instance");
+        double skippedBefore = meterRegistry.get("maintenance.purge.lock.skipped").counter().count();
+
+        purgeJob.purge();
+
+        assertThat(userSessionRepository.count()).isEqualTo(7);
+        assertThat(meterRegistry.get("maintenance.purge.lock.skipped").counter().count()).isEqualTo(skippedBefore + 1);
+    }
+
+    private void saveSession(String token, LocalDateTime expiresAt) {
+        userSessionRepository.save(UserSession.builder()
+                .user(user)
+                .tokenHash(TokenDigests.sha256("access-" + token))
+                .refreshTokenHash(TokenDigests.sha256("refresh-" + token))
+                .expiresAt(expiresAt)
+                .build());
+    }
+
+    private void insertAttempt(String email, LocalDateTime lastAttemptAt, LocalDateTime blockedUntil) {
+        jdbcTemplate.update("INSERT INTO failed_login_attempts "
+                        + "(id, email, ip_address, attempt_count, first_attempt_at, last_attempt_at, blocked_until) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?)",
+                UUID.randomUUID(), email, "10.0.0.1", 5, lastAttemptAt, lastAttemptAt, blockedUntil);
+    }
+}
@@ -0,0 +1,139 @@
+package com.medihelp360.user.outbox;
+
+import com.medihelp360.user.config.KafkaConfig;
+import com.medihelp360.user.domain.OutboxEvent;
+import com.medihelp360.user.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Eventos/s que {@link OutboxRelay} publica en un broker Kafka embebido con el perfil de productor
+ * por defecto (antes) y con {@code high-throughput} (después), con mensajes con clave y 6 particiones.
+ * La tabla outbox se sustituye por un repositorio simulado para medir solo el productor.
+ * <p>
+ * Se ejecuta con {@code mvn test -Dtest=KeyedPublishingLoadTest -Dloadtest=true}; el tamaño de lote
+ * del relay se cambia con {@code -Dloadtest.batch-size=2000}.
+ */
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class KeyedPublishingLoadTest {
+
+    private static final String TOPIC = "user-events";
+    private static final int EVENTS = 50_000;
+    private static final int USERS = 2_000;
+    private static final int BATCH_SIZE = Integer.getInteger("loadtest.batch-size", 500);
+
+    private static EmbeddedKafkaKraftBroker broker;
+
+    @BeforeAll
+    static void startBroker() {
+        broker = new EmbeddedKafkaKraftBroker(1, 6, TOPIC);
+        broker.afterPropertiesSet();
+    }
+
+    @AfterAll
+    static void stopBroker() {
+        broker.destroy();
+    }
+
+    @Test
+    void highThroughputProfilePublishesMoreEventsPerSecond() {
+        List<OutboxEvent> events = buildEvents();
+
+        // Calentamiento de la JVM y del broker con cada perfil
+        publish(events.subList(0, 5_000), false, "none");
+        publish(events.subList(0, 5_000), true, "lz4");
+
+        double before = publish(events, false, "none");
+        double lz4 = publish(events, true, "lz4");
+        double zstd = publish(events, true, "zstd");
+
+        System.out.printf("%nOutbox relay, %d events, %d keys, batch %d%n", EVENTS, USERS, BATCH_SIZE);
+        System.out.printf("  default              : %,10.0f events/s%n", before);
+        System.out.printf("  high-throughput lz4  : %,10.0f events/s (x%.2f)%n", lz4, lz4 / before);
+        System.out.printf("  high-throughput zstd : %,10.0f events/s (x%.2f)%n", zstd, zstd / before);
+    }
+
+    private double publish(List<OutboxEvent> events, boolean highThroughput, String compressionType) {
+        Map<String, Object> configs = KafkaConfig.producerConfigs(
+                broker.getBrokersAsString(), highThroughput, compressionType, 20, 131072);
+        DefaultKafkaProducerFactory<String, byte[]> producerFactory = new DefaultKafkaProducerFactory<>(configs);
+        try {
+            OutboxRelay relay = new OutboxRelay(pendingEvents(events), new KafkaTemplate<>(producerFactory),
+                    mock(PlatformTransactionManager.class), new SimpleMeterRegistry(),
+                    true, BATCH_SIZE, Integer.MAX_VALUE, 30_000, 10);
+
+            long start = System.nanoTime();
+            int published = relay.relayPending();
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            assertThat(published).isEqualTo(events.size());
+            return published / seconds;
+        } finally {
+            producerFactory.destroy();
+        }
+    }
+
+    private static OutboxEventRepository pendingEvents(List<OutboxEvent> events) {
+        OutboxEventRepository repository = mock(OutboxEventRepository.class);
+        Iterator<OutboxEvent> pending = events.iterator();
+        when(repository.lockPendingBatch(anyInt())).thenAnswer(invocation -> {
+            int limit = invocation.getArgument(0);
+            List<OutboxEvent> batch = new ArrayList<>(limit);
+            while (batch.size() < limit && pending.hasNext()) {
+                batch.add(pending.next());
+            }
+            return batch;
+        });
+        return repository;
+    }
+
+    private static List<OutboxEvent> buildEvents() {
+        List<UUID> users = new ArrayList<>(USERS);
+        for (int i = 0; i < USERS; i++) {
+            users.add(UUID.randomUUID());
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> events = new ArrayList<>(EVENTS);
+        for (int i = 0; i < EVENTS; i++) {
+            UUID userId = users.get(i % USERS);
+            events.add(OutboxEvent.builder()
+                    .id((long) i)
+                    .topic(TOPIC)
+                    .aggregateId(userId)
+                    .eventType("UserUpdatedEvent")
+                    .payload(payload(userId, i))
+                    .createdAt(now)
+                    .build());
+        }
+        return events;
+    }
+
+    private static byte[] payload(UUID userId, int sequence) {
+        return ("{\"@type\":\"UserUpdatedEvent\",\"eventId\":\"" + UUID.randomUUID() + "\""
+                + ",\"eventType\":\"UserUpdatedEvent\",\"aggregateId\":\"" + userId + "\""
+                + ",\"timestamp\":\"2024-01-01T10:00:00\",\"version\":1"
+                + ",\"userId\":\"" + userId + "\",\"email\":\"user" + sequence + "@medihelp360.com\""
+                + ",\"name\":\"Load Test User " + sequence + "\",\"status\":\"ACTIVE\""
+                + ",\"roles\":[\"USER\"],\"updatedAt\":\"2024-01-01T10:00:00\"}").getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,298 @@
+package com.medihelp360.user.outbox;
+
+import com.medihelp360.user.domain.OutboxEvent;
+import com.medihelp360.user.dto.CreateUserRequest;
+import com.medihelp360.user.dto.UpdateUserRequest;
+import com.medihelp360.user.repository.OutboxEventRepository;
+import com.medihelp360.user.repository.UserRepository;
+import com.medihelp360.user.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.apache.kafka.common.errors.RecordTooLargeException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+/**
+ * Outbox de eventos de usuario: la fila se escribe en la transacción del cambio y {@link OutboxRelay}
+ * la publica en lotes, marcando solo lo que Kafka ha confirmado. Un evento que falla retiene solo a los
+ * posteriores de su mismo usuario, y se aparca si el fallo es permanente o agota los intentos.
+ */
+@SpringBootTest(properties = {"app.outbox.relay.batch-size=2", "app.outbox.relay.max-attempts=3"})
+@ActiveProfiles("test")
+class OutboxRelayTest {
+
+    private static final String TOPIC = "user-events";
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockBean
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
+
+    private final List<String> sentKeys = Collections.synchronizedList(new ArrayList<>());
+    private final List<String> sentPayloads = Collections.synchronizedList(new ArrayList<>());
+    private final List<UUID> createdUsers = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        outboxEventRepository.deleteAll();
+        when(kafkaTemplate.send(eq(TOPIC), anyString(), any(byte[].class))).thenAnswer(invocation -> {
+            sentKeys.add(invocation.getArgument(1));
+            sentPayloads.add(payloadOf(invocation.getArgument(2)));
+            return CompletableFuture.completedFuture(null);
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        outboxEventRepository.deleteAll();
+        createdUsers.forEach(userRepository::deleteById);
+    }
+
+    @Test
+    void eventIsWrittenWithTheChangeAndRolledBackWithIt() {
+        UUID userId = createUser("outbox-1@medihelp360.com");
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> {
+            userService.updateUser(userId, UpdateUserRequest.builder().name("Rolled back").build());
+            status.setRollbackOnly();
+        });
+
+        List<OutboxEvent> pending = outboxEventRepository.findAll();
+        assertThat(pending).singleElement().satisfies(event -> {
+            assertThat(event.getEventType()).isEqualTo("UserCreatedEvent");
+            assertThat(event.getAggregateId()).isEqualTo(userId);
+            assertThat(payloadOf(event.getPayload())).contains("\"email\":\"outbox-1@medihelp360.com\"");
+            assertThat(event.getPublishedAt()).isNull();
+        });
+    }
+
+    @Test
+    void relayPublishesPendingEventsInBatchesAndOrder() {
+        List<String> userIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            userIds.add(createUser("outbox-batch-" + i + "@medihelp360.com").toString());
+        }
+        double batchesBefore = meterRegistry.get("outbox.relay.batch.size").summary().count();
+
+        assertThat(outboxRelay.relayPending()).isEqualTo(5);
+
+        assertThat(sentPayloads).hasSize(5);
+        for (int i = 0; i < 5; i++) {
+            assertThat(sentPayloads.get(i)).contains("outbox-batch-" + i + "@medihelp360.com");
+        }
+        // Clave = aggregateId: los eventos de un usuario comparten partición
+        assertThat(sentKeys).containsExactlyElementsOf(userIds);
+        assertThat(outboxEventRepository.countByPublishedAtIsNull()).isZero();
+        assertThat(meterRegistry.get("outbox.relay.batch.size").summary().count() - batchesBefore).isEqualTo(3);
+        assertThat(outboxRelay.relayPending()).isZero();
+    }
+
+    @Test
+    void failedSendKeepsThatEventAndLaterOnesPending() {
+        createUser("outbox-ok@medihelp360.com");
+        createUser("outbox-fails@medihelp360.com");
+        when(kafkaTemplate.send(eq(TOPIC), anyString(), any(byte[].class))).thenAnswer(invocation -> {
+            String payload = payloadOf(invocation.getArgument(2));
+            sentPayloads.add(payload);
+            return payload.contains("outbox-fails")
+                    ? CompletableFuture.<SendResult<String, byte[]>>failedFuture(new IllegalStateException("broker down"))
+                    : CompletableFuture.completedFuture(null);
+        });
+
+        double failuresBefore = meterRegistry.find("outbox.relay.send.failures")
+                .tag("exception", "IllegalStateException").counters().stream().mapToDouble(c -> c.count()).sum();
+
+        assertThat(outboxRelay.relayPending()).isEqualTo(1);
+
+        assertThat(meterRegistry.get("outbox.relay.send.failures")
+                .tag("exception", "IllegalStateException").counter().count()).isEqualTo(failuresBefore + 1);
+
+        assertThat(outboxEventRepository.findFirstByPublishedAtIsNullAndDeadLetteredAtIsNullOrderByIdAsc())
+                .map(event -> payloadOf(event.getPayload()))
+                .hasValueSatisfying(payload -> assertThat(payload).contains("outbox-fails"));
+    }
+
+    @Test
+    void failureOnlyHoldsBackLaterEventsOfTheSameUser() {
+        UUID failing = createUser("outbox-fails@medihelp360.com");
+        createUser("outbox-other@medihelp360.com");
+        userService.updateUser(failing, UpdateUserRequest.builder().name("Updated").build());
+        failSendsWhere(payload -> payload.contains("outbox-fails") && payload.contains("UserCreatedEvent"),
+                new IllegalStateException("broker hiccup"));
+        double heldBefore = meterRegistry.get("outbox.relay.events").tag("result", "held").counter().count();
+
+        // Lote [alta que falla, alta de otro usuario]: la segunda se publica aunque vaya detrás
+        assertThat(outboxRelay.relayPending()).isEqualTo(1);
+        // Lote [alta que falla, cambio del mismo usuario]: el cambio llega a Kafka pero se retiene detrás del alta
+        assertThat(outboxRelay.relayPending()).isZero();
+
+        List<OutboxEvent> pending = outboxEventRepository.findAll().stream()
+                .filter(event -> event.getPublishedAt() == null)
+                .toList();
+        assertThat(pending).extracting(OutboxEvent::getEventType)
+                .containsExactly("UserCreatedEvent", "UserUpdatedEvent");
+        assertThat(pending.get(0).getAttempts()).isEqualTo(2);
+        assertThat(pending.get(0).getLastError()).isEqualTo("IllegalStateException: broker hiccup");
+        assertThat(pending.get(1).getAttempts()).isZero();
+        assertThat(pending).allSatisfy(event -> assertThat(event.getDeadLetteredAt()).isNull());
+        assertThat(meterRegistry.get("outbox.relay.events").tag("result", "held").counter().count())
+                .isEqualTo(heldBefore + 1);
+    }
+
+    @Test
+    void permanentFailureIsParkedWithoutBlockingTheQueue() {
+        UUID failing = createUser("outbox-too-large@medihelp360.com");
+        createUser("outbox-after@medihelp360.com");
+        failSendsWhere(payload -> payload.contains("outbox-too-large") && payload.contains("UserCreatedEvent"),
+                new RecordTooLargeException("The message is 2097152 bytes"));
+        double parkedBefore = meterRegistry.get("outbox.relay.events").tag("result", "dead_lettered").counter().count();
+
+        assertThat(outboxRelay.relayPending()).isEqualTo(1);
+
+        OutboxEvent parked = outboxEventRepository.findAll().stream()
+                .filter(event -> event.getAggregateId().equals(failing))
+                .findFirst().orElseThrow();
+        assertThat(parked.getDeadLetteredAt()).isNotNull();
+        assertThat(parked.getPublishedAt()).isNull();
+        assertThat(parked.getAttempts()).isEqualTo(1);
+        assertThat(parked.getLastError()).startsWith("RecordTooLargeException");
+        assertThat(meterRegistry.get("outbox.relay.events").tag("result", "dead_lettered").counter().count())
+                .isEqualTo(parkedBefore + 1);
+
+        // Los cambios posteriores del mismo usuario salen, y el aparcado no se vuelve a enviar
+        userService.updateUser(failing, UpdateUserRequest.builder().name("Updated").build());
+        int sentBefore = sentPayloads.size();
+        assertThat(outboxRelay.relayPending()).isEqualTo(1);
+        assertThat(sentPayloads.subList(sentBefore, sentPayloads.size())).singleElement()
+                .satisfies(payload -> assertThat(payload).contains("UserUpdatedEvent"));
+        assertThat(outboxEventRepository.findFirstByPublishedAtIsNullAndDeadLetteredAtIsNullOrderByIdAsc()).isEmpty();
+    }
+
+    @Test
+    void retriedEventIsParkedAfterMaxAttemptsOnlyWhileTheBrokerAcceptsOthers() {
+        UUID failing = createUser("outbox-poison@medihelp360.com");
+        failSendsWhere(payload -> payload.contains("outbox-poison"), new IllegalStateException("rejected"));
+
+        // Solo eventos que fallan: puede ser el broker, así que se reintenta sin aparcar
+        for (int i = 0; i < 3; i++) {
+            assertThat(outboxRelay.relayPending()).isZero();
+        }
+        assertThat(outboxEventRepository.findById(pendingIdOf(failing)).orElseThrow())
+                .satisfies(event -> {
+                    assertThat(event.getAttempts()).isEqualTo(3);
+                    assertThat(event.getDeadLetteredAt()).isNull();
+                });
+
+        // Con el broker confirmando otro evento del lote, el siguiente fallo agota los intentos
+        createUser("outbox-healthy@medihelp360.com");
+        assertThat(outboxRelay.relayPending()).isEqualTo(1);
+
+        assertThat(outboxEventRepository.findAll()).filteredOn(event -> event.getAggregateId().equals(failing))
+                .singleElement()
+                .satisfies(event -> {
+                    assertThat(event.getAttempts()).isEqualTo(4);
+                    assertThat(event.getDeadLetteredAt()).isNotNull();
+                });
+        assertThat(outboxRelay.relayPending()).isZero();
+    }
+
+    @Test
+    void concurrentRelaysPublishEachEventOnce() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            createUser("outbox-concurrent-" + i + "@medihelp360.com");
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Integer>> relays = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                relays.add(executor.submit(outboxRelay::relayPending));
+            }
+            int published = 0;
+            for (Future<Integer> relay : relays) {
+                published += relay.get();
+            }
+            // Un relay que encuentra un lote incompleto (filas bloqueadas por otro) termina su pasada
+            published += outboxRelay.relayPending();
+
+            assertThat(published).isEqualTo(20);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(sentPayloads).hasSize(20).doesNotHaveDuplicates();
+        assertThat(outboxEventRepository.countByPublishedAtIsNull()).isZero();
+    }
+
+    private void failSendsWhere(Predicate<String> failing, Exception failure) {
+        when(kafkaTemplate.send(eq(TOPIC), anyString(), any(byte[].class))).thenAnswer(invocation -> {
+            String payload = payloadOf(invocation.getArgument(2));
+            sentPayloads.add(payload);
+            return failing.test(payload)
+                    ? CompletableFuture.<SendResult<String, byte[]>>failedFuture(failure)
+                    : CompletableFuture.completedFuture(null);
+        });
+    }
+
+    private Long pendingIdOf(UUID aggregateId) {
+        return outboxEventRepository.findAll().stream()
+                .filter(event -> event.getAggregateId().equals(aggregateId) && event.getPublishedAt() == null)
+                .findFirst().orElseThrow().getId();
+    }
+
+    private UUID createUser(String email) {
+        CreateUserRequest request = new CreateUserRequest();
+        request.setEmail(email);
+        request.setName("Outbox User");
+        request.setPassword("Outbox123!");
+        UUID userId = userService.createUser(request).getId();
+        createdUsers.add(userId);
+        return userId;
+    }
+
+    // En el perfil de test los eventos se escriben en JSON
+    private static String payloadOf(byte[] payload) {
+        return new String(payload, StandardCharsets.UTF_8);
+    }
+}
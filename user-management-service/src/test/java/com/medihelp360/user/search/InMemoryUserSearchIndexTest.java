@@ -0,0 +1,94 @@
+package com.medihelp360.user.search;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * El índice devuelve lo mismo que recorrer todos los usuarios con {@code contains}, en orden de relevancia
+ * y sin repetir ni perder resultados entre páginas, también después de actualizaciones y compactaciones.
+ */
+class InMemoryUserSearchIndexTest {
+
+    private static final int USERS = 3_000;
+    private static final String[] SURNAMES = {"García", "Martínez", "López", "Sánchez", "Pérez", "Gómez"};
+
+    private InMemoryUserSearchIndex index;
+    private Map<UUID, String[]> users;
+
+    @BeforeEach
+    void setUp() {
+        index = new InMemoryUserSearchIndex(null, new SimpleMeterRegistry());
+        users = IntStream.range(0, USERS).boxed().collect(Collectors.toMap(
+                i -> UUID.randomUUID(),
+                i -> new String[]{"Usuario " + i + " " + SURNAMES[i % SURNAMES.length], "user" + i + "@search.test"}));
+        users.forEach((id, user) -> index.put(id, user[0], user[1]));
+    }
+
+    @Test
+    void pagesMatchABruteForceScanInRankingOrder() {
+        for (String query : List.of("martínez", "user12", "ez", "USUARIO 29", "nadie")) {
+            assertThat(walk(query, 7)).as(query).containsExactlyElementsOf(bruteForce(query));
+        }
+    }
+
+    @Test
+    void updatesReplaceTheIndexedTextAcrossCompactions() {
+        List<UUID> ids = new ArrayList<>(users.keySet());
+        // Dos rondas de cambios: los documentos sustituidos superan a los vivos y el índice se reconstruye
+        for (int round = 0; round < 2; round++) {
+            for (int i = 0; i < ids.size(); i++) {
+                String[] user = {"Renombrado " + round + "-" + i, "user" + i + "@search.test"};
+                users.put(ids.get(i), user);
+                index.put(ids.get(i), user[0], user[1]);
+            }
+        }
+
+        assertThat(index.size()).isEqualTo(USERS);
+        assertThat(walk("garcía", 50)).isEmpty();
+        assertThat(walk("renombrado 0-", 50)).isEmpty();
+        assertThat(walk("renombrado 1-", 500)).hasSize(USERS).containsExactlyElementsOf(bruteForce("renombrado 1-"));
+
+        index.remove(ids.get(0));
+        assertThat(walk("renombrado 1-0", 50)).doesNotContain(ids.get(0));
+    }
+
+    private List<UUID> walk(String query, int pageSize) {
+        List<UUID> visited = new ArrayList<>();
+        UserSearchCursor cursor = null;
+        List<UserSearchHit> page;
+        do {
+            page = index.search(query, cursor, pageSize);
+            page.forEach(hit -> visited.add(hit.id()));
+            cursor = page.isEmpty() ? null : UserSearchCursor.of(page.get(page.size() - 1));
+        } while (page.size() == pageSize);
+        return visited;
+    }
+
+    private List<UUID> bruteForce(String query) {
+        String text = query.toLowerCase(Locale.ROOT);
+        long[] trigrams = Trigrams.of(text);
+        Function<Map.Entry<UUID, String[]>, UserSearchHit> score = entry -> new UserSearchHit(entry.getKey(),
+                UserSearchHit.round(Math.max(
+                        Trigrams.similarity(text, trigrams, entry.getValue()[0].toLowerCase(Locale.ROOT)),
+                        Trigrams.similarity(text, trigrams, entry.getValue()[1].toLowerCase(Locale.ROOT)))));
+        return users.entrySet().stream()
+                .filter(entry -> entry.getValue()[0].toLowerCase(Locale.ROOT).contains(text)
+                        || entry.getValue()[1].toLowerCase(Locale.ROOT).contains(text))
+                .map(score)
+                .sorted(UserSearchHit.RANKING)
+                .map(UserSearchHit::id)
+                .toList();
+    }
+}
@@ -0,0 +1,116 @@
+package com.medihelp360.user.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwks;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.security.KeyPair;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtKeyManagerTest {
+
+    private static final String SECRET = "test-secret-key-for-jwt-key-manager-unit-tests";
+
+    @Test
+    void signsWithEs256AndPublishesTheKeyByThumbprint() throws Exception {
+        JwtKeyManager keys = new JwtKeyManager(SECRET, JwtKeyManager.ES256, "", "", List.of(), false, true);
+
+        String token = keys.sign(claims());
+        List<Map<String, ?>> jwks = keys.publicJwks();
+
+        assertThat(jwks).hasSize(1);
+        assertThat(jwks.get(0).get("kty")).isEqualTo("EC");
+        assertThat(jwks.get(0).get("alg")).isEqualTo("ES256");
+        assertThat(jwks.get(0).get("kid")).isNotNull();
+        assertThat(new ObjectMapper().writeValueAsString(Map.of("keys", jwks)))
+                .contains("\"crv\":\"P-256\"", "\"use\":\"sig\"")
+                .doesNotContain("\"d\":");
+        assertThat(verifier(keys).verify(token)).map(Claims::getSubject).contains("user-1");
+    }
+
+    @Test
+    void signsWithEdDsa() {
+        JwtKeyManager keys = new JwtKeyManager(SECRET, JwtKeyManager.EDDSA, "", "", List.of(), false, true);
+
+        Map<String, ?> jwk = keys.publicJwks().get(0);
+        assertThat(jwk.get("kty")).isEqualTo("OKP");
+        assertThat(jwk.get("crv")).isEqualTo("Ed25519");
+        assertThat(verifier(keys).verify(keys.sign(claims()))).isPresent();
+    }
+
+    @Test
+    void keepsVerifyingTokensOfARetiredKeyAfterRotation() {
+        KeyPair oldPair = Jwts.SIG.ES256.keyPair().build();
+        KeyPair newPair = Jwts.SIG.ES256.keyPair().build();
+        JwtKeyManager beforeRotation = new JwtKeyManager(SECRET, JwtKeyManager.ES256,
+                pem("PRIVATE KEY", oldPair.getPrivate().getEncoded()),
+                pem("PUBLIC KEY", oldPair.getPublic().getEncoded()), List.of(), false, false);
+        String oldToken = beforeRotation.sign(claims());
+
+        JwtKeyManager afterRotation = new JwtKeyManager(SECRET, JwtKeyManager.ES256,
+                pem("PRIVATE KEY", newPair.getPrivate().getEncoded()),
+                pem("PUBLIC KEY", newPair.getPublic().getEncoded()),
+                List.of(pem("PUBLIC KEY", oldPair.getPublic().getEncoded())), false, false);
+
+        assertThat(afterRotation.publicJwks()).hasSize(2);
+        assertThat(verifier(afterRotation).verify(oldToken)).isPresent();
+        assertThat(verifier(afterRotation).verify(afterRotation.sign(claims()))).isPresent();
+    }
+
+    @Test
+    void acceptsLegacyHmacTokensOnlyWhenEnabled() {
+        String hmacToken = new JwtKeyManager(SECRET, JwtKeyManager.HS256, "", "", List.of(), true, true).sign(claims());
+
+        JwtKeyManager migrating = new JwtKeyManager(SECRET, JwtKeyManager.ES256, "", "", List.of(), true, true);
+        JwtKeyManager strict = new JwtKeyManager(SECRET, JwtKeyManager.ES256, "", "", List.of(), false, true);
+
+        assertThat(verifier(migrating).verify(hmacToken)).isPresent();
+        assertThat(verifier(strict).verify(hmacToken)).isEmpty();
+    }
+
+    @Test
+    void refusesToStartWithoutKeysUnlessEphemeralKeysAreAllowed() {
+        assertThatThrownBy(() -> new JwtKeyManager(SECRET, JwtKeyManager.ES256, "", "", List.of(), false, false))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("No JWT signing key configured for ES256");
+    }
+
+    @Test
+    void rejectsTokensSignedByAnUnknownKey() {
+        JwtKeyManager keys = new JwtKeyManager(SECRET, JwtKeyManager.ES256, "", "", List.of(), false, true);
+        KeyPair foreign = Jwts.SIG.ES256.keyPair().build();
+        String forged = Jwts.builder()
+                .header().keyId(Jwks.builder().key(foreign.getPublic()).idFromThumbprint().build().getId()).and()
+                .subject("user-1")
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(foreign.getPrivate(), Jwts.SIG.ES256)
+                .compact();
+
+        assertThat(verifier(keys).verify(forged)).isEmpty();
+    }
+
+    private static io.jsonwebtoken.JwtBuilder claims() {
+        return Jwts.builder()
+                .subject("user-1")
+                .expiration(new Date(System.currentTimeMillis() + 60_000));
+    }
+
+    private static JwtTokenVerifier verifier(JwtKeyManager keys) {
+        return new JwtTokenVerifier(keys, 100, new SimpleMeterRegistry());
+    }
+
+    private static String pem(String type, byte[] der) {
+        return "-----BEGIN " + type + "-----\n"
+                + Base64.getMimeEncoder().encodeToString(der)
+                + "\n-----END " + type + "-----";
+    }
+}
@@ -0,0 +1,76 @@
+package com.medihelp360.user.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtTokenVerifierTest {
+
+    private static final String SECRET = "test-secret-key-for-jwt-verifier-unit-tests-only";
+
+    private SimpleMeterRegistry meterRegistry;
+    private JwtTokenVerifier verifier;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        verifier = new JwtTokenVerifier(hmacKeys(SECRET), 100, meterRegistry);
+    }
+
+    @Test
+    void cachesVerifiedClaimsByTokenDigest() {
+        String token = token(60_000);
+
+        Optional<Claims> first = verifier.verify(token);
+        Optional<Claims> second = verifier.verify(token);
+
+        assertThat(first).isPresent();
+        assertThat(second).containsSame(first.get());
+        assertThat(cacheRequests("miss")).isEqualTo(1.0);
+        assertThat(cacheRequests("hit")).isEqualTo(1.0);
+    }
+
+    @Test
+    void rejectsTamperedAndExpiredTokens() {
+        String token = token(60_000);
+        String tampered = token.substring(0, token.length() - 2) + "xx";
+
+        assertThat(verifier.verify(tampered)).isEmpty();
+        assertThat(verifier.verify(token(-1_000))).isEmpty();
+        assertThat(meterRegistry.get("auth.jwt.rejected").counter().count()).isEqualTo(2.0);
+    }
+
+    @Test
+    void rejectsTokensSignedWithAnotherKey() {
+        String foreignToken = hmacKeys(SECRET + "-other").sign(Jwts.builder()
+                .subject("user-1")
+                .expiration(new Date(System.currentTimeMillis() + 60_000)));
+
+        assertThat(verifier.verify(foreignToken)).isEmpty();
+    }
+
+    private String token(long ttlMillis) {
+        long now = System.currentTimeMillis();
+        return hmacKeys(SECRET).sign(Jwts.builder()
+                .subject("user-1")
+                .claim("email", "user@medihelp360.com")
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + ttlMillis)));
+    }
+
+    private static JwtKeyManager hmacKeys(String secret) {
+        return new JwtKeyManager(secret, JwtKeyManager.HS256, "", "", List.of(), true, true);
+    }
+
+    private double cacheRequests(String result) {
+        return meterRegistry.get("auth.jwt.cache.requests").tag("result", result).counter().count();
+    }
+}
@@ -0,0 +1,62 @@
+package com.medihelp360.user.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class LoginAttemptLimiterTest {
+
+    private final FailedLoginAttemptRecorder recorder = mock(FailedLoginAttemptRecorder.class);
+    private final LoginAttemptLimiter limiter =
+            new LoginAttemptLimiter(recorder, new SimpleMeterRegistry(), 15, 30, 20, 10, 5, 1_000);
+
+    @Test
+    void blocksIpAndEmailPairAfterFiveFailures() {
+        for (int i = 0; i < 4; i++) {
+            limiter.recordFailure("10.0.0.1", "user@medihelp360.com");
+        }
+        assertThat(limiter.remainingBlock("10.0.0.1", "user@medihelp360.com")).isEmpty();
+        verifyNoInteractions(recorder);
+
+        limiter.recordFailure("10.0.0.1", "USER@medihelp360.com");
+
+        assertThat(limiter.remainingBlock("10.0.0.1", "user@medihelp360.com")).isPresent();
+        assertThat(limiter.remainingBlock("10.0.0.2", "user@medihelp360.com")).isEmpty();
+        verify(recorder).recordBlock(eq("user@medihelp360.com"), eq("10.0.0.1"), eq(5), any(LocalDateTime.class));
+    }
+
+    @Test
+    void blocksIpUsedAgainstManyEmails() {
+        for (int i = 0; i < 20; i++) {
+            limiter.recordFailure("10.0.0.9", "victim" + i + "@medihelp360.com");
+        }
+
+        assertThat(limiter.remainingBlock("10.0.0.9", "someone-else@medihelp360.com")).isPresent();
+        verify(recorder).recordBlock(eq(LoginAttemptLimiter.ANY_EMAIL), eq("10.0.0.9"), eq(20), any(LocalDateTime.class));
+    }
+
+    @Test
+    void successfulLoginClearsPersistedPairBlock() {
+        for (int i = 0; i < 5; i++) {
+            limiter.recordFailure("10.0.0.1", "user@medihelp360.com");
+        }
+
+        limiter.recordSuccess("10.0.0.1", "user@medihelp360.com");
+
+        assertThat(limiter.remainingBlock("10.0.0.1", "user@medihelp360.com")).isEmpty();
+        verify(recorder).clear("user@medihelp360.com", "10.0.0.1");
+        verify(recorder, never()).clear(eq("user@medihelp360.com"), eq(LoginAttemptLimiter.ANY_IP));
+        verify(recorder, times(1)).recordBlock(any(), any(), anyInt(), any());
+    }
+}
@@ -0,0 +1,114 @@
+package com.medihelp360.user.security;
+
+import com.medihelp360.user.exception.PasswordHashingUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PasswordHashingServiceTest {
+
+    private final BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(4);
+    private PasswordHashingService service;
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void encodesWithPrefixAndMatches() {
+        service = new PasswordHashingService(delegating(bcrypt), new SimpleMeterRegistry(), 2, 8, 2000);
+
+        String hash = service.encode("Secret123!");
+
+        assertThat(hash).startsWith("{bcrypt}");
+        assertThat(service.matches("Secret123!", hash)).isTrue();
+        assertThat(service.matches("wrong", hash)).isFalse();
+        assertThat(service.needsRehash(hash)).isFalse();
+    }
+
+    @Test
+    void legacyUnprefixedHashStillMatchesAndNeedsRehash() {
+        service = new PasswordHashingService(delegating(bcrypt), new SimpleMeterRegistry(), 2, 8, 2000);
+        String legacyHash = new BCryptPasswordEncoder(4).encode("Secret123!");
+
+        assertThat(service.matches("Secret123!", legacyHash)).isTrue();
+        assertThat(service.needsRehash(legacyHash)).isTrue();
+    }
+
+    @Test
+    void lowerCostHashNeedsRehash() {
+        service = new PasswordHashingService(delegating(new BCryptPasswordEncoder(5)), new SimpleMeterRegistry(), 2, 8, 2000);
+        String oldCostHash = "{bcrypt}" + new BCryptPasswordEncoder(4).encode("Secret123!");
+
+        assertThat(service.matches("Secret123!", oldCostHash)).isTrue();
+        assertThat(service.needsRehash(oldCostHash)).isTrue();
+    }
+
+    @Test
+    void rejectsImmediatelyWhenQueueIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder blocking = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "hash";
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return true;
+            }
+        };
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        service = new PasswordHashingService(blocking, registry, 1, 1, 5000);
+
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            // Uno ocupa el único hilo y otro la única posición de la cola
+            Future<String> running = callers.submit(() -> service.encode("a"));
+            Future<String> queued = callers.submit(() -> service.encode("b"));
+            long deadline = System.currentTimeMillis() + 2000;
+            while (registry.get("auth.password.hashing.queue.depth").gauge().value() < 1
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+
+            assertThatThrownBy(() -> service.encode("c"))
+                    .isInstanceOf(PasswordHashingUnavailableException.class);
+            assertThat(registry.get("auth.password.hashing.rejected").counter().count()).isEqualTo(1.0);
+
+            release.countDown();
+            assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("hash");
+            assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("hash");
+        } finally {
+            release.countDown();
+            callers.shutdownNow();
+        }
+    }
+
+    private static PasswordEncoder delegating(BCryptPasswordEncoder bcrypt) {
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", bcrypt));
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return encoder;
+    }
+}
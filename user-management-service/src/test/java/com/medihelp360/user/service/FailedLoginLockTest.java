@@ -0,0 +1,100 @@
+package com.medihelp360.user.service;
+
+import com.medihelp360.user.domain.User;
+import com.medihelp360.user.domain.UserStatus;
+import com.medihelp360.user.dto.LoginRequest;
+import com.medihelp360.user.exception.AuthenticationException;
+import com.medihelp360.user.repository.UserRepository;
+import com.medihelp360.user.security.PasswordHashingService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Las contraseñas incorrectas se cuentan en {@code users.failed_attempts} aunque el login termine en excepción,
+ * y al quinto fallo la cuenta queda bloqueada también para la contraseña correcta. Cada intento viene de una IP
+ * distinta para que el limitador en memoria no los corte antes.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class FailedLoginLockTest {
+
+    private static final int MAX_FAILED_ATTEMPTS = 5;
+    private static final String EMAIL = "lock@medihelp360.com";
+    private static final String PASSWORD = "Lock123!";
+
+    @Autowired
+    private AuthenticationService authenticationService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.save(User.builder()
+                .email(EMAIL)
+                .name("Lock User")
+                .passwordHash(passwordHashingService.encode(PASSWORD))
+                .status(UserStatus.ACTIVE)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM user_sessions WHERE user_id IN (SELECT id FROM users WHERE email = ?)", EMAIL);
+        jdbcTemplate.update("DELETE FROM users WHERE email = ?", EMAIL);
+    }
+
+    @Test
+    void accountIsLockedAfterMaxFailedAttempts() {
+        for (int i = 1; i < MAX_FAILED_ATTEMPTS; i++) {
+            int attempt = i;
+            assertThatThrownBy(() -> authenticationService.login(request("Wrong123!", attempt)))
+                    .isInstanceOf(AuthenticationException.class)
+                    .hasMessage("Invalid credentials");
+        }
+        assertThat(lockState()).containsEntry("FAILED_ATTEMPTS", MAX_FAILED_ATTEMPTS - 1)
+                .containsEntry("ACCOUNT_LOCKED", false);
+
+        assertThatThrownBy(() -> authenticationService.login(request("Wrong123!", MAX_FAILED_ATTEMPTS)))
+                .isInstanceOf(AuthenticationException.class);
+
+        assertThat(lockState()).containsEntry("FAILED_ATTEMPTS", MAX_FAILED_ATTEMPTS)
+                .containsEntry("ACCOUNT_LOCKED", true);
+        assertThat(jdbcTemplate.queryForObject("SELECT locked_until FROM users WHERE email = ?", LocalDateTime.class,
+                EMAIL)).isAfter(LocalDateTime.now());
+        assertThatThrownBy(() -> authenticationService.login(request(PASSWORD, MAX_FAILED_ATTEMPTS + 1)))
+                .isInstanceOf(AuthenticationException.class)
+                .hasMessageContaining("locked");
+    }
+
+    private Map<String, Object> lockState() {
+        return jdbcTemplate.queryForMap(
+                "SELECT failed_attempts, account_locked FROM users WHERE email = ?", EMAIL);
+    }
+
+    private static LoginRequest request(String password, int attempt) {
+        return LoginRequest.builder()
+                .email(EMAIL)
+                .password(password)
+                .ipAddress("10.0.6." + attempt)
+                .deviceInfo("FailedLoginLockTest")
+                .build();
+    }
+}
@@ -0,0 +1,118 @@
+package com.medihelp360.user.service;
+
+import com.medihelp360.user.domain.UserStatus;
+import com.medihelp360.user.dto.KeysetPage;
+import com.medihelp360.user.dto.UserSummary;
+import com.medihelp360.user.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Recorrer todas las páginas por cursor devuelve cada usuario una vez y en orden {@code (created_at, id)},
+ * también cuando varios usuarios comparten {@code created_at}.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class KeysetPaginationTest {
+
+    private static final int USERS = 250;
+    private static final int PAGE_SIZE = 20;
+    private static final String DOMAIN = "@keyset.medihelp360.com";
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 8, 0);
+        jdbcTemplate.batchUpdate("INSERT INTO users (id, email, name, password_hash, status, created_at, updated_at, "
+                        + "failed_attempts, account_locked) VALUES (?, ?, ?, '{noop}x', ?, ?, ?, 0, false)",
+                IntStream.range(0, USERS).boxed().toList(), 100, (statement, i) -> {
+                    // Grupos de 7 usuarios con el mismo created_at: el id desempata
+                    Timestamp createdAt = Timestamp.valueOf(base.plusSeconds(i / 7));
+                    statement.setObject(1, UUID.randomUUID());
+                    statement.setString(2, "user" + i + DOMAIN);
+                    statement.setString(3, "Keyset User " + i);
+                    statement.setString(4, UserStatus.ACTIVE.name());
+                    statement.setTimestamp(5, createdAt);
+                    statement.setTimestamp(6, createdAt);
+                });
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM users WHERE email LIKE ?", "%" + DOMAIN);
+    }
+
+    @Test
+    void searchWalksEveryPageInKeyOrder() {
+        List<UUID> expected = jdbcTemplate.queryForList(
+                "SELECT id FROM users WHERE email LIKE ? ORDER BY created_at, id", UUID.class, "%" + DOMAIN);
+
+        List<UUID> visited = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            KeysetPage<UserSummary> page = userService.searchUsersAfter(null, DOMAIN, cursor, PAGE_SIZE, pages == 0);
+            if (pages == 0) {
+                assertThat(page.getTotalElements()).isEqualTo(USERS);
+            } else {
+                assertThat(page.getTotalElements()).isNull();
+            }
+            page.getContent().forEach(user -> visited.add(user.id()));
+            cursor = page.getNextCursor();
+            assertThat(page.isHasNext()).isEqualTo(cursor != null);
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo((USERS + PAGE_SIZE - 1) / PAGE_SIZE);
+        assertThat(visited).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void listingVisitsEveryUserOnce() {
+        Set<UUID> visited = new HashSet<>();
+        int rows = 0;
+        String cursor = null;
+        do {
+            KeysetPage<UserSummary> page = userService.getUsersAfter(cursor, 100, false);
+            for (UserSummary user : page.getContent()) {
+                visited.add(user.id());
+                rows++;
+            }
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertThat(rows).isEqualTo(visited.size()).isEqualTo(userRepository.count());
+    }
+
+    @Test
+    void tamperedCursorIsRejected() {
+        assertThatThrownBy(() -> userService.getUsersAfter("not-a-cursor", PAGE_SIZE, false))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid page cursor");
+    }
+}
@@ -0,0 +1,121 @@
+package com.medihelp360.user.service;
+
+import com.medihelp360.user.domain.Role;
+import com.medihelp360.user.domain.User;
+import com.medihelp360.user.domain.UserStatus;
+import com.medihelp360.user.dto.LoginRequest;
+import com.medihelp360.user.dto.LoginResponse;
+import com.medihelp360.user.repository.RoleRepository;
+import com.medihelp360.user.repository.UserRepository;
+import com.medihelp360.user.repository.UserSessionRepository;
+import com.medihelp360.user.security.PasswordHashingService;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Presupuesto de sentencias SQL de un login correcto: proyección usuario+roles, UPDATE de
+ * last_login/failed_attempts e INSERT de la sesión. La auditoría va por el writer asíncrono
+ * y el limitador de intentos está en memoria, así que no cuentan aquí.
+ * Si un cambio añade una sentencia al camino de login, este test falla. La ronda de logins repetidos
+ * registra además el throughput en H2 como referencia entre versiones.
+ */
+@Slf4j
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+class LoginStatementBudgetTest {
+
+    private static final long STATEMENTS_PER_LOGIN = 3;
+    private static final int REPEATED_LOGINS = 200;
+    private static final String EMAIL = "budget@medihelp360.com";
+    private static final String PASSWORD = "Budget123!";
+
+    @Autowired
+    private AuthenticationService authenticationService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private UserSessionRepository userSessionRepository;
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        Role doctor = roleRepository.findByName("DOCTOR")
+                .orElseGet(() -> roleRepository.save(new Role(null, "DOCTOR", "Doctor")));
+        Role user = roleRepository.findByName("USER")
+                .orElseGet(() -> roleRepository.save(new Role(null, "USER", "User")));
+        userRepository.save(User.builder()
+                .email(EMAIL)
+                .name("Budget User")
+                .passwordHash(passwordHashingService.encode(PASSWORD))
+                .status(UserStatus.ACTIVE)
+                .roles(Set.of(doctor, user))
+                .build());
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        userSessionRepository.deleteAll();
+        userRepository.findByEmail(EMAIL).ifPresent(userRepository::delete);
+    }
+
+    @Test
+    void successfulLoginStaysWithinStatementBudget() {
+        LoginResponse response = authenticationService.login(loginRequest());
+
+        assertThat(response.getUser().getRoles()).containsExactlyInAnyOrder("DOCTOR", "USER");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(STATEMENTS_PER_LOGIN);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void statementBudgetHoldsUnderRepeatedLogins() {
+        long start = System.nanoTime();
+        for (int i = 0; i < REPEATED_LOGINS; i++) {
+            authenticationService.login(loginRequest());
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        String throughput = String.format("Login throughput on H2: %.1f logins/s (%d logins, %.1f statements/login)",
+                REPEATED_LOGINS / seconds, REPEATED_LOGINS,
+                (double) statistics.getPrepareStatementCount() / REPEATED_LOGINS);
+        log.info(throughput);
+        assertThat(statistics.getPrepareStatementCount()).as(throughput)
+                .isEqualTo(STATEMENTS_PER_LOGIN * REPEATED_LOGINS);
+    }
+
+    private static LoginRequest loginRequest() {
+        return LoginRequest.builder()
+                .email(EMAIL)
+                .password(PASSWORD)
+                .ipAddress("10.0.0.1")
+                .deviceInfo("LoginStatementBudgetTest")
+                .build();
+    }
+}
@@ -0,0 +1,86 @@
+package com.medihelp360.user.service;
+
+import com.medihelp360.user.dto.CreateUserRequest;
+import com.medihelp360.user.dto.KeysetPage;
+import com.medihelp360.user.dto.UpdateUserRequest;
+import com.medihelp360.user.dto.UserResponse;
+import com.medihelp360.user.dto.UserSummary;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * {@code /users/search/ranked} en H2 con el índice en memoria: los usuarios creados o cambiados por el
+ * servicio se encuentran al confirmarse la transacción, ordenados por relevancia y paginados por cursor.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class RankedUserSearchTest {
+
+    private static final String DOMAIN = "@ranked.medihelp360.com";
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        String created = "SELECT id FROM users WHERE email LIKE '%" + DOMAIN + "'";
+        jdbcTemplate.update("DELETE FROM outbox_events WHERE aggregate_id IN (" + created + ")");
+        jdbcTemplate.update("DELETE FROM users WHERE email LIKE '%" + DOMAIN + "'");
+    }
+
+    @Test
+    void rankedSearchOrdersByRelevanceAcrossPages() {
+        create("Quillon", "q1");
+        create("Ana Quillonez Ruiz", "q2");
+        create("Pedro Alonso", "pedro.quillon");
+        create("Quillonero del Valle Fernández", "q4");
+        create("Pedro Quilo", "q5");
+
+        List<String> names = new ArrayList<>();
+        String cursor = null;
+        do {
+            KeysetPage<UserSummary> page = userService.searchUsersRanked(" QUILLON ", cursor, 2);
+            page.getContent().forEach(user -> names.add(user.name()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        // El nombre exacto primero; cuanto más texto sobra alrededor, más abajo (el email largo, el último)
+        assertThat(names).containsExactly(
+                "Quillon", "Ana Quillonez Ruiz", "Quillonero del Valle Fernández", "Pedro Alonso");
+    }
+
+    @Test
+    void updatedNamesAreSearchableAfterCommit() {
+        UserResponse user = create("Zebulon Prieto", "zebulon");
+
+        userService.updateUser(user.getId(), UpdateUserRequest.builder().name("Xanthe Prieto").build());
+
+        assertThat(userService.searchUsersRanked("xanthe", null, 20).getContent())
+                .extracting(UserSummary::id).containsExactly(user.getId());
+        assertThat(userService.searchUsersRanked("zebulon p", null, 20).getContent()).isEmpty();
+        assertThatThrownBy(() -> userService.searchUsersRanked("xanthe", "bad-cursor", 20))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid search cursor");
+    }
+
+    private UserResponse create(String name, String localPart) {
+        CreateUserRequest request = new CreateUserRequest();
+        request.setName(name);
+        request.setEmail(localPart + DOMAIN);
+        request.setPassword("Password123!");
+        return userService.createUser(request);
+    }
+}
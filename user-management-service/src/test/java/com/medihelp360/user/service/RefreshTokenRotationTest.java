@@ -0,0 +1,123 @@
+package com.medihelp360.user.service;
+
+import com.medihelp360.user.domain.Role;
+import com.medihelp360.user.domain.User;
+import com.medihelp360.user.domain.UserStatus;
+import com.medihelp360.user.dto.LoginRequest;
+import com.medihelp360.user.dto.LoginResponse;
+import com.medihelp360.user.exception.AuthenticationException;
+import com.medihelp360.user.repository.RoleRepository;
+import com.medihelp360.user.repository.UserRepository;
+import com.medihelp360.user.repository.UserSessionRepository;
+import com.medihelp360.user.security.PasswordHashingService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class RefreshTokenRotationTest {
+
+    private static final String EMAIL = "refresh@medihelp360.com";
+    private static final String PASSWORD = "Refresh123!";
+
+    @Autowired
+    private AuthenticationService authenticationService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private UserSessionRepository userSessionRepository;
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        Role role = roleRepository.findByName("USER")
+                .orElseGet(() -> roleRepository.save(new Role(null, "USER", "User")));
+        userRepository.save(User.builder()
+                .email(EMAIL)
+                .name("Refresh User")
+                .passwordHash(passwordHashingService.encode(PASSWORD))
+                .status(UserStatus.ACTIVE)
+                .roles(Set.of(role))
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        userSessionRepository.deleteAll();
+        userRepository.findByEmail(EMAIL).ifPresent(userRepository::delete);
+    }
+
+    @Test
+    void rotatesTokensWithinTheSameSessionWithoutHashingPasswords() {
+        LoginResponse login = login();
+        long hashesBefore = passwordHashCount();
+
+        LoginResponse refreshed = authenticationService.refresh(login.getRefreshToken(), "10.0.0.1", "JUnit");
+
+        assertThat(passwordHashCount()).isEqualTo(hashesBefore);
+        assertThat(refreshed.getRefreshToken()).isNotEqualTo(login.getRefreshToken());
+        assertThat(refreshed.getUser().getRoles()).containsExactly("USER");
+        assertThat(userSessionRepository.count()).isEqualTo(1);
+        assertThat(authenticationService.validateToken(login.getAccessToken())).isFalse();
+        assertThat(authenticationService.validateToken(refreshed.getAccessToken())).isTrue();
+    }
+
+    @Test
+    void reusingARotatedRefreshTokenRevokesTheWholeFamily() {
+        LoginResponse login = login();
+        LoginResponse refreshed = authenticationService.refresh(login.getRefreshToken(), "10.0.0.1", "JUnit");
+
+        assertThatThrownBy(() -> authenticationService.refresh(login.getRefreshToken(), "10.6.6.6", "Attacker"))
+                .isInstanceOf(AuthenticationException.class)
+                .extracting("errorCode").isEqualTo(AuthenticationException.REFRESH_TOKEN_REUSED);
+
+        assertThat(userSessionRepository.count()).isZero();
+        assertThatThrownBy(() -> authenticationService.refresh(refreshed.getRefreshToken(), "10.0.0.1", "JUnit"))
+                .isInstanceOf(AuthenticationException.class);
+    }
+
+    @Test
+    void rejectsAccessTokensOnTheRefreshEndpoint() {
+        LoginResponse login = login();
+
+        assertThatThrownBy(() -> authenticationService.refresh(login.getAccessToken(), "10.0.0.1", "JUnit"))
+                .isInstanceOf(AuthenticationException.class)
+                .extracting("errorCode").isEqualTo(AuthenticationException.INVALID_REFRESH_TOKEN);
+        assertThat(userSessionRepository.count()).isEqualTo(1);
+    }
+
+    private LoginResponse login() {
+        return authenticationService.login(LoginRequest.builder()
+                .email(EMAIL)
+                .password(PASSWORD)
+                .ipAddress("10.0.0.1")
+                .deviceInfo("JUnit")
+                .build());
+    }
+
+    private long passwordHashCount() {
+        return meterRegistry.get("auth.password.hashing").timers().stream()
+                .mapToLong(timer -> timer.count())
+                .sum();
+    }
+}
@@ -0,0 +1,107 @@
+package com.medihelp360.user.service;
+
+import com.medihelp360.user.domain.User;
+import com.medihelp360.user.domain.UserStatus;
+import com.medihelp360.user.dto.LoginRequest;
+import com.medihelp360.user.dto.LoginResponse;
+import com.medihelp360.user.repository.UserRepository;
+import com.medihelp360.user.repository.UserSessionRepository;
+import com.medihelp360.user.security.PasswordHashingService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compara el CPU de proceso de un cliente que renueva su sesión cada 30 minutos con login
+ * (BCrypt) frente a hacerlo con /auth/refresh. Usa el coste BCrypt de producción.
+ * <p>
+ * Se ejecuta con {@code mvn test -Dtest=RefreshVsLoginCpuLoadTest -Dloadtest=true}.
+ */
+@SpringBootTest(properties = {
+        "app.security.password.bcrypt.calibrate=false",
+        "app.security.password.bcrypt.strength=10"
+})
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class RefreshVsLoginCpuLoadTest {
+
+    private static final int CLIENTS = 200;
+    private static final String PASSWORD = "LoadTest123!";
+
+    @Autowired
+    private AuthenticationService authenticationService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserSessionRepository userSessionRepository;
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    @Test
+    void refreshUsesAFractionOfTheCpuOfLogin() {
+        String passwordHash = passwordHashingService.encode(PASSWORD);
+        List<String> emails = new ArrayList<>();
+        for (int i = 0; i < CLIENTS; i++) {
+            String email = "load" + i + "@medihelp360.com";
+            userRepository.save(User.builder()
+                    .email(email)
+                    .name("Load " + i)
+                    .passwordHash(passwordHash)
+                    .status(UserStatus.ACTIVE)
+                    .build());
+            emails.add(email);
+        }
+
+        // Primera ventana de 30 minutos: todos los clientes hacen login
+        List<String> refreshTokens = new ArrayList<>();
+        for (String email : emails) {
+            refreshTokens.add(login(email).getRefreshToken());
+        }
+
+        // Segunda ventana, modo actual: login otra vez
+        long loginCpu = processCpuNanos();
+        for (String email : emails) {
+            login(email);
+        }
+        loginCpu = processCpuNanos() - loginCpu;
+
+        // Segunda ventana, con rotación: refresh
+        long refreshCpu = processCpuNanos();
+        for (String refreshToken : refreshTokens) {
+            authenticationService.refresh(refreshToken, "10.0.0.1", "LoadTest");
+        }
+        refreshCpu = processCpuNanos() - refreshCpu;
+
+        System.out.printf("CPU per client renewal: login %.2f ms, refresh %.2f ms (%.1fx)%n",
+                loginCpu / 1e6 / CLIENTS, refreshCpu / 1e6 / CLIENTS, (double) loginCpu / Math.max(1, refreshCpu));
+        assertThat(refreshCpu).isLessThan(loginCpu / 5);
+
+        userSessionRepository.deleteAll();
+        emails.forEach(email -> userRepository.findByEmail(email).ifPresent(userRepository::delete));
+    }
+
+    private LoginResponse login(String email) {
+        return authenticationService.login(LoginRequest.builder()
+                .email(email)
+                .password(PASSWORD)
+                .ipAddress("10.0.0.1")
+                .deviceInfo("LoadTest")
+                .build());
+    }
+
+    private static long processCpuNanos() {
+        return ((com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean())
+                .getProcessCpuTime();
+    }
+}
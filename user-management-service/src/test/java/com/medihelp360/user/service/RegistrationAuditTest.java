@@ -0,0 +1,114 @@
+package com.medihelp360.user.service;
+
+import com.medihelp360.user.audit.AccessLogEntry;
+import com.medihelp360.user.audit.AccessLogWriter;
+import com.medihelp360.user.domain.Role;
+import com.medihelp360.user.dto.RegisterRequest;
+import com.medihelp360.user.dto.RegisterResponse;
+import com.medihelp360.user.repository.RoleRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * La auditoría del registro referencia al usuario recién insertado: solo se encola tras el commit, así que el
+ * flusher nunca la escribe antes de que exista la fila del usuario ni después de un rollback.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class RegistrationAuditTest {
+
+    private static final String DOMAIN = "@registration-audit.medihelp360.com";
+
+    @Autowired
+    private AuthenticationService authenticationService;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @SpyBean
+    private AccessLogWriter accessLogWriter;
+
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        roleRepository.findByName("USER").orElseGet(() -> roleRepository.save(new Role(null, "USER", "User")));
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (auditPending() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        String created = "SELECT id FROM users WHERE email LIKE '%" + DOMAIN + "'";
+        jdbcTemplate.update("DELETE FROM access_logs WHERE user_id IN (" + created + ")");
+        jdbcTemplate.update("DELETE FROM user_roles WHERE user_id IN (" + created + ")");
+        jdbcTemplate.update("DELETE FROM users WHERE email LIKE '%" + DOMAIN + "'");
+    }
+
+    @Test
+    void registrationAuditIsQueuedOnlyAfterCommit() {
+        RegisterResponse registered = transactionTemplate.execute(status -> {
+            RegisterResponse response = authenticationService.register(request("committed"));
+            verify(accessLogWriter, never()).enqueue(any());
+            return response;
+        });
+
+        UUID userId = UUID.fromString(registered.getId());
+        verify(accessLogWriter).enqueue(argThat((AccessLogEntry entry) ->
+                "USER_REGISTRATION".equals(entry.action()) && userId.equals(entry.userId())));
+    }
+
+    @Test
+    void rolledBackRegistrationIsNotAudited() {
+        transactionTemplate.executeWithoutResult(status -> {
+            authenticationService.register(request("rolled-back"));
+            status.setRollbackOnly();
+        });
+
+        verify(accessLogWriter, never()).enqueue(argThat((AccessLogEntry entry) ->
+                "USER_REGISTRATION".equals(entry.action())));
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users WHERE email = ?", Long.class,
+                "rolled-back" + DOMAIN)).isZero();
+    }
+
+    private boolean auditPending() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users u WHERE u.email LIKE '%" + DOMAIN + "' "
+                + "AND NOT EXISTS (SELECT 1 FROM access_logs a WHERE a.user_id = u.id)", Long.class) > 0;
+    }
+
+    private static RegisterRequest request(String localPart) {
+        return RegisterRequest.builder()
+                .email(localPart + DOMAIN)
+                .name("Registration Audit")
+                .password("Password123!")
+                .confirmPassword("Password123!")
+                .ipAddress("10.0.0.1")
+                .deviceInfo("RegistrationAuditTest")
+                .build();
+    }
+}
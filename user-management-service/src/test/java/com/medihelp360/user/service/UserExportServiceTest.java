@@ -0,0 +1,148 @@
+package com.medihelp360.user.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medihelp360.user.domain.Role;
+import com.medihelp360.user.domain.UserStatus;
+import com.medihelp360.user.repository.RoleRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * La exportación lee todos los usuarios y sus roles con una sola consulta y el contexto de
+ * persistencia no crece con el número de filas: cada usuario se suelta tras escribirlo.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+class UserExportServiceTest {
+
+    private static final int USERS = 5_000;
+    private static final String DOMAIN = "@export.medihelp360.com";
+    private static final String EXPORT_ROLE = "EXPORT_TEST";
+
+    @Autowired
+    private UserExportService userExportService;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        Role exportRole = roleRepository.findByName(EXPORT_ROLE)
+                .orElseGet(() -> roleRepository.save(new Role(null, EXPORT_ROLE, "Export test")));
+        Role user = roleRepository.findByName("USER")
+                .orElseGet(() -> roleRepository.save(new Role(null, "USER", "User")));
+
+        List<UUID> ids = IntStream.range(0, USERS).mapToObj(i -> UUID.randomUUID()).toList();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate("INSERT INTO users (id, email, name, password_hash, status, created_at, updated_at, "
+                        + "failed_attempts, account_locked) VALUES (?, ?, ?, '{noop}x', ?, ?, ?, 0, false)",
+                IntStream.range(0, USERS).boxed().toList(), 500, (statement, i) -> {
+                    statement.setObject(1, ids.get(i));
+                    statement.setString(2, "user" + i + DOMAIN);
+                    statement.setString(3, "Export User " + i);
+                    statement.setString(4, (i % 10 == 0 ? UserStatus.DISABLED : UserStatus.ACTIVE).name());
+                    statement.setTimestamp(5, now);
+                    statement.setTimestamp(6, now);
+                });
+        List<Object[]> userRoles = new ArrayList<>();
+        for (UUID id : ids) {
+            userRoles.add(new Object[]{id, exportRole.getId()});
+            userRoles.add(new Object[]{id, user.getId()});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO user_roles (user_id, role_id) VALUES (?, ?)", userRoles);
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM user_roles WHERE user_id IN (SELECT id FROM users WHERE email LIKE ?)",
+                "%" + DOMAIN);
+        jdbcTemplate.update("DELETE FROM users WHERE email LIKE ?", "%" + DOMAIN);
+    }
+
+    @Test
+    void exportStreamsEveryUserWithAFlatPersistenceContext() throws Exception {
+        PersistenceContextProbe output = new PersistenceContextProbe();
+
+        long exported = userExportService.exportUsers(null, EXPORT_ROLE.toLowerCase(), output);
+
+        List<String> lines = output.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(exported).isEqualTo(USERS);
+        assertThat(lines).hasSize(USERS);
+        JsonNode first = objectMapper.readTree(lines.get(0));
+        assertThat(first.get("email").asText()).endsWith(DOMAIN);
+        assertThat(first.get("roles")).extracting(JsonNode::asText).containsExactlyInAnyOrder(EXPORT_ROLE, "USER");
+        assertThat(first.has("passwordHash")).isFalse();
+
+        // Una sola consulta (usuarios + roles) y, como mucho, los roles compartidos en memoria
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(output.samples).isGreaterThan(10);
+        assertThat(output.maxManagedEntities).isLessThanOrEqualTo(5);
+    }
+
+    @Test
+    void exportFiltersByStatus() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        long exported = userExportService.exportUsers(UserStatus.DISABLED, EXPORT_ROLE, output);
+
+        assertThat(exported).isEqualTo(USERS / 10);
+        assertThat(output.toString(StandardCharsets.UTF_8).lines())
+                .allSatisfy(line -> assertThat(line).contains("\"status\":\"DISABLED\""));
+    }
+
+    /**
+     * Anota cuántas entidades tiene el contexto de persistencia cada vez que llega un bloque de salida.
+     */
+    private final class PersistenceContextProbe extends ByteArrayOutputStream {
+
+        private int samples;
+        private int maxManagedEntities;
+
+        @Override
+        public synchronized void write(byte[] bytes, int offset, int length) {
+            samples++;
+            maxManagedEntities = Math.max(maxManagedEntities,
+                    entityManager.unwrap(Session.class).getStatistics().getEntityCount());
+            super.write(bytes, offset, length);
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.medihelp360.user.service;
+
+import com.medihelp360.user.cache.RoleCatalog;
+import com.medihelp360.user.domain.Role;
+import com.medihelp360.user.domain.User;
+import com.medihelp360.user.domain.UserStatus;
+import com.medihelp360.user.dto.UserImportReport;
+import com.medihelp360.user.repository.RoleRepository;
+import com.medihelp360.user.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Importación masiva contra H2: informe de errores con CSV y rendimiento con 100k filas NDJSON
+ * generadas sobre la marcha (el cuerpo nunca está entero en memoria).
+ * <p>
+ * El coste lo marca BCrypt (unos 2 ms por hash con strength 4 en un núcleo), así que la prueba de
+ * 100k filas se ejecuta aparte con {@code mvn test -Dtest=UserImportServiceTest -Dloadtest=true}
+ * y el mínimo exigido escala con el número de CPUs.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class UserImportServiceTest {
+
+    private static final String DOMAIN = "@import.medihelp360.com";
+    private static final int BULK_ROWS = 100_000;
+    private static final long MIN_ROWS_PER_SECOND_PER_CPU = 300;
+
+    @Autowired
+    private UserImportService userImportService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private RoleCatalog roleCatalog;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        roleRepository.findByName("DOCTOR").orElseGet(() -> roleRepository.save(new Role(null, "DOCTOR", "Doctor")));
+        roleRepository.findByName("NURSE").orElseGet(() -> roleRepository.save(new Role(null, "NURSE", "Nurse")));
+    }
+
+    @AfterEach
+    void tearDown() {
+        String imported = "SELECT id FROM users WHERE email LIKE '%" + DOMAIN + "'";
+        jdbcTemplate.update("DELETE FROM outbox_events WHERE aggregate_id IN (" + imported + ")");
+        jdbcTemplate.update("DELETE FROM user_roles WHERE user_id IN (" + imported + ")");
+        jdbcTemplate.update("DELETE FROM users WHERE email LIKE '%" + DOMAIN + "'");
+        jdbcTemplate.update("DELETE FROM roles WHERE name = 'Pharmacist'");
+        roleCatalog.reload("test");
+    }
+
+    @Test
+    void csvImportReportsDuplicatesAndInvalidRows() throws Exception {
+        userRepository.save(User.builder()
+                .email("existing" + DOMAIN)
+                .name("Existing User")
+                .passwordHash("{noop}x")
+                .status(UserStatus.ACTIVE)
+                .build());
+        String csv = String.join("\n",
+                "name,email,roles,password",
+                "\"García, Ana\",ana" + DOMAIN + ",doctor|nurse,Password123!",
+                "Luis Pérez,luis" + DOMAIN + ",,Password123!",
+                "",
+                "Existing,existing" + DOMAIN + ",,Password123!",
+                "Ana again,ana" + DOMAIN + ",,Password123!",
+                "Bad Email,not-an-email,,Password123!",
+                "Short Password,short" + DOMAIN + ",,short",
+                "Unknown Role,role" + DOMAIN + ",SURGEON,Password123!",
+                "Truncated");
+
+        UserImportReport report = userImportService.importUsers(MediaType.parseMediaType("text/csv"), body(csv));
+
+        assertThat(report.getRows()).isEqualTo(8);
+        assertThat(report.getImported()).isEqualTo(2);
+        assertThat(report.getDuplicates()).isEqualTo(2);
+        assertThat(report.getInvalid()).isEqualTo(4);
+        assertThat(report.getFailed()).isZero();
+        assertThat(report.getErrors())
+                .extracting(UserImportReport.RowError::getLine, UserImportReport.RowError::getReason)
+                .containsExactlyInAnyOrder(
+                        tuple(5L, "Email already exists"),
+                        tuple(6L, "Email repeated in import"),
+                        tuple(7L, "Email should be valid"),
+                        tuple(8L, "Password must be at least 8 characters"),
+                        tuple(9L, "Unknown role: SURGEON"),
+                        tuple(10L, "Malformed CSV line"));
+
+        User ana = userRepository.findByEmail("ana" + DOMAIN).orElseThrow();
+        assertThat(ana.getName()).isEqualTo("García, Ana");
+        assertThat(ana.getPasswordHash()).startsWith("{bcrypt}");
+        assertThat(ana.getRoles()).extracting(Role::getName).containsExactlyInAnyOrder("DOCTOR", "NURSE");
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM outbox_events WHERE event_type = 'UserCreatedEvent' AND aggregate_id IN "
+                        + "(SELECT id FROM users WHERE email LIKE '%" + DOMAIN + "')", Long.class))
+                .isEqualTo(2);
+    }
+
+    @Test
+    void roleNamesMatchWhateverTheirCase() throws Exception {
+        // Un rol guardado sin pasar por RoleService, que los normaliza a mayúsculas
+        roleRepository.save(new Role(null, "Pharmacist", "Pharmacist"));
+        roleCatalog.reload("test");
+        String ndjson = String.join("\n",
+                "{\"email\":\"eva" + DOMAIN + "\",\"name\":\"Eva\",\"password\":\"Password123!\","
+                        + "\"roles\":[\"doctor\",\"pharmacist\"]}",
+                "{\"email\":\"raul" + DOMAIN + "\",\"name\":\"Raúl\",\"password\":\"Password123!\","
+                        + "\"roles\":[\"Nurse\",\"PHARMACIST\"]}");
+
+        UserImportReport report = userImportService.importUsers(MediaType.APPLICATION_NDJSON, body(ndjson));
+
+        assertThat(report.getErrors()).isEmpty();
+        assertThat(report.getImported()).isEqualTo(2);
+        assertThat(userRepository.findByEmail("eva" + DOMAIN).orElseThrow().getRoles()).extracting(Role::getName)
+                .containsExactlyInAnyOrder("DOCTOR", "Pharmacist");
+        assertThat(userRepository.findByEmail("raul" + DOMAIN).orElseThrow().getRoles()).extracting(Role::getName)
+                .containsExactlyInAnyOrder("NURSE", "Pharmacist");
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "loadtest", matches = "true")
+    void importsOneHundredThousandNdjsonRows() throws Exception {
+        UserImportReport report = userImportService.importUsers(MediaType.APPLICATION_NDJSON, new NdjsonRows(BULK_ROWS));
+
+        System.out.printf("User import on H2: %d rows in %d ms (%d rows/s, %d chunks)%n",
+                report.getRows(), report.getDurationMs(), report.getRowsPerSecond(), report.getChunks());
+        assertThat(report.getImported()).isEqualTo(BULK_ROWS);
+        assertThat(report.getErrors()).isEmpty();
+        assertThat(userRepository.findExistingEmails(List.of("user0" + DOMAIN, "user" + (BULK_ROWS - 1) + DOMAIN)))
+                .hasSize(2);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM user_roles ur JOIN users u ON u.id = ur.user_id WHERE u.email LIKE '%" + DOMAIN + "'",
+                Long.class)).isEqualTo(BULK_ROWS);
+        assertThat(report.getRowsPerSecond())
+                .isGreaterThanOrEqualTo(MIN_ROWS_PER_SECOND_PER_CPU * Runtime.getRuntime().availableProcessors());
+    }
+
+    private static InputStream body(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Cuerpo NDJSON que genera cada línea cuando se lee.
+     */
+    private static final class NdjsonRows extends InputStream {
+
+        private final int rows;
+        private int next;
+        private byte[] line = new byte[0];
+        private int position;
+
+        NdjsonRows(int rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public int read() {
+            if (position == line.length) {
+                if (next == rows) {
+                    return -1;
+                }
+                line = ("{\"email\":\"user" + next + DOMAIN + "\",\"name\":\"Imported User " + next
+                        + "\",\"password\":\"Password" + next + "!\",\"roles\":[\"" + (next % 2 == 0 ? "DOCTOR" : "NURSE")
+                        + "\"]}\n").getBytes(StandardCharsets.UTF_8);
+                position = 0;
+                next++;
+            }
+            return line[position++] & 0xFF;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.medihelp360.user.service;
+
+import com.medihelp360.user.domain.Role;
+import com.medihelp360.user.domain.User;
+import com.medihelp360.user.domain.UserStatus;
+import com.medihelp360.user.dto.KeysetPage;
+import com.medihelp360.user.dto.UserSummary;
+import com.medihelp360.user.repository.RoleRepository;
+import com.medihelp360.user.repository.UserRepository;
+import com.medihelp360.user.search.InMemoryUserSearchIndex;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Presupuesto de sentencias SQL de los listados de usuarios, también los de cursor: la proyección de la página,
+ * el COUNT si se pide y una consulta para los roles de toda la página. Con roles EAGER en la entidad eran una consulta más por usuario;
+ * si un cambio vuelve a hacer depender el número de sentencias del tamaño de página, este test falla.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+class UserListingStatementBudgetTest {
+
+    private static final long STATEMENTS_PER_PAGE = 3;
+    private static final long STATEMENTS_PER_LIST = 2;
+    private static final int USERS = 40;
+    private static final String DOMAIN = "@listing.medihelp360.com";
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private InMemoryUserSearchIndex userSearchIndex;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private List<User> saved;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        Role doctor = roleRepository.findByName("DOCTOR")
+                .orElseGet(() -> roleRepository.save(new Role(null, "DOCTOR", "Doctor")));
+        Role user = roleRepository.findByName("USER")
+                .orElseGet(() -> roleRepository.save(new Role(null, "USER", "User")));
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            users.add(User.builder()
+                    .email(String.format("user%02d%s", i, DOMAIN))
+                    .name("Listing User " + i)
+                    .passwordHash("not-a-real-hash")
+                    .status(i % 4 == 0 ? UserStatus.INACTIVE : UserStatus.ACTIVE)
+                    .roles(i % 2 == 0 ? Set.of(user) : Set.of(doctor, user))
+                    .build());
+        }
+        saved = userRepository.saveAll(users);
+        // Guardados sin pasar por UserService: el índice de búsqueda no recibe sus eventos
+        saved.forEach(created -> userSearchIndex.put(created.getId(), created.getName(), created.getEmail()));
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        saved.forEach(created -> userSearchIndex.remove(created.getId()));
+        String created = "SELECT id FROM users WHERE email LIKE '%" + DOMAIN + "'";
+        jdbcTemplate.update("DELETE FROM user_roles WHERE user_id IN (" + created + ")");
+        jdbcTemplate.update("DELETE FROM users WHERE email LIKE '%" + DOMAIN + "'");
+    }
+
+    @Test
+    void pageStatementsDoNotDependOnPageSize() {
+        for (int size : new int[]{5, 35}) {
+            statistics.clear();
+
+            Page<UserSummary> page = userService.getAllUsers(PageRequest.of(0, size, Sort.by("email")));
+
+            assertThat(statistics.getPrepareStatementCount()).as("statements for page size %d", size)
+                    .isEqualTo(STATEMENTS_PER_PAGE);
+            assertThat(statistics.getEntityLoadCount()).isZero();
+            assertThat(page.getContent()).hasSize(size);
+            assertThat(page.getTotalElements()).isGreaterThanOrEqualTo(USERS);
+            page.getContent().forEach(this::assertRolesMatchDatabase);
+        }
+    }
+
+    @Test
+    void statusAndRoleListsResolveRolesInOneStatement() {
+        List<UserSummary> inactive = userService.getUsersByStatus(UserStatus.INACTIVE);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(STATEMENTS_PER_LIST);
+        assertThat(inactive).filteredOn(summary -> summary.email().endsWith(DOMAIN)).hasSize(USERS / 4)
+                .allSatisfy(summary -> assertThat(summary.status()).isEqualTo(UserStatus.INACTIVE));
+
+        statistics.clear();
+        List<UserSummary> doctors = userService.getUsersByRole("doctor");
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(STATEMENTS_PER_LIST);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        // Filtrar por un rol no recorta los demás roles del usuario
+        assertThat(doctors).filteredOn(summary -> summary.email().endsWith(DOMAIN)).hasSize(USERS / 2)
+                .allSatisfy(summary -> assertThat(summary.roles()).extracting(UserSummary.RoleSummary::name)
+                        .containsExactlyInAnyOrder("DOCTOR", "USER"));
+    }
+
+    @Test
+    void keysetPagesResolveRolesInOneStatement() {
+        KeysetPage<UserSummary> first = userService.searchUsersAfter(null, DOMAIN, null, 15, false);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(STATEMENTS_PER_LIST);
+        assertThat(first.getContent()).hasSize(15);
+
+        for (int size : new int[]{5, 20}) {
+            statistics.clear();
+
+            KeysetPage<UserSummary> next = userService.searchUsersAfter(null, DOMAIN, first.getNextCursor(), size, false);
+            KeysetPage<UserSummary> listed = userService.getUsersAfter(first.getNextCursor(), size, false);
+
+            assertThat(statistics.getPrepareStatementCount()).as("statements for page size %d", size)
+                    .isEqualTo(2 * STATEMENTS_PER_LIST);
+            assertThat(statistics.getEntityLoadCount()).isZero();
+            assertThat(next.getContent()).hasSize(size);
+            assertThat(listed.getContent()).isNotEmpty();
+            next.getContent().forEach(this::assertRolesMatchDatabase);
+            listed.getContent().forEach(this::assertRolesMatchDatabase);
+        }
+    }
+
+    @Test
+    void rankedSearchPagesResolveRolesInOneStatement() {
+        for (int size : new int[]{5, 30}) {
+            statistics.clear();
+
+            KeysetPage<UserSummary> page = userService.searchUsersRanked("listing user", null, size);
+
+            assertThat(statistics.getPrepareStatementCount()).as("statements for page size %d", size)
+                    .isEqualTo(STATEMENTS_PER_LIST);
+            assertThat(statistics.getEntityLoadCount()).isZero();
+            assertThat(page.getContent()).hasSize(size);
+            page.getContent().forEach(this::assertRolesMatchDatabase);
+        }
+    }
+
+    private void assertRolesMatchDatabase(UserSummary summary) {
+        List<String> expected = jdbcTemplate.queryForList("SELECT r.name FROM user_roles ur "
+                + "JOIN roles r ON r.id = ur.role_id WHERE ur.user_id = ?", String.class, summary.id());
+        assertThat(summary.roles()).extracting(UserSummary.RoleSummary::name)
+                .containsExactlyInAnyOrderElementsOf(expected);
+    }
+}
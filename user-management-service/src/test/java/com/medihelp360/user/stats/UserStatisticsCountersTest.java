@@ -0,0 +1,146 @@
+package com.medihelp360.user.stats;
+
+import com.medihelp360.user.domain.Role;
+import com.medihelp360.user.domain.UserStatus;
+import com.medihelp360.user.dto.CreateUserRequest;
+import com.medihelp360.user.dto.UpdateUserRequest;
+import com.medihelp360.user.dto.UserResponse;
+import com.medihelp360.user.repository.RoleRepository;
+import com.medihelp360.user.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Los contadores que mantienen los eventos coinciden con los que calcula la reconciliación, y la
+ * reconciliación corrige los cambios que no pasaron por el servicio.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class UserStatisticsCountersTest {
+
+    private static final String DOMAIN = "@stats.medihelp360.com";
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserStatisticsCounters counters;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        roleRepository.findByName("DOCTOR").orElseGet(() -> roleRepository.save(new Role(null, "DOCTOR", "Doctor")));
+        roleRepository.findByName("NURSE").orElseGet(() -> roleRepository.save(new Role(null, "NURSE", "Nurse")));
+        counters.reconcile();
+    }
+
+    @AfterEach
+    void tearDown() {
+        String created = "SELECT id FROM users WHERE email LIKE '%" + DOMAIN + "'";
+        jdbcTemplate.update("DELETE FROM outbox_events WHERE aggregate_id IN (" + created + ")");
+        jdbcTemplate.update("DELETE FROM user_roles WHERE user_id IN (" + created + ")");
+        jdbcTemplate.update("DELETE FROM users WHERE email LIKE '%" + DOMAIN + "'");
+        counters.reconcile();
+    }
+
+    @Test
+    void serviceChangesKeepCountersInStepWithTheDatabase() {
+        Map<String, Object> before = counters.snapshot();
+
+        UserResponse ana = create("ana", "DOCTOR");
+        UserResponse luis = create("luis", "DOCTOR");
+        create("eva", "NURSE");
+        userService.updateUser(ana.getId(), UpdateUserRequest.builder().roles(Set.of(role("NURSE"))).build());
+        userService.updateUserStatus(luis.getId(), UserStatus.INACTIVE);
+        userService.disableUser(ana.getId());
+
+        Map<String, Object> after = userService.getUserStatistics();
+        assertThat(after).isSameAs(counters.snapshot());
+        assertThat(delta(before, after, "totalUsers")).isEqualTo(3);
+        assertThat(delta(before, after, "activeUsers")).isEqualTo(1);
+        assertThat(delta(before, after, "inactiveUsers")).isEqualTo(1);
+        assertThat(delta(before, after, "disabledUsers")).isEqualTo(1);
+        assertThat(roleDelta(before, after, "DOCTOR")).isEqualTo(1);
+        assertThat(roleDelta(before, after, "NURSE")).isEqualTo(2);
+        assertThat(signups(after).get(LocalDate.now().toString()) - signups(before).getOrDefault(LocalDate.now().toString(), 0L))
+                .isEqualTo(3);
+
+        // Lo mantenido por eventos es lo mismo que da la consulta agregada
+        double drift = meterRegistry.counter("users.stats.reconcile.drift").count();
+        counters.reconcile();
+        assertThat(meterRegistry.counter("users.stats.reconcile.drift").count()).isEqualTo(drift);
+        assertThat(withoutReconciledAt(counters.snapshot())).isEqualTo(withoutReconciledAt(after));
+    }
+
+    @Test
+    void reconciliationPicksUpChangesMadeOutsideTheService() {
+        long total = (Long) counters.snapshot().get("totalUsers");
+        jdbcTemplate.update("INSERT INTO users (id, email, name, password_hash, status, created_at, updated_at, "
+                        + "failed_attempts, account_locked) VALUES (?, ?, 'Direct Insert', '{noop}x', 'ACTIVE', ?, ?, 0, false)",
+                UUID.randomUUID(), "direct" + DOMAIN, Timestamp.valueOf(LocalDateTime.now()),
+                Timestamp.valueOf(LocalDateTime.now()));
+
+        assertThat(counters.snapshot().get("totalUsers")).isEqualTo(total);
+        counters.reconcile();
+        assertThat(counters.snapshot().get("totalUsers")).isEqualTo(total + 1);
+        assertThat(counters.snapshot()).containsKey("reconciledAt");
+    }
+
+    private UserResponse create(String localPart, String roleName) {
+        CreateUserRequest request = new CreateUserRequest();
+        request.setName("Stats " + localPart);
+        request.setEmail(localPart + DOMAIN);
+        request.setPassword("Password123!");
+        request.setRoles(Set.of(role(roleName)));
+        return userService.createUser(request);
+    }
+
+    private static Role role(String name) {
+        return new Role(null, name, null);
+    }
+
+    private static long delta(Map<String, Object> before, Map<String, Object> after, String key) {
+        return (Long) after.get(key) - (Long) before.get(key);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static long roleDelta(Map<String, Object> before, Map<String, Object> after, String role) {
+        return ((Map<String, Long>) after.get("usersByRole")).getOrDefault(role, 0L)
+                - ((Map<String, Long>) before.get("usersByRole")).getOrDefault(role, 0L);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Long> signups(Map<String, Object> stats) {
+        return (Map<String, Long>) stats.get("signupsByDay");
+    }
+
+    private static Map<String, Object> withoutReconciledAt(Map<String, Object> stats) {
+        Map<String, Object> copy = new HashMap<>(stats);
+        copy.remove("reconciledAt");
+        return copy;
+    }
+}